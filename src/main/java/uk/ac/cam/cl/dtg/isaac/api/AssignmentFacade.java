@@ -49,8 +49,12 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.time.Clock;
 import java.time.Instant;
@@ -67,6 +71,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -77,7 +82,7 @@ import uk.ac.cam.cl.dtg.isaac.api.exceptions.DuplicateAssignmentException;
 import uk.ac.cam.cl.dtg.isaac.api.managers.AssignmentManager;
 import uk.ac.cam.cl.dtg.isaac.api.managers.GameManager;
 import uk.ac.cam.cl.dtg.isaac.api.services.AssignmentService;
-import uk.ac.cam.cl.dtg.isaac.dos.LightweightQuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionAttemptIndex;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dto.AssignmentDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.AssignmentStatusDTO;
@@ -85,7 +90,6 @@ import uk.ac.cam.cl.dtg.isaac.dto.GameboardDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.GameboardItem;
 import uk.ac.cam.cl.dtg.isaac.dto.SegueErrorResponse;
 import uk.ac.cam.cl.dtg.isaac.dto.UserGroupDTO;
-import uk.ac.cam.cl.dtg.isaac.dto.content.QuestionDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.UserSummaryDTO;
 import uk.ac.cam.cl.dtg.segue.api.managers.GroupManager;
@@ -97,6 +101,7 @@ import uk.ac.cam.cl.dtg.segue.auth.exceptions.NoUserLoggedInException;
 import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
+import uk.ac.cam.cl.dtg.segue.dao.content.QuestionPageStructure;
 import uk.ac.cam.cl.dtg.util.PropertiesLoader;
 
 /**
@@ -119,6 +124,8 @@ public class AssignmentFacade extends AbstractIsaacFacade {
   private final AssignmentService assignmentService;
 
   private static final String NOT_SHARING = "NOT_SHARING";
+  private static final String GROUP_PROGRESS_FOOTNOTE =
+      "\n\nN.B.\n\"The percentages are for question parts completed, not question pages.\"\n";
 
   private final Clock clock;
   private final DateTimeFormatter dateFormat;
@@ -512,28 +519,37 @@ public class AssignmentFacade extends AbstractIsaacFacade {
 
       GameboardDTO gameboard = this.gameManager.getGameboard(assignment.getGameboardId());
 
-      List<String[]> rows = Lists.newArrayList();
-
       Map<String, List<String>> idLists = extractAssignmentProgressQuestionIds(includeUserIds, gameboard);
       List<String> questionIds = idLists.get("questionIds");
-      rows.add(idLists.get("headerRow").toArray(new String[0]));
-
-      rows.addAll(
-          buildAssignmentReportBody(currentlyLoggedInUser, includeUserIds, groupMembers, gameboard, questionIds));
 
-      StringWriter stringWriter = new StringWriter();
-      CSVWriter csvWriter = new CSVWriter(stringWriter);
-      csvWriter.writeAll(rows);
-      csvWriter.close();
+      String preamble = buildAssignmentProgressPreamble(assignmentId, formatMode, currentlyLoggedInUser);
 
-      StringBuilder headerBuilder =
-          buildAssignmentProgressResponseObject(assignmentId, formatMode, currentlyLoggedInUser, stringWriter);
+      // The column totals come before the members' rows, so every member's marks are read before rows are written;
+      // only the marks for this gameboard's questions are read, not each member's whole history.
+      StreamingOutput csvStream = output -> {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(preamble);
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(idLists.get("headerRow").toArray(new String[0]));
+        try {
+          Map<Long, QuestionAttemptIndex> attemptIndexes = Maps.newHashMap();
+          questionManager.streamQuestionAttemptIndexes(groupMembers, questionIds, attemptIndexes::put);
+          for (String[] row : buildAssignmentReportBody(currentlyLoggedInUser, includeUserIds, groupMembers,
+              questionIds, (user, questionId) -> getMarkFromAttemptIndex(attemptIndexes.get(user.getId()),
+                  questionId))) {
+            csvWriter.writeNext(row);
+          }
+        } catch (SegueDatabaseException e) {
+          log.error("Database error while streaming assignment progress", e);
+          throw new IOException("Unable to stream assignment progress.", e);
+        }
+        csvWriter.flush();
+      };
 
       this.getLogManager().logEvent(currentlyLoggedInUser, request, IsaacServerLogType.DOWNLOAD_ASSIGNMENT_PROGRESS_CSV,
           ImmutableMap.of("assignmentId", assignmentId));
 
-      // get game manager completion information for this assignment.
-      return Response.ok(headerBuilder.toString())
+      return Response.ok(csvStream)
           .header("Content-Disposition", "attachment; filename=assignment_progress.csv")
           .cacheControl(getCacheControl(NEVER_CACHE_WITHOUT_ETAG_CHECK, false)).build();
 
@@ -544,15 +560,13 @@ public class AssignmentFacade extends AbstractIsaacFacade {
       return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unknown database error.").toResponse();
     } catch (ContentManagerException e) {
       return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unknown content database error.").toResponse();
-    } catch (IOException e) {
-      return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Error while building the CSV file.").toResponse();
     }
   }
 
   private List<String[]> buildAssignmentReportBody(
       final RegisteredUserDTO currentlyLoggedInUser, final boolean includeUserIds,
-      final List<RegisteredUserDTO> groupMembers,
-      final GameboardDTO gameboard, final List<String> questionIds
+      final List<RegisteredUserDTO> groupMembers, final List<String> questionIds,
+      final BiFunction<RegisteredUserDTO, String, Integer> questionMarkLookup
   ) throws SegueDatabaseException {
     List<String[]> rows = Lists.newArrayList();
 
@@ -562,12 +576,6 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     }
     Collections.addAll(totalsRow, ",Correct %".split(","));
 
-    Map<RegisteredUserDTO, Map<String, Integer>> userQuestionDataMap =
-        getQuestionDataMapFromGameboard(groupMembers, gameboard);
-
-    userQuestionDataMap.forEach(
-        (user, outcome) -> questionIds.forEach(questionId -> outcome.putIfAbsent(questionId, null)));
-
     DecimalFormat percentageFormat = new DecimalFormat("###");
     List<String[]> resultRows = Lists.newArrayList();
     int[] columnTotals = new int[questionIds.size()];
@@ -586,7 +594,7 @@ public class AssignmentFacade extends AbstractIsaacFacade {
         int totalCorrect = 0;
         int columnNumber = 0;
         for (String questionId : questionIds) {
-          Integer resultForQuestion = userQuestionDataMap.get(user).get(questionId);
+          Integer resultForQuestion = questionMarkLookup.apply(user, questionId);
 
           if (null == resultForQuestion) {
             resultRow.add("");
@@ -626,33 +634,6 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     return rows;
   }
 
-  private Map<RegisteredUserDTO, Map<String, Integer>> getQuestionDataMapFromGameboard(
-      final List<RegisteredUserDTO> groupMembers, final GameboardDTO gameboard) throws SegueDatabaseException {
-
-    List<String> questionPageIds =
-        gameboard.getContents().stream().map(GameboardItem::getId).collect(Collectors.toList());
-
-    Map<RegisteredUserDTO, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-        questionAttemptsForAllUsersOfInterest = getUserQuestionAttemptsFromPageIds(groupMembers, questionPageIds);
-
-    return getUserQuestionMap(questionAttemptsForAllUsersOfInterest);
-  }
-
-  private Map<RegisteredUserDTO, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-      getUserQuestionAttemptsFromPageIds(final List<RegisteredUserDTO> groupMembers, final List<String> questionPageIds)
-      throws SegueDatabaseException {
-
-    Map<Long, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-        questionAttempts = this.questionManager.getMatchingQuestionAttempts(groupMembers, questionPageIds);
-
-    Map<RegisteredUserDTO, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-        questionAttemptsForAllUsersOfInterest = new HashMap<>();
-    for (RegisteredUserDTO user : groupMembers) {
-      questionAttemptsForAllUsersOfInterest.put(user, questionAttempts.get(user.getId()));
-    }
-    return questionAttemptsForAllUsersOfInterest;
-  }
-
   private Map<String, List<String>> extractAssignmentProgressQuestionIds(
       final boolean includeUserIds, final GameboardDTO gameboard) throws ContentManagerException {
     List<String> questionIds = Lists.newArrayList();
@@ -663,19 +644,19 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     }
 
     for (GameboardItem questionPage : gameboard.getContents()) {
-      int index = 0;
+      QuestionPageStructure questionPageStructure = gameManager.getQuestionPageStructure(questionPage.getId());
 
-      for (QuestionDTO question : gameManager.getAllMarkableQuestionPartsDFSOrder(questionPage.getId())) {
+      for (int index = 0; index < questionPageStructure.getPartCount(); index++) {
         //int newCharIndex = 'A' + index; // decided not to try and match the front end.
         int newCharIndex = index + 1;
-        if (question.getTitle() != null) {
-          headerRow.add(question.getTitle() + " - " + questionPage.getTitle());
+        String questionTitle = questionPageStructure.getPartTitle(index);
+        if (questionTitle != null) {
+          headerRow.add(questionTitle + " - " + questionPage.getTitle());
         } else {
           headerRow.add("Q" + newCharIndex + " - " + questionPage.getTitle());
         }
 
-        questionIds.add(question.getId());
-        index++;
+        questionIds.add(questionPageStructure.getPartId(index));
       }
     }
     headerRow.add("% Correct");
@@ -683,10 +664,8 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     return Map.of("questionIds", questionIds, "headerRow", headerRow);
   }
 
-  private StringBuilder buildAssignmentProgressResponseObject(
-      final Long assignmentId, final String formatMode, final RegisteredUserDTO currentlyLoggedInUser,
-      final StringWriter stringWriter
-  ) {
+  private String buildAssignmentProgressPreamble(final Long assignmentId, final String formatMode,
+                                                 final RegisteredUserDTO currentlyLoggedInUser) {
     StringBuilder headerBuilder = new StringBuilder();
     if (null != formatMode && formatMode.equalsIgnoreCase("excel")) {
       headerBuilder.append("\uFEFF");  // UTF-8 Byte Order Marker
@@ -694,8 +673,7 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     headerBuilder.append(String.format("Assignment (%s) Results: Downloaded on %s\nGenerated by: %s %s\n\n",
         assignmentId, dateFormat.format(Instant.now(clock)), currentlyLoggedInUser.getGivenName(),
         currentlyLoggedInUser.getFamilyName()));
-    headerBuilder.append(stringWriter.toString());
-    return headerBuilder;
+    return headerBuilder.toString();
   }
 
   /**
@@ -739,31 +717,19 @@ public class AssignmentFacade extends AbstractIsaacFacade {
       // Fetch the members of the requested group
       List<RegisteredUserDTO> groupMembers = this.groupManager.getUsersInGroup(group);
 
-      // Retrieve each user's progress data and cram everything into a Grand Table for later consumption
+      // Fetch the gameboards of the assignments; members' attempts are read as the file is written
       List<String> gameboardsIds = assignments.stream().map(AssignmentDTO::getGameboardId).collect(Collectors.toList());
       List<GameboardDTO> gameboards = gameManager.getGameboards(gameboardsIds);
 
       Map<AssignmentDTO, GameboardDTO> assignmentGameboards = getAssignmentGameboardsMap(assignments, gameboards);
-      Map<RegisteredUserDTO, Map<GameboardDTO, Map<String, Integer>>> grandTable =
-          buildGrandTable(groupMembers, gameboards);
-
-      ArrayList<String[]> rows = Lists.newArrayList();
-      rows.addAll(buildGroupAssignmentHeaderAndDueDateRows(includeUserIds, assignments, assignmentGameboards));
-      rows.addAll(buildGroupAssignmentsReportBody(currentlyLoggedInUser, includeUserIds, assignments, groupMembers,
-          assignmentGameboards, grandTable));
 
-      StringWriter stringWriter = new StringWriter();
-      CSVWriter csvWriter = new CSVWriter(stringWriter);
-      csvWriter.writeAll(rows);
-      csvWriter.close();
-
-      StringBuilder headerBuilder =
-          buildGroupAssignmentProgressResponseObject(formatMode, currentlyLoggedInUser, group, stringWriter);
+      StreamingOutput csvStream = buildGroupAssignmentsReportStream(currentlyLoggedInUser, includeUserIds, group,
+          formatMode, assignments, groupMembers, assignmentGameboards);
 
       this.getLogManager().logEvent(currentlyLoggedInUser, request, IsaacServerLogType.DOWNLOAD_GROUP_PROGRESS_CSV,
           ImmutableMap.of("groupId", groupId));
 
-      return Response.ok(headerBuilder.toString())
+      return Response.ok(csvStream)
           .header("Content-Disposition", "attachment; filename=group_progress.csv")
           .cacheControl(getCacheControl(NEVER_CACHE_WITHOUT_ETAG_CHECK, false)).build();
 
@@ -774,99 +740,140 @@ public class AssignmentFacade extends AbstractIsaacFacade {
       return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unknown database error.").toResponse();
     } catch (ContentManagerException e) {
       return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unknown content database error.").toResponse();
-    } catch (IOException e) {
-      return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Error while building the CSV file.").toResponse();
     }
   }
 
-  private ArrayList<String[]> buildGroupAssignmentsReportBody(
-      final RegisteredUserDTO currentlyLoggedInUser, final boolean includeUserIds,
-      final List<AssignmentDTO> assignments, final List<RegisteredUserDTO> groupMembers,
-      final Map<AssignmentDTO, GameboardDTO> assignmentGameboards,
-      final Map<RegisteredUserDTO, Map<GameboardDTO, Map<String, Integer>>> grandTable
+  /**
+   * Build a StreamingOutput that writes the group progress CSV as each group member's attempts are read.
+   * <br>
+   * Everything that can fail with a content error, or that the response headers depend on, is resolved before the
+   * stream is returned; only the attempts themselves are read once writing has started.
+   */
+  private StreamingOutput buildGroupAssignmentsReportStream(
+      final RegisteredUserDTO currentlyLoggedInUser, final boolean includeUserIds, final UserGroupDTO group,
+      final String formatMode, final List<AssignmentDTO> assignments, final List<RegisteredUserDTO> groupMembers,
+      final Map<AssignmentDTO, GameboardDTO> assignmentGameboards
   ) throws ContentManagerException {
-    ArrayList<String[]> rows = Lists.newArrayList();
-
+    List<String[]> headerRows =
+        buildGroupAssignmentHeaderAndDueDateRows(includeUserIds, assignments, assignmentGameboards);
     QuestionIdMaps questionIdMaps = extractGameboardQuestionIds(assignments, assignmentGameboards);
+    List<String> questionIds = Lists.newArrayList(questionIdMaps.getQuestionIdToPageIdMap().keySet());
+    Map<Long, RegisteredUserDTO> groupMembersById = groupMembers.stream()
+        .collect(Collectors.toMap(RegisteredUserDTO::getId, Function.identity(), (first, duplicate) -> first));
+    String preamble = buildGroupAssignmentProgressPreamble(formatMode, currentlyLoggedInUser, group);
+
+    return output -> {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+      writer.write(preamble);
+      CSVWriter csvWriter = new CSVWriter(writer);
+      csvWriter.writeAll(headerRows);
+      try {
+        questionManager.streamQuestionAttemptIndexes(groupMembers, questionIds, (userId, attemptIndex) ->
+            csvWriter.writeNext(buildGroupAssignmentsReportRow(currentlyLoggedInUser, includeUserIds, assignments,
+                assignmentGameboards, questionIdMaps, groupMembersById.get(userId),
+                (gameboard, questionId) -> getMarkFromAttemptIndex(attemptIndex, questionId))));
+      } catch (SegueDatabaseException e) {
+        log.error("Database error while streaming group progress", e);
+        throw new IOException("Unable to stream group progress.", e);
+      }
+      csvWriter.flush();
+      writer.write(GROUP_PROGRESS_FOOTNOTE);
+      writer.flush();
+    };
+  }
+
+  private String[] buildGroupAssignmentsReportRow(
+      final RegisteredUserDTO currentlyLoggedInUser, final boolean includeUserIds,
+      final List<AssignmentDTO> assignments, final Map<AssignmentDTO, GameboardDTO> assignmentGameboards,
+      final QuestionIdMaps questionIdMaps, final RegisteredUserDTO groupMember,
+      final BiFunction<GameboardDTO, String, Integer> questionMarkLookup
+  ) {
     Map<GameboardDTO, List<String>> gameboardQuestionIds = questionIdMaps.getGameboardToQuestionIdsMap();
     Map<String, String> questionIdToPageIdMap = questionIdMaps.getQuestionIdToPageIdMap();
 
-    for (RegisteredUserDTO groupMember : groupMembers) {
-      // FIXME Some room for improvement here, as we can retrieve all the users with a single query.
-      //  Not urgent, as the dominating query is the one that retrieves question attempts above.
-      UserSummaryDTO userSummary = associationManager.enforceAuthorisationPrivacy(currentlyLoggedInUser,
-          userManager.convertToUserSummaryObject(groupMember));
-
-      ArrayList<String> row = Lists.newArrayList();
-      Map<GameboardDTO, Map<String, Integer>> userAssignments = grandTable.get(groupMember);
-      List<Float> assignmentPercentages = Lists.newArrayList();
-      List<Integer> marks = Lists.newArrayList();
-      int totalQuestionPartsCorrect = 0;
-      int totalQuestionPartsCount = 0;
-      for (AssignmentDTO assignment : assignments) {
-        GameboardDTO gameboard = assignmentGameboards.get(assignment);
-        int assignmentQuestionPartsCorrect = 0;
-        int assignmentQuestionPartsCount = 0;
-        List<String> questionIds = gameboardQuestionIds.get(gameboard);
-        List<GameboardItem> questions = gameboard.getContents();
-        Map<String, Integer> gameboardPartials = Maps.newHashMap();
-        for (GameboardItem question : questions) {
-          gameboardPartials.put(question.getId(), 0);
-        }
-        HashMap<String, Integer> questionParts = new HashMap<>(gameboardPartials);
-        for (String s : questionIds) {
-          Integer mark = userAssignments.get(gameboard).get(s);
-          String questionPageId = questionIdToPageIdMap.get(s);
-          questionParts.put(questionPageId, questionParts.get(questionPageId) + 1);
-          marks.add(mark);
-          if (null != mark) {
-            gameboardPartials.put(questionPageId, gameboardPartials.get(questionPageId) + mark);
-          }
-        }
-        for (Entry<String, Integer> entry : gameboardPartials.entrySet()) {
-          assignmentQuestionPartsCorrect += entry.getValue();
-          assignmentQuestionPartsCount += questionParts.get(entry.getKey());
+    // FIXME Some room for improvement here, as we can retrieve all the users with a single query.
+    //  Not urgent, as the dominating query is the one that retrieves question attempts above.
+    UserSummaryDTO userSummary = associationManager.enforceAuthorisationPrivacy(currentlyLoggedInUser,
+        userManager.convertToUserSummaryObject(groupMember));
+
+    ArrayList<String> row = Lists.newArrayList();
+    List<Float> assignmentPercentages = Lists.newArrayList();
+    List<Integer> marks = Lists.newArrayList();
+    int totalQuestionPartsCorrect = 0;
+    int totalQuestionPartsCount = 0;
+    for (AssignmentDTO assignment : assignments) {
+      GameboardDTO gameboard = assignmentGameboards.get(assignment);
+      int assignmentQuestionPartsCorrect = 0;
+      int assignmentQuestionPartsCount = 0;
+      List<String> questionIds = gameboardQuestionIds.get(gameboard);
+      List<GameboardItem> questions = gameboard.getContents();
+      Map<String, Integer> gameboardPartials = Maps.newHashMap();
+      for (GameboardItem question : questions) {
+        gameboardPartials.put(question.getId(), 0);
+      }
+      HashMap<String, Integer> questionParts = new HashMap<>(gameboardPartials);
+      for (String s : questionIds) {
+        Integer mark = questionMarkLookup.apply(gameboard, s);
+        String questionPageId = questionIdToPageIdMap.get(s);
+        questionParts.put(questionPageId, questionParts.get(questionPageId) + 1);
+        marks.add(mark);
+        if (null != mark) {
+          gameboardPartials.put(questionPageId, gameboardPartials.get(questionPageId) + mark);
         }
-        totalQuestionPartsCorrect += assignmentQuestionPartsCorrect;
-        totalQuestionPartsCount += assignmentQuestionPartsCount;
-        assignmentPercentages.add((100f * assignmentQuestionPartsCorrect) / assignmentQuestionPartsCount);
       }
-      float overallTotal = (100f * totalQuestionPartsCorrect) / totalQuestionPartsCount;
-
-      // The next three lines could be a little better if I were not this sleepy...
-      row.add(userSummary.getFamilyName());
-      row.add(userSummary.getGivenName());
-      if (includeUserIds) {
-        row.add(userSummary.getId().toString());
+      for (Entry<String, Integer> entry : gameboardPartials.entrySet()) {
+        assignmentQuestionPartsCorrect += entry.getValue();
+        assignmentQuestionPartsCount += questionParts.get(entry.getKey());
       }
+      totalQuestionPartsCorrect += assignmentQuestionPartsCorrect;
+      totalQuestionPartsCount += assignmentQuestionPartsCount;
+      assignmentPercentages.add((100f * assignmentQuestionPartsCorrect) / assignmentQuestionPartsCount);
+    }
+    float overallTotal = (100f * totalQuestionPartsCorrect) / totalQuestionPartsCount;
 
-      if (userSummary.isAuthorisedFullAccess()) {
-        row.add(String.format("%.0f", overallTotal));
-        for (Float assignmentPercentage : assignmentPercentages) {
-          row.add(String.format("%.0f", assignmentPercentage));
-        }
-        row.add("");
-        for (Integer mark : marks) {
-          if (null != mark) {
-            row.add(String.format("%d", mark));
-          } else {
-            row.add("");
-          }
+    // The next three lines could be a little better if I were not this sleepy...
+    row.add(userSummary.getFamilyName());
+    row.add(userSummary.getGivenName());
+    if (includeUserIds) {
+      row.add(userSummary.getId().toString());
+    }
+
+    if (userSummary.isAuthorisedFullAccess()) {
+      row.add(String.format("%.0f", overallTotal));
+      for (Float assignmentPercentage : assignmentPercentages) {
+        row.add(String.format("%.0f", assignmentPercentage));
+      }
+      row.add("");
+      for (Integer mark : marks) {
+        if (null != mark) {
+          row.add(String.format("%d", mark));
+        } else {
+          row.add("");
         }
+      }
 
-      } else {
+    } else {
+      row.add(NOT_SHARING);
+      for (@SuppressWarnings("unused") Float assignmentPercentage : assignmentPercentages) {
+        row.add(NOT_SHARING);
+      }
+      row.add("");
+      for (@SuppressWarnings("unused") Integer mark : marks) {
         row.add(NOT_SHARING);
-        for (@SuppressWarnings("unused") Float assignmentPercentage : assignmentPercentages) {
-          row.add(NOT_SHARING);
-        }
-        row.add("");
-        for (@SuppressWarnings("unused") Integer mark : marks) {
-          row.add(NOT_SHARING);
-        }
       }
-      rows.add(row.toArray(new String[0]));
     }
-    return rows;
+    return row.toArray(new String[0]);
+  }
+
+  /**
+   * Convert the attempts at a question part to a mark: 1 if ever answered correctly, 0 if only ever answered
+   * incorrectly, or null if never attempted.
+   */
+  private static Integer getMarkFromAttemptIndex(final QuestionAttemptIndex attemptIndex, final String questionId) {
+    if (null == attemptIndex || !attemptIndex.isAttempted(questionId)) {
+      return null;
+    }
+    return attemptIndex.isCorrect(questionId) ? 1 : 0;
   }
 
   private static Map<AssignmentDTO, GameboardDTO> getAssignmentGameboardsMap(final List<AssignmentDTO> assignments,
@@ -883,29 +890,6 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     return assignmentGameboards;
   }
 
-  private Map<RegisteredUserDTO, Map<GameboardDTO, Map<String, Integer>>> buildGrandTable(
-      final List<RegisteredUserDTO> groupMembers, final List<GameboardDTO> gameboards
-  ) throws SegueDatabaseException {
-    Map<RegisteredUserDTO, Map<String, Integer>> userQuestionDataMap =
-        getQuestionDataMapFromGameboards(groupMembers, gameboards);
-
-    // String: question part id
-    // Integer: question part result
-    Map<RegisteredUserDTO, Map<GameboardDTO, Map<String, Integer>>> grandTable = new HashMap<>();
-    for (GameboardDTO gameboard : gameboards) {
-
-      for (RegisteredUserDTO student : userQuestionDataMap.keySet()) {
-        Map<GameboardDTO, Map<String, Integer>> entry = grandTable.get(student);
-        if (null == entry) {
-          entry = Maps.newHashMap();
-        }
-        entry.put(gameboard, userQuestionDataMap.get(student));
-        grandTable.put(student, entry);
-      }
-    }
-    return grandTable;
-  }
-
   private ArrayList<String[]> buildGroupAssignmentHeaderAndDueDateRows(
       final boolean includeUserIds, final List<AssignmentDTO> assignments,
       final Map<AssignmentDTO, GameboardDTO> assignmentGameboards
@@ -946,10 +930,12 @@ public class AssignmentFacade extends AbstractIsaacFacade {
       GameboardDTO gameboard = assignmentGameboards.get(assignment);
       for (GameboardItem questionPage : gameboard.getContents()) {
         int b = 1;
-        for (QuestionDTO question : gameManager.getAllMarkableQuestionPartsDFSOrder(questionPage.getId())) {
+        QuestionPageStructure questionPageStructure = gameManager.getQuestionPageStructure(questionPage.getId());
+        for (int i = 0; i < questionPageStructure.getPartCount(); i++) {
           StringBuilder s = new StringBuilder();
-          if (question.getTitle() != null) {
-            s.append(question.getTitle());
+          String questionTitle = questionPageStructure.getPartTitle(i);
+          if (questionTitle != null) {
+            s.append(questionTitle);
           } else {
             s.append("Q").append(b);
           }
@@ -985,13 +971,13 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     for (AssignmentDTO assignment : assignments) {
       GameboardDTO gameboard = assignmentGameboards.get(assignment);
       for (GameboardItem questionPage : gameboard.getContents()) {
-        for (QuestionDTO question : gameManager.getAllMarkableQuestionPartsDFSOrder(questionPage.getId())) {
+        for (String questionPartId : gameManager.getQuestionPageStructure(questionPage.getId()).getPartIds()) {
           List<String> questionIds = gameboardQuestionIds.get(gameboard);
           if (null == questionIds) {
             questionIds = Lists.newArrayList();
           }
-          questionIds.add(question.getId());
-          questionIdToPageIdMap.put(question.getId(), questionPage.getId());
+          questionIds.add(questionPartId);
+          questionIdToPageIdMap.put(questionPartId, questionPage.getId());
           gameboardQuestionIds.put(gameboard, questionIds);
         }
       }
@@ -1018,34 +1004,18 @@ public class AssignmentFacade extends AbstractIsaacFacade {
     }
   }
 
-  private Map<RegisteredUserDTO, Map<String, Integer>> getQuestionDataMapFromGameboards(
-      final List<RegisteredUserDTO> groupMembers, final List<GameboardDTO> gameboards) throws SegueDatabaseException {
-
-
-    List<GameboardItem> gameboardItems =
-        gameboards.stream().map(GameboardDTO::getContents).flatMap(Collection::stream).collect(Collectors.toList());
-    List<String> questionPageIds = gameboardItems.stream().map(GameboardItem::getId).collect(Collectors.toList());
-
-    Map<RegisteredUserDTO, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-        questionAttemptsForAllUsersOfInterest = getUserQuestionAttemptsFromPageIds(groupMembers, questionPageIds);
-
-    return getUserQuestionMap(questionAttemptsForAllUsersOfInterest);
-  }
-
-  private StringBuilder buildGroupAssignmentProgressResponseObject(
-      final String formatMode, final RegisteredUserDTO currentlyLoggedInUser, final UserGroupDTO group,
-      final StringWriter stringWriter) {
+  private String buildGroupAssignmentProgressPreamble(final String formatMode,
+                                                      final RegisteredUserDTO currentlyLoggedInUser,
+                                                      final UserGroupDTO group) {
     StringBuilder headerBuilder = new StringBuilder();
     if (null != formatMode && formatMode.equalsIgnoreCase("excel")) {
       headerBuilder.append("\uFEFF");  // UTF-8 Byte Order Marker
     }
     headerBuilder.append(String.format("Assignments for '%s' (%s)\nDownloaded on %s\nGenerated by: %s %s\n\n",
-            group.getGroupName(), group.getId(), dateFormat.format(Instant.now(clock)),
-            currentlyLoggedInUser.getGivenName(),
-            currentlyLoggedInUser.getFamilyName()))
-        .append(stringWriter.toString())
-        .append("\n\nN.B.\n\"The percentages are for question parts completed, not question pages.\"\n");
-    return headerBuilder;
+        group.getGroupName(), group.getId(), dateFormat.format(Instant.now(clock)),
+        currentlyLoggedInUser.getGivenName(),
+        currentlyLoggedInUser.getFamilyName()));
+    return headerBuilder.toString();
   }
 
   /**
@@ -1293,37 +1263,4 @@ public class AssignmentFacade extends AbstractIsaacFacade {
       return new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unknown database error.").toResponse();
     }
   }
-
-  /**
-   * Transforms a three-layer mapping of Users to question responses into a two-layer mapping of Users to the
-   * correctness of their answers.
-   *
-   * @param questionAttemptsForAllUsersOfInterest a Map of Users to a Map of pageId Strings to a Map of questionId
-   *                                              Strings to Lists of responses to those questions, representing
-   *                                              {@literal {UserDTO: {PageId: {QuestionId: List<QuestionResponse>}}}}
-   * @return a Map of Users to a Map of questionId Strings to a boolean-as-integer for whether the question has been
-   *     answered correctly, representing {@literal {UserDTO: {QuestionId: Integer}}}
-   */
-  private static Map<RegisteredUserDTO, Map<String, Integer>> getUserQuestionMap(
-      final Map<RegisteredUserDTO, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-          questionAttemptsForAllUsersOfInterest
-  ) {
-    return questionAttemptsForAllUsersOfInterest.entrySet().stream()
-        .collect(Collectors.toMap(
-                Entry::getKey, // Retain user object as outer map key
-                userQuestionPagesMapEntry -> userQuestionPagesMapEntry.getValue().values()
-                    .stream() // Get the questionId/QuestionResponse maps
-                    .flatMap(questionMap -> questionMap.entrySet()
-                        .stream()) // Discard the pageIds and flatten the questions into a single map
-                    .collect(Collectors.toMap(
-                            Entry::getKey, // Use the questionId as the inner map key
-                            pageQuestionsEntry -> pageQuestionsEntry.getValue().stream() // Get list of responses
-                                .anyMatch(LightweightQuestionValidationResponse::isCorrect)
-                                // Check if any response is correct
-                                ? 1 : 0 // Convert boolean to integer
-                        )
-                    )
-            )
-        );
-  }
-}
\ No newline at end of file
+}
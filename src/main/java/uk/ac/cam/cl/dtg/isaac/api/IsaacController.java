@@ -37,7 +37,9 @@ import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.net.HttpHeaders;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.swagger.v3.oas.annotations.Operation;
@@ -51,19 +53,23 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
-import java.io.ByteArrayOutputStream;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
 import org.jboss.resteasy.annotations.GZIP;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +94,7 @@ import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
 import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
+import uk.ac.cam.cl.dtg.util.ByteRange;
 import uk.ac.cam.cl.dtg.util.PropertiesLoader;
 
 
@@ -103,7 +110,6 @@ import uk.ac.cam.cl.dtg.util.PropertiesLoader;
 @Tag(name = "/")
 public class IsaacController extends AbstractIsaacFacade {
   private static final Logger log = LoggerFactory.getLogger(IsaacController.class);
-  private static final String ETAG_SEPARATOR = "/";
 
   private final IStatisticsManager statsManager;
   private final UserAccountManager userManager;
@@ -277,25 +283,7 @@ public class IsaacController extends AbstractIsaacFacade {
       return error.toResponse();
     }
 
-    // Determine if we can use the cache; this has two parts: a "quick and cheap" early check that does not need
-    // the file contents, and a more thorough check using the actual file contents.
-    // The ETag has two halves, separated by an ETAG_SEPARATOR.
-    String sha = this.contentManager.getCurrentContentSHA();
-    String earlyCacheCheckTag = String.valueOf(sha.hashCode() + path.hashCode());
-
-    String rawETagHeader = httpServletRequest.getHeader("If-None-Match");
-    String rawETag = null != rawETagHeader ? rawETagHeader.replaceAll("\"", "") : null;
-
-    // If the "early" cache check based on the path and content SHA matches, the file cannot have changed and
-    // we don't need to load it to return a 304 Not Modified:
-    if (null != rawETag && earlyCacheCheckTag.equals(rawETag.split(ETAG_SEPARATOR)[0])) {
-      return Response.notModified().cacheControl(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, true)).tag(rawETag).build();
-    }
-
-    // If the content version has changed, we do need to load the file to see if it has been modified:
-    ByteArrayOutputStream fileContent;
     String mimeType;
-
     switch (Files.getFileExtension(path).toLowerCase()) {
       case "svg":
         mimeType = "image/svg+xml";
@@ -322,41 +310,31 @@ public class IsaacController extends AbstractIsaacFacade {
     }
 
     try {
-      fileContent = this.contentManager.getFileBytes(path);
+      // The blob id changes whenever the file's contents do, so it can be checked without reading the file:
+      ObjectId fileId = this.contentManager.getFileId(path);
+      if (null == fileId) {
+        String refererHeader = httpServletRequest.getHeader("Referer");
+        SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND, "Unable to locate the file: " + path);
+        log.warn(String.format("Unable to locate the file: (%s). Referer: (%s)",
+            sanitiseExternalLogValue(path), refererHeader));
+        return error.toResponse();
+      }
+
+      // Images may be gzipped, so the bytes sent differ with the encoding and the ETag can only be a weak one:
+      EntityTag etag = new EntityTag(fileId.getName(), true);
+      Response cachedResponse = generateCachedResponse(request, etag, NUMBER_SECONDS_IN_ONE_DAY);
+      if (cachedResponse != null) {
+        return cachedResponse;
+      }
+
+      // Images may be gzipped, so their length is not known in advance and ranges of them are not supported:
+      return streamContentFile(httpServletRequest, fileId, mimeType, etag, false).build();
     } catch (IOException e) {
       SegueErrorResponse error =
           new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Error reading from file repository", e);
       log.error(error.getErrorMessage(), e);
       return error.toResponse();
-    } catch (UnsupportedOperationException e) {
-      SegueErrorResponse error =
-          new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Multiple files match the search path provided.", e);
-      log.error(error.getErrorMessage(), e);
-      return error.toResponse();
-    }
-
-    if (null == fileContent) {
-      String refererHeader = httpServletRequest.getHeader("Referer");
-      SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND, "Unable to locate the file: " + path);
-      log.warn(String.format("Unable to locate the file: (%s). Referer: (%s)",
-          sanitiseExternalLogValue(path), refererHeader));
-      return error.toResponse();
     }
-
-    byte[] fileContentBytes = fileContent.toByteArray();
-
-    // If the "late" cache check based on the file contents matches, the file still has not changed:
-    String lateCacheCheckTag = String.valueOf(Arrays.hashCode(fileContentBytes));
-    if (null != rawETag && rawETag.contains(ETAG_SEPARATOR) && lateCacheCheckTag.equals(
-        rawETag.split(ETAG_SEPARATOR)[1])) {
-      return Response.notModified().cacheControl(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, true)).tag(rawETag).build();
-    }
-
-    // Otherwise, just return the full image to the client:
-    EntityTag etag = new EntityTag(earlyCacheCheckTag + ETAG_SEPARATOR + lateCacheCheckTag);
-    return Response.ok(fileContentBytes).type(mimeType)
-        .cacheControl(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, true))
-        .tag(etag).build();
   }
 
   /**
@@ -370,7 +348,6 @@ public class IsaacController extends AbstractIsaacFacade {
   @GET
   @Produces("*/*")
   @Path("documents/{path:.*}")
-  @GZIP
   @Operation(summary = "Get a binary object from the current content version.",
       description = "This can only be used to get PDF documents from the content database.")
   public final Response getDocumentByPath(@Context final Request request,
@@ -385,15 +362,8 @@ public class IsaacController extends AbstractIsaacFacade {
       // All users with an Isaac account are allowed to access these resources
       RegisteredUserDTO currentlyLoggedInUser = userManager.getCurrentRegisteredUser(httpServletRequest);
 
-      // determine if we can use the cache if so return cached response.
       String sha = this.contentManager.getCurrentContentSHA();
-      EntityTag etag = new EntityTag(sha.hashCode() + path.hashCode() + "");
-      Response cachedResponse = generateCachedResponse(request, etag, NUMBER_SECONDS_IN_ONE_DAY);
-      if (cachedResponse != null) {
-        return cachedResponse;
-      }
-
-      ByteArrayOutputStream fileContent;
+      EntityTag pathEtag = new EntityTag(sha.hashCode() + path.hashCode() + "");
       String mimeType;
       switch (Files.getFileExtension(path).toLowerCase()) {
         case "pdf":
@@ -403,16 +373,23 @@ public class IsaacController extends AbstractIsaacFacade {
         default:
           // if it is an unknown type return an error
           SegueErrorResponse error = new SegueErrorResponse(Status.BAD_REQUEST, "Invalid file type requested");
-          return error.toResponse(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, false), etag);
+          return error.toResponse(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, false), pathEtag);
       }
 
-      fileContent = this.contentManager.getFileBytes(path);
-      if (null == fileContent) {
+      ObjectId fileId = this.contentManager.getFileId(path);
+      if (null == fileId) {
         String refererHeader = httpServletRequest.getHeader("Referer");
         SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND, "Unable to locate the file: " + path);
         log.warn(String.format("Unable to locate the file: (%s). Referer: (%s)", sanitiseExternalLogValue(path),
             refererHeader));
-        return error.toResponse(getCacheControl(NUMBER_SECONDS_IN_TEN_MINUTES, false), etag);
+        return error.toResponse(getCacheControl(NUMBER_SECONDS_IN_TEN_MINUTES, false), pathEtag);
+      }
+
+      // determine if we can use the cache if so return cached response.
+      EntityTag etag = new EntityTag(fileId.getName());
+      Response cachedResponse = generateCachedResponse(request, etag, NUMBER_SECONDS_IN_ONE_DAY);
+      if (cachedResponse != null) {
+        return cachedResponse;
       }
 
       ImmutableMap<String, String> logMap = new ImmutableMap.Builder<String, String>()
@@ -420,25 +397,77 @@ public class IsaacController extends AbstractIsaacFacade {
           .put(CONTENT_VERSION_FIELDNAME, this.contentManager.getCurrentContentSHA()).build();
       getLogManager().logEvent(currentlyLoggedInUser, httpServletRequest, IsaacServerLogType.DOWNLOAD_FILE, logMap);
 
-      return Response.ok(fileContent.toByteArray()).type(mimeType)
-          .cacheControl(getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, true))
-          .header("Content-Disposition", "attachment")  // Do not show this file in the browser.
-          .tag(etag).build();
+      return streamContentFile(httpServletRequest, fileId, mimeType, etag, true)
+          .header(HttpHeaders.CONTENT_DISPOSITION, "attachment")  // Do not show this file in the browser.
+          .build();
 
     } catch (IOException e) {
       SegueErrorResponse error = new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Error reading file!");
       log.error(error.getErrorMessage(), e);
       return error.toResponse();
-    } catch (UnsupportedOperationException e) {
-      SegueErrorResponse error =
-          new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Multiple files match the path provided.");
-      log.error(error.getErrorMessage(), e);
-      return error.toResponse();
     } catch (NoUserLoggedInException e) {
       return SegueErrorResponse.getNotLoggedInResponse();
     }
   }
 
+  /**
+   * Build a response which streams a file from the content repository, rather than reading it all onto the heap.
+   * <br>
+   * If ranges are allowed, a request for a single range of bytes is sent only that range, unless its If-Range header
+   * names a different version of the file.
+   *
+   * @param httpServletRequest - the request, for its Range and If-Range headers.
+   * @param fileId             - the blob id of the file.
+   * @param mimeType           - the content type of the file.
+   * @param etag               - the ETag of the file.
+   * @param allowRanges        - whether ranges of the file may be requested.
+   * @return a response builder, to which further headers may be added.
+   * @throws IOException if the content repository cannot be read.
+   */
+  private Response.ResponseBuilder streamContentFile(final HttpServletRequest httpServletRequest,
+                                                     final ObjectId fileId, final String mimeType,
+                                                     final EntityTag etag, final boolean allowRanges)
+      throws IOException {
+    ObjectLoader loader = this.contentManager.openFile(fileId);
+    long size = loader.getSize();
+    CacheControl cacheControl = getCacheControl(NUMBER_SECONDS_IN_ONE_DAY, true);
+    StreamingOutput fileStream = loader::copyTo;
+
+    if (!allowRanges) {
+      return Response.ok(fileStream).type(mimeType).cacheControl(cacheControl).tag(etag);
+    }
+
+    String ifRangeHeader = httpServletRequest.getHeader(HttpHeaders.IF_RANGE);
+    ByteRange range = null;
+    if (null == ifRangeHeader || etag.getValue().equals(ifRangeHeader.replaceAll("\"", ""))) {
+      try {
+        range = ByteRange.fromRangeHeader(httpServletRequest.getHeader(HttpHeaders.RANGE), size);
+      } catch (IllegalArgumentException e) {
+        return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size).tag(etag);
+      }
+    }
+
+    if (null == range) {
+      return Response.ok(fileStream).type(mimeType).cacheControl(cacheControl).tag(etag)
+          .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+          .header(HttpHeaders.CONTENT_LENGTH, size);
+    }
+
+    ByteRange requestedRange = range;
+    StreamingOutput rangeStream = output -> {
+      try (InputStream in = loader.openStream()) {
+        in.skipNBytes(requestedRange.start());
+        ByteStreams.limit(in, requestedRange.length()).transferTo(output);
+      }
+    };
+    return Response.status(Status.PARTIAL_CONTENT).entity(rangeStream).type(mimeType).cacheControl(cacheControl)
+        .tag(etag)
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .header(HttpHeaders.CONTENT_RANGE, requestedRange.toContentRange(size))
+        .header(HttpHeaders.CONTENT_LENGTH, requestedRange.length());
+  }
+
   /**
    * Get some statistics out of how many questions the user has completed.
    *
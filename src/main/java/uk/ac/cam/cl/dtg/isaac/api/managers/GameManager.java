@@ -76,6 +76,7 @@ import uk.ac.cam.cl.dtg.isaac.dos.GameboardContentDescriptor;
 import uk.ac.cam.cl.dtg.isaac.dos.GameboardCreationMethod;
 import uk.ac.cam.cl.dtg.isaac.dos.IsaacWildcard;
 import uk.ac.cam.cl.dtg.isaac.dos.LightweightQuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionAttemptIndex;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
 import uk.ac.cam.cl.dtg.isaac.dto.GameFilter;
@@ -83,9 +84,7 @@ import uk.ac.cam.cl.dtg.isaac.dto.GameboardDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.GameboardItem;
 import uk.ac.cam.cl.dtg.isaac.dto.GameboardListDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuestionPageDTO;
-import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuickQuestionDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.ResultsWrapper;
-import uk.ac.cam.cl.dtg.isaac.dto.content.ContentBaseDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.content.ContentDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.content.QuestionDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.AbstractSegueUserDTO;
@@ -96,6 +95,7 @@ import uk.ac.cam.cl.dtg.segue.dao.ResourceNotFoundException;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
 import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
+import uk.ac.cam.cl.dtg.segue.dao.content.QuestionPageStructure;
 
 /**
  * This class will be responsible for generating and managing gameboards used by users.
@@ -136,64 +136,6 @@ public class GameManager {
     this.mapper = mapper;
   }
 
-  /**
-   * Get all questions in a piece of content. This method will conduct a DFS traversal and
-   * ensure the collection is ordered as per the DFS. Quick questions will be filtered out.
-   *
-   * @param content results depend on each question having an id prefixed with the question page id.
-   * @return collection of markable question parts (questions).
-   */
-  public static List<QuestionDTO> getAllMarkableQuestionPartsDFSOrder(final ContentDTO content) {
-    List<ContentDTO> dfs = Lists.newArrayList();
-    dfs = depthFirstQuestionSearch(content, dfs);
-
-    return filterQuestionParts(dfs);
-  }
-
-  /**
-   * Utility method to extract a list of questionDTOs only.
-   *
-   * @param contentToFilter list of content.
-   * @return list of question dtos.
-   */
-  private static List<QuestionDTO> filterQuestionParts(final Collection<ContentDTO> contentToFilter) {
-    List<QuestionDTO> results = Lists.newArrayList();
-    for (ContentDTO possibleQuestion : contentToFilter) {
-
-      if (!(possibleQuestion instanceof QuestionDTO) || possibleQuestion instanceof IsaacQuickQuestionDTO) {
-        // we are not interested if this is not a question or if it is a quick question.
-        continue;
-      }
-      QuestionDTO question = (QuestionDTO) possibleQuestion;
-      results.add(question);
-    }
-
-    return results;
-  }
-
-  /**
-   * We want to list the questions in the order they are seen.
-   *
-   * @param c      content to search
-   * @param result the list of questions
-   * @return a list of questions ordered by DFS.
-   */
-  private static List<ContentDTO> depthFirstQuestionSearch(final ContentDTO c, final List<ContentDTO> result) {
-    if (c == null || c.getChildren() == null || c.getChildren().isEmpty()) {
-      return result;
-    }
-
-    for (ContentBaseDTO child : c.getChildren()) {
-      if (child instanceof QuestionDTO) {
-        result.add((QuestionDTO) child);
-        // assume that we can't have nested questions
-      } else {
-        depthFirstQuestionSearch((ContentDTO) child, result);
-      }
-    }
-    return result;
-  }
-
   /**
    * Helper method to generate field to match requirements for search queries (specialised for isaac-filtering rules)
    * <br>
@@ -802,25 +744,61 @@ public class GameManager {
     requireNonNull(users);
     requireNonNull(gameboard);
 
-    List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>> result = Lists.newArrayList();
+    return this.gatherGameProgressData(users, Collections.singletonList(gameboard)).get(gameboard.getId());
+  }
 
-    List<String> questionPageIds =
-        gameboard.getContents().stream().map(GameboardItem::getId).collect(Collectors.toList());
+  /**
+   * Returns game states for a number of users for several gameboards at once.
+   * <br>
+   * Attempt information is fetched once for all users, and each distinct question page is only resolved once, no
+   * matter how many of the gameboards it appears on.
+   *
+   * @param users      of interest
+   * @param gameboards gameboards containing questions.
+   * @return map of gameboard id to a list of users and their gameboard item results.
+   * @throws SegueDatabaseException  if there is a problem with the database
+   * @throws ContentManagerException if we can't look up the question page details.
+   */
+  public Map<String, List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>>> gatherGameProgressData(
+      final List<RegisteredUserDTO> users, final Collection<GameboardDTO> gameboards) throws SegueDatabaseException,
+      ContentManagerException {
+    requireNonNull(users);
+    requireNonNull(gameboards);
+
+    Map<String, List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>>> result = Maps.newHashMap();
+
+    Map<String, QuestionPageStructure> questionPageStructuresById = Maps.newHashMap();
+    for (GameboardDTO gameboard : gameboards) {
+      for (GameboardItem gameItem : gameboard.getContents()) {
+        String questionPageId = gameItem.getId();
+        if (!questionPageStructuresById.containsKey(questionPageId)) {
+          questionPageStructuresById.put(questionPageId, this.getQuestionPageStructureForAugmenting(questionPageId));
+        }
+      }
+    }
+
+    // Only the attempts at these gameboards' question parts are read, rather than each user's whole history:
+    List<String> questionPartIds = questionPageStructuresById.values().stream()
+        .flatMap(questionPageStructure -> questionPageStructure.getPartIds().stream()).collect(Collectors.toList());
+    Map<Long, QuestionAttemptIndex> questionAttemptsForAllUsersOfInterest =
+        questionManager.getQuestionAttemptIndexes(users, questionPartIds);
 
-    Map<Long, Map<String, Map<String, List<LightweightQuestionValidationResponse>>>>
-        questionAttemptsForAllUsersOfInterest =
-        questionManager.getMatchingQuestionAttempts(users, questionPageIds);
+    for (GameboardDTO gameboard : gameboards) {
+      List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>> gameboardProgress = Lists.newArrayList();
 
-    for (RegisteredUserDTO user : users) {
-      List<GameboardItem> userGameItems = Lists.newArrayList();
+      for (RegisteredUserDTO user : users) {
+        List<GameboardItem> userGameItems = Lists.newArrayList();
 
-      for (GameboardItem observerGameItem : gameboard.getContents()) {
-        GameboardItem userGameItem = new GameboardItem(observerGameItem);
-        this.augmentGameItemWithAttemptInformation(userGameItem,
-            questionAttemptsForAllUsersOfInterest.get(user.getId()));
-        userGameItems.add(userGameItem);
+        for (GameboardItem observerGameItem : gameboard.getContents()) {
+          GameboardItem userGameItem = new GameboardItem(observerGameItem);
+          this.augmentGameItemWithAttemptInformation(userGameItem,
+              questionPageStructuresById.get(userGameItem.getId()),
+              questionAttemptsForAllUsersOfInterest.get(user.getId()));
+          userGameItems.add(userGameItem);
+        }
+        gameboardProgress.add(new ImmutablePair<>(user, userGameItems));
       }
-      result.add(new ImmutablePair<>(user, userGameItems));
+      result.put(gameboard.getId(), gameboardProgress);
     }
 
     return result;
@@ -859,20 +837,41 @@ public class GameManager {
   }
 
   /**
-   * Get all questions in the question page: depends on each question. This method will conduct a DFS traversal and
-   * ensure the collection is ordered as per the DFS.
+   * Get the markable question parts of a question page, in DFS order, along with its pass mark.
+   * <br>
+   * This is computed once per content version, so should be preferred to searching the question page directly.
    *
-   * @param questionPageId results depend on each question having an id prefixed with the question page id.
-   * @return collection of markable question parts (questions).
+   * @param questionPageId the id of the question page.
+   * @return the structure of the question page, with no parts if the question page cannot be found.
    * @throws ContentManagerException if there is a problem with the content requested.
    */
-  public Collection<QuestionDTO> getAllMarkableQuestionPartsDFSOrder(final String questionPageId)
+  public QuestionPageStructure getQuestionPageStructure(final String questionPageId)
       throws ContentManagerException {
     Validate.notBlank(questionPageId);
 
-    // do a depth first traversal of the question page to get the correct order of questions
-    ContentDTO questionPage = this.contentManager.getContentById(questionPageId);
-    return getAllMarkableQuestionPartsDFSOrder(questionPage);
+    QuestionPageStructure questionPageStructure = this.contentManager.getQuestionPageStructure(questionPageId);
+    if (questionPageStructure == null) {
+      return QuestionPageStructure.empty(questionPageId);
+    }
+    return questionPageStructure;
+  }
+
+  /**
+   * Get the structure of a question page which must exist in order to calculate progress.
+   *
+   * @param questionPageId the id of the question page.
+   * @return the structure of the question page.
+   * @throws ContentManagerException   if there is a problem with the content requested.
+   * @throws ResourceNotFoundException if we cannot find the question page specified.
+   */
+  private QuestionPageStructure getQuestionPageStructureForAugmenting(final String questionPageId)
+      throws ContentManagerException, ResourceNotFoundException {
+    QuestionPageStructure questionPageStructure = this.contentManager.getQuestionPageStructure(questionPageId);
+    if (questionPageStructure == null) {
+      throw new ResourceNotFoundException(String.format("Unable to locate the question: %s for augmenting",
+          questionPageId));
+    }
+    return questionPageStructure;
   }
 
   /**
@@ -1198,16 +1197,16 @@ public class GameManager {
     int questionPartsNotAttempted = 0;
     String questionPageId = gameItem.getId();
 
-    IsaacQuestionPageDTO questionPage = (IsaacQuestionPageDTO) this.contentManager.getContentById(questionPageId);
     // get all question parts in the question page: depends on each question
     // having an id that starts with the question page id.
-    Collection<QuestionDTO> listOfQuestionParts = getAllMarkableQuestionPartsDFSOrder(questionPage);
+    QuestionPageStructure questionPageStructure = this.getQuestionPageStructureForAugmenting(questionPageId);
+    List<String> questionPartIds = questionPageStructure.getPartIds();
     Map<String, ? extends List<? extends LightweightQuestionValidationResponse>> questionAttempts =
         questionAttemptsFromUser.get(questionPageId);
     if (questionAttempts != null) {
-      for (ContentDTO questionPart : listOfQuestionParts) {
+      for (String questionPartId : questionPartIds) {
         List<? extends LightweightQuestionValidationResponse> questionPartAttempts =
-            questionAttempts.get(questionPart.getId());
+            questionAttempts.get(questionPartId);
         if (questionPartAttempts != null) {
           // Go through the attempts in reverse chronological order for this question part to determine if
           // there is a correct answer somewhere.
@@ -1232,17 +1231,70 @@ public class GameManager {
         }
       }
     } else {
-      questionPartsNotAttempted = listOfQuestionParts.size();
-      questionPartStates = listOfQuestionParts.stream()
-          .map(questionPart -> QuestionPartState.NOT_ATTEMPTED).collect(Collectors.toList());
+      questionPartsNotAttempted = questionPartIds.size();
+      questionPartStates = questionPartIds.stream()
+          .map(questionPartId -> QuestionPartState.NOT_ATTEMPTED).collect(Collectors.toList());
     }
 
-    // Get the pass mark for the question page
-    if (questionPage == null) {
-      throw new ResourceNotFoundException(String.format("Unable to locate the question: %s for augmenting",
-          questionPageId));
+    return setGameItemProgress(gameItem, questionPageStructure.getPassMark(), questionPartStates,
+        questionPartsCorrect, questionPartsIncorrect, questionPartsNotAttempted);
+  }
+
+  /**
+   * AugmentGameItemWithAttemptInformation
+   * <br>
+   * This method will calculate the question state for use in gameboards based on the question, using a compact
+   * index of the user's attempts.
+   *
+   * @param gameItem              the gameboard item.
+   * @param questionPageStructure the markable question parts of the page the item represents.
+   * @param attemptIndex          the index of the user's question attempts.
+   * @return the gameItem passed in having been modified (augmented)), returned for possibility of chaining.
+   */
+  private GameboardItem augmentGameItemWithAttemptInformation(final GameboardItem gameItem,
+                                                              final QuestionPageStructure questionPageStructure,
+                                                              final QuestionAttemptIndex attemptIndex) {
+    requireNonNull(gameItem, "gameItem cannot be null");
+    requireNonNull(attemptIndex, "attemptIndex cannot be null");
+
+    List<QuestionPartState> questionPartStates = Lists.newArrayList();
+    int questionPartsCorrect = 0;
+    int questionPartsIncorrect = 0;
+    int questionPartsNotAttempted = 0;
+    for (int i = 0; i < questionPageStructure.getPartCount(); i++) {
+      String questionPartId = questionPageStructure.getPartId(i);
+      if (attemptIndex.isCorrect(questionPartId)) {
+        questionPartStates.add(QuestionPartState.CORRECT);
+        questionPartsCorrect++;
+      } else if (attemptIndex.isAttempted(questionPartId)) {
+        questionPartStates.add(QuestionPartState.INCORRECT);
+        questionPartsIncorrect++;
+      } else {
+        questionPartStates.add(QuestionPartState.NOT_ATTEMPTED);
+        questionPartsNotAttempted++;
+      }
     }
-    float passMark = questionPage.getPassMark() != null ? questionPage.getPassMark() : DEFAULT_QUESTION_PASS_MARK;
+
+    return setGameItemProgress(gameItem, questionPageStructure.getPassMark(), questionPartStates,
+        questionPartsCorrect, questionPartsIncorrect, questionPartsNotAttempted);
+  }
+
+  /**
+   * Record the progress calculated for a question page on its gameboard item, and derive the overall item state.
+   *
+   * @param gameItem                  the gameboard item.
+   * @param questionPagePassMark      the pass mark set on the question page, or null to use the default.
+   * @param questionPartStates        the state of each question part, in DFS order.
+   * @param questionPartsCorrect      the number of correct question parts.
+   * @param questionPartsIncorrect    the number of incorrect question parts.
+   * @param questionPartsNotAttempted the number of question parts not attempted.
+   * @return the gameItem passed in having been modified (augmented)), returned for possibility of chaining.
+   */
+  private GameboardItem setGameItemProgress(final GameboardItem gameItem, @Nullable final Float questionPagePassMark,
+                                            final List<QuestionPartState> questionPartStates,
+                                            final int questionPartsCorrect, final int questionPartsIncorrect,
+                                            final int questionPartsNotAttempted) {
+    float passMark = questionPagePassMark != null ? questionPagePassMark : DEFAULT_QUESTION_PASS_MARK;
     gameItem.setPassMark(passMark);
     gameItem.setQuestionPartsCorrect(questionPartsCorrect);
     gameItem.setQuestionPartsIncorrect(questionPartsIncorrect);
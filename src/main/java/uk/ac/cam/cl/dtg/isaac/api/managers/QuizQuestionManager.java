@@ -54,6 +54,7 @@ import uk.ac.cam.cl.dtg.segue.api.ErrorResponseWrapper;
 import uk.ac.cam.cl.dtg.segue.api.managers.QuestionManager;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
+import uk.ac.cam.cl.dtg.segue.dao.content.QuestionPageStructure;
 
 public class QuizQuestionManager {
   private final QuestionManager questionManager;
@@ -131,7 +132,7 @@ public class QuizQuestionManager {
   public IsaacQuizDTO augmentQuestionsForUser(final IsaacQuizDTO quiz, final QuizAttemptDTO quizAttempt,
                                               final boolean includeCorrect)
       throws SegueDatabaseException {
-    List<QuestionDTO> questionsToAugment = GameManager.getAllMarkableQuestionPartsDFSOrder(quiz);
+    List<QuestionDTO> questionsToAugment = QuestionPageStructure.getAllMarkableQuestionPartsDFSOrder(quiz);
 
     Map<QuestionDTO, QuestionValidationResponse> answerMap = getAnswerMap(quizAttempt, questionsToAugment);
 
@@ -161,7 +162,7 @@ public class QuizQuestionManager {
     }
 
     // Go get the answers
-    Collection<QuestionDTO> questionsToAugment = GameManager.getAllMarkableQuestionPartsDFSOrder(quiz);
+    Collection<QuestionDTO> questionsToAugment = QuestionPageStructure.getAllMarkableQuestionPartsDFSOrder(quiz);
     List<IsaacQuizSectionDTO> sections = quizManager.extractSectionObjects(quiz);
 
     augmentQuizTotals(quiz, questionsToAugment);
@@ -196,7 +197,7 @@ public class QuizQuestionManager {
   public Map<RegisteredUserDTO, QuizFeedbackDTO> getAssignmentTeacherFeedback(
       final IsaacQuizDTO quiz, final QuizAssignmentDTO assignment, final List<RegisteredUserDTO> users)
       throws ContentManagerException, SegueDatabaseException {
-    Collection<QuestionDTO> questionsToAugment = GameManager.getAllMarkableQuestionPartsDFSOrder(quiz);
+    Collection<QuestionDTO> questionsToAugment = QuestionPageStructure.getAllMarkableQuestionPartsDFSOrder(quiz);
     List<IsaacQuizSectionDTO> sections = quizManager.extractSectionObjects(quiz);
     augmentQuizTotals(quiz, questionsToAugment);
 
@@ -0,0 +1,235 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.isaac.dos;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact summary of a single user's question part attempts, for progress calculations.
+ * <br>
+ * Question part ids are interned to ints by a {@link PartIdTable}, which the indexes read together can share, and the
+ * per-part state is held in packed bitsets (attempted, correct, correct on first attempt) and a long array of latest
+ * attempt timestamps. This avoids allocating one {@link LightweightQuestionValidationResponse} per attempt when
+ * summarising progress for many users. A table lives only as long as the indexes that use it, so ids from old content
+ * are not kept forever.
+ */
+public final class QuestionAttemptIndex {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int BITS_PER_WORD = 64;
+  private static final int NOT_FOUND = -1;
+
+  private final PartIdTable partIds;
+
+  // Sorted interned part ids, and the slot at which the state for each of them is stored:
+  private int[] sortedPartIds;
+  private int[] sortedSlots;
+  private int size;
+
+  // Per-slot state, slots are allocated in the order parts are first attempted:
+  private long[] attempted;
+  private long[] correct;
+  private long[] firstAttemptCorrect;
+  private long[] latestAttemptTimestamps;
+
+  /**
+   * Create an empty index.
+   */
+  public QuestionAttemptIndex() {
+    this(new PartIdTable(), INITIAL_CAPACITY);
+  }
+
+  /**
+   * Create an empty index which shares the interned question part ids of other indexes.
+   *
+   * @param partIds - the table of interned question part ids shared by the indexes read together.
+   */
+  public QuestionAttemptIndex(final PartIdTable partIds) {
+    this(partIds, INITIAL_CAPACITY);
+  }
+
+  /**
+   * Create an empty index with space for the given number of question parts.
+   *
+   * @param expectedParts - the number of distinct question parts expected.
+   */
+  public QuestionAttemptIndex(final int expectedParts) {
+    this(new PartIdTable(), expectedParts);
+  }
+
+  private QuestionAttemptIndex(final PartIdTable partIds, final int expectedParts) {
+    this.partIds = partIds;
+    int capacity = Math.max(expectedParts, 1);
+    this.sortedPartIds = new int[capacity];
+    this.sortedSlots = new int[capacity];
+    this.latestAttemptTimestamps = new long[capacity];
+    int words = wordsFor(capacity);
+    this.attempted = new long[words];
+    this.correct = new long[words];
+    this.firstAttemptCorrect = new long[words];
+  }
+
+  /**
+   * Record a summary of the attempts made at a question part, as returned from an aggregating database query.
+   *
+   * @param questionPartId           - the full question part id.
+   * @param anyCorrect               - whether any attempt was correct.
+   * @param firstCorrect             - whether the first attempt was correct.
+   * @param latestAttemptEpochMillis - the time of the latest attempt.
+   */
+  public synchronized void recordAttemptSummary(final String questionPartId, final boolean anyCorrect,
+                                                final boolean firstCorrect, final long latestAttemptEpochMillis) {
+    int slot = slotForPart(partIds.intern(questionPartId));
+    setBit(attempted, slot);
+    if (anyCorrect) {
+      setBit(correct, slot);
+    }
+    if (firstCorrect) {
+      setBit(firstAttemptCorrect, slot);
+    }
+    latestAttemptTimestamps[slot] = Math.max(latestAttemptTimestamps[slot], latestAttemptEpochMillis);
+  }
+
+  /**
+   * Has the user attempted this question part.
+   *
+   * @param questionPartId - the full question part id.
+   * @return true if there is at least one attempt.
+   */
+  public synchronized boolean isAttempted(final String questionPartId) {
+    int slot = findSlot(questionPartId);
+    return slot != NOT_FOUND && getBit(attempted, slot);
+  }
+
+  /**
+   * Has the user answered this question part correctly at least once.
+   *
+   * @param questionPartId - the full question part id.
+   * @return true if any attempt was correct.
+   */
+  public synchronized boolean isCorrect(final String questionPartId) {
+    int slot = findSlot(questionPartId);
+    return slot != NOT_FOUND && getBit(correct, slot);
+  }
+
+  /**
+   * Did the user answer this question part correctly on their first attempt.
+   *
+   * @param questionPartId - the full question part id.
+   * @return true if the first attempt was correct.
+   */
+  public synchronized boolean isFirstAttemptCorrect(final String questionPartId) {
+    int slot = findSlot(questionPartId);
+    return slot != NOT_FOUND && getBit(firstAttemptCorrect, slot);
+  }
+
+  /**
+   * Get the time of the latest attempt at this question part.
+   *
+   * @param questionPartId - the full question part id.
+   * @return the epoch millisecond timestamp, or null if there are no attempts.
+   */
+  public synchronized Long getLatestAttemptEpochMillis(final String questionPartId) {
+    int slot = findSlot(questionPartId);
+    if (slot == NOT_FOUND) {
+      return null;
+    }
+    return latestAttemptTimestamps[slot];
+  }
+
+  /**
+   * Get the number of distinct question parts attempted.
+   *
+   * @return the number of attempted parts.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  private int findSlot(final String questionPartId) {
+    Integer internedId = partIds.find(questionPartId);
+    if (internedId == null) {
+      return NOT_FOUND;
+    }
+    int position = Arrays.binarySearch(sortedPartIds, 0, size, internedId);
+    return position >= 0 ? sortedSlots[position] : NOT_FOUND;
+  }
+
+  private int slotForPart(final int internedId) {
+    int position = Arrays.binarySearch(sortedPartIds, 0, size, internedId);
+    if (position >= 0) {
+      return sortedSlots[position];
+    }
+
+    int insertAt = -(position + 1);
+    ensureCapacity(size + 1);
+    System.arraycopy(sortedPartIds, insertAt, sortedPartIds, insertAt + 1, size - insertAt);
+    System.arraycopy(sortedSlots, insertAt, sortedSlots, insertAt + 1, size - insertAt);
+    int slot = size;
+    sortedPartIds[insertAt] = internedId;
+    sortedSlots[insertAt] = slot;
+    size++;
+    return slot;
+  }
+
+  private void ensureCapacity(final int required) {
+    if (required <= sortedPartIds.length) {
+      return;
+    }
+    int capacity = Math.max(required, sortedPartIds.length * 2);
+    sortedPartIds = Arrays.copyOf(sortedPartIds, capacity);
+    sortedSlots = Arrays.copyOf(sortedSlots, capacity);
+    latestAttemptTimestamps = Arrays.copyOf(latestAttemptTimestamps, capacity);
+    int words = wordsFor(capacity);
+    attempted = Arrays.copyOf(attempted, words);
+    correct = Arrays.copyOf(correct, words);
+    firstAttemptCorrect = Arrays.copyOf(firstAttemptCorrect, words);
+  }
+
+  private static int wordsFor(final int bits) {
+    return (bits + BITS_PER_WORD - 1) / BITS_PER_WORD;
+  }
+
+  private static void setBit(final long[] bits, final int index) {
+    bits[index / BITS_PER_WORD] |= 1L << (index % BITS_PER_WORD);
+  }
+
+  private static boolean getBit(final long[] bits, final int index) {
+    return (bits[index / BITS_PER_WORD] & (1L << (index % BITS_PER_WORD))) != 0;
+  }
+
+  /**
+   * Interns question part ids to the ints used to represent them in the indexes which share the table.
+   */
+  public static final class PartIdTable {
+    private final ConcurrentHashMap<String, Integer> internedPartIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInternedPartId = new AtomicInteger();
+
+    private int intern(final String questionPartId) {
+      Integer existing = internedPartIds.get(questionPartId);
+      if (existing != null) {
+        return existing;
+      }
+      return internedPartIds.computeIfAbsent(questionPartId, k -> nextInternedPartId.getAndIncrement());
+    }
+
+    private Integer find(final String questionPartId) {
+      return internedPartIds.get(questionPartId);
+    }
+  }
+}
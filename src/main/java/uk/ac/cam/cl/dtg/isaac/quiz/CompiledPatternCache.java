@@ -0,0 +1,71 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CACHE_METRICS_COLLECTOR;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled regular expressions built from trusted content, shared by the validators that match answers against them.
+ * <br>
+ * The patterns on a question only change when the content does, so compiling them on every answer is wasted work. A
+ * pattern is keyed by its own text and flags rather than by content version: an edited pattern is simply a new key,
+ * and patterns no longer in the content stop being used and expire.
+ */
+public final class CompiledPatternCache {
+  private static final long MAX_PATTERNS = 10000;
+  private static final long EXPIRE_AFTER_ACCESS_HOURS = 24;
+
+  private record PatternKey(String pattern, int flags) {
+  }
+
+  private static final LoadingCache<PatternKey, Pattern> PATTERNS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_PATTERNS)
+      .expireAfterAccess(EXPIRE_AFTER_ACCESS_HOURS, TimeUnit.HOURS)
+      .recordStats()
+      .build(CacheLoader.from(key -> Pattern.compile(key.pattern(), key.flags())));
+
+  static {
+    CACHE_METRICS_COLLECTOR.addCache("validator_compiled_pattern_cache", PATTERNS);
+  }
+
+  /**
+   * Utility class, not to be constructed.
+   */
+  private CompiledPatternCache() {
+  }
+
+  /**
+   * Get a compiled pattern, compiling it only if it has not been used recently.
+   *
+   * @param trustedPattern - the regular expression, which must come from trusted content.
+   * @param flags          - the match flags, a bit mask as given to {@link Pattern#compile(String, int)}.
+   * @return the compiled pattern.
+   * @throws java.util.regex.PatternSyntaxException - if the expression is invalid.
+   */
+  public static Pattern getPattern(final String trustedPattern, final int flags) {
+    try {
+      return PATTERNS.getUnchecked(new PatternKey(trustedPattern, flags));
+    } catch (RuntimeException e) {
+      // Rethrow compilation errors as they would have been thrown by Pattern.compile:
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Get a compiled pattern which matches a string literally.
+   *
+   * @param literal - the string to match.
+   * @param flags   - the match flags, a bit mask as given to {@link Pattern#compile(String, int)}.
+   * @return the compiled pattern.
+   */
+  public static Pattern getLiteralPattern(final String literal, final int flags) {
+    return getPattern(Pattern.quote(literal), flags);
+  }
+}
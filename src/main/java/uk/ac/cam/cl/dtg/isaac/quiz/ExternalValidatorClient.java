@@ -0,0 +1,221 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils.getSharedBasicObjectMapper;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared HTTP transport for validators which check answers with an external service, such as the symbolic checker.
+ * <br>
+ * Connections are pooled and kept alive between requests, so checking an answer does not pay for a new TCP connection
+ * per choice. A circuit breaker stops requests for a while after several consecutive failures, so that answers fail
+ * fast rather than each waiting for a timeout while the service is down; once that time has passed a single trial
+ * request is let through, and the breaker closes again if it succeeds.
+ * <br>
+ * Only failures of the service count towards opening the breaker: a server error or no response at all. Waiting too
+ * long for a pooled connection means this node is busy, not that the service is down, and a client error response
+ * means the service is up and rejected that request.
+ */
+public class ExternalValidatorClient implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(ExternalValidatorClient.class);
+  private static final long IDLE_CONNECTION_EVICTION_SECONDS = 30;
+
+  private final CloseableHttpClient httpClient;
+  private final int failureThreshold;
+  private final long openDurationMillis;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  // Zero while the breaker is closed; otherwise the time after which a trial request may be made:
+  private final AtomicLong openUntilMillis = new AtomicLong();
+
+  /**
+   * Create a client with its own connection pool.
+   *
+   * @param connectTimeoutMillis - how long to wait to connect to the service, or to get a connection from the pool.
+   * @param socketTimeoutMillis  - how long to wait for the service to respond.
+   * @param maxConnections       - the number of connections to keep open to the service.
+   * @param failureThreshold     - the number of consecutive failures after which the circuit breaker opens.
+   * @param openDurationMillis   - how long the circuit breaker stays open before a trial request is made.
+   */
+  public ExternalValidatorClient(final int connectTimeoutMillis, final int socketTimeoutMillis,
+                                 final int maxConnections, final int failureThreshold,
+                                 final long openDurationMillis) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(connectTimeoutMillis)
+        .setConnectionRequestTimeout(connectTimeoutMillis)
+        .setSocketTimeout(socketTimeoutMillis)
+        .build();
+
+    this.httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+        // A pooled connection may have been closed by the service since it was last used. Checking an answer changes
+        // nothing, so a request which got no response is sent once more, on a new connection:
+        .setRetryHandler(new DefaultHttpRequestRetryHandler(1, true))
+        .evictExpiredConnections()
+        .evictIdleConnections(IDLE_CONNECTION_EVICTION_SECONDS, TimeUnit.SECONDS)
+        .build();
+    this.failureThreshold = failureThreshold;
+    this.openDurationMillis = openDurationMillis;
+  }
+
+  /**
+   * Make a JSON HTTP POST request to an external validator, and provide the response JSON as a HashMap.
+   *
+   * @param externalValidatorUrl - the URL of an external validator to POST to.
+   * @param requestBody          - the JSON request body as a Map
+   * @return the response JSON, as a HashMap
+   * @throws IOException - on failure to communicate with the external validator, or if the circuit breaker is open.
+   */
+  public HashMap<String, Object> post(final String externalValidatorUrl, final Map<String, String> requestBody)
+      throws IOException {
+    ObjectMapper mapper = getSharedBasicObjectMapper();
+    return execute(externalValidatorUrl, requestBody,
+        mapper.getTypeFactory().constructMapType(HashMap.class, String.class, Object.class));
+  }
+
+  /**
+   * Make one JSON HTTP POST request to an external validator containing several checks, as a JSON array, and provide
+   * the JSON response to each check in the same order.
+   *
+   * @param externalValidatorUrl - the URL of the batch endpoint of an external validator to POST to.
+   * @param requestBodies        - the JSON request body of each check.
+   * @return the response JSON of each check, in the order of the requests.
+   * @throws IOException - on failure to communicate with the external validator, if the circuit breaker is open, or if
+   *                     the validator does not respond to every check.
+   */
+  public List<HashMap<String, Object>> postBatch(final String externalValidatorUrl,
+                                                 final List<? extends Map<String, String>> requestBodies)
+      throws IOException {
+    ObjectMapper mapper = getSharedBasicObjectMapper();
+    JavaType responseType = mapper.getTypeFactory().constructCollectionType(List.class,
+        mapper.getTypeFactory().constructMapType(HashMap.class, String.class, Object.class));
+    List<HashMap<String, Object>> responses = execute(externalValidatorUrl, requestBodies, responseType);
+    if (null == responses || responses.size() != requestBodies.size()) {
+      throw new IOException(String.format("Expected %d responses from external validator batch, but received %s.",
+          requestBodies.size(), null == responses ? "none" : responses.size()));
+    }
+    return responses;
+  }
+
+  /**
+   * Whether requests are currently being refused because the external validator has recently failed.
+   *
+   * @return true if the circuit breaker is open.
+   */
+  public boolean isCircuitOpen() {
+    return openUntilMillis.get() > System.currentTimeMillis();
+  }
+
+  @Override
+  public void close() throws IOException {
+    httpClient.close();
+  }
+
+  private <T> T execute(final String externalValidatorUrl, final Object requestBody, final JavaType responseType)
+      throws IOException {
+    acquirePermission();
+
+    ObjectMapper mapper = getSharedBasicObjectMapper();
+    HttpPost httpPost = new HttpPost(externalValidatorUrl);
+    httpPost.setEntity(new ByteArrayEntity(mapper.writeValueAsBytes(requestBody), ContentType.APPLICATION_JSON));
+
+    try (CloseableHttpResponse httpResponse = httpClient.execute(httpPost)) {
+      HttpEntity responseEntity = httpResponse.getEntity();
+      try {
+        int statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (statusCode >= HttpStatus.SC_BAD_REQUEST && statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+          throw new ClientErrorResponseException(statusCode);
+        }
+        if (statusCode < HttpStatus.SC_OK || statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+          throw new IOException("External validator responded with status " + statusCode + ".");
+        }
+        if (null == responseEntity) {
+          throw new IOException("Empty response from external validator.");
+        }
+        T response;
+        try (InputStream responseStream = responseEntity.getContent()) {
+          response = mapper.readValue(responseStream, responseType);
+        }
+        recordSuccess();
+        return response;
+      } finally {
+        // Reading the whole entity returns the connection to the pool to be reused:
+        EntityUtils.consumeQuietly(responseEntity);
+      }
+    } catch (ConnectionPoolTimeoutException | ClientErrorResponseException e) {
+      throw e;
+    } catch (IOException e) {
+      recordFailure();
+      throw e;
+    }
+  }
+
+  private void acquirePermission() throws IOException {
+    long openUntil = openUntilMillis.get();
+    if (0 == openUntil) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    // Once the breaker has been open long enough, let exactly one request through to see if the validator is back:
+    if (now < openUntil || !openUntilMillis.compareAndSet(openUntil, now + openDurationMillis)) {
+      throw new IOException("External validator circuit breaker is open; not sending request.");
+    }
+  }
+
+  private void recordSuccess() {
+    consecutiveFailures.set(0);
+    if (0 != openUntilMillis.getAndSet(0)) {
+      log.info("External validator responded; closing circuit breaker.");
+    }
+  }
+
+  private void recordFailure() {
+    if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+      long openUntil = System.currentTimeMillis() + openDurationMillis;
+      if (0 == openUntilMillis.getAndSet(openUntil)) {
+        log.warn("External validator failed {} times in a row; refusing requests for {}ms.",
+            consecutiveFailures.get(), openDurationMillis);
+      }
+    }
+  }
+
+  /**
+   * The external validator responded, but rejected the request; this is not a failure of the validator.
+   */
+  private static class ClientErrorResponseException extends IOException {
+    ClientErrorResponseException(final int statusCode) {
+      super("External validator rejected request with status " + statusCode + ".");
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CACHE_METRICS_COLLECTOR;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.EXTERNAL_VALIDATOR_CACHE_SAVED_SECONDS;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of an external validator, so that an answer which has already been checked against a choice
+ * is not sent to the validator again.
+ * <br>
+ * Students in a class often submit the same answer to the same question, so most checks are repeats. A check is keyed
+ * by a hash of its target expression, test expression and available symbols; the question it came from does not
+ * affect the result, so is not part of the key. Entries are also scoped to the content version, so none outlive a
+ * content change. Only responses without an error are remembered, since errors may be transient.
+ */
+public class ExternalValidatorResultCache {
+  private static final double NANOSECONDS_IN_A_SECOND = 1e9;
+  private static final List<String> KEY_FIELDS = List.of("target", "test", "symbols");
+
+  private final ExternalValidatorClient validatorClient;
+  private final Supplier<String> contentShaSupplier;
+  private final Cache<CheckKey, CachedResponse> responseCache;
+
+  private record CheckKey(String contentSha, String externalValidatorUrl, HashCode checkHash) {
+  }
+
+  /**
+   * A validator response, with how long the validator took to give it.
+   */
+  private record CachedResponse(HashMap<String, Object> response, long latencyNanos) {
+  }
+
+  /**
+   * Create a cache in front of an external validator.
+   *
+   * @param validatorClient    - the client to send checks which are not cached with.
+   * @param contentShaSupplier - supplies the current content version.
+   * @param maxEntries         - the most responses to remember.
+   * @param expireAfterMinutes - how long to remember each response for.
+   */
+  public ExternalValidatorResultCache(final ExternalValidatorClient validatorClient,
+                                      final Supplier<String> contentShaSupplier, final long maxEntries,
+                                      final long expireAfterMinutes) {
+    this.validatorClient = validatorClient;
+    this.contentShaSupplier = contentShaSupplier;
+    this.responseCache = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(expireAfterMinutes, TimeUnit.MINUTES)
+        .recordStats()
+        .build();
+    CACHE_METRICS_COLLECTOR.addCache("external_validator_result_cache", responseCache);
+  }
+
+  /**
+   * Check one answer against one choice, using a remembered response if there is one.
+   *
+   * @param externalValidatorUrl - the URL of an external validator to POST to.
+   * @param requestBody          - the JSON request body as a Map
+   * @return the response JSON, as a HashMap
+   * @throws IOException - on failure to communicate with the external validator.
+   * @see ExternalValidatorClient#post(String, Map)
+   */
+  public HashMap<String, Object> post(final String externalValidatorUrl, final Map<String, String> requestBody)
+      throws IOException {
+    CheckKey key = getKey(externalValidatorUrl, requestBody);
+    HashMap<String, Object> cachedResponse = getIfPresent(key);
+    if (null != cachedResponse) {
+      return cachedResponse;
+    }
+
+    long startTime = System.nanoTime();
+    HashMap<String, Object> response = validatorClient.post(externalValidatorUrl, requestBody);
+    put(key, response, System.nanoTime() - startTime);
+    return response;
+  }
+
+  /**
+   * Check one answer against several choices, sending only the checks without remembered responses in one batch.
+   *
+   * @param externalValidatorUrl      - the URL of the external validator that would check each request on its own,
+   *                                  under which responses are remembered.
+   * @param externalBatchValidatorUrl - the URL of the batch endpoint of the external validator to POST to.
+   * @param requestBodies             - the JSON request body of each check.
+   * @return the response JSON of each check, in the order of the requests.
+   * @throws IOException - on failure to communicate with the external validator.
+   * @see ExternalValidatorClient#postBatch(String, List)
+   */
+  public List<HashMap<String, Object>> postBatch(final String externalValidatorUrl,
+                                                 final String externalBatchValidatorUrl,
+                                                 final List<? extends Map<String, String>> requestBodies)
+      throws IOException {
+    List<HashMap<String, Object>> responses = new ArrayList<>(requestBodies.size());
+    List<CheckKey> uncachedKeys = new ArrayList<>();
+    List<Integer> uncachedIndices = new ArrayList<>();
+    List<Map<String, String>> uncachedRequests = new ArrayList<>();
+    for (Map<String, String> requestBody : requestBodies) {
+      CheckKey key = getKey(externalValidatorUrl, requestBody);
+      HashMap<String, Object> cachedResponse = getIfPresent(key);
+      if (null == cachedResponse) {
+        uncachedKeys.add(key);
+        uncachedIndices.add(responses.size());
+        uncachedRequests.add(requestBody);
+      }
+      responses.add(cachedResponse);
+    }
+    if (uncachedRequests.isEmpty()) {
+      return responses;
+    }
+
+    long startTime = System.nanoTime();
+    List<HashMap<String, Object>> uncachedResponses =
+        validatorClient.postBatch(externalBatchValidatorUrl, uncachedRequests);
+    // Each check in the batch is credited with an equal share of the time the batch took:
+    long latencyNanos = (System.nanoTime() - startTime) / uncachedRequests.size();
+    for (int i = 0; i < uncachedResponses.size(); i++) {
+      put(uncachedKeys.get(i), uncachedResponses.get(i), latencyNanos);
+      responses.set(uncachedIndices.get(i), uncachedResponses.get(i));
+    }
+    return responses;
+  }
+
+  private HashMap<String, Object> getIfPresent(final CheckKey key) {
+    CachedResponse cachedResponse = responseCache.getIfPresent(key);
+    if (null == cachedResponse) {
+      return null;
+    }
+    EXTERNAL_VALIDATOR_CACHE_SAVED_SECONDS.inc(cachedResponse.latencyNanos() / NANOSECONDS_IN_A_SECOND);
+    // Callers only read responses, but are given a copy so that the cached one cannot be changed:
+    return new HashMap<>(cachedResponse.response());
+  }
+
+  private void put(final CheckKey key, final HashMap<String, Object> response, final long latencyNanos) {
+    if (null != response && !response.containsKey("error")) {
+      responseCache.put(key, new CachedResponse(new HashMap<>(response), latencyNanos));
+    }
+  }
+
+  private CheckKey getKey(final String externalValidatorUrl, final Map<String, String> requestBody) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String field : KEY_FIELDS) {
+      String value = requestBody.get(field);
+      // Mark missing values, and prefix the others with their length, so that the fields cannot run together:
+      hasher.putBoolean(null != value);
+      if (null != value) {
+        hasher.putInt(value.length());
+        hasher.putString(value, StandardCharsets.UTF_8);
+      }
+    }
+    return new CheckKey(contentShaSupplier.get(), externalValidatorUrl, hasher.hash());
+  }
+}
@@ -1,9 +1,11 @@
 package uk.ac.cam.cl.dtg.isaac.quiz;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import uk.ac.cam.cl.dtg.isaac.dos.LightweightQuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionAttemptIndex;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dos.users.Role;
 import uk.ac.cam.cl.dtg.segue.api.Constants.TimeInterval;
@@ -53,6 +55,37 @@ public interface IQuestionAttemptManager {
       getQuestionAttemptsByUsersAndQuestionPrefix(List<Long> userIds, List<String> questionPage)
       throws SegueDatabaseException;
 
+  /**
+   * Get a compact index summarising the attempts each of a group of users has made at the given question parts.
+   * <br>
+   * Unlike {@link #getQuestionAttemptsByUsersAndQuestionPrefix(List, List)}, this does not create an object per
+   * attempt, so is preferred when calculating progress for many users at once.
+   *
+   * @param userIds     - list of user ids to look up results for.
+   * @param questionIds - list of the full ids of the question parts that we should look up.
+   * @return a Map of userId --> index of that user's attempts; every requested user will have an entry.
+   * @throws SegueDatabaseException - if a database error occurs
+   */
+  Map<Long, QuestionAttemptIndex> getQuestionAttemptIndexesByUsers(List<Long> userIds, List<String> questionIds)
+      throws SegueDatabaseException;
+
+  /**
+   * Read a compact index of the question attempts of each of a group of users, passing each to the consumer in turn.
+   * <br>
+   * Only attempts at the given question parts are read, and users are read in small batches through a database
+   * cursor, so that memory does not grow with the number of users or with how many other questions they have
+   * answered. This allows large exports to be written out as they are read.
+   *
+   * @param userIds     - list of user ids to look up results for, in the order they should be consumed.
+   * @param questionIds - list of the full ids of the question parts that we should look up.
+   * @param consumer    - called once per user, in order, including users with no matching attempts.
+   * @throws SegueDatabaseException - if a database error occurs
+   * @throws IOException            - if the consumer fails.
+   */
+  void streamQuestionAttemptIndexesByUsers(List<Long> userIds, List<String> questionIds,
+                                           QuestionAttemptIndexConsumer consumer)
+      throws SegueDatabaseException, IOException;
+
   /**
    * Registers an anonymous user's attempt to answer a question and stores it in the database.
    *
@@ -112,4 +145,19 @@ public interface IQuestionAttemptManager {
    */
   Map<Instant, Long> getQuestionAttemptCountForUserByDateRange(Instant fromDate, Instant toDate,
                                                             Long userId, Boolean perDay) throws SegueDatabaseException;
+
+  /**
+   * Receives the question attempt index of each user, in turn, when streaming attempts.
+   */
+  @FunctionalInterface
+  interface QuestionAttemptIndexConsumer {
+    /**
+     * Accept the attempts of a single user.
+     *
+     * @param userId       - the user the attempts belong to.
+     * @param attemptIndex - the index of their attempts.
+     * @throws IOException - if the attempts cannot be processed.
+     */
+    void accept(Long userId, QuestionAttemptIndex attemptIndex) throws IOException;
+  }
 }
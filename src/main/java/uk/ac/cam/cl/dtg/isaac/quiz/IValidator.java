@@ -16,25 +16,8 @@
 
 package uk.ac.cam.cl.dtg.isaac.quiz;
 
-
-import static uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils.getSharedBasicObjectMapper;
-
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
-import java.io.IOException;
-import java.io.StringWriter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dos.content.Choice;
 import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
@@ -63,6 +46,18 @@ public interface IValidator {
   QuestionValidationResponse validateQuestionResponse(Question question, Choice answer)
       throws ValidatorUnavailableException;
 
+  /**
+   * Whether this validator may take long enough to mark an answer that it should not hold a request thread while it
+   * does, e.g. because it waits for an external service.
+   * <br>
+   * Answers to questions with slow validators are marked on a separate, bounded pool of threads.
+   *
+   * @return true if the validator is slow.
+   */
+  default boolean isSlow() {
+    return false;
+  }
+
   /**
    * Create a new list of Choice objects, sorted into correct-first order for checking.
    * <br>
@@ -83,40 +78,6 @@ public interface IValidator {
     return orderedChoices;
   }
 
-
-  /**
-   * Make a JSON HTTP POST request to an external validator, and provide the response JSON as a HashMap.
-   *
-   * @param externalValidatorUrl - the URL of an external validator to POST to.
-   * @param requestBody          - the JSON request body as a Map
-   * @return the response JSON, as a HashMap
-   * @throws IOException - on failure to communicate with the external validator
-   */
-  @SuppressWarnings("unchecked")
-  default HashMap<String, Object> getResponseFromExternalValidator(final String externalValidatorUrl,
-                                                                   final Map<String, String> requestBody)
-      throws IOException {
-    // This is ridiculous. All we want to do is pass some JSON to a REST endpoint and get some JSON back.
-    ObjectMapper mapper = getSharedBasicObjectMapper();
-    StringWriter sw = new StringWriter();
-    JsonGenerator g = new JsonFactory().createGenerator(sw);
-    mapper.writeValue(g, requestBody);
-    g.close();
-    String requestString = sw.toString();
-
-    try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-      HttpPost httpPost = new HttpPost(externalValidatorUrl);
-
-      httpPost.setEntity(new StringEntity(requestString, "UTF-8"));
-      httpPost.addHeader("Content-Type", "application/json");
-
-      HttpResponse httpResponse = httpClient.execute(httpPost);
-      HttpEntity responseEntity = httpResponse.getEntity();
-      String responseString = EntityUtils.toString(responseEntity);
-      return mapper.readValue(responseString, HashMap.class);
-    }
-  }
-
   /**
    * Check if a feedback content object contains no meaningful feedback.
    *
@@ -21,6 +21,7 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.collect.ImmutableMap;
 import java.time.Instant;
 import java.util.Map;
+import java.util.regex.Pattern;
 import org.isaacphysics.thirdparty.openmark.marker.PMatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,14 +65,18 @@ public class IsaacFreeTextValidator implements IValidator {
   }
 
   private String removeNonAlphanumericChars(final String answer, final String rule) {
-    String strippedAnswer = answer;
+    // Build a character class of the punctuation the rule does not use, escaping each character:
+    StringBuilder charsToRemove = new StringBuilder();
     for (char nonAlphanumericChar : NON_ALPHANUMERIC_CHARS.toCharArray()) {
-      String nonAlphanumericCharStr = String.valueOf(nonAlphanumericChar);
-      if (!rule.contains(nonAlphanumericCharStr)) {
-        strippedAnswer = strippedAnswer.replace(nonAlphanumericCharStr, " ");
+      if (rule.indexOf(nonAlphanumericChar) < 0) {
+        charsToRemove.append(ESCAPE_CHARACTER).append(nonAlphanumericChar);
       }
     }
-    return strippedAnswer;
+    if (charsToRemove.isEmpty()) {
+      return answer;
+    }
+    Pattern charsToRemovePattern = CompiledPatternCache.getPattern("[" + charsToRemove + "]", 0);
+    return charsToRemovePattern.matcher(answer).replaceAll(" ");
   }
 
   private static String extractAnswerValue(final Choice answer, final boolean caseInsensitive) {
@@ -114,6 +119,12 @@ public class IsaacFreeTextValidator implements IValidator {
     return result.toString();
   }
 
+  @Override
+  public boolean isSlow() {
+    // Fuzzy matching against every rule can take a while for long answers:
+    return true;
+  }
+
   @Override
   public final QuestionValidationResponse validateQuestionResponse(final Question question, final Choice answer) {
     validateInputs(question, answer);
@@ -127,7 +127,7 @@ public class IsaacRegexMatchValidator implements IValidator {
     }
 
     // The pattern is case-sensitive and single line by default - the regex flags are combined with bitwise OR
-    Pattern answerPattern = Pattern.compile(Pattern.quote(trustedRegexPattern),
+    Pattern answerPattern = CompiledPatternCache.getLiteralPattern(trustedRegexPattern,
         (null != caseInsensitive && caseInsensitive ? Pattern.CASE_INSENSITIVE : 0)
             | (null != multiLineRegex && multiLineRegex ? Pattern.MULTILINE : 0));
 
@@ -22,10 +22,12 @@ import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
 import com.google.api.client.util.Maps;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.cam.cl.dtg.isaac.dos.FormulaValidationResponse;
@@ -85,13 +87,34 @@ public class IsaacSymbolicLogicValidator implements IValidator {
   }
 
   private final String externalValidatorUrl;
+  private final String externalBatchValidatorUrl;
+  private final ExternalValidatorResultCache validatorCache;
+  private final boolean batchRequests;
 
   private static final Content INITIAL_CONTENT = null;
   private static final MatchType INITIAL_MATCH_TYPE = MatchType.NONE;
   private static final boolean INITIAL_RESPONSE_CORRECT = false;
 
-  public IsaacSymbolicLogicValidator(final String hostname, final String port) {
+  /**
+   * Create a validator which checks answers with the symbolic checker.
+   *
+   * @param hostname       - the host of the symbolic checker.
+   * @param port           - the port of the symbolic checker.
+   * @param validatorCache - the shared result cache and client used to send requests to the symbolic checker.
+   * @param batchRequests  - whether to check an answer against every choice in a single request.
+   */
+  public IsaacSymbolicLogicValidator(final String hostname, final String port,
+                                     final ExternalValidatorResultCache validatorCache, final boolean batchRequests) {
     this.externalValidatorUrl = "http://" + hostname + ":" + port + "/check/logic";
+    this.externalBatchValidatorUrl = "http://" + hostname + ":" + port + "/check/logic/batch";
+    this.validatorCache = validatorCache;
+    this.batchRequests = batchRequests;
+  }
+
+  @Override
+  public boolean isSlow() {
+    // Marking waits for the external symbolic checker:
+    return true;
   }
 
   @Override
@@ -163,39 +186,40 @@ public class IsaacSymbolicLogicValidator implements IValidator {
     // Sort the choices so that we match incorrect choices last, taking precedence over correct ones.
     List<Choice> orderedChoices = getOrderedChoices(question.getChoices());
 
-    // For all the choices on this question...
+    // For all the choices on this question that are of the LogicFormula type and have a python expression, prepare a
+    // request to test their answer against that choice with the symbolic checker.
+    // We don't do any sanitisation of user input here, we'll leave that to the python.
+    // Don't need to log choices that are skipped - they will have been logged above.
+    List<LogicFormula> checkedChoices = new ArrayList<>();
+    List<Map<String, String>> checkRequests = new ArrayList<>();
     for (Choice c : orderedChoices) {
-
-      // ... that are of the LogicFormula type, ...
-      if (!(c instanceof LogicFormula)) {
-        // Don't need to log this - it will have been logged above.
-        continue;
+      if (c instanceof LogicFormula logicFormulaChoice && null != logicFormulaChoice.getPythonExpression()
+          && !logicFormulaChoice.getPythonExpression().isEmpty()) {
+        checkedChoices.add(logicFormulaChoice);
+        checkRequests.add(buildCheckRequest(question, logicFormulaChoice, submittedLogicFormula));
       }
+    }
 
-      LogicFormula logicFormulaChoice = (LogicFormula) c;
-
-      // ... and that have a python expression ...
-      if (null == logicFormulaChoice.getPythonExpression() || logicFormulaChoice.getPythonExpression().isEmpty()) {
-        // Don't need to log this - it will have been logged above.
-        continue;
+    // Either send every check in one request up front, or send each in turn until an exact match is found:
+    List<HashMap<String, Object>> batchResponses = null;
+    if (batchRequests && !checkRequests.isEmpty()) {
+      try {
+        batchResponses = validatorCache.postBatch(externalValidatorUrl, externalBatchValidatorUrl, checkRequests);
+      } catch (IOException e) {
+        log.error("Failed to check formula with symbolic checker. Is the server running? Not trying again.");
+        throw new ValidatorUnavailableException("We are having problems marking Logic Questions."
+            + " Please try again later!");
       }
+    }
 
-      // ... test their answer against this choice with the symbolic checker.
-
-      // We don't do any sanitisation of user input here, we'll leave that to the python.
+    for (int i = 0; i < checkedChoices.size(); i++) {
+      LogicFormula logicFormulaChoice = checkedChoices.get(i);
 
       MatchType matchType = MatchType.NONE;
 
       try {
-        HashMap<String, String> req = Maps.newHashMap();
-        req.put("target", logicFormulaChoice.getPythonExpression());
-        req.put("test", submittedLogicFormula.getPythonExpression());
-        req.put("description", question.getId());
-        if (question.getAvailableSymbols() != null) {
-          req.put("symbols", String.join(",", question.getAvailableSymbols()));
-        }
-
-        HashMap<String, Object> response = getResponseFromExternalValidator(externalValidatorUrl, req);
+        HashMap<String, Object> response = null != batchResponses ? batchResponses.get(i)
+            : validatorCache.post(externalValidatorUrl, checkRequests.get(i));
 
         if (response.containsKey("error")) {
           if (response.containsKey("code")) {
@@ -267,6 +291,19 @@ public class IsaacSymbolicLogicValidator implements IValidator {
     return new ValidationResult(INITIAL_CONTENT, INITIAL_MATCH_TYPE, INITIAL_RESPONSE_CORRECT);
   }
 
+  private static Map<String, String> buildCheckRequest(final IsaacSymbolicLogicQuestion question,
+                                                      final LogicFormula choice,
+                                                      final LogicFormula submittedLogicFormula) {
+    HashMap<String, String> req = Maps.newHashMap();
+    req.put("target", choice.getPythonExpression());
+    req.put("test", submittedLogicFormula.getPythonExpression());
+    req.put("description", question.getId());
+    if (question.getAvailableSymbols() != null) {
+      req.put("symbols", String.join(",", question.getAvailableSymbols()));
+    }
+    return req;
+  }
+
   private static ValidationResult checkForExactAnswerMatch(final IsaacSymbolicLogicQuestion question,
                                                            final LogicFormula submittedLogicFormula) {
     // For all the choices on this question...
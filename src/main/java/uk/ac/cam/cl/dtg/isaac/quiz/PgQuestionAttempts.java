@@ -46,6 +46,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.cam.cl.dtg.isaac.dos.LightweightQuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionAttemptIndex;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dos.users.Role;
 import uk.ac.cam.cl.dtg.segue.api.Constants.TimeInterval;
@@ -61,6 +62,8 @@ import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
 public class PgQuestionAttempts implements IQuestionAttemptManager {
   private static final Logger log = LoggerFactory.getLogger(PgQuestionAttempts.class);
   private static final int MAX_PAGE_IDS_TO_MATCH = 200;
+  private static final int ATTEMPT_STREAM_FETCH_SIZE = 1000;
+  private static final int ATTEMPT_STREAM_USER_BATCH_SIZE = 100;
 
   private final PostgresSqlDb database;
   private final ObjectMapper objectMapper;
@@ -372,6 +375,72 @@ public class PgQuestionAttempts implements IQuestionAttemptManager {
     }
   }
 
+  @Override
+  public Map<Long, QuestionAttemptIndex> getQuestionAttemptIndexesByUsers(final List<Long> userIds,
+                                                                         final List<String> questionIds)
+      throws SegueDatabaseException {
+    Map<Long, QuestionAttemptIndex> indexesToReturn = Maps.newHashMap();
+    try {
+      streamQuestionAttemptIndexesByUsers(userIds, questionIds, indexesToReturn::put);
+    } catch (IOException e) {
+      // Collecting the indexes into a map cannot fail:
+      throw new IllegalStateException(e);
+    }
+    return indexesToReturn;
+  }
+
+  @Override
+  public void streamQuestionAttemptIndexesByUsers(final List<Long> userIds, final List<String> questionIds,
+                                                  final QuestionAttemptIndexConsumer consumer)
+      throws SegueDatabaseException, IOException {
+    if (userIds.isEmpty()) {
+      return;
+    }
+
+    // Only the attempts at the given question parts are read, and users are read a batch at a time, so no more than
+    // one batch of users' summaries for those parts are ever held in memory:
+    String query = "SELECT user_id, question_id, bool_or(correct) AS any_correct,"
+        + " (array_agg(correct ORDER BY \"timestamp\" ASC))[1] AS first_correct,"
+        + " max(\"timestamp\") AS latest_attempt"
+        + " FROM question_attempts WHERE user_id = ANY(?) AND question_id = ANY(?)"
+        + " GROUP BY user_id, question_id";
+
+    // The indexes read together share one table of interned part ids, which is dropped along with them:
+    QuestionAttemptIndex.PartIdTable partIds = new QuestionAttemptIndex.PartIdTable();
+    try (Connection conn = database.getDatabaseConnection()) {
+      // Postgres will only use a cursor, and respect the fetch size, inside a transaction:
+      conn.setAutoCommit(false);
+      try (PreparedStatement pst = conn.prepareStatement(query)) {
+        pst.setArray(FIELD_STREAM_ATTEMPT_INDEXES_QUESTION_IDS,
+            conn.createArrayOf("text", questionIds.stream().distinct().toArray()));
+        pst.setFetchSize(ATTEMPT_STREAM_FETCH_SIZE);
+
+        for (int batchStart = 0; batchStart < userIds.size(); batchStart += ATTEMPT_STREAM_USER_BATCH_SIZE) {
+          List<Long> batchUserIds =
+              userIds.subList(batchStart, Math.min(batchStart + ATTEMPT_STREAM_USER_BATCH_SIZE, userIds.size()));
+          Map<Long, QuestionAttemptIndex> batchIndexes = Maps.newHashMap();
+          pst.setArray(FIELD_STREAM_ATTEMPT_INDEXES_USER_IDS, conn.createArrayOf("bigint", batchUserIds.toArray()));
+          try (ResultSet results = pst.executeQuery()) {
+            while (results.next()) {
+              batchIndexes.computeIfAbsent(results.getLong("user_id"), userId -> new QuestionAttemptIndex(partIds))
+                  .recordAttemptSummary(results.getString("question_id"), results.getBoolean("any_correct"),
+                      results.getBoolean("first_correct"), results.getTimestamp("latest_attempt").getTime());
+            }
+          }
+          // Users without any matching attempts have no rows, but still need consuming in order:
+          for (Long userId : batchUserIds) {
+            QuestionAttemptIndex attemptIndex = batchIndexes.get(userId);
+            consumer.accept(userId, null != attemptIndex ? attemptIndex : new QuestionAttemptIndex());
+          }
+        }
+      } finally {
+        conn.rollback();
+      }
+    } catch (SQLException e) {
+      throw new SegueDatabaseException("Postgres exception", e);
+    }
+  }
+
   /**
    * Merges any question data stored in the session (this will only happen for anonymous users).
    *
@@ -528,6 +597,10 @@ public class PgQuestionAttempts implements IQuestionAttemptManager {
   // getQuestionAttemptsByUsersAndQuestionPrefix
   private static final int FIELD_GET_ATTEMPTS_BY_USER_AND_PREFIX_INITIAL_INDEX = 1;
 
+  // streamQuestionAttemptIndexesByUsers
+  private static final int FIELD_STREAM_ATTEMPT_INDEXES_USER_IDS = 1;
+  private static final int FIELD_STREAM_ATTEMPT_INDEXES_QUESTION_IDS = 2;
+
   // getAnsweredQuestionRolesOverPrevious
   private static final int FIELD_GET_ANSWERED_QUESTION_ROLES_INTERVAL_AGO = 1;
 
@@ -0,0 +1,109 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.VALIDATOR_QUEUE_DEPTH;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.VALIDATOR_QUEUE_WAIT_HISTOGRAM;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.VALIDATOR_REJECTED;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Marks answers to questions whose validator {@link IValidator#isSlow() is slow} on a small pool of threads of its
+ * own, so that request threads are not held while, for example, the symbolic checker responds.
+ * <br>
+ * The pool and its queue are bounded. When both are full an answer is refused straight away rather than queued
+ * behind work that is already late, so that a slow validator backs up only the answers that need it and not the
+ * rest of the API.
+ */
+public class SlowValidatorExecutor implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(SlowValidatorExecutor.class);
+  private static final double NANOSECONDS_IN_A_SECOND = 1e9;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Create an executor for slow validators.
+   *
+   * @param threads       - the number of answers to mark at once; if zero, slow validators are run on the request
+   *                      thread like any other.
+   * @param queueCapacity - the number of answers which may wait for a thread before more are refused.
+   */
+  public SlowValidatorExecutor(final int threads, final int queueCapacity) {
+    if (threads <= 0) {
+      this.executor = null;
+      return;
+    }
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+        new ThreadFactoryBuilder().setNameFormat("slow-validator-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Whether slow validators should be run on this executor, rather than on the request thread.
+   *
+   * @return true if the executor has threads to run answers on.
+   */
+  public boolean isEnabled() {
+    return null != executor;
+  }
+
+  /**
+   * Mark an answer on one of the executor's threads.
+   *
+   * @param validatorName - the name of the validator which will mark the answer, to label metrics with.
+   * @param task          - marks the answer and returns the result.
+   * @param <T>           - the type of the result.
+   * @return a future completed with the result of the task, or exceptionally if it throws.
+   * @throws RejectedExecutionException - if there are already too many answers waiting to be marked.
+   */
+  public <T> CompletableFuture<T> submit(final String validatorName, final Supplier<T> task) {
+    if (null == executor) {
+      throw new IllegalStateException("Slow validator executor has no threads.");
+    }
+    long queuedAt = System.nanoTime();
+    try {
+      CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+        VALIDATOR_QUEUE_DEPTH.set(executor.getQueue().size());
+        VALIDATOR_QUEUE_WAIT_HISTOGRAM.labels(validatorName)
+            .observe((System.nanoTime() - queuedAt) / NANOSECONDS_IN_A_SECOND);
+        return task.get();
+      }, executor);
+      VALIDATOR_QUEUE_DEPTH.set(executor.getQueue().size());
+      return future;
+    } catch (RejectedExecutionException e) {
+      VALIDATOR_REJECTED.labels(validatorName).inc();
+      throw e;
+    }
+  }
+
+  /**
+   * Stop the executor's threads, giving answers already being marked a short time to finish.
+   */
+  @Override
+  public void close() {
+    if (null == executor) {
+      return;
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        List<Runnable> unmarked = executor.shutdownNow();
+        log.warn("Slow validator executor did not stop within {} seconds; abandoned {} waiting answers",
+            SHUTDOWN_TIMEOUT_SECONDS, unmarked.size());
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Question;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ChoiceDTO;
+
+/**
+ * Maps each question class to its {@link IValidator}, from its {@link ValidatesWith} annotation, and each choice
+ * class to its {@link ISpecifier}, from its {@link SpecifiesWith} annotation.
+ * <br>
+ * The maps are built once, when the registry is created, by searching the superclasses of every class given for the
+ * annotation and creating the instance it names. Validators and specifiers are stateless, so one instance of each is
+ * shared by every class annotated with it. Marking an answer therefore does no reflection and no dependency injection.
+ */
+public class ValidatorRegistry {
+  private static final Logger log = LoggerFactory.getLogger(ValidatorRegistry.class);
+
+  private final Map<Class<?>, IValidator> validatorsByQuestionClass;
+  private final Map<Class<?>, ISpecifier> specifiersByChoiceClass;
+
+  /**
+   * Create a registry of the validators and specifiers for some classes, creating each validator and specifier now.
+   *
+   * @param classes          - the classes to find validators and specifiers for, such as every content class. Any
+   *                         class which is not a question or a choice is ignored.
+   * @param instanceProvider - creates an instance of a validator or specifier class, such as
+   *                         {@code injector::getInstance}.
+   */
+  public ValidatorRegistry(final Collection<Class<?>> classes, final Function<Class<?>, Object> instanceProvider) {
+    Map<Class<?>, Object> instancesByClass = new HashMap<>();
+    Map<Class<?>, IValidator> validators = new HashMap<>();
+    Map<Class<?>, ISpecifier> specifiers = new HashMap<>();
+    for (Class<?> type : classes) {
+      ValidatesWith validatesWith = findAnnotation(type, Question.class, ValidatesWith.class);
+      if (null != validatesWith) {
+        validators.put(type, getInstance(validatesWith.value(), instancesByClass, instanceProvider));
+      }
+      SpecifiesWith specifiesWith = findAnnotation(type, ChoiceDTO.class, SpecifiesWith.class);
+      if (null != specifiesWith) {
+        specifiers.put(type, getInstance(specifiesWith.value(), instancesByClass, instanceProvider));
+      }
+    }
+    this.validatorsByQuestionClass = Map.copyOf(validators);
+    this.specifiersByChoiceClass = Map.copyOf(specifiers);
+    log.info("Registered {} validators for {} question classes and {} specifiers for {} choice classes.",
+        validators.values().stream().distinct().count(), validators.size(),
+        specifiers.values().stream().distinct().count(), specifiers.size());
+  }
+
+  /**
+   * Get the validator for a type of question.
+   *
+   * @param questionClass - the type of question being answered.
+   * @return the validator, or null if the question type has none or was not registered.
+   */
+  public IValidator getValidator(final Class<? extends Question> questionClass) {
+    return validatorsByQuestionClass.get(questionClass);
+  }
+
+  /**
+   * Get the specifier for a type of choice.
+   *
+   * @param choiceClass - the type of choice given.
+   * @return the specifier, or null if the choice type has none or was not registered.
+   */
+  public ISpecifier getSpecifier(final Class<? extends ChoiceDTO> choiceClass) {
+    return specifiersByChoiceClass.get(choiceClass);
+  }
+
+  private static <A extends Annotation> A findAnnotation(final Class<?> type, final Class<?> baseClass,
+                                                         final Class<A> annotationClass) {
+    // Search up the superclasses, stopping at the base class, for the annotation:
+    for (Class<?> superclass = type; null != superclass && baseClass.isAssignableFrom(superclass);
+         superclass = superclass.getSuperclass()) {
+      A annotation = superclass.getAnnotation(annotationClass);
+      if (null != annotation) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private static <T> T getInstance(final Class<T> instanceClass, final Map<Class<?>, Object> instancesByClass,
+                                   final Function<Class<?>, Object> instanceProvider) {
+    return instanceClass.cast(instancesByClass.computeIfAbsent(instanceClass, instanceProvider));
+  }
+}
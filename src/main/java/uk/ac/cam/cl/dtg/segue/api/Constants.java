@@ -123,6 +123,11 @@ public final class Constants {
    */
   public static final String CONTENT_INDICES_LOCATION = "CONTENT_INDICES_LOCATION";
 
+  /**
+   * Constant representing the key for the directory in which parsed content snapshots are stored by the ETL.
+   */
+  public static final String CONTENT_SNAPSHOT_LOCATION = "CONTENT_SNAPSHOT_LOCATION";
+
   /**
    * Constant representing the segue application version.
    */
@@ -402,6 +407,9 @@ public final class Constants {
 
   // Logging component
   public static final String LOGGING_ENABLED = "LOGGING_ENABLED";
+  public static final String LOG_EVENT_QUEUE_CAPACITY = "LOG_EVENT_QUEUE_CAPACITY";
+  public static final String LOG_EVENT_BATCH_SIZE = "LOG_EVENT_BATCH_SIZE";
+  public static final String LOG_EVENT_FLUSH_INTERVAL_MILLIS = "LOG_EVENT_FLUSH_INTERVAL_MILLIS";
   public static final Integer MAX_LOG_REQUEST_BODY_SIZE_IN_BYTES = 1000000;
 
   public interface LogType {
@@ -635,11 +643,31 @@ public final class Constants {
 
   public static final String EQUALITY_CHECKER_HOST = "EQUALITY_CHECKER_HOST";
   public static final String EQUALITY_CHECKER_PORT = "EQUALITY_CHECKER_PORT";
+  public static final String EQUALITY_CHECKER_CONNECT_TIMEOUT_MILLISECONDS =
+      "EQUALITY_CHECKER_CONNECT_TIMEOUT_MILLISECONDS";
+  public static final String EQUALITY_CHECKER_SOCKET_TIMEOUT_MILLISECONDS =
+      "EQUALITY_CHECKER_SOCKET_TIMEOUT_MILLISECONDS";
+  public static final String EQUALITY_CHECKER_MAX_CONNECTIONS = "EQUALITY_CHECKER_MAX_CONNECTIONS";
+  public static final String EQUALITY_CHECKER_BATCH_REQUESTS = "EQUALITY_CHECKER_BATCH_REQUESTS";
+  public static final int EQUALITY_CHECKER_CONNECT_TIMEOUT_MILLISECONDS_DEFAULT = 2000;
+  public static final int EQUALITY_CHECKER_SOCKET_TIMEOUT_MILLISECONDS_DEFAULT = 10000;
+  public static final int EQUALITY_CHECKER_MAX_CONNECTIONS_DEFAULT = 32;
+  public static final int EQUALITY_CHECKER_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+  public static final long EQUALITY_CHECKER_CIRCUIT_BREAKER_OPEN_MILLISECONDS = 10000L;
+  public static final long EQUALITY_CHECKER_RESULT_CACHE_MAX_ENTRIES = 100000L;
+  public static final long EQUALITY_CHECKER_RESULT_CACHE_EXPIRE_AFTER_MINUTES = 24 * 60L;
+  public static final String SLOW_VALIDATOR_THREADS = "SLOW_VALIDATOR_THREADS";
+  public static final String SLOW_VALIDATOR_QUEUE_CAPACITY = "SLOW_VALIDATOR_QUEUE_CAPACITY";
+  public static final int SLOW_VALIDATOR_THREADS_DEFAULT = 16;
+  public static final int SLOW_VALIDATOR_QUEUE_CAPACITY_DEFAULT = 64;
+  public static final long SLOW_VALIDATOR_ANSWER_TIMEOUT_SECONDS = 30;
 
   public static final String QUESTION_MISUSE_THRESHOLD_OVERRIDE = "QUESTION_MISUSE_THRESHOLD_OVERRIDE";
 
   public static final String SEGUE_LOGIN_EMAIL_MISUSE_INTERVAL = "SEGUE_LOGIN_EMAIL_MISUSE_INTERVAL";
 
+  public static final String MISUSE_MONITOR_SHARED = "MISUSE_MONITOR_SHARED";
+
   // User Preferences:
   public enum SegueUserPreferences {
     EMAIL_PREFERENCE
@@ -648,6 +676,18 @@ public final class Constants {
   // Content Manager
   public static final Integer CONTENT_CACHE_EXPIRE_AFTER_ACCESS_DAYS = 1;
   public static final Integer CONTENT_SHA_CACHE_EXPIRE_AFTER_ACCESS_SECONDS = 5;
+  public static final Integer CONTENT_CACHE_MAX_OBJECTS = 20000;
+  public static final Integer CONTENT_CACHE_MAX_QUERIES = 2000;
+  public static final Integer CONTENT_CACHE_MAX_MISSING_OBJECTS = 2000;
+  public static final Integer CONTENT_CACHE_MISSING_EXPIRE_AFTER_WRITE_SECONDS = 60;
+  public static final Integer CONTENT_CACHE_WARM_UP_TOP_N = 2000;
+  public static final Integer CONTENT_CACHE_WARM_UP_TOP_N_QUERIES = 200;
+  public static final Integer CONTENT_CACHE_WARM_UP_MAX_TRACKED_IDS = 50000;
+  public static final Integer CONTENT_CACHE_WARM_UP_THREADS = 4;
+
+  // Content Indexer
+  public static final Integer CONTENT_SNAPSHOTS_TO_KEEP = 3;
+  public static final Long CONTENT_PARSE_CACHE_MAX_BYTES = 128L * 1024 * 1024;
 
   // Instruction Match boost
   public static final Long MATCH_INSTRUCTION_IMPORTANT_NON_FUZZY = 10L;
@@ -20,6 +20,7 @@ package uk.ac.cam.cl.dtg.segue.api;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_INDEX;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.HOST_NAME;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.NEVER_CACHE_WITHOUT_ETAG_CHECK;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.SLOW_VALIDATOR_ANSWER_TIMEOUT_SECONDS;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.SegueServerLogType;
 import static uk.ac.cam.cl.dtg.segue.api.managers.QuestionManager.extractPageIdFromQuestionId;
 import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
@@ -36,6 +37,8 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -43,6 +46,9 @@ import jakarta.ws.rs.core.Response.Status;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.jboss.resteasy.annotations.GZIP;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +67,8 @@ import uk.ac.cam.cl.dtg.isaac.dto.users.AbstractSegueUserDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.AnonymousUserDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.UserSummaryDTO;
+import uk.ac.cam.cl.dtg.isaac.quiz.IValidator;
+import uk.ac.cam.cl.dtg.isaac.quiz.SlowValidatorExecutor;
 import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorUnavailableException;
 import uk.ac.cam.cl.dtg.segue.api.managers.QuestionManager;
 import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
@@ -100,6 +108,7 @@ public class QuestionFacade extends AbstractSegueFacade {
   private final UserAssociationManager userAssociationManager;
   private final IMisuseMonitor misuseMonitor;
   private final IUserStreaksManager userStreaksManager;
+  private final SlowValidatorExecutor slowValidatorExecutor;
 
   /**
    * Constructor for QuestionFacade.
@@ -118,6 +127,7 @@ public class QuestionFacade extends AbstractSegueFacade {
    * @param userStreaksManager     An instance of the streaks manager to notify users when their answer streak changes
    * @param userAssociationManager An instance of the association manager to check for teacher permissions over other
    *                               users
+   * @param slowValidatorExecutor  The executor to mark answers to questions with slow validators on
    */
   @Inject
   public QuestionFacade(final PropertiesLoader properties, final ContentMapperUtils mapperUtils,
@@ -126,7 +136,8 @@ public class QuestionFacade extends AbstractSegueFacade {
                         final UserAccountManager userManager, final QuestionManager questionManager,
                         final ILogManager logManager, final IMisuseMonitor misuseMonitor,
                         final UserBadgeManager userBadgeManager, final IUserStreaksManager userStreaksManager,
-                        final UserAssociationManager userAssociationManager) {
+                        final UserAssociationManager userAssociationManager,
+                        final SlowValidatorExecutor slowValidatorExecutor) {
     super(properties, logManager);
 
     this.questionManager = questionManager;
@@ -139,6 +150,7 @@ public class QuestionFacade extends AbstractSegueFacade {
     this.userStreaksManager = userStreaksManager;
     this.userBadgeManager = userBadgeManager;
     this.userAssociationManager = userAssociationManager;
+    this.slowValidatorExecutor = slowValidatorExecutor;
   }
 
   /**
@@ -277,11 +289,16 @@ public class QuestionFacade extends AbstractSegueFacade {
 
   /**
    * Record that a user has answered a question.
+   * <br>
+   * Answers to questions with a slow validator are marked on the slow validator executor, so that the request thread
+   * is released while they are; all other answers are marked on the request thread. Everything which needs the
+   * request, including finding the user, is done on the request thread before the answer is marked.
    *
-   * @param request    the servlet request so we can find out if it is a known user.
-   * @param questionId that you are attempting to answer.
-   * @param jsonAnswer answer body which will be parsed as a Choice and then converted to a ChoiceDTO.
-   * @return Response containing a QuestionValidationResponse object or containing a SegueErrorResponse .
+   * @param request       the servlet request so we can find out if it is a known user.
+   * @param questionId    that you are attempting to answer.
+   * @param jsonAnswer    answer body which will be parsed as a Choice and then converted to a ChoiceDTO.
+   * @param asyncResponse resumed with a Response containing a QuestionValidationResponse object or containing a
+   *                      SegueErrorResponse.
    */
   @POST
   @Path("{question_id}/answer")
@@ -290,12 +307,87 @@ public class QuestionFacade extends AbstractSegueFacade {
   @GZIP
   @Operation(summary = "Submit an answer to a question.",
       description = "The answer must be the correct Choice subclass for the question with the provided ID.")
-  public Response answerQuestion(@Context final HttpServletRequest request,
-                                 @PathParam("question_id") final String questionId, final String jsonAnswer) {
+  public void answerQuestion(@Context final HttpServletRequest request,
+                             @PathParam("question_id") final String questionId, final String jsonAnswer,
+                             @Suspended final AsyncResponse asyncResponse) {
     if (null == jsonAnswer || jsonAnswer.isEmpty()) {
-      return new SegueErrorResponse(Status.BAD_REQUEST, "No answer received.").toResponse();
+      asyncResponse.resume(new SegueErrorResponse(Status.BAD_REQUEST, "No answer received.").toResponse());
+      return;
+    }
+
+    Question question;
+    ChoiceDTO answerFromClientDTO;
+    AbstractSegueUserDTO currentUser;
+    String ipAddress;
+    try {
+      question = this.getAnswerableQuestion(questionId);
+      answerFromClientDTO = questionManager.convertJsonAnswerToChoice(jsonAnswer);
+      currentUser = this.userManager.getCurrentUser(request);
+      ipAddress = RequestIpExtractor.getClientIpAddr(request);
+    } catch (IllegalArgumentException e) {
+      SegueErrorResponse error = new SegueErrorResponse(Status.BAD_REQUEST, "Bad request - " + e.getMessage(), e);
+      log.error(error.getErrorMessage(), e);
+      asyncResponse.resume(error.toResponse());
+      return;
+    } catch (SegueDatabaseException e) {
+      log.error("Unable to find the user answering a question.", e);
+      asyncResponse.resume(new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR,
+          "Unable to save question attempt. Try again later!").toResponse());
+      return;
+    } catch (ErrorResponseWrapper responseWrapper) {
+      asyncResponse.resume(responseWrapper.toResponse());
+      return;
+    }
+
+    // Refuse answers from users who are already over a limit before spending any time marking them:
+    for (AttemptMisuseCheck misuseCheck : getAttemptMisuseChecks(currentUser, questionId, ipAddress)) {
+      if (misuseMonitor.hasMisused(misuseCheck.agentIdentifier(), misuseCheck.eventLabel())) {
+        asyncResponse.resume(SegueErrorResponse.getRateThrottledResponse(misuseCheck.message()));
+        return;
+      }
+    }
+
+    IValidator slowValidator = slowValidatorExecutor.isEnabled() ? questionManager.getSlowValidator(question) : null;
+    if (null == slowValidator) {
+      asyncResponse.resume(markAnswer(questionId, question, answerFromClientDTO, currentUser, ipAddress));
+      return;
+    }
+
+    // An answer held up by a validator which never responds must not hold the request open forever:
+    asyncResponse.setTimeoutHandler(timedOutResponse -> {
+      log.warn("Timed out marking answer to {} with {}.", sanitiseExternalLogValue(questionId),
+          slowValidator.getClass().getSimpleName());
+      timedOutResponse.resume(SegueErrorResponse.getServiceUnavailableResponse(
+          "Marking your answer took too long. Please try again in a moment."));
+    });
+    asyncResponse.setTimeout(SLOW_VALIDATOR_ANSWER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    try {
+      slowValidatorExecutor.submit(slowValidator.getClass().getSimpleName(),
+              () -> markAnswer(questionId, question, answerFromClientDTO, currentUser, ipAddress))
+          .whenComplete((response, e) -> {
+            if (null != e) {
+              asyncResponse.resume(e instanceof CompletionException && null != e.getCause() ? e.getCause() : e);
+            } else {
+              asyncResponse.resume(response);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      log.warn("Too many answers waiting for {}; refusing answer to {}.", slowValidator.getClass().getSimpleName(),
+          sanitiseExternalLogValue(questionId));
+      asyncResponse.resume(SegueErrorResponse.getServiceUnavailableResponse(
+          "Too many answers are being marked right now. Please try again in a moment."));
     }
+  }
 
+  /**
+   * Find a question which may be answered through the answer endpoint.
+   *
+   * @param questionId the id of the question being answered.
+   * @return the question.
+   * @throws ErrorResponseWrapper if there is no such question, or it is part of a quiz.
+   */
+  private Question getAnswerableQuestion(final String questionId) throws ErrorResponseWrapper {
     Content contentBasedOnId;
     try {
       contentBasedOnId = this.contentManager.getContentDOById(
@@ -304,7 +396,7 @@ public class QuestionFacade extends AbstractSegueFacade {
       SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND, "Error locating the version requested",
           e1);
       log.error(error.getErrorMessage(), e1);
-      return error.toResponse();
+      throw new ErrorResponseWrapper(error);
     }
 
     Question question;
@@ -314,7 +406,7 @@ public class QuestionFacade extends AbstractSegueFacade {
       SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND,
           "No question object found for given id: " + sanitiseExternalLogValue(questionId));
       log.warn(error.getErrorMessage());
-      return error.toResponse();
+      throw new ErrorResponseWrapper(error);
     }
 
     // Prevent attempting a question through this endpoint if this question is part of a quiz.
@@ -323,59 +415,77 @@ public class QuestionFacade extends AbstractSegueFacade {
     try {
       pageContent = this.contentManager.getContentDOById(questionPageId);
       if (pageContent instanceof IsaacQuiz) {
-        return new SegueErrorResponse(Status.FORBIDDEN, "This question is part of a quiz").toResponse();
+        throw new ErrorResponseWrapper(new SegueErrorResponse(Status.FORBIDDEN, "This question is part of a quiz"));
       }
     } catch (ContentManagerException e) {
       // This doesn't make sense, so we'll log and continue.
       SegueErrorResponse error = new SegueErrorResponse(Status.NOT_FOUND, "Question without page found", e);
       log.error(error.getErrorMessage(), e);
     }
+    return question;
+  }
 
-    try {
-      ChoiceDTO answerFromClientDTO = questionManager.convertJsonAnswerToChoice(jsonAnswer);
+  /**
+   * An attempt limit which applies to an answer, and the message to give if it is exceeded.
+   */
+  private record AttemptMisuseCheck(String agentIdentifier, String eventLabel, String message) {
+  }
 
-      AbstractSegueUserDTO currentUser = this.userManager.getCurrentUser(request);
+  /**
+   * Get the attempt limits which apply to an answer, in the order they should be checked.
+   *
+   * @param currentUser the user answering the question.
+   * @param questionId  the id of the question being answered.
+   * @param ipAddress   the ip address the answer came from.
+   * @return the limits to check.
+   */
+  private static List<AttemptMisuseCheck> getAttemptMisuseChecks(final AbstractSegueUserDTO currentUser,
+                                                                 final String questionId, final String ipAddress) {
+    if (currentUser instanceof RegisteredUserDTO registeredUserDTO) {
+      // Monitor misuse on a per-question per-registered user basis, with higher limits:
+      return List.of(new AttemptMisuseCheck(registeredUserDTO.getId().toString() + "|" + questionId,
+          QuestionAttemptMisuseHandler.class.getSimpleName(),
+          "You have made too many attempts at this question part. Please try again later."));
+    }
+    // Monitor misuse on a per-question per-anonymous user basis, and then on a blanket per IP Address basis for
+    // non-logged in users. The anonymous user limit will catch most misuse, and the IP address limit will catch
+    // misuse ignoring cookies or with repeated new anon accounts.
+    return List.of(
+        new AttemptMisuseCheck(((AnonymousUserDTO) currentUser).getSessionId() + "|" + questionId,
+            AnonQuestionAttemptMisuseHandler.class.getSimpleName(),
+            "You have made too many attempts at this question part. Please log in or try again later."),
+        new AttemptMisuseCheck(ipAddress, IPQuestionAttemptMisuseHandler.class.getSimpleName(),
+            "Too many question attempts! Please either create an account, log in, or try again later."));
+  }
 
+  /**
+   * Mark an answer to a question and record the attempt, on the calling thread.
+   * <br>
+   * This does not use the servlet request, so may be called after the request thread has been released.
+   *
+   * @param questionId          the id of the question being answered.
+   * @param question            the question being answered.
+   * @param answerFromClientDTO the answer given.
+   * @param currentUser         the user answering the question.
+   * @param ipAddress           the ip address the answer came from.
+   * @return Response containing a QuestionValidationResponse object or containing a SegueErrorResponse .
+   */
+  private Response markAnswer(final String questionId, final Question question, final ChoiceDTO answerFromClientDTO,
+                              final AbstractSegueUserDTO currentUser, final String ipAddress) {
+    try {
       Response response = this.questionManager.validateAnswer(question, answerFromClientDTO);
 
       // After validating the answer, work out whether this is abuse of the endpoint. If so, record the attempt in
       // the log, but don't save it for the user. Also, return an error.
 
       // We store response.getEntity() in either case so that we can treat them the same in later analysis.
-      if (currentUser instanceof RegisteredUserDTO registeredUserDTO) {
+      for (AttemptMisuseCheck misuseCheck : getAttemptMisuseChecks(currentUser, questionId, ipAddress)) {
         try {
-          // Monitor misuse on a per-question per-registered user basis, with higher limits:
-          misuseMonitor.notifyEvent(registeredUserDTO.getId().toString() + "|" + questionId,
-              QuestionAttemptMisuseHandler.class.getSimpleName());
+          misuseMonitor.notifyEvent(misuseCheck.agentIdentifier(), misuseCheck.eventLabel());
         } catch (SegueResourceMisuseException e) {
-          this.getLogManager()
-              .logEvent(currentUser, request, SegueServerLogType.QUESTION_ATTEMPT_RATE_LIMITED, response.getEntity());
-          String message = "You have made too many attempts at this question part. Please try again later.";
-          return SegueErrorResponse.getRateThrottledResponse(message);
-        }
-      } else {
-        try {
-          // Monitor misuse on a per-question per-anonymous user basis:
-          misuseMonitor.notifyEvent(((AnonymousUserDTO) currentUser).getSessionId() + "|" + questionId,
-              AnonQuestionAttemptMisuseHandler.class.getSimpleName());
-        } catch (SegueResourceMisuseException e) {
-          this.getLogManager()
-              .logEvent(currentUser, request, SegueServerLogType.QUESTION_ATTEMPT_RATE_LIMITED, response.getEntity());
-          String message = "You have made too many attempts at this question part. Please log in or try again later.";
-          return SegueErrorResponse.getRateThrottledResponse(message);
-        }
-        try {
-          // And monitor on a blanket per IP Address basis for non-logged in users.
-          // If we see serious misuse, this could be moved to *before* the attempt validation and checking,
-          // to save server load. Since this occurs after the anon user notify event, that will catch most
-          // misuse and this will catch misuse ignoring cookies or with repeated new anon accounts.
-          misuseMonitor.notifyEvent(RequestIpExtractor.getClientIpAddr(request),
-              IPQuestionAttemptMisuseHandler.class.getSimpleName());
-        } catch (SegueResourceMisuseException e) {
-          this.getLogManager()
-              .logEvent(currentUser, request, SegueServerLogType.QUESTION_ATTEMPT_RATE_LIMITED, response.getEntity());
-          String message = "Too many question attempts! Please either create an account, log in, or try again later.";
-          return SegueErrorResponse.getRateThrottledResponse(message);
+          this.getLogManager().logEventWithIpAddress(currentUser, ipAddress,
+              SegueServerLogType.QUESTION_ATTEMPT_RATE_LIMITED, response.getEntity());
+          return SegueErrorResponse.getRateThrottledResponse(misuseCheck.message());
         }
       }
 
@@ -384,7 +494,8 @@ public class QuestionFacade extends AbstractSegueFacade {
         questionManager.recordQuestionAttempt(currentUser, questionValidationResponseDTO);
       }
 
-      this.getLogManager().logEvent(currentUser, request, SegueServerLogType.ANSWER_QUESTION, response.getEntity());
+      this.getLogManager().logEventWithIpAddress(currentUser, ipAddress, SegueServerLogType.ANSWER_QUESTION,
+          response.getEntity());
 
       // Update the user in case their streak has changed:
       if (currentUser instanceof RegisteredUserDTO registeredUserDTO) {
@@ -402,8 +513,6 @@ public class QuestionFacade extends AbstractSegueFacade {
           new SegueErrorResponse(Status.INTERNAL_SERVER_ERROR, "Unable to save question attempt. Try again later!");
       log.error("Unable to to record question attempt.", e);
       return error.toResponse();
-    } catch (ErrorResponseWrapper responseWrapper) {
-      return responseWrapper.toResponse();
     }
   }
 
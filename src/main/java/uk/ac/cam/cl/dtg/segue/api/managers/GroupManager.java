@@ -31,6 +31,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -698,12 +699,26 @@ public class GroupManager {
       userProgressMap.put(user, new ArrayList<>());
     }
 
+    // AssignmentDTO::getGameboard is not populated here, so fetch every gameboard in one go:
+    List<String> gameboardIds = assignments.stream().map(AssignmentDTO::getGameboardId).distinct()
+        .collect(Collectors.toList());
+    Map<String, GameboardDTO> gameboardsById = gameManager.getGameboards(gameboardIds).stream()
+        .collect(Collectors.toMap(GameboardDTO::getId, Function.identity(), (first, duplicate) -> first));
+
+    // Calculate progress for all the gameboards at once, so attempts are only read once for the whole group:
+    Map<String, List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>>> progressDataByGameboardId =
+        gameManager.gatherGameProgressData(groupMembers, gameboardsById.values());
+
     for (AssignmentDTO assignment : assignments) {
-      // Not sure why I have to do this but AssignmentDTO::getGameboard returns null
-      GameboardDTO gameboard = gameManager.getGameboard(assignment.getGameboardId());
+      GameboardDTO gameboard = gameboardsById.get(assignment.getGameboardId());
+      if (null == gameboard) {
+        log.warn("Unable to find gameboard ({}) for assignment ({}); excluding it from group progress.",
+            assignment.getGameboardId(), assignment.getId());
+        continue;
+      }
 
       List<ImmutablePair<RegisteredUserDTO, List<GameboardItem>>> userProgressData =
-          gameManager.gatherGameProgressData(groupMembers, gameboard);
+          progressDataByGameboardId.get(gameboard.getId());
 
       for (ImmutablePair<RegisteredUserDTO, List<GameboardItem>> userProgress : userProgressData) {
         RegisteredUserDTO user = userProgress.getKey();
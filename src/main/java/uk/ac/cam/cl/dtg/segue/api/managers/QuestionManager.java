@@ -24,7 +24,6 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.google.api.client.util.Lists;
 import com.google.api.client.util.Maps;
 import com.google.inject.Inject;
-import com.google.inject.Injector;
 import io.prometheus.client.Histogram;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.core.Response;
@@ -41,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.cam.cl.dtg.isaac.dos.AbstractUserPreferenceManager;
 import uk.ac.cam.cl.dtg.isaac.dos.LightweightQuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionAttemptIndex;
 import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
 import uk.ac.cam.cl.dtg.isaac.dos.TestCase;
 import uk.ac.cam.cl.dtg.isaac.dos.TestQuestion;
@@ -69,13 +69,11 @@ import uk.ac.cam.cl.dtg.isaac.mappers.MainObjectMapper;
 import uk.ac.cam.cl.dtg.isaac.quiz.IQuestionAttemptManager;
 import uk.ac.cam.cl.dtg.isaac.quiz.ISpecifier;
 import uk.ac.cam.cl.dtg.isaac.quiz.IValidator;
-import uk.ac.cam.cl.dtg.isaac.quiz.SpecifiesWith;
-import uk.ac.cam.cl.dtg.isaac.quiz.ValidatesWith;
+import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistry;
 import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorUnavailableException;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
 import uk.ac.cam.cl.dtg.segue.api.Constants.TimeInterval;
 import uk.ac.cam.cl.dtg.segue.api.ErrorResponseWrapper;
-import uk.ac.cam.cl.dtg.segue.configuration.SegueGuiceConfigurationModule;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
 import uk.ac.cam.cl.dtg.util.QueryUtils;
@@ -93,6 +91,7 @@ public class QuestionManager {
   private final MainObjectMapper objectMapper;
   private final IQuestionAttemptManager questionAttemptPersistenceManager;
   private final AbstractUserPreferenceManager userPreferenceManager;
+  private final ValidatorRegistry validatorRegistry;
 
   /**
    * Create a default Question manager object.
@@ -102,46 +101,28 @@ public class QuestionManager {
    * @param questionPersistenceManager for question attempt persistence.
    * @param userPreferenceManager      An instance of the Abstract User preference manager to check for user
    *                                   preferences
+   * @param validatorRegistry          the validators and specifiers for each type of question and choice.
    */
   @Inject
   public QuestionManager(final ContentMapperUtils mapperUtils, final MainObjectMapper objectMapper,
                          final IQuestionAttemptManager questionPersistenceManager,
-                         final AbstractUserPreferenceManager userPreferenceManager) {
+                         final AbstractUserPreferenceManager userPreferenceManager,
+                         final ValidatorRegistry validatorRegistry) {
     this.mapperUtils = mapperUtils;
     this.objectMapper = objectMapper;
     this.questionAttemptPersistenceManager = questionPersistenceManager;
     this.userPreferenceManager = userPreferenceManager;
+    this.validatorRegistry = validatorRegistry;
   }
 
   /**
-   * Reflection to try and determine the associated validator for the question being answered.
+   * Determine the associated validator for the question being answered.
    *
    * @param questionType the type of question being answered.
    * @return a Validator
    */
-  @SuppressWarnings("unchecked")
-  private static IValidator locateValidator(final Class<? extends Question> questionType) {
-    // check we haven't gone too high up the superclass tree
-    if (!Question.class.isAssignableFrom(questionType)) {
-      return null;
-    }
-
-    // Does this class have the correct annotation?
-    if (questionType.isAnnotationPresent(ValidatesWith.class)) {
-
-      log.debug("Validator for question validation found. Using : {}",
-          questionType.getAnnotation(ValidatesWith.class).value());
-      Injector injector = SegueGuiceConfigurationModule.getGuiceInjector();
-      return injector.getInstance(questionType.getAnnotation(ValidatesWith.class).value());
-
-    } else if (questionType.equals(Question.class)) {
-      // so if we get here then we haven't found a ValidatesWith class, so
-      // we should just give up and return null.
-      return null;
-    }
-
-    // we will continue our search of the superclasses for the annotation
-    return locateValidator((Class<? extends Question>) questionType.getSuperclass());
+  private IValidator locateValidator(final Class<? extends Question> questionType) {
+    return validatorRegistry.getValidator(questionType);
   }
 
   /**
@@ -189,6 +170,18 @@ public class QuestionManager {
     return questionId.split(Constants.ESCAPED_ID_SEPARATOR)[0];
   }
 
+  /**
+   * Find the validator for a question if it is slow, so that answers to the question can be marked off the request
+   * thread.
+   *
+   * @param question the question being answered.
+   * @return the validator for the question if it is slow, or null if it is not or the question has none.
+   */
+  public IValidator getSlowValidator(final Question question) {
+    IValidator validator = locateValidator(question.getClass());
+    return null != validator && validator.isSlow() ? validator : null;
+  }
+
   /**
    * Validate client answer to recorded answer.
    *
@@ -223,34 +216,13 @@ public class QuestionManager {
   }
 
   /**
-   * Reflection to try and determine the associated specifier for the choice given.
+   * Determine the associated specifier for the choice given.
    *
    * @param choiceClass the type of choice given.
    * @return a Validator
    */
-  @SuppressWarnings("unchecked")
   private ISpecifier locateSpecifier(final Class<? extends ChoiceDTO> choiceClass) {
-    // check we haven't gone too high up the superclass tree
-    if (!ChoiceDTO.class.isAssignableFrom(choiceClass)) {
-      return null;
-    }
-
-    // Does this class have the correct annotation?
-    if (choiceClass.isAnnotationPresent(SpecifiesWith.class)) {
-
-      log.debug("Specifier for specification creation found. Using : {}",
-          choiceClass.getAnnotation(SpecifiesWith.class).value());
-      Injector injector = SegueGuiceConfigurationModule.getGuiceInjector();
-      return injector.getInstance(choiceClass.getAnnotation(SpecifiesWith.class).value());
-
-    } else if (choiceClass.equals(ChoiceDTO.class)) {
-      // so if we get here then we haven't found a SpecifiesWith class, so
-      // we should just give up and return null.
-      return null;
-    }
-
-    // we will continue our search of the superclasses for the annotation
-    return locateSpecifier((Class<? extends ChoiceDTO>) choiceClass.getSuperclass());
+    return validatorRegistry.getSpecifier(choiceClass);
   }
 
   /**
@@ -383,7 +355,7 @@ public class QuestionManager {
       }
       ChoiceQuestion testQuestion = (ChoiceQuestion) questionClass.newInstance();
       testQuestion.setChoices(testDefinition.getUserDefinedChoices());
-      IValidator questionValidator = QuestionManager.locateValidator(testQuestion.getClass());
+      IValidator questionValidator = locateValidator(testQuestion.getClass());
       if (null == questionValidator) {
         throw new ValidatorUnavailableException("Could not find a validator for the question");
       }
@@ -446,6 +418,46 @@ public class QuestionManager {
         questionPageIds);
   }
 
+  /**
+   * Retrieve a compact index of the users' attempts at some question parts, for progress calculations.
+   *
+   * @param users       who we are interested in.
+   * @param questionIds the full ids of the question parts we want to look up.
+   * @return a map of user id to the index of their question attempts.
+   * @throws SegueDatabaseException if there is a database error.
+   */
+  public Map<Long, QuestionAttemptIndex> getQuestionAttemptIndexes(final List<RegisteredUserDTO> users,
+                                                                   final List<String> questionIds)
+      throws SegueDatabaseException {
+    List<Long> userIds = Lists.newArrayList();
+    for (RegisteredUserDTO user : users) {
+      userIds.add(user.getId());
+    }
+
+    return this.questionAttemptPersistenceManager.getQuestionAttemptIndexesByUsers(userIds, questionIds);
+  }
+
+  /**
+   * Read the question attempts of each of the users in turn, so they can be processed without holding the attempts of
+   * every user in memory at once.
+   *
+   * @param users       who we are interested in, in the order they should be consumed.
+   * @param questionIds the full ids of the question parts we want to look up.
+   * @param consumer    called with the id and attempt index of each user in turn.
+   * @throws SegueDatabaseException if there is a database error.
+   * @throws IOException            if the consumer fails.
+   */
+  public void streamQuestionAttemptIndexes(final List<RegisteredUserDTO> users, final List<String> questionIds,
+                                           final IQuestionAttemptManager.QuestionAttemptIndexConsumer consumer)
+      throws SegueDatabaseException, IOException {
+    List<Long> userIds = Lists.newArrayList();
+    for (RegisteredUserDTO user : users) {
+      userIds.add(user.getId());
+    }
+
+    this.questionAttemptPersistenceManager.streamQuestionAttemptIndexesByUsers(userIds, questionIds, consumer);
+  }
+
   /**
    * Helper method for attempts from a single user.
    *
@@ -55,7 +55,6 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.ac.cam.cl.dtg.isaac.api.managers.GameManager;
 import uk.ac.cam.cl.dtg.isaac.api.services.ContentSummarizerService;
 import uk.ac.cam.cl.dtg.isaac.dos.AudienceContext;
 import uk.ac.cam.cl.dtg.isaac.dos.IUserStreaksManager;
@@ -64,13 +63,13 @@ import uk.ac.cam.cl.dtg.isaac.dos.users.Role;
 import uk.ac.cam.cl.dtg.isaac.dos.users.School;
 import uk.ac.cam.cl.dtg.isaac.dto.ResultsWrapper;
 import uk.ac.cam.cl.dtg.isaac.dto.content.ContentDTO;
-import uk.ac.cam.cl.dtg.isaac.dto.content.QuestionDTO;
 import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
 import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
 import uk.ac.cam.cl.dtg.segue.dao.ResourceNotFoundException;
 import uk.ac.cam.cl.dtg.segue.dao.SegueDatabaseException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
 import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
+import uk.ac.cam.cl.dtg.segue.dao.content.QuestionPageStructure;
 import uk.ac.cam.cl.dtg.segue.dao.schools.SchoolListReader;
 import uk.ac.cam.cl.dtg.segue.dao.schools.UnableToIndexSchoolsException;
 import uk.ac.cam.cl.dtg.segue.search.SegueSearchException;
@@ -414,7 +413,12 @@ public class StatisticsManager implements IStatisticsManager {
 
     Map<String, Map<String, List<QuestionValidationResponse>>> questionAttemptsByUser =
         questionManager.getQuestionAttemptsByUser(userOfInterest);
+    String contentSHA = contentManager.getCurrentContentSHA();
     Map<String, ContentDTO> questionMap = this.getQuestionMap(questionAttemptsByUser.keySet());
+    if (!contentSHA.equals(contentManager.getCurrentContentSHA())) {
+      // The questions may be from either version, so their structure must not be cached against either:
+      contentSHA = null;
+    }
 
     // Loop through each Question attempted:
     for (Entry<String, Map<String, List<QuestionValidationResponse>>> question : questionAttemptsByUser.entrySet()) {
@@ -433,17 +437,20 @@ public class StatisticsManager implements IStatisticsManager {
       LocalDate mostRecentCorrectQuestionPart = null;
       LocalDate mostRecentAttemptAtQuestion = null;
       // Loop through each Part of the Question:
-      for (QuestionDTO questionPart : GameManager.getAllMarkableQuestionPartsDFSOrder(questionContentDTO)) {
+      QuestionPageStructure questionPageStructure =
+          contentManager.getQuestionPageStructure(questionContentDTO, contentSHA);
+      for (int i = 0; i < questionPageStructure.getPartCount(); i++) {
+        String questionPartId = questionPageStructure.getPartId(i);
 
         boolean questionPartIsCorrect = false;  // Is this Part of the Question correct?
         // Has the user attempted this part of the question at all?
-        if (question.getValue().containsKey(questionPart.getId())) {
+        if (question.getValue().containsKey(questionPartId)) {
           userQuestionInformation.incrementAttemptedQuestionParts();
 
           LocalDate mostRecentAttemptAtThisQuestionPart = null;
 
           // Loop through each attempt at the Question Part if they have attempted it:
-          for (QuestionValidationResponse validationResponse : question.getValue().get(questionPart.getId())) {
+          for (QuestionValidationResponse validationResponse : question.getValue().get(questionPartId)) {
             LocalDate dateAttempted =
                 LocalDateTime.ofInstant(validationResponse.getDateAttempted(), ZoneId.systemDefault()).toLocalDate();
             if (mostRecentAttemptAtThisQuestionPart == null || dateAttempted.isAfter(
@@ -464,7 +471,7 @@ public class StatisticsManager implements IStatisticsManager {
           }
 
           // Type Stats - Count the attempt at the Question Part:
-          String questionPartType = questionPart.getType();
+          String questionPartType = questionPageStructure.getPartType(i);
           userQuestionInformation.incrementQuestionAttemptsByTypeStats(questionPartType);
 
           if (mostRecentAttemptAtThisQuestionPart != null) {
@@ -698,6 +698,7 @@ public class UserAccountManager implements IUserAccountManager {
 
     // save the user
     RegisteredUser userToReturn = this.database.createOrUpdateUser(userToSave);
+    this.userAuthenticationManager.invalidateCachedUser(userToReturn.getId());
     if (null != newPassword && !newPassword.isEmpty()) {
       authenticator.setOrChangeUsersPassword(userToReturn, newPassword);
     }
@@ -1276,6 +1277,7 @@ public class UserAccountManager implements IUserAccountManager {
     userToSave.setRole(requestedRole);
     userToSave.setTeacherPending(false);
     this.database.createOrUpdateUser(userToSave);
+    this.userAuthenticationManager.invalidateCachedUser(userToSave.getId());
   }
 
   /**
@@ -1299,6 +1301,7 @@ public class UserAccountManager implements IUserAccountManager {
     userToSave.setEmailVerificationStatus(requestedEmailVerificationStatus);
     userToSave.setLastUpdated(Instant.now());
     this.database.createOrUpdateUser(userToSave);
+    this.userAuthenticationManager.invalidateCachedUser(userToSave.getId());
   }
 
   /**
@@ -1318,6 +1321,7 @@ public class UserAccountManager implements IUserAccountManager {
 
     // delete the user.
     this.database.deleteUserAccount(userDOById);
+    this.userAuthenticationManager.invalidateCachedUser(userDOById.getId());
   }
 
   /**
@@ -1341,6 +1345,8 @@ public class UserAccountManager implements IUserAccountManager {
 
     // merge the users.
     this.database.mergeUserAccounts(targetUser, sourceUser);
+    this.userAuthenticationManager.invalidateCachedUser(targetUser.getId());
+    this.userAuthenticationManager.invalidateCachedUser(sourceUser.getId());
   }
 
   /**
@@ -1396,6 +1402,7 @@ public class UserAccountManager implements IUserAccountManager {
 
       // Save user object
       this.database.createOrUpdateUser(user);
+      this.userAuthenticationManager.invalidateCachedUser(user.getId());
 
       String emailVerificationToken = user.getEmailVerificationToken();
 
@@ -1472,6 +1479,7 @@ public class UserAccountManager implements IUserAccountManager {
 
       // Save user
       RegisteredUser createOrUpdateUser = this.database.createOrUpdateUser(user);
+      this.userAuthenticationManager.invalidateCachedUser(createOrUpdateUser.getId());
       log.info("Email verification for user ({}) has completed successfully.", createOrUpdateUser.getId());
       return this.convertUserDOToUserDTO(createOrUpdateUser);
     } else {
@@ -1982,11 +1990,14 @@ public class UserAccountManager implements IUserAccountManager {
   private void updateLastSeen(final RegisteredUser user) throws SegueDatabaseException {
     if (user.getLastSeen() == null) {
       this.database.updateUserLastSeen(user);
+      this.userAuthenticationManager.invalidateCachedUser(user.getId());
     } else {
       // work out if we should update the user record again...
       long minutesElapsed = Math.abs(Duration.between(Instant.now(), user.getLastSeen()).toMinutes());
       if (minutesElapsed > LAST_SEEN_UPDATE_FREQUENCY_MINUTES) {
         this.database.updateUserLastSeen(user);
+        // Otherwise the cached user would still have the old last seen time and be updated again on every request:
+        this.userAuthenticationManager.invalidateCachedUser(user.getId());
       }
     }
   }
@@ -2001,6 +2012,7 @@ public class UserAccountManager implements IUserAccountManager {
       throws SegueDatabaseException {
     RegisteredUser user = findUserById(userDTO.getId());
     this.database.updatePrivacyPolicyAcceptedTime(user, privacyPolicyAcceptedTime);
+    this.userAuthenticationManager.invalidateCachedUser(user.getId());
   }
 
   /**
@@ -2080,6 +2092,7 @@ public class UserAccountManager implements IUserAccountManager {
     }
     user.setTeacherPending(newFlagValue);
     RegisteredUser updatedUser = database.createOrUpdateUser(user);
+    this.userAuthenticationManager.invalidateCachedUser(userId);
     return dtoMapper.map(updatedUser);
   }
 
@@ -38,12 +38,15 @@ import static uk.ac.cam.cl.dtg.segue.api.Constants.SESSION_EXPIRY_SECONDS_FALLBA
 import static uk.ac.cam.cl.dtg.segue.api.Constants.SESSION_TOKEN;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.SESSION_USER_ID;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.STATE_PARAM_NAME;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CACHE_METRICS_COLLECTOR;
 import static uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils.getSharedBasicObjectMapper;
 import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
@@ -66,6 +69,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -77,6 +82,7 @@ import org.slf4j.LoggerFactory;
 import uk.ac.cam.cl.dtg.isaac.dos.users.RegisteredUser;
 import uk.ac.cam.cl.dtg.isaac.dos.users.UserFromAuthProvider;
 import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
+import uk.ac.cam.cl.dtg.isaac.mappers.UserMapper;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
 import uk.ac.cam.cl.dtg.segue.auth.AuthenticationProvider;
 import uk.ac.cam.cl.dtg.segue.auth.IAuthenticator;
@@ -117,6 +123,8 @@ public class UserAuthenticationManager {
   private static final String HMAC_SHA_ALGORITHM = "HmacSHA256";
   private static final String SAME_SITE_LAX_COMMENT = "__SAME_SITE_LAX__";
   private static final String SAME_SITE_NONE_COMMENT = "__SAME_SITE_NONE__";
+  private static final int SESSION_USER_CACHE_MAX_USERS = 10000;
+  private static final int SESSION_USER_CACHE_EXPIRY_SECONDS = 10;
 
   private final PropertiesLoader properties;
   private final IUserDataManager database;
@@ -127,6 +135,11 @@ public class UserAuthenticationManager {
 
   private final Map<AuthenticationProvider, IAuthenticator> registeredAuthProviders;
 
+  // Other API instances can change users and end sessions too, so cached users are only trusted for a short time:
+  private final Cache<Long, CachedSessionUser> sessionUserCache;
+  // Incremented on every invalidation, so that a lookup racing with a change does not cache the old user:
+  private final AtomicLong sessionUserCacheGeneration = new AtomicLong();
+
   /**
    * Fully injectable constructor.
    *
@@ -155,6 +168,11 @@ public class UserAuthenticationManager {
     boolean isProduction = properties.getProperty(Constants.SEGUE_APP_ENVIRONMENT).equals(EnvironmentType.PROD.name());
     this.checkOriginHeader = isProduction;
     this.setSecureCookies = isProduction;
+
+    this.sessionUserCache = CacheBuilder.newBuilder().recordStats()
+        .maximumSize(SESSION_USER_CACHE_MAX_USERS)
+        .expireAfterWrite(SESSION_USER_CACHE_EXPIRY_SECONDS, TimeUnit.SECONDS).build();
+    CACHE_METRICS_COLLECTOR.addCache("session_user_cache", sessionUserCache);
   }
 
   /**
@@ -463,17 +481,40 @@ public class UserAuthenticationManager {
       return null;
     }
 
-    // Retrieve the user from database.
     try {
+      // Get the user the cookie claims to belong to from the session information:
+      long currentUserId = Long.parseLong(currentSessionInformation.get(SESSION_USER_ID));
+
+      CachedSessionUser cachedSessionUser = sessionUserCache.getIfPresent(currentUserId);
+      if (null != cachedSessionUser) {
+        if (!this.isValidUsersSession(currentSessionInformation, cachedSessionUser.sessionToken())) {
+          log.debug("User session has failed validation. Treating as logged out. Session: {}",
+              currentSessionInformation);
+          return null;
+        }
+        // Callers are free to modify the user they are given, so never hand out the cached object itself:
+        return UserMapper.INSTANCE.copy(cachedSessionUser.user());
+      }
+
+      // Retrieve the user from database.
+      long generation = sessionUserCacheGeneration.get();
+      Integer databaseSessionToken = database.getSessionToken(currentUserId);
       // Check that the user's session is indeed valid:
-      if (!isSessionValid(currentSessionInformation)) {
+      if (null == databaseSessionToken || !this.isValidUsersSession(currentSessionInformation, databaseSessionToken)) {
         log.debug("User session has failed validation. Treating as logged out. Session: {}", currentSessionInformation);
         return null;
       }
 
-      // Get the user the cookie claims to belong to from the session information:
-      long currentUserId = Long.parseLong(currentSessionInformation.get(SESSION_USER_ID));
-      return database.getById(currentUserId);
+      RegisteredUser currentUser = database.getById(currentUserId);
+      if (null != currentUser) {
+        sessionUserCache.put(currentUserId,
+            new CachedSessionUser(databaseSessionToken, UserMapper.INSTANCE.copy(currentUser)));
+        if (sessionUserCacheGeneration.get() != generation) {
+          // The user or their session changed while we were loading them; the cached copy may be out of date.
+          sessionUserCache.invalidate(currentUserId);
+        }
+      }
+      return currentUser;
     } catch (SegueDatabaseException e) {
       log.error("Internal Database error. Failed to resolve current user.", e);
       return null;
@@ -550,6 +591,23 @@ public class UserAuthenticationManager {
     // associated sessions will be invalidated as their token value will no longer match the database value.
     // A new session token will need to generated and assigned when reauthenticating the user.
     this.database.invalidateSessionToken(currentUser);
+    this.invalidateCachedUser(currentUser.getId());
+  }
+
+  /**
+   * Remove any cached copy of a user and their session token, so that the next request for their session reads them
+   * from the database.
+   * <br>
+   * This must be called after any change to the user record or session token. Changes made by other API instances are
+   * only seen once the cached copy expires.
+   *
+   * @param userId the id of the user who has changed.
+   */
+  public void invalidateCachedUser(final Long userId) {
+    sessionUserCacheGeneration.incrementAndGet();
+    if (null != userId) {
+      sessionUserCache.invalidate(userId);
+    }
   }
 
   /**
@@ -890,6 +948,7 @@ public class UserAuthenticationManager {
                              @Nullable final String partialLoginFlagString) throws SegueDatabaseException {
     DateTimeFormatter sessionDateFormat = DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT).withZone(UTC);
     String newUserSessionToken = this.database.regenerateSessionToken(user).toString();
+    this.invalidateCachedUser(user.getId());
     String userId = user.getId().toString();
     String hmacKey = properties.getProperty(HMAC_SALT);
 
@@ -1160,7 +1219,9 @@ public class UserAuthenticationManager {
   public boolean isSessionValid(final Map<String, String> currentSessionInformation) {
     try {
       long currentUserId = Long.parseLong(currentSessionInformation.get(SESSION_USER_ID));
-      Integer databaseSessionToken = database.getSessionToken(currentUserId);
+      CachedSessionUser cachedSessionUser = sessionUserCache.getIfPresent(currentUserId);
+      Integer databaseSessionToken = null != cachedSessionUser ? cachedSessionUser.sessionToken()
+          : database.getSessionToken(currentUserId);
       if (null == databaseSessionToken || !this.isValidUsersSession(currentSessionInformation, databaseSessionToken)) {
         log.warn("User session has failed validation. Validation checks did not pass.");
         return false;
@@ -1257,4 +1318,10 @@ public class UserAuthenticationManager {
     }
     return null;
   }
+
+  /**
+   * A user as last read from the database, along with the session token their cookie must match.
+   */
+  private record CachedSessionUser(Integer sessionToken, RegisteredUser user) {
+  }
 }
@@ -0,0 +1,300 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.segue.api.monitors;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.Validate;
+import uk.ac.cam.cl.dtg.isaac.dto.MisuseStatisticDTO;
+import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
+
+/**
+ * In memory misuse monitor which does not take a global lock.
+ * <br>
+ * Each agent and event pair has its own counter, made up of a ring of time buckets spanning the handler's accounting
+ * interval. Buckets are updated with compare-and-set, so concurrent requests only contend when they are for the same
+ * agent and event. The count is the sum of the buckets within the last accounting interval (a sliding window), rather
+ * than a fixed window which resets entirely once it has expired.
+ * <br>
+ * Soft and hard threshold actions are executed at most once per accounting interval per agent and event.
+ */
+public class LockFreeMisuseMonitor implements IMisuseMonitor {
+  static final int BUCKETS_PER_WINDOW = 10;
+
+  // Cache of the form agentIdentifier --> Event --> Counter
+  private final Cache<String, ConcurrentMap<String, SlidingWindowCounter>> nonPersistentDatabase;
+
+  private final Map<String, IMisuseHandler> handlerMap;
+
+  private final LongSupplier currentTimeMillis;
+
+  /**
+   * Creates a misuse monitor that just uses non-persistent storage.
+   */
+  @Inject
+  public LockFreeMisuseMonitor() {
+    this(System::currentTimeMillis);
+  }
+
+  /**
+   * Creates a misuse monitor using the provided clock.
+   *
+   * @param currentTimeMillis - supplier of the current epoch millisecond time.
+   */
+  LockFreeMisuseMonitor(final LongSupplier currentTimeMillis) {
+    this.nonPersistentDatabase = CacheBuilder.newBuilder().expireAfterAccess(2, TimeUnit.DAYS)
+        .<String, ConcurrentMap<String, SlidingWindowCounter>>build();
+    this.handlerMap = Maps.newConcurrentMap();
+    this.currentTimeMillis = currentTimeMillis;
+  }
+
+  @Override
+  public void registerHandler(final String eventToHandle, final IMisuseHandler handler) {
+    handlerMap.put(eventToHandle, handler);
+  }
+
+  @Override
+  public void notifyEvent(final String agentIdentifier, final String eventLabel)
+      throws SegueResourceMisuseException {
+    this.notifyEvent(agentIdentifier, eventLabel, 1);
+  }
+
+  @Override
+  public void notifyEvent(final String agentIdentifier, final String eventLabel, final Integer adjustmentValue)
+      throws SegueResourceMisuseException {
+    Validate.notBlank(agentIdentifier);
+    Validate.notBlank(eventLabel);
+    requireNonNull(adjustmentValue);
+    Validate.isTrue(adjustmentValue >= 0, "Expected positive integer value.");
+
+    IMisuseHandler handler = handlerMap.get(eventLabel);
+    requireNonNull(handler, "No handler has been registered for " + eventLabel);
+
+    long now = currentTimeMillis.getAsLong();
+    SlidingWindowCounter counter = getOrCreateCounter(agentIdentifier, eventLabel, handler, now);
+    int currentValue = counter.add(now, adjustmentValue);
+
+    Integer softThreshold = handler.getSoftThreshold();
+    if (softThreshold != null && currentValue >= softThreshold && counter.claimSoftThresholdAction(now)) {
+      handler.executeSoftThresholdAction(String.format("(%s) has exceeded the soft limit!", agentIdentifier));
+    }
+
+    Integer hardThreshold = handler.getHardThreshold();
+    if (hardThreshold != null) {
+      if (currentValue >= hardThreshold && counter.claimHardThresholdAction(now)) {
+        handler.executeHardThresholdAction(String.format("(%s) has exceeded the hard limit!", agentIdentifier));
+      }
+
+      if (currentValue > hardThreshold) {
+        throw new SegueResourceMisuseException("Exceeded resource usage limit on " + eventLabel);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasMisused(final String agentIdentifier, final String eventToCheck) {
+    return willHaveMisused(agentIdentifier, eventToCheck, 0);
+  }
+
+  @Override
+  public boolean willHaveMisused(final String agentIdentifier, final String eventToCheck,
+                                 final Integer adjustmentValue) {
+    SlidingWindowCounter counter = getCounterIfPresent(agentIdentifier, eventToCheck);
+    IMisuseHandler handler = handlerMap.get(eventToCheck);
+    if (null == counter || null == handler || null == handler.getHardThreshold()) {
+      return false;
+    }
+
+    int currentValue = counter.total(currentTimeMillis.getAsLong());
+    return currentValue > 0 && currentValue + adjustmentValue >= handler.getHardThreshold();
+  }
+
+  @Override
+  public void resetMisuseCount(final String agentIdentifier, final String eventLabel) {
+    ConcurrentMap<String, SlidingWindowCounter> existingHistory = nonPersistentDatabase.getIfPresent(agentIdentifier);
+    if (null != existingHistory) {
+      existingHistory.remove(eventLabel);
+    }
+  }
+
+  @Override
+  public Map<String, List<MisuseStatisticDTO>> getMisuseStatistics(final long n) {
+    long now = currentTimeMillis.getAsLong();
+    Map<String, ConcurrentMap<String, SlidingWindowCounter>> cache = nonPersistentDatabase.asMap();
+    return handlerMap.entrySet().stream()
+        .map(handlerEntry -> {
+          String eventLabel = handlerEntry.getKey();
+          Integer softThreshold = handlerEntry.getValue().getSoftThreshold();
+          return Map.entry(
+              eventLabel,
+              cache.entrySet().stream()
+                  .filter(e -> e.getValue().containsKey(eventLabel))
+                  .map(e -> Map.entry(e.getKey(), e.getValue().get(eventLabel)))
+                  .filter(e -> null != e.getValue())
+                  .map(e -> Map.entry(e.getKey(), Map.entry(e.getValue().getLastEventTimestamp(),
+                      e.getValue().total(now))))
+                  .sorted(Comparator.comparingInt((Entry<String, Entry<Instant, Integer>> e) -> e.getValue().getValue())
+                      .reversed())
+                  .limit(n)
+                  .map(e -> {
+                    String agentIdentifier = e.getKey();
+                    Entry<Instant, Integer> misuseEntry = e.getValue();
+                    return new MisuseStatisticDTO(
+                        agentIdentifier, eventLabel, hasMisused(agentIdentifier, eventLabel),
+                        softThreshold != null && misuseEntry.getValue() >= softThreshold,
+                        misuseEntry.getKey(), misuseEntry.getValue()
+                    );
+                  })
+                  .collect(Collectors.toList())
+          );
+        }).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+  }
+
+  private SlidingWindowCounter getCounterIfPresent(final String agentIdentifier, final String eventLabel) {
+    ConcurrentMap<String, SlidingWindowCounter> existingHistory = nonPersistentDatabase.getIfPresent(agentIdentifier);
+    if (null == existingHistory) {
+      return null;
+    }
+    return existingHistory.get(eventLabel);
+  }
+
+  private SlidingWindowCounter getOrCreateCounter(final String agentIdentifier, final String eventLabel,
+                                                  final IMisuseHandler handler, final long now) {
+    ConcurrentMap<String, SlidingWindowCounter> existingHistory;
+    try {
+      existingHistory = nonPersistentDatabase.get(agentIdentifier, Maps::newConcurrentMap);
+    } catch (ExecutionException e) {
+      // Creating an empty map cannot throw a checked exception.
+      throw new IllegalStateException(e);
+    }
+
+    SlidingWindowCounter counter = existingHistory.get(eventLabel);
+    if (null == counter) {
+      counter = existingHistory.computeIfAbsent(eventLabel,
+          k -> new SlidingWindowCounter(handler.getAccountingIntervalInSeconds(), now));
+    }
+    return counter;
+  }
+
+  /**
+   * Counter for a single agent and event, split into a ring of buckets covering one accounting interval.
+   * <br>
+   * Each bucket packs the bucket number (relative to the creation of the counter) into the upper 32 bits and the count
+   * for that bucket into the lower 32 bits, so that a stale bucket can be reset and incremented with a single CAS.
+   */
+  static final class SlidingWindowCounter {
+    private static final int COUNT_BITS = 32;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final long bucketWidthMillis;
+    private final long originBucket;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_PER_WINDOW);
+    private final AtomicLong lastEventMillis = new AtomicLong();
+    private final AtomicLong softThresholdActionBucket = new AtomicLong(NEVER);
+    private final AtomicLong hardThresholdActionBucket = new AtomicLong(NEVER);
+
+    SlidingWindowCounter(final int accountingIntervalInSeconds, final long now) {
+      this.bucketWidthMillis = bucketWidthMillis(accountingIntervalInSeconds);
+      this.originBucket = now / bucketWidthMillis;
+    }
+
+    static long bucketWidthMillis(final int accountingIntervalInSeconds) {
+      return Math.max(1L, TimeUnit.SECONDS.toMillis(accountingIntervalInSeconds) / BUCKETS_PER_WINDOW);
+    }
+
+    /**
+     * Add to the current bucket.
+     *
+     * @return the total within the window, including this adjustment.
+     */
+    int add(final long now, final int adjustment) {
+      long bucket = relativeBucket(now);
+      int index = (int) (bucket % BUCKETS_PER_WINDOW);
+      while (true) {
+        long packed = buckets.get(index);
+        long existingCount = (packed >>> COUNT_BITS) == bucket ? packed & COUNT_MASK : 0;
+        long newCount = Math.min(existingCount + adjustment, Integer.MAX_VALUE);
+        if (buckets.compareAndSet(index, packed, (bucket << COUNT_BITS) | newCount)) {
+          break;
+        }
+      }
+      lastEventMillis.accumulateAndGet(now, Math::max);
+      return total(now);
+    }
+
+    int total(final long now) {
+      long bucket = relativeBucket(now);
+      long total = 0;
+      for (int i = 0; i < BUCKETS_PER_WINDOW; i++) {
+        long packed = buckets.get(i);
+        long age = bucket - (packed >>> COUNT_BITS);
+        if (age >= 0 && age < BUCKETS_PER_WINDOW) {
+          total += packed & COUNT_MASK;
+        }
+      }
+      return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    Instant getLastEventTimestamp() {
+      return Instant.ofEpochMilli(lastEventMillis.get());
+    }
+
+    boolean claimSoftThresholdAction(final long now) {
+      return claimAction(softThresholdActionBucket, relativeBucket(now));
+    }
+
+    boolean claimHardThresholdAction(final long now) {
+      return claimAction(hardThresholdActionBucket, relativeBucket(now));
+    }
+
+    /**
+     * Only one thread per window may perform a threshold action; the winner is whoever moves the marker forward.
+     */
+    private static boolean claimAction(final AtomicLong lastActionBucket, final long bucket) {
+      while (true) {
+        long previous = lastActionBucket.get();
+        if (previous != NEVER && bucket - previous < BUCKETS_PER_WINDOW) {
+          return false;
+        }
+        if (lastActionBucket.compareAndSet(previous, bucket)) {
+          return true;
+        }
+      }
+    }
+
+    private long relativeBucket(final long now) {
+      return Math.max(0L, now / bucketWidthMillis - originBucket);
+    }
+  }
+}
@@ -0,0 +1,560 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.segue.api.monitors;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.isaac.dto.MisuseStatisticDTO;
+import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
+import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
+
+/**
+ * Misuse monitor which shares its counts between API replicas using the misuse_counters table.
+ * <br>
+ * Events are counted locally, as in {@link LockFreeMisuseMonitor}, and the deltas are periodically written to Postgres
+ * in a single batch of upserts, after which the shared totals of the flushed counters are read back. The locally known
+ * count for an agent is the events seen by this node plus the count from other nodes at the last sync. Only once that
+ * gets close to the hard threshold does a request synchronously flush its counter and read the shared total, so
+ * threshold decisions near the limit are made on the count from all nodes, while ordinary requests never touch the
+ * database.
+ * <br>
+ * Threshold actions, such as emails to the team, are claimed in the misuse_threshold_actions table so that each is
+ * performed by only one node per accounting window.
+ * <br>
+ * Database errors are logged and the monitor falls back to the local count, as a purely in memory monitor would.
+ */
+public class PgMisuseMonitor implements IMisuseMonitor, Closeable {
+  private static final Logger log = LoggerFactory.getLogger(PgMisuseMonitor.class);
+
+  // Sync with the database once the local count reaches this fraction of the hard threshold:
+  static final double SYNC_THRESHOLD_FRACTION = 0.8;
+  private static final long FLUSH_INTERVAL_MILLIS = 5000;
+  private static final long CLEAN_UP_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+  private static final int COUNTER_RETENTION_DAYS = 2;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+  private static final String SOFT_THRESHOLD = "soft";
+  private static final String HARD_THRESHOLD = "hard";
+
+  private final PostgresSqlDb database;
+  private final LongSupplier currentTimeMillis;
+
+  // Cache of the form agentIdentifier --> Event --> Counter
+  private final Cache<String, ConcurrentMap<String, SharedCounter>> nonPersistentDatabase;
+  private final Map<String, IMisuseHandler> handlerMap;
+
+  // Counts not yet written to the database:
+  private final ConcurrentMap<PendingDeltaKey, Integer> pendingDeltas;
+
+  // Held for reading while counts are written to the database, and for writing while a count is reset, so that a
+  // reset cannot be undone by a write of counts taken before it:
+  private final ReadWriteLock resetLock = new ReentrantReadWriteLock();
+
+  private volatile long lastCleanUpMillis;
+  private ScheduledExecutorService flushScheduler;
+
+  /**
+   * Creates a misuse monitor backed by the shared database, flushing pending counts in the background.
+   *
+   * @param database - the postgres database holding the shared counters.
+   */
+  @Inject
+  public PgMisuseMonitor(final PostgresSqlDb database) {
+    this(database, System::currentTimeMillis);
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("misuse-monitor-flush-%d").setDaemon(true).build());
+    flushScheduler.scheduleWithFixedDelay(this::flushPendingDeltas, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a misuse monitor using the provided clock, without a background flush.
+   *
+   * @param database          - the postgres database holding the shared counters.
+   * @param currentTimeMillis - supplier of the current epoch millisecond time.
+   */
+  PgMisuseMonitor(final PostgresSqlDb database, final LongSupplier currentTimeMillis) {
+    this.database = database;
+    this.currentTimeMillis = currentTimeMillis;
+    this.nonPersistentDatabase = CacheBuilder.newBuilder().expireAfterAccess(COUNTER_RETENTION_DAYS, TimeUnit.DAYS)
+        .<String, ConcurrentMap<String, SharedCounter>>build();
+    this.handlerMap = Maps.newConcurrentMap();
+    this.pendingDeltas = Maps.newConcurrentMap();
+    this.lastCleanUpMillis = currentTimeMillis.getAsLong();
+  }
+
+  @Override
+  public void registerHandler(final String eventToHandle, final IMisuseHandler handler) {
+    handlerMap.put(eventToHandle, handler);
+  }
+
+  @Override
+  public void notifyEvent(final String agentIdentifier, final String eventLabel)
+      throws SegueResourceMisuseException {
+    this.notifyEvent(agentIdentifier, eventLabel, 1);
+  }
+
+  @Override
+  public void notifyEvent(final String agentIdentifier, final String eventLabel, final Integer adjustmentValue)
+      throws SegueResourceMisuseException {
+    Validate.notBlank(agentIdentifier);
+    Validate.notBlank(eventLabel);
+    requireNonNull(adjustmentValue);
+    Validate.isTrue(adjustmentValue >= 0, "Expected positive integer value.");
+
+    IMisuseHandler handler = handlerMap.get(eventLabel);
+    requireNonNull(handler, "No handler has been registered for " + eventLabel);
+
+    long now = currentTimeMillis.getAsLong();
+    SharedCounter counter = getOrCreateCounter(agentIdentifier, eventLabel, handler, now);
+    int localValue = counter.localWindow.add(now, adjustmentValue);
+    if (adjustmentValue > 0) {
+      pendingDeltas.merge(new PendingDeltaKey(agentIdentifier, eventLabel, counter.absoluteBucket(now)),
+          adjustmentValue, Integer::sum);
+    }
+
+    Integer hardThreshold = handler.getHardThreshold();
+    int currentValue = localValue + counter.remoteCount(now);
+    // Syncing can only raise the count, so once this node alone knows the limit is exceeded it need not ask:
+    if (hardThreshold != null && currentValue >= hardThreshold * SYNC_THRESHOLD_FRACTION
+        && currentValue <= hardThreshold) {
+      currentValue = syncCounter(agentIdentifier, eventLabel, counter, now, currentValue);
+    }
+
+    Integer softThreshold = handler.getSoftThreshold();
+    if (softThreshold != null && currentValue >= softThreshold && counter.localWindow.claimSoftThresholdAction(now)
+        && claimSharedThresholdAction(agentIdentifier, eventLabel, SOFT_THRESHOLD, counter, now)) {
+      handler.executeSoftThresholdAction(String.format("(%s) has exceeded the soft limit!", agentIdentifier));
+    }
+
+    if (hardThreshold != null) {
+      if (currentValue >= hardThreshold && counter.localWindow.claimHardThresholdAction(now)
+          && claimSharedThresholdAction(agentIdentifier, eventLabel, HARD_THRESHOLD, counter, now)) {
+        handler.executeHardThresholdAction(String.format("(%s) has exceeded the hard limit!", agentIdentifier));
+      }
+
+      if (currentValue > hardThreshold) {
+        throw new SegueResourceMisuseException("Exceeded resource usage limit on " + eventLabel);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasMisused(final String agentIdentifier, final String eventToCheck) {
+    return willHaveMisused(agentIdentifier, eventToCheck, 0);
+  }
+
+  @Override
+  public boolean willHaveMisused(final String agentIdentifier, final String eventToCheck,
+                                 final Integer adjustmentValue) {
+    IMisuseHandler handler = handlerMap.get(eventToCheck);
+    if (null == handler || null == handler.getHardThreshold()) {
+      return false;
+    }
+
+    long now = currentTimeMillis.getAsLong();
+    SharedCounter counter = getOrCreateCounter(agentIdentifier, eventToCheck, handler, now);
+    int currentValue = counter.localWindow.total(now) + counter.remoteCount(now);
+    if (currentValue + adjustmentValue >= handler.getHardThreshold() * SYNC_THRESHOLD_FRACTION
+        && currentValue + adjustmentValue < handler.getHardThreshold()) {
+      currentValue = syncCounter(agentIdentifier, eventToCheck, counter, now, currentValue);
+    }
+    return currentValue > 0 && currentValue + adjustmentValue >= handler.getHardThreshold();
+  }
+
+  @Override
+  public void resetMisuseCount(final String agentIdentifier, final String eventLabel) {
+    resetLock.writeLock().lock();
+    try {
+      ConcurrentMap<String, SharedCounter> existingHistory = nonPersistentDatabase.getIfPresent(agentIdentifier);
+      if (null != existingHistory) {
+        existingHistory.remove(eventLabel);
+      }
+      pendingDeltas.keySet().removeIf(key -> key.agentIdentifier.equals(agentIdentifier)
+          && key.eventLabel.equals(eventLabel));
+
+      try (Connection conn = database.getDatabaseConnection()) {
+        for (String table : List.of("misuse_counters", "misuse_threshold_actions")) {
+          try (PreparedStatement pst = conn.prepareStatement(
+              "DELETE FROM " + table + " WHERE agent_identifier = ? AND event_label = ?")) {
+            pst.setString(1, agentIdentifier);
+            pst.setString(2, eventLabel);
+            pst.executeUpdate();
+          }
+        }
+      } catch (SQLException e) {
+        log.error("Unable to reset shared misuse count for event " + eventLabel, e);
+      }
+    } finally {
+      resetLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stop the background flush and write any counts not yet written.
+   */
+  @Override
+  public void close() {
+    if (null != flushScheduler) {
+      flushScheduler.shutdown();
+      try {
+        if (!flushScheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          log.warn("Misuse monitor flush did not stop within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flushPendingDeltas();
+  }
+
+  @Override
+  public Map<String, List<MisuseStatisticDTO>> getMisuseStatistics(final long n) {
+    flushPendingDeltas();
+    long now = currentTimeMillis.getAsLong();
+
+    Map<String, List<MisuseStatisticDTO>> statistics = Maps.newHashMap();
+    String query = "SELECT agent_identifier, SUM(count) AS total, MAX(last_updated) AS last_event"
+        + " FROM misuse_counters WHERE event_label = ? AND bucket > ?"
+        + " GROUP BY agent_identifier ORDER BY total DESC LIMIT ?";
+    try (Connection conn = database.getDatabaseConnection();
+         PreparedStatement pst = conn.prepareStatement(query)
+    ) {
+      for (Map.Entry<String, IMisuseHandler> handlerEntry : handlerMap.entrySet()) {
+        String eventLabel = handlerEntry.getKey();
+        IMisuseHandler handler = handlerEntry.getValue();
+        long bucketWidthMillis =
+            LockFreeMisuseMonitor.SlidingWindowCounter.bucketWidthMillis(handler.getAccountingIntervalInSeconds());
+
+        pst.setString(1, eventLabel);
+        pst.setLong(2, now / bucketWidthMillis - LockFreeMisuseMonitor.BUCKETS_PER_WINDOW);
+        pst.setLong(3, n);
+
+        List<MisuseStatisticDTO> eventStatistics = new ArrayList<>();
+        try (ResultSet results = pst.executeQuery()) {
+          while (results.next()) {
+            int total = results.getInt("total");
+            eventStatistics.add(new MisuseStatisticDTO(results.getString("agent_identifier"), eventLabel,
+                handler.getHardThreshold() != null && total >= handler.getHardThreshold(),
+                handler.getSoftThreshold() != null && total >= handler.getSoftThreshold(),
+                results.getTimestamp("last_event").toInstant(), total));
+          }
+        }
+        statistics.put(eventLabel, eventStatistics);
+      }
+    } catch (SQLException e) {
+      log.error("Unable to read shared misuse statistics", e);
+    }
+    return statistics;
+  }
+
+  /**
+   * Write all pending counts to the database in a single batch, and periodically remove expired counters.
+   */
+  void flushPendingDeltas() {
+    resetLock.readLock().lock();
+    try {
+      Map<PendingDeltaKey, Integer> deltas = Maps.newHashMap();
+      for (PendingDeltaKey key : pendingDeltas.keySet()) {
+        Integer delta = pendingDeltas.remove(key);
+        if (delta != null) {
+          deltas.put(key, delta);
+        }
+      }
+
+      try (Connection conn = database.getDatabaseConnection()) {
+        long now = currentTimeMillis.getAsLong();
+        if (!deltas.isEmpty()) {
+          upsertDeltas(conn, deltas);
+          refreshSharedTotals(conn, deltas, now);
+        }
+        if (now - lastCleanUpMillis > CLEAN_UP_INTERVAL_MILLIS) {
+          lastCleanUpMillis = now;
+          for (String table : List.of("misuse_counters", "misuse_threshold_actions")) {
+            try (PreparedStatement pst = conn.prepareStatement(
+                "DELETE FROM " + table + " WHERE last_updated < now() - make_interval(days => ?)")) {
+              pst.setInt(1, COUNTER_RETENTION_DAYS);
+              pst.executeUpdate();
+            }
+          }
+        }
+      } catch (SQLException e) {
+        log.error("Unable to flush misuse counts to the database, will retry", e);
+        deltas.forEach((key, delta) -> pendingDeltas.merge(key, delta, Integer::sum));
+      }
+    } finally {
+      resetLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Update the remote counts of the counters which have just been flushed, so that each node learns about events on
+   * other nodes without a query per request.
+   */
+  private void refreshSharedTotals(final Connection conn, final Map<PendingDeltaKey, Integer> deltas, final long now)
+      throws SQLException {
+    Map<Map.Entry<String, String>, SharedCounter> flushedCounters = Maps.newHashMap();
+    for (PendingDeltaKey key : deltas.keySet()) {
+      ConcurrentMap<String, SharedCounter> existingHistory = nonPersistentDatabase.getIfPresent(key.agentIdentifier);
+      SharedCounter counter = null == existingHistory ? null : existingHistory.get(key.eventLabel);
+      if (null != counter) {
+        flushedCounters.put(Map.entry(key.agentIdentifier, key.eventLabel), counter);
+      }
+    }
+    if (flushedCounters.isEmpty()) {
+      return;
+    }
+
+    List<String> agentIdentifiers = new ArrayList<>();
+    List<String> eventLabels = new ArrayList<>();
+    List<Long> firstBuckets = new ArrayList<>();
+    flushedCounters.forEach((key, counter) -> {
+      agentIdentifiers.add(key.getKey());
+      eventLabels.add(key.getValue());
+      firstBuckets.add(counter.absoluteBucket(now) - LockFreeMisuseMonitor.BUCKETS_PER_WINDOW);
+    });
+
+    String query = "SELECT c.agent_identifier, c.event_label, SUM(c.count) AS total FROM misuse_counters c"
+        + " JOIN unnest(?, ?, ?) AS k(agent_identifier, event_label, first_bucket)"
+        + " ON c.agent_identifier = k.agent_identifier AND c.event_label = k.event_label AND c.bucket > k.first_bucket"
+        + " GROUP BY c.agent_identifier, c.event_label";
+    try (PreparedStatement pst = conn.prepareStatement(query)) {
+      pst.setArray(1, conn.createArrayOf("text", agentIdentifiers.toArray()));
+      pst.setArray(2, conn.createArrayOf("text", eventLabels.toArray()));
+      pst.setArray(3, conn.createArrayOf("bigint", firstBuckets.toArray()));
+      try (ResultSet results = pst.executeQuery()) {
+        while (results.next()) {
+          SharedCounter counter = flushedCounters.get(
+              Map.entry(results.getString("agent_identifier"), results.getString("event_label")));
+          if (null != counter) {
+            counter.recordSync(now, results.getInt("total"));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Write the pending counts for one counter to the database and read back the shared total.
+   *
+   * @return the shared total, or the local estimate if the database could not be reached.
+   */
+  private int syncCounter(final String agentIdentifier, final String eventLabel, final SharedCounter counter,
+                          final long now, final int localEstimate) {
+    resetLock.readLock().lock();
+    try {
+      long firstBucket = counter.absoluteBucket(now) - LockFreeMisuseMonitor.BUCKETS_PER_WINDOW;
+      Map<PendingDeltaKey, Integer> deltas = Maps.newHashMap();
+      for (long bucket = firstBucket + 1; bucket <= counter.absoluteBucket(now); bucket++) {
+        PendingDeltaKey key = new PendingDeltaKey(agentIdentifier, eventLabel, bucket);
+        Integer delta = pendingDeltas.remove(key);
+        if (delta != null) {
+          deltas.put(key, delta);
+        }
+      }
+
+      String query = "SELECT COALESCE(SUM(count), 0) AS total FROM misuse_counters"
+          + " WHERE agent_identifier = ? AND event_label = ? AND bucket > ?";
+      try (Connection conn = database.getDatabaseConnection()) {
+        if (!deltas.isEmpty()) {
+          upsertDeltas(conn, deltas);
+        }
+        try (PreparedStatement pst = conn.prepareStatement(query)) {
+          pst.setString(1, agentIdentifier);
+          pst.setString(2, eventLabel);
+          pst.setLong(3, firstBucket);
+          try (ResultSet results = pst.executeQuery()) {
+            results.next();
+            int sharedTotal = results.getInt("total");
+            counter.recordSync(now, sharedTotal);
+            return Math.max(sharedTotal, localEstimate);
+          }
+        }
+      } catch (SQLException e) {
+        log.error("Unable to sync shared misuse count for event " + eventLabel + ", using local count", e);
+        deltas.forEach((key, delta) -> pendingDeltas.merge(key, delta, Integer::sum));
+        return localEstimate;
+      }
+    } finally {
+      resetLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Claim a threshold action for every node, once this node has claimed it for itself. Only one node may claim each
+   * threshold of a counter per accounting window, so that, for example, the team is emailed once rather than once
+   * per node.
+   *
+   * @return true if this node should perform the action; also true if the database could not be reached, so that
+   *     the action is not lost.
+   */
+  private boolean claimSharedThresholdAction(final String agentIdentifier, final String eventLabel,
+                                             final String threshold, final SharedCounter counter, final long now) {
+    String query = "INSERT INTO misuse_threshold_actions(agent_identifier, event_label, threshold, bucket,"
+        + " last_updated) VALUES (?, ?, ?, ?, now())"
+        + " ON CONFLICT (agent_identifier, event_label, threshold)"
+        + " DO UPDATE SET bucket = EXCLUDED.bucket, last_updated = now()"
+        + " WHERE misuse_threshold_actions.bucket <= EXCLUDED.bucket - ?";
+    try (Connection conn = database.getDatabaseConnection();
+         PreparedStatement pst = conn.prepareStatement(query)
+    ) {
+      pst.setString(1, agentIdentifier);
+      pst.setString(2, eventLabel);
+      pst.setString(3, threshold);
+      pst.setLong(4, counter.absoluteBucket(now));
+      pst.setLong(5, LockFreeMisuseMonitor.BUCKETS_PER_WINDOW);
+      return pst.executeUpdate() > 0;
+    } catch (SQLException e) {
+      log.error("Unable to claim shared misuse threshold action for event " + eventLabel + ", performing it here", e);
+      return true;
+    }
+  }
+
+  private static void upsertDeltas(final Connection conn, final Map<PendingDeltaKey, Integer> deltas)
+      throws SQLException {
+    String query = "INSERT INTO misuse_counters(agent_identifier, event_label, bucket, count, last_updated)"
+        + " VALUES (?, ?, ?, ?, now())"
+        + " ON CONFLICT (agent_identifier, event_label, bucket)"
+        + " DO UPDATE SET count = misuse_counters.count + EXCLUDED.count, last_updated = now()";
+    try (PreparedStatement pst = conn.prepareStatement(query)) {
+      for (Map.Entry<PendingDeltaKey, Integer> delta : deltas.entrySet()) {
+        pst.setString(1, delta.getKey().agentIdentifier);
+        pst.setString(2, delta.getKey().eventLabel);
+        pst.setLong(3, delta.getKey().bucket);
+        pst.setInt(4, delta.getValue());
+        pst.addBatch();
+      }
+      pst.executeBatch();
+    }
+  }
+
+  private SharedCounter getOrCreateCounter(final String agentIdentifier, final String eventLabel,
+                                           final IMisuseHandler handler, final long now) {
+    ConcurrentMap<String, SharedCounter> existingHistory;
+    try {
+      existingHistory = nonPersistentDatabase.get(agentIdentifier, Maps::newConcurrentMap);
+    } catch (ExecutionException e) {
+      // Creating an empty map cannot throw a checked exception.
+      throw new IllegalStateException(e);
+    }
+
+    SharedCounter counter = existingHistory.get(eventLabel);
+    if (null == counter) {
+      counter = existingHistory.computeIfAbsent(eventLabel,
+          k -> new SharedCounter(handler.getAccountingIntervalInSeconds(), now));
+    }
+    return counter;
+  }
+
+  /**
+   * Local sliding window count for one agent and event, plus what was learnt from the database at the last sync.
+   */
+  private static final class SharedCounter {
+    private final LockFreeMisuseMonitor.SlidingWindowCounter localWindow;
+    private final long bucketWidthMillis;
+    private volatile SyncState lastSync;
+
+    SharedCounter(final int accountingIntervalInSeconds, final long now) {
+      this.localWindow = new LockFreeMisuseMonitor.SlidingWindowCounter(accountingIntervalInSeconds, now);
+      this.bucketWidthMillis = LockFreeMisuseMonitor.SlidingWindowCounter.bucketWidthMillis(
+          accountingIntervalInSeconds);
+    }
+
+    long absoluteBucket(final long now) {
+      return now / bucketWidthMillis;
+    }
+
+    /**
+     * Events counted by other nodes at the last sync, for as long as that sync is within the window.
+     */
+    int remoteCount(final long now) {
+      SyncState sync = lastSync;
+      if (null == sync || absoluteBucket(now) - sync.bucket >= LockFreeMisuseMonitor.BUCKETS_PER_WINDOW) {
+        return 0;
+      }
+      return sync.remoteCount;
+    }
+
+    void recordSync(final long now, final int sharedTotal) {
+      lastSync = new SyncState(absoluteBucket(now), Math.max(0, sharedTotal - localWindow.total(now)));
+    }
+  }
+
+  private static final class SyncState {
+    private final long bucket;
+    private final int remoteCount;
+
+    SyncState(final long bucket, final int remoteCount) {
+      this.bucket = bucket;
+      this.remoteCount = remoteCount;
+    }
+  }
+
+  private static final class PendingDeltaKey {
+    private final String agentIdentifier;
+    private final String eventLabel;
+    private final long bucket;
+
+    PendingDeltaKey(final String agentIdentifier, final String eventLabel, final long bucket) {
+      this.agentIdentifier = agentIdentifier;
+      this.eventLabel = eventLabel;
+      this.bucket = bucket;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PendingDeltaKey)) {
+        return false;
+      }
+      PendingDeltaKey that = (PendingDeltaKey) o;
+      return bucket == that.bucket && agentIdentifier.equals(that.agentIdentifier)
+          && eventLabel.equals(that.eventLabel);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(agentIdentifier, eventLabel, bucket);
+    }
+  }
+}
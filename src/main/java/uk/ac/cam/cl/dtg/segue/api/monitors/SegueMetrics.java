@@ -45,6 +45,21 @@ public final class SegueMetrics {
       .name("isaac_question_validation")
       .labelNames("validator")
       .help("Validator latency in seconds.").register();
+  public static final Histogram VALIDATOR_QUEUE_WAIT_HISTOGRAM = Histogram.build()
+      .name("isaac_question_validation_queue_wait")
+      .labelNames("validator")
+      .help("Time answers waited for a slow validator thread, in seconds.").register();
+  public static final Counter VALIDATOR_REJECTED = Counter.build()
+      .name("isaac_question_validation_rejected_total")
+      .labelNames("validator")
+      .help("Answers refused because the slow validator queue was full, since process start.").register();
+  public static final Gauge VALIDATOR_QUEUE_DEPTH = Gauge.build()
+      .name("isaac_question_validation_queue_depth")
+      .help("Answers currently waiting for a slow validator thread.").register();
+  public static final Counter EXTERNAL_VALIDATOR_CACHE_SAVED_SECONDS = Counter.build()
+      .name("isaac_external_validator_cache_saved_seconds_total")
+      .help("Time the external validator would have taken to give the responses served from cache, in seconds.")
+      .register();
 
   // Cache Metrics
   public static final CacheMetricsCollector CACHE_METRICS_COLLECTOR = new CacheMetricsCollector().register();
@@ -83,6 +98,25 @@ public final class SegueMetrics {
   // Log Event Metrics
   public static final Counter LOG_EVENT = Counter.build()
       .name("isaac_log_event").help("Counter for Log Events by type").labelNames("type").register();
+  public static final Counter LOG_EVENT_DROPPED = Counter.build()
+      .name("segue_log_event_dropped_total").help("Log events not saved since process start, by reason.")
+      .labelNames("reason").register();
+  public static final Gauge LOG_EVENT_QUEUE_SIZE = Gauge.build()
+      .name("segue_log_event_queue_size").help("Log events waiting to be written to the database.").register();
+  public static final Histogram LOG_EVENT_WRITE_BATCH_SIZE = Histogram.build()
+      .name("segue_log_event_write_batch_size").help("Number of log events written to the database per INSERT.")
+      .buckets(1, 5, 10, 50, 100, 500, 1000, 5000).register();
+
+  // Content Cache Warm-up Metrics
+  public static final Histogram CONTENT_CACHE_WARM_UP_DURATION = Histogram.build()
+      .name("segue_content_cache_warm_up_seconds").help("Time taken to warm content caches after a content change.")
+      .buckets(1, 5, 10, 30, 60, 120, 300, 600).register();
+  public static final Counter CONTENT_CACHE_WARM_UP_ITEMS = Counter.build()
+      .name("segue_content_cache_warm_up_items_total").help("Content items preloaded since process start, by result.")
+      .labelNames("result").register();
+  public static final Gauge CONTENT_CACHE_WARM_UP_COVERAGE = Gauge.build()
+      .name("segue_content_cache_warm_up_coverage_ratio")
+      .help("Share of the previous content version's requests for ids preloaded by the last warm-up.").register();
 
   /**
    *  Private constructor as it does not make sense to instantiate this class.
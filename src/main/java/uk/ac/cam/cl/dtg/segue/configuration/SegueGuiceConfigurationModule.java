@@ -95,10 +95,14 @@ import uk.ac.cam.cl.dtg.isaac.mappers.EventMapper;
 import uk.ac.cam.cl.dtg.isaac.mappers.MainObjectMapper;
 import uk.ac.cam.cl.dtg.isaac.mappers.MiscMapper;
 import uk.ac.cam.cl.dtg.isaac.mappers.UserMapper;
+import uk.ac.cam.cl.dtg.isaac.quiz.ExternalValidatorClient;
+import uk.ac.cam.cl.dtg.isaac.quiz.ExternalValidatorResultCache;
 import uk.ac.cam.cl.dtg.isaac.quiz.IQuestionAttemptManager;
 import uk.ac.cam.cl.dtg.isaac.quiz.IsaacSymbolicLogicValidator;
 import uk.ac.cam.cl.dtg.isaac.quiz.IsaacSymbolicValidator;
 import uk.ac.cam.cl.dtg.isaac.quiz.PgQuestionAttempts;
+import uk.ac.cam.cl.dtg.isaac.quiz.SlowValidatorExecutor;
+import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistry;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
 import uk.ac.cam.cl.dtg.segue.api.managers.ExternalAccountManager;
 import uk.ac.cam.cl.dtg.segue.api.managers.GroupManager;
@@ -120,10 +124,11 @@ import uk.ac.cam.cl.dtg.segue.api.monitors.GroupManagerLookupMisuseHandler;
 import uk.ac.cam.cl.dtg.segue.api.monitors.IMetricsExporter;
 import uk.ac.cam.cl.dtg.segue.api.monitors.IMisuseMonitor;
 import uk.ac.cam.cl.dtg.segue.api.monitors.IPQuestionAttemptMisuseHandler;
-import uk.ac.cam.cl.dtg.segue.api.monitors.InMemoryMisuseMonitor;
+import uk.ac.cam.cl.dtg.segue.api.monitors.LockFreeMisuseMonitor;
 import uk.ac.cam.cl.dtg.segue.api.monitors.LogEventMisuseHandler;
 import uk.ac.cam.cl.dtg.segue.api.monitors.PasswordResetByEmailMisuseHandler;
 import uk.ac.cam.cl.dtg.segue.api.monitors.PasswordResetByIPMisuseHandler;
+import uk.ac.cam.cl.dtg.segue.api.monitors.PgMisuseMonitor;
 import uk.ac.cam.cl.dtg.segue.api.monitors.PrometheusMetricsExporter;
 import uk.ac.cam.cl.dtg.segue.api.monitors.QuestionAttemptMisuseHandler;
 import uk.ac.cam.cl.dtg.segue.api.monitors.RegistrationMisuseHandler;
@@ -149,6 +154,7 @@ import uk.ac.cam.cl.dtg.segue.auth.TwitterAuthenticator;
 import uk.ac.cam.cl.dtg.segue.comm.EmailCommunicator;
 import uk.ac.cam.cl.dtg.segue.comm.EmailManager;
 import uk.ac.cam.cl.dtg.segue.comm.ICommunicator;
+import uk.ac.cam.cl.dtg.segue.dao.AsyncLogEventWriter;
 import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
 import uk.ac.cam.cl.dtg.segue.dao.LogManagerEventPublisher;
 import uk.ac.cam.cl.dtg.segue.dao.PgLogManager;
@@ -211,6 +217,7 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
   private static SegueJobService segueJobService = null;
 
   private static LogManagerEventPublisher logManager;
+  private static AsyncLogEventWriter logEventWriter = null;
   private static EmailManager emailCommunicationQueue = null;
   private static IMisuseMonitor misuseMonitor = null;
   private static IMetricsExporter metricsExporter = null;
@@ -221,6 +228,8 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
   private static SchoolListReader schoolListReader = null;
   private static AssignmentManager assignmentManager = null;
   private static IGroupObserver groupObserver = null;
+  private static ExternalValidatorClient externalValidatorClient = null;
+  private static SlowValidatorExecutor slowValidatorExecutor = null;
 
   private static Collection<Class<? extends ServletContextListener>> contextListeners;
   private static final Map<String, Set<Class<?>>> classesByPackage = new HashMap<>();
@@ -341,6 +350,7 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
     this.bindConstantToProperty(Constants.POSTGRES_DB_PASSWORD, globalProperties);
 
     // GitDb
+    GitDb.configureWindowCache();
     bind(GitDb.class).toInstance(
         new GitDb(globalProperties.getProperty(Constants.LOCAL_GIT_DB), globalProperties
             .getProperty(Constants.REMOTE_GIT_SSH_URL), globalProperties
@@ -526,20 +536,30 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
    *
    * @param database       database reference
    * @param loggingEnabled boolean to determine if we should persist log messages.
+   * @param properties     so that the log event writer's queue and batch sizes can be configured.
    * @return A fully configured LogManager
    */
   @Inject
   @Provides
   @Singleton
   private static ILogManager getLogManager(final PostgresSqlDb database,
-                                           @Named(Constants.LOGGING_ENABLED) final boolean loggingEnabled) {
+                                           @Named(Constants.LOGGING_ENABLED) final boolean loggingEnabled,
+                                           final PropertiesLoader properties) {
 
     if (null == logManager) {
       ObjectMapper objectMapper = new ObjectMapper();
       objectMapper.registerModule(new JavaTimeModule());
       objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
       objectMapper.configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
-      logManager = new PgLogManagerEventListener(new PgLogManager(database, objectMapper, loggingEnabled));
+      logEventWriter = new AsyncLogEventWriter(database,
+          properties.getIntegerPropertyOrFallback(Constants.LOG_EVENT_QUEUE_CAPACITY,
+              AsyncLogEventWriter.DEFAULT_QUEUE_CAPACITY),
+          properties.getIntegerPropertyOrFallback(Constants.LOG_EVENT_BATCH_SIZE,
+              AsyncLogEventWriter.DEFAULT_BATCH_SIZE),
+          properties.getIntegerPropertyOrFallback(Constants.LOG_EVENT_FLUSH_INTERVAL_MILLIS,
+              AsyncLogEventWriter.DEFAULT_FLUSH_INTERVAL_MILLIS));
+      logManager = new PgLogManagerEventListener(new PgLogManager(database, objectMapper, loggingEnabled,
+          logEventWriter));
 
       log.info("Creating singleton of LogManager");
       if (loggingEnabled) {
@@ -779,18 +799,25 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
   /**
    * Get singleton of misuseMonitor.
    * <br>
-   * Note: this has to be a singleton as it tracks (in memory) the number of misuses.
+   * Note: this has to be a singleton as it tracks (in memory) the number of misuses. If MISUSE_MONITOR_SHARED is set,
+   * the counts are also shared with other API replicas through the database.
    *
    * @param emailManager so that the monitors can send e-mails.
    * @param properties   so that the monitors can look up email settings etc.
+   * @param database     so that the monitor can share counts between replicas.
    * @return gets the singleton of the misuse manager.
    */
   @Inject
   @Provides
   @Singleton
-  private IMisuseMonitor getMisuseMonitor(final EmailManager emailManager, final PropertiesLoader properties) {
+  private IMisuseMonitor getMisuseMonitor(final EmailManager emailManager, final PropertiesLoader properties,
+                                          final PostgresSqlDb database) {
     if (null == misuseMonitor) {
-      misuseMonitor = new InMemoryMisuseMonitor();
+      if (Boolean.parseBoolean(properties.getProperty(Constants.MISUSE_MONITOR_SHARED))) {
+        misuseMonitor = new PgMisuseMonitor(database);
+      } else {
+        misuseMonitor = new LockFreeMisuseMonitor();
+      }
       log.info("Creating singleton of MisuseMonitor");
 
       // TODO: We should automatically register all handlers that implement this interface using reflection?
@@ -1178,34 +1205,110 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
     return assignmentManager;
   }
 
+  /**
+   * Gets the shared client used by validators to send requests to the symbolic checker.
+   *
+   * @param properties properties loader to get the symbolic checker timeouts and connection pool size
+   * @return ExternalValidatorClient with a connection pool for the symbolic checker.
+   */
+  @Provides
+  @Singleton
+  @Inject
+  private static ExternalValidatorClient getExternalValidatorClient(final PropertiesLoader properties) {
+    externalValidatorClient = new ExternalValidatorClient(
+        properties.getIntegerPropertyOrFallback(Constants.EQUALITY_CHECKER_CONNECT_TIMEOUT_MILLISECONDS,
+            Constants.EQUALITY_CHECKER_CONNECT_TIMEOUT_MILLISECONDS_DEFAULT),
+        properties.getIntegerPropertyOrFallback(Constants.EQUALITY_CHECKER_SOCKET_TIMEOUT_MILLISECONDS,
+            Constants.EQUALITY_CHECKER_SOCKET_TIMEOUT_MILLISECONDS_DEFAULT),
+        properties.getIntegerPropertyOrFallback(Constants.EQUALITY_CHECKER_MAX_CONNECTIONS,
+            Constants.EQUALITY_CHECKER_MAX_CONNECTIONS_DEFAULT),
+        Constants.EQUALITY_CHECKER_CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+        Constants.EQUALITY_CHECKER_CIRCUIT_BREAKER_OPEN_MILLISECONDS);
+    return externalValidatorClient;
+  }
+
+  /**
+   * Gets the shared cache of symbolic checker responses, which sends checks it has not seen with the shared client.
+   *
+   * @param validatorClient the shared client to send requests to the symbolic checker with
+   * @param contentManager  the content manager, to scope responses to the current content version
+   * @return ExternalValidatorResultCache in front of the symbolic checker.
+   */
+  @Provides
+  @Singleton
+  @Inject
+  private static ExternalValidatorResultCache getExternalValidatorResultCache(
+      final ExternalValidatorClient validatorClient, final GitContentManager contentManager) {
+    return new ExternalValidatorResultCache(validatorClient, contentManager::getCurrentContentSHA,
+        Constants.EQUALITY_CHECKER_RESULT_CACHE_MAX_ENTRIES,
+        Constants.EQUALITY_CHECKER_RESULT_CACHE_EXPIRE_AFTER_MINUTES);
+  }
+
+  /**
+   * Gets the executor on which answers to questions with slow validators are marked.
+   *
+   * @param properties properties loader to get the number of threads and queue capacity
+   * @return SlowValidatorExecutor bounded as configured.
+   */
+  @Provides
+  @Singleton
+  @Inject
+  private static SlowValidatorExecutor getSlowValidatorExecutor(final PropertiesLoader properties) {
+    slowValidatorExecutor = new SlowValidatorExecutor(
+        properties.getIntegerPropertyOrFallback(Constants.SLOW_VALIDATOR_THREADS,
+            Constants.SLOW_VALIDATOR_THREADS_DEFAULT),
+        properties.getIntegerPropertyOrFallback(Constants.SLOW_VALIDATOR_QUEUE_CAPACITY,
+            Constants.SLOW_VALIDATOR_QUEUE_CAPACITY_DEFAULT));
+    return slowValidatorExecutor;
+  }
+
   /**
    * Gets an instance of the symbolic question validator.
    *
-   * @param properties properties loader to get the symbolic validator host
+   * @param properties     properties loader to get the symbolic validator host
+   * @param validatorCache the shared result cache to send requests to the symbolic validator through
    * @return IsaacSymbolicValidator preconfigured to work with the specified checker.
    */
   @Provides
   @Singleton
   @Inject
-  private static IsaacSymbolicValidator getSymbolicValidator(final PropertiesLoader properties) {
+  private static IsaacSymbolicValidator getSymbolicValidator(final PropertiesLoader properties,
+                                                             final ExternalValidatorResultCache validatorCache) {
 
     return new IsaacSymbolicValidator(properties.getProperty(Constants.EQUALITY_CHECKER_HOST),
-        properties.getProperty(Constants.EQUALITY_CHECKER_PORT));
+        properties.getProperty(Constants.EQUALITY_CHECKER_PORT), validatorCache,
+        Boolean.parseBoolean(properties.getProperty(Constants.EQUALITY_CHECKER_BATCH_REQUESTS)));
   }
 
   /**
    * Gets an instance of the symbolic logic question validator.
    *
-   * @param properties properties loader to get the symbolic logic validator host
+   * @param properties     properties loader to get the symbolic logic validator host
+   * @param validatorCache the shared result cache to send requests to the symbolic logic validator through
    * @return IsaacSymbolicLogicValidator preconfigured to work with the specified checker.
    */
   @Provides
   @Singleton
   @Inject
-  private static IsaacSymbolicLogicValidator getSymbolicLogicValidator(final PropertiesLoader properties) {
+  private static IsaacSymbolicLogicValidator getSymbolicLogicValidator(
+      final PropertiesLoader properties, final ExternalValidatorResultCache validatorCache) {
 
     return new IsaacSymbolicLogicValidator(properties.getProperty(Constants.EQUALITY_CHECKER_HOST),
-        properties.getProperty(Constants.EQUALITY_CHECKER_PORT));
+        properties.getProperty(Constants.EQUALITY_CHECKER_PORT), validatorCache,
+        Boolean.parseBoolean(properties.getProperty(Constants.EQUALITY_CHECKER_BATCH_REQUESTS)));
+  }
+
+  /**
+   * Gets the validators and specifiers for every question and choice class, creating them all now.
+   *
+   * @param injector to create each validator and specifier with its dependencies.
+   * @return ValidatorRegistry for the question and choice classes of the application.
+   */
+  @Provides
+  @Singleton
+  @Inject
+  private static ValidatorRegistry getValidatorRegistry(final Injector injector) {
+    return new ValidatorRegistry(getPackageClasses("uk.ac.cam.cl.dtg.isaac"), injector::getInstance);
   }
 
   /**
@@ -1293,6 +1396,38 @@ public class SegueGuiceConfigurationModule extends AbstractModule implements Ser
       log.error("Error releasing Elasticsearch client", e);
     }
 
+    // Stop marking answers before the validators' connections are closed.
+    if (null != slowValidatorExecutor) {
+      slowValidatorExecutor.close();
+      slowValidatorExecutor = null;
+    }
+
+    if (null != externalValidatorClient) {
+      try {
+        externalValidatorClient.close();
+        externalValidatorClient = null;
+      } catch (IOException e) {
+        log.error("Error releasing external validator connections", e);
+      }
+    }
+
+    if (null != contentManager) {
+      contentManager.close();
+      contentManager = null;
+    }
+
+    // Write any queued log events before the database is closed.
+    if (null != logEventWriter) {
+      logEventWriter.close();
+      logEventWriter = null;
+    }
+
+    // Write any misuse counts not yet shared with other nodes.
+    if (misuseMonitor instanceof PgMisuseMonitor pgMisuseMonitor) {
+      pgMisuseMonitor.close();
+    }
+    misuseMonitor = null;
+
     postgresDB.close();
     postgresDB = null;
   }
@@ -0,0 +1,247 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.segue.dao;
+
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.LOG_EVENT_DROPPED;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.LOG_EVENT_QUEUE_SIZE;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.LOG_EVENT_WRITE_BATCH_SIZE;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
+
+/**
+ * Writes log events to the logged_events table in the background, so that request threads do not wait on the database.
+ * <br>
+ * Events are held in a bounded queue and written using multi-row INSERTs, either every flush interval or as soon as a
+ * full batch is waiting. If the queue is full the event is dropped rather than blocking the request; dropped events and
+ * the queue size are exported as metrics.
+ */
+public class AsyncLogEventWriter implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(AsyncLogEventWriter.class);
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 50000;
+  public static final int DEFAULT_BATCH_SIZE = 500;
+  public static final int DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+  private static final int COLUMNS_PER_ROW = 7;
+  // Postgres allows at most 32767 bind parameters in a single statement:
+  private static final int MAX_BATCH_SIZE = Short.MAX_VALUE / COLUMNS_PER_ROW;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private static final String INSERT_PREFIX = "INSERT INTO logged_events(user_id, anonymous_user, event_type,"
+      + " event_details_type, event_details, ip_address, timestamp) VALUES ";
+  private static final String INSERT_ROW = "(?, ?, ?, ?, ?::text::jsonb, ?::inet, ?)";
+
+  private final PostgresSqlDb database;
+  private final BlockingQueue<PendingLogEvent> pendingEvents;
+  private final int batchSize;
+  private final ScheduledExecutorService writerExecutor;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private final Object writeLock = new Object();
+  private volatile boolean closed = false;
+
+  /**
+   * Create a writer and start its background flush.
+   *
+   * @param database            - the database to write to.
+   * @param queueCapacity       - the maximum number of events waiting to be written before new events are dropped.
+   * @param batchSize           - the maximum number of events in a single INSERT.
+   * @param flushIntervalMillis - how often to write waiting events when there is less than a full batch.
+   */
+  public AsyncLogEventWriter(final PostgresSqlDb database, final int queueCapacity, final int batchSize,
+                             final long flushIntervalMillis) {
+    this.database = database;
+    this.pendingEvents = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+    this.writerExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("log-event-writer-%d").setDaemon(true).build());
+    this.writerExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queue an event to be written, without blocking.
+   *
+   * @param event - the event to write.
+   * @return true if the event was queued, false if it was dropped because the queue is full.
+   */
+  public boolean submit(final PendingLogEvent event) {
+    if (closed) {
+      // Nothing will drain the queue after shutdown, so write directly.
+      writeBatch(List.of(event));
+      return true;
+    }
+
+    if (!pendingEvents.offer(event)) {
+      LOG_EVENT_DROPPED.labels("queue_full").inc();
+      return false;
+    }
+
+    if (pendingEvents.size() >= batchSize && drainScheduled.compareAndSet(false, true)) {
+      writerExecutor.execute(() -> {
+        drainScheduled.set(false);
+        flushQuietly();
+      });
+    }
+    return true;
+  }
+
+  /**
+   * Write all events queued so far, on the calling thread.
+   */
+  public void flush() {
+    synchronized (writeLock) {
+      List<PendingLogEvent> batch = new ArrayList<>(batchSize);
+      while (pendingEvents.drainTo(batch, batchSize) > 0) {
+        writeBatch(batch);
+        batch.clear();
+      }
+      LOG_EVENT_QUEUE_SIZE.set(pendingEvents.size());
+    }
+  }
+
+  /**
+   * Run a task on the background writer once every event queued so far has been written, without waiting for it.
+   * <br>
+   * This lets a change to events already logged, such as moving them to another user, include those still queued
+   * without the caller writing the whole queue itself.
+   *
+   * @param task - the task to run.
+   */
+  public void runAfterQueuedEvents(final Runnable task) {
+    if (!closed) {
+      try {
+        writerExecutor.execute(() -> {
+          flushQuietly();
+          task.run();
+        });
+        return;
+      } catch (RejectedExecutionException e) {
+        // The writer has just been shut down, so run the task here instead.
+      }
+    }
+    flush();
+    task.run();
+  }
+
+  /**
+   * Stop the background writer and write any remaining events.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    writerExecutor.shutdown();
+    try {
+      if (!writerExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Log event writer did not stop within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // An exception would cancel the scheduled flush.
+      log.error("Unexpected error writing log events", e);
+    }
+  }
+
+  private void writeBatch(final List<PendingLogEvent> batch) {
+    try (Connection conn = database.getDatabaseConnection()) {
+      try {
+        insertEvents(conn, batch);
+        LOG_EVENT_WRITE_BATCH_SIZE.observe(batch.size());
+      } catch (SQLException e) {
+        if (batch.size() == 1 || isConnectionFailure(e)) {
+          throw e;
+        }
+        // One bad event fails the whole INSERT, so save the events one at a time to lose only the bad ones:
+        log.warn("Unable to save a batch of {} log events; saving them one at a time.", batch.size(), e);
+        for (PendingLogEvent event : batch) {
+          try {
+            insertEvents(conn, List.of(event));
+            LOG_EVENT_WRITE_BATCH_SIZE.observe(1);
+          } catch (SQLException eventException) {
+            log.error(String.format("Unable to save %s log event to the database", event.eventType()),
+                eventException);
+            LOG_EVENT_DROPPED.labels("write_failed").inc();
+          }
+        }
+      }
+    } catch (SQLException e) {
+      log.error(String.format("Unable to save %d log events to the database", batch.size()), e);
+      LOG_EVENT_DROPPED.labels("write_failed").inc(batch.size());
+    }
+  }
+
+  private void insertEvents(final Connection conn, final List<PendingLogEvent> events) throws SQLException {
+    StringBuilder query = new StringBuilder(INSERT_PREFIX);
+    for (int i = 0; i < events.size(); i++) {
+      if (i > 0) {
+        query.append(", ");
+      }
+      query.append(INSERT_ROW);
+    }
+
+    try (PreparedStatement pst = conn.prepareStatement(query.toString())) {
+      int index = 1;
+      for (PendingLogEvent event : events) {
+        pst.setString(index++, event.userId());
+        pst.setBoolean(index++, event.anonymousUser());
+        pst.setString(index++, event.eventType());
+        pst.setString(index++, event.eventDetailsType());
+        pst.setString(index++, event.eventDetailsJson());
+        pst.setString(index++, event.ipAddress());
+        pst.setTimestamp(index++, Timestamp.from(event.timestamp()));
+      }
+      pst.executeUpdate();
+    }
+  }
+
+  private static boolean isConnectionFailure(final SQLException e) {
+    // SQL states in class 08 are connection exceptions, which saving events one at a time would only repeat:
+    return null != e.getSQLState() && e.getSQLState().startsWith("08");
+  }
+
+  /**
+   * A log event waiting to be written, with its details already serialised to JSON.
+   */
+  public record PendingLogEvent(String userId, boolean anonymousUser, String eventType, String eventDetailsType,
+                                String eventDetailsJson, String ipAddress, Instant timestamp) {
+  }
+}
@@ -47,6 +47,18 @@ public interface ILogManager {
    */
   void logEvent(AbstractSegueUserDTO user, HttpServletRequest httpRequest, LogType eventType, Object eventDetails);
 
+  /**
+   * Log an event with the persistence logging framework without looking up the user from the database, for a request
+   * which is being handled away from its servlet thread.
+   *
+   * @param user         user to log must not be null.
+   * @param ipAddress    the ip address the request came from, read while on the servlet thread.
+   * @param eventType    Type of event that we are interested in.
+   * @param eventDetails Additional information associated with the event - this is expected to be a json deserializable
+   *                     object
+   */
+  void logEventWithIpAddress(AbstractSegueUserDTO user, String ipAddress, LogType eventType, Object eventDetails);
+
   /**
    * Log an arbitrary event from the frontend.
    *
@@ -73,7 +85,8 @@ public interface ILogManager {
    * This method will endeavour to find all log events for a given user and reassign ownership to a
    * registered user.
    * <br>
-   * It assumes that the new userId is a registered user of the system and not anonymous.
+   * It assumes that the new userId is a registered user of the system and not anonymous. Events may be reassigned
+   * after this returns, once any still waiting to be written have been.
    *
    * @param oldUserId the id of the old anonymous user
    * @param newUserId the user object of the newly registered user.
@@ -79,6 +79,21 @@ public abstract class LogManagerEventPublisher implements ILogManager {
     }
   }
 
+  @Override
+  public void logEventWithIpAddress(final AbstractSegueUserDTO user, final String ipAddress, final LogType eventType,
+                                    final Object eventDetails) {
+
+    this.logManager.logEventWithIpAddress(user, ipAddress, eventType, eventDetails);
+
+    if (null != logListeners) {
+
+      for (LoggingEventHandler listener : logListeners) {
+        listener.handleEvent(user, null, eventType.name(), eventDetails);
+      }
+
+    }
+  }
+
   @Override
   public void logExternalEvent(final AbstractSegueUserDTO user, final HttpServletRequest httpRequest,
                                final String eventType, final Object eventDetails) {
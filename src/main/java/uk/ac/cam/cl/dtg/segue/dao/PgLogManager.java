@@ -34,7 +34,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -63,6 +62,7 @@ public class PgLogManager implements ILogManager {
   private final PostgresSqlDb database;
   private final boolean loggingEnabled;
   private final ObjectMapper objectMapper;
+  private final AsyncLogEventWriter logEventWriter;
 
   /**
    * PgLogManager.
@@ -70,33 +70,39 @@ public class PgLogManager implements ILogManager {
    * @param database       client for postgres.
    * @param objectMapper   so we can map event details to and from json
    * @param loggingEnabled whether the log event should be persisted or not?
+   * @param logEventWriter writes new log events to the database in the background.
    */
   @Inject
   public PgLogManager(final PostgresSqlDb database, final ObjectMapper objectMapper,
-                      @Named(Constants.LOGGING_ENABLED) final boolean loggingEnabled) {
+                      @Named(Constants.LOGGING_ENABLED) final boolean loggingEnabled,
+                      final AsyncLogEventWriter logEventWriter) {
 
     this.database = database;
     this.objectMapper = objectMapper;
     this.loggingEnabled = loggingEnabled;
+    this.logEventWriter = logEventWriter;
   }
 
   @Override
   public void logEvent(final AbstractSegueUserDTO user, final HttpServletRequest httpRequest, final LogType eventType,
                        final Object eventDetails) {
+    this.logEventWithIpAddress(user, RequestIpExtractor.getClientIpAddr(httpRequest), eventType, eventDetails);
+  }
+
+  @Override
+  public void logEventWithIpAddress(final AbstractSegueUserDTO user, final String ipAddress, final LogType eventType,
+                                    final Object eventDetails) {
     requireNonNull(user);
     try {
       if (user instanceof RegisteredUserDTO registeredUserDTO) {
-        this.persistLogEvent(registeredUserDTO.getId().toString(), null, eventType.name(), eventDetails,
-            RequestIpExtractor.getClientIpAddr(httpRequest));
+        this.persistLogEvent(registeredUserDTO.getId().toString(), null, eventType.name(), eventDetails, ipAddress);
       } else {
         this.persistLogEvent(null, ((AnonymousUserDTO) user).getSessionId(), eventType.name(), eventDetails,
-            RequestIpExtractor.getClientIpAddr(httpRequest));
+            ipAddress);
       }
 
     } catch (JsonProcessingException e) {
       log.error("Unable to serialize eventDetails as json string", e);
-    } catch (SegueDatabaseException e) {
-      log.error("Unable to save log event to the database", e);
     }
   }
 
@@ -115,8 +121,6 @@ public class PgLogManager implements ILogManager {
 
     } catch (JsonProcessingException e) {
       log.error("Unable to serialize eventDetails as json string", e);
-    } catch (SegueDatabaseException e) {
-      log.error("Unable to save log event to the database", e);
     }
   }
 
@@ -133,13 +137,23 @@ public class PgLogManager implements ILogManager {
 
     } catch (JsonProcessingException e) {
       log.error("Unable to serialize eventDetails as json string", e);
-    } catch (SegueDatabaseException e) {
-      log.error("Unable to save log event to the databasse", e);
     }
   }
 
   @Override
   public void transferLogEventsToRegisteredUser(final String oldUserId, final String newUserId) {
+    // Make sure any events still waiting to be written by the anonymous user are transferred too, by transferring
+    // them once the writer has written them rather than writing every queued event on this thread:
+    logEventWriter.runAfterQueuedEvents(() -> updateLogEventUserId(oldUserId, newUserId));
+  }
+
+  /**
+   * Move every logged event of one user to another.
+   *
+   * @param oldUserId the user who logged the events.
+   * @param newUserId the user to move the events to.
+   */
+  private void updateLogEventUserId(final String oldUserId, final String newUserId) {
     String query = "UPDATE logged_events SET user_id = ?, anonymous_user = TRUE WHERE user_id = ?;";
     try (Connection conn = database.getDatabaseConnection();
          PreparedStatement pst = conn.prepareStatement(query)
@@ -455,6 +469,8 @@ public class PgLogManager implements ILogManager {
 
   /**
    * log an event in the database.
+   * <br>
+   * The event is queued and written in the background, so it may not be visible to queries immediately.
    *
    * @param userId          owner user id
    * @param anonymousUserId id to use if not logged in
@@ -462,11 +478,10 @@ public class PgLogManager implements ILogManager {
    * @param eventDetails    the type of event that has occurred
    * @param ipAddress       the ip address of the client making the request
    * @throws JsonProcessingException if we are unable to serialize the eventDetails as a string.
-   * @throws SegueDatabaseException  if we cannot persist the event in the database.
    */
   private void persistLogEvent(final String userId, final String anonymousUserId, final String eventType,
                                final Object eventDetails, final String ipAddress)
-      throws JsonProcessingException, SegueDatabaseException {
+      throws JsonProcessingException {
     // don't do anything if logging is not enabled.
     if (!this.loggingEnabled) {
       return;
@@ -479,34 +494,10 @@ public class PgLogManager implements ILogManager {
       LOG_EVENT.labels(eventType).inc();
     }
 
-    String query = "INSERT INTO logged_events(user_id, anonymous_user, event_type, event_details_type,"
-        + " event_details, ip_address, timestamp) VALUES (?, ?, ?, ?, ?::text::jsonb, ?::inet, ?);";
-    try (Connection conn = database.getDatabaseConnection();
-         PreparedStatement pst = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
-    ) {
-      pst.setString(FIELD_PERSIST_LOG_EVENT_USER_ID, logEvent.getUserId());
-      pst.setBoolean(FIELD_PERSIST_LOG_EVENT_IS_ANONYMOUS, logEvent.isAnonymousUser());
-      pst.setString(FIELD_PERSIST_LOG_EVENT_EVENT_TYPE, logEvent.getEventType());
-      pst.setString(FIELD_PERSIST_LOG_EVENT_EVENT_DETAILS_TYPE, logEvent.getEventDetailsType());
-      pst.setString(FIELD_PERSIST_LOG_EVENT_EVENT_DETAILS, objectMapper.writeValueAsString(logEvent.getEventDetails()));
-      pst.setString(FIELD_PERSIST_LOG_EVENT_IP_ADDRESS, logEvent.getIpAddress());
-      pst.setTimestamp(FIELD_PERSIST_LOG_EVENT_TIMESTAMP, Timestamp.from(Instant.now()));
-
-      if (pst.executeUpdate() == 0) {
-        throw new SegueDatabaseException("Unable to save user.");
-      }
-
-      try (ResultSet generatedKeys = pst.getGeneratedKeys()) {
-        if (generatedKeys.next()) {
-          generatedKeys.getLong(1);
-        } else {
-          throw new SQLException("Creating user failed, no ID obtained.");
-        }
-      }
-
-    } catch (SQLException e) {
-      throw new SegueDatabaseException("Postgres exception", e);
-    }
+    logEventWriter.submit(new AsyncLogEventWriter.PendingLogEvent(logEvent.getUserId(), logEvent.isAnonymousUser(),
+        logEvent.getEventType(), logEvent.getEventDetailsType(),
+        objectMapper.writeValueAsString(logEvent.getEventDetails()), logEvent.getIpAddress(),
+        logEvent.getTimestamp()));
   }
 
   /**
@@ -569,13 +560,4 @@ public class PgLogManager implements ILogManager {
   // getLogsByUserAndType
   private static final int FIELD_GET_LOGS_BY_USER_AND_TYPE_EVENT_TYPE = 1;
   private static final int GET_LOGS_BY_USER_AND_TYPE_FIRST_USER_ID_OR_TIMESTAMP_INDEX = 2;
-
-  // persistLogEvent
-  private static final int FIELD_PERSIST_LOG_EVENT_USER_ID = 1;
-  private static final int FIELD_PERSIST_LOG_EVENT_IS_ANONYMOUS = 2;
-  private static final int FIELD_PERSIST_LOG_EVENT_EVENT_TYPE = 3;
-  private static final int FIELD_PERSIST_LOG_EVENT_EVENT_DETAILS_TYPE = 4;
-  private static final int FIELD_PERSIST_LOG_EVENT_EVENT_DETAILS = 5;
-  private static final int FIELD_PERSIST_LOG_EVENT_IP_ADDRESS = 6;
-  private static final int FIELD_PERSIST_LOG_EVENT_TIMESTAMP = 7;
 }
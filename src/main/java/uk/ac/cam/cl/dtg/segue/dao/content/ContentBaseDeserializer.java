@@ -72,9 +72,9 @@ public class ContentBaseDeserializer extends JsonDeserializer<Content> {
     if (typeMap.containsKey(contentType)) {
       contentClass = typeMap.get(contentType);
 
-      return mapper.readValue(root.toString(), contentClass);
+      return mapper.treeToValue(root, contentClass);
     }
 
-    return mapper.readValue(root.toString(), Content.class);
+    return mapper.treeToValue(root, Content.class);
   }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.segue.dao.content;
+
+import static uk.ac.cam.cl.dtg.isaac.api.Constants.CONCEPT_TYPE;
+import static uk.ac.cam.cl.dtg.isaac.api.Constants.TOPIC_SUMMARY_PAGE_TYPE;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.DEFAULT_MAX_WINDOW_SIZE;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.TYPE_FIELDNAME;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CONTENT_CACHE_WARM_UP_COVERAGE;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CONTENT_CACHE_WARM_UP_DURATION;
+import static uk.ac.cam.cl.dtg.segue.api.monitors.SegueMetrics.CONTENT_CACHE_WARM_UP_ITEMS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.prometheus.client.Histogram;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentDTO;
+import uk.ac.cam.cl.dtg.segue.api.Constants.BooleanOperator;
+
+/**
+ * Preloads the content caches of a {@link GitContentManager} when the live content version changes.
+ * <br>
+ * Content caches are keyed by content SHA, so every cache is cold straight after a publish. This class counts which
+ * content ids and id prefix queries are requested, and when a new SHA is first seen it loads the most requested of
+ * each from the previous version on a small fixed pool of background threads. Topic summaries and concept pages fill
+ * any of the id budget left over. Both budgets are kept well below the size of the caches, so that warming never
+ * pushes out entries which are really in use.
+ * <br>
+ * If the SHA changes again while a warm-up is running, the newest SHA is warmed as soon as the running one finishes.
+ * Warm-up duration, the number of items loaded and the share of the previous version's requests that were covered are
+ * exported as metrics.
+ */
+public class ContentCacheWarmer implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(ContentCacheWarmer.class);
+
+  private final GitContentManager contentManager;
+  private final int topN;
+  private final int topNQueries;
+  private final int maxTrackedIds;
+  private final ExecutorService warmUpExecutor;
+
+  private final AtomicReference<String> currentContentSHA = new AtomicReference<>();
+  private final AtomicBoolean warmUpInProgress = new AtomicBoolean(false);
+  private volatile RequestCounts requestCounts = new RequestCounts();
+
+  /**
+   * A prefix query as passed to {@link GitContentManager#getByIdPrefix(String, int, int)}.
+   */
+  private record PrefixQuery(String idPrefix, int startIndex, int limit) {
+  }
+
+  /**
+   * Requests counted against one content version.
+   */
+  private static final class RequestCounts {
+    private final Map<String, LongAdder> byId = new ConcurrentHashMap<>();
+    private final Map<PrefixQuery, LongAdder> byPrefixQuery = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Create a warmer for a content manager.
+   *
+   * @param contentManager - the content manager whose caches should be preloaded.
+   * @param topN           - how many content ids to preload, most requested in the previous version first.
+   * @param topNQueries    - how many of the most requested id prefix queries of the previous version to preload.
+   * @param maxTrackedIds  - the maximum number of distinct ids, and of distinct queries, to count requests for per
+   *                       content version.
+   * @param threads        - the number of threads used to load content.
+   */
+  public ContentCacheWarmer(final GitContentManager contentManager, final int topN, final int topNQueries,
+                            final int maxTrackedIds, final int threads) {
+    this.contentManager = contentManager;
+    this.topN = topN;
+    this.topNQueries = topNQueries;
+    this.maxTrackedIds = maxTrackedIds;
+    this.warmUpExecutor = Executors.newFixedThreadPool(threads,
+        new ThreadFactoryBuilder().setNameFormat("content-cache-warmer-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Count a request for a content id against the current content version.
+   *
+   * @param id - the requested content id.
+   */
+  public void recordRequest(final String id) {
+    countRequest(requestCounts.byId, id);
+  }
+
+  /**
+   * Count an id prefix query against the current content version.
+   *
+   * @param idPrefix   - the requested id prefix.
+   * @param startIndex - the start index of the requested page of results.
+   * @param limit      - the size of the requested page of results.
+   */
+  public void recordPrefixRequest(final String idPrefix, final int startIndex, final int limit) {
+    countRequest(requestCounts.byPrefixQuery, new PrefixQuery(idPrefix, startIndex, limit));
+  }
+
+  private <K> void countRequest(final Map<K, LongAdder> counts, final K key) {
+    LongAdder count = counts.get(key);
+    if (null == count) {
+      if (counts.size() >= maxTrackedIds) {
+        return;
+      }
+      count = counts.computeIfAbsent(key, k -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  /**
+   * Notify the warmer of the current content SHA; if it differs from the last one seen, start a warm-up.
+   *
+   * @param contentSHA - the content SHA currently in use.
+   */
+  public void onContentSHA(final String contentSHA) {
+    String previousContentSHA = currentContentSHA.getAndSet(contentSHA);
+    if (null == previousContentSHA || previousContentSHA.equals(contentSHA)) {
+      return;
+    }
+
+    if (!warmUpInProgress.compareAndSet(false, true)) {
+      log.info("Content changed to {} during a cache warm-up; it will be warmed once that finishes.", contentSHA);
+      return;
+    }
+    log.info("Content changed from {} to {}; warming content caches.", previousContentSHA, contentSHA);
+    RequestCounts previousRequestCounts = requestCounts;
+    requestCounts = new RequestCounts();
+    startWarmUp(contentSHA, previousRequestCounts);
+  }
+
+  /**
+   * Whether a warm-up is currently running.
+   *
+   * @return true until the last warm-up started has finished.
+   */
+  boolean isWarmingUp() {
+    return warmUpInProgress.get();
+  }
+
+  /**
+   * Stop any warm-up in progress and release the warm-up threads.
+   */
+  @Override
+  public void close() {
+    warmUpExecutor.shutdownNow();
+  }
+
+  private void startWarmUp(final String contentSHA, final RequestCounts previousRequestCounts) {
+    try {
+      CompletableFuture.supplyAsync(() -> warmUp(contentSHA, previousRequestCounts), warmUpExecutor)
+          .thenCompose(loads -> loads)
+          .whenComplete((result, e) -> {
+            if (null != e) {
+              log.error("Unable to warm content caches for " + contentSHA, e);
+            }
+            finishWarmUp(contentSHA, previousRequestCounts);
+          });
+    } catch (RejectedExecutionException e) {
+      log.debug("Not warming content caches for {}; the warmer has been closed.", contentSHA);
+      warmUpInProgress.set(false);
+    }
+  }
+
+  private void finishWarmUp(final String contentSHA, final RequestCounts previousRequestCounts) {
+    // The requests counted during a warm-up are for a version that was barely live, so the newest version is warmed
+    // using the same counts as the one just finished:
+    String latestContentSHA = currentContentSHA.get();
+    if (!contentSHA.equals(latestContentSHA)) {
+      log.info("Content changed to {} during the cache warm-up for {}; warming again.", latestContentSHA, contentSHA);
+      startWarmUp(latestContentSHA, previousRequestCounts);
+      return;
+    }
+    warmUpInProgress.set(false);
+    // The SHA may have changed after the check above but before another warm-up could be started:
+    latestContentSHA = currentContentSHA.get();
+    if (!contentSHA.equals(latestContentSHA) && warmUpInProgress.compareAndSet(false, true)) {
+      startWarmUp(latestContentSHA, previousRequestCounts);
+    }
+  }
+
+  private CompletableFuture<Void> warmUp(final String contentSHA, final RequestCounts previousRequestCounts) {
+    Histogram.Timer timer = CONTENT_CACHE_WARM_UP_DURATION.startTimer();
+
+    Map<String, Long> counts = sumCounts(previousRequestCounts.byId);
+    Set<String> idsToLoad = new LinkedHashSet<>(mostRequested(counts, topN));
+    for (String type : List.of(TOPIC_SUMMARY_PAGE_TYPE, CONCEPT_TYPE)) {
+      if (idsToLoad.size() >= topN) {
+        break;
+      }
+      findIdsOfType(type).stream().limit(topN - idsToLoad.size()).forEach(idsToLoad::add);
+    }
+    Map<PrefixQuery, Long> queryCounts = sumCounts(previousRequestCounts.byPrefixQuery);
+    List<PrefixQuery> queriesToLoad = mostRequested(queryCounts, topNQueries);
+
+    Set<String> coveredIds = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    for (String id : idsToLoad) {
+      loads.add(CompletableFuture.runAsync(() -> {
+        if (preload(() -> contentManager.preloadContentById(id))) {
+          coveredIds.add(id);
+        }
+      }, warmUpExecutor));
+    }
+    for (PrefixQuery query : queriesToLoad) {
+      loads.add(CompletableFuture.runAsync(() -> preload(() -> contentManager.preloadByIdPrefix(query.idPrefix(),
+          query.startIndex(), query.limit())), warmUpExecutor));
+    }
+
+    return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((result, e) -> {
+      double seconds = timer.observeDuration();
+      long totalRequests = counts.values().stream().mapToLong(Long::longValue).sum();
+      long coveredRequests = coveredIds.stream().mapToLong(id -> counts.getOrDefault(id, 0L)).sum();
+      log.info("Warmed content caches for {} with {} items in {} seconds, covering {} of {} previous requests.",
+          contentSHA, loads.size(), String.format("%.1f", seconds), coveredRequests, totalRequests);
+      if (totalRequests > 0) {
+        CONTENT_CACHE_WARM_UP_COVERAGE.set((double) coveredRequests / totalRequests);
+      }
+    });
+  }
+
+  private static <K> Map<K, Long> sumCounts(final Map<K, LongAdder> counts) {
+    Map<K, Long> sums = new HashMap<>();
+    counts.forEach((key, count) -> sums.put(key, count.sum()));
+    return sums;
+  }
+
+  private static <K> List<K> mostRequested(final Map<K, Long> counts, final int limit) {
+    return counts.entrySet().stream()
+        .sorted(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()))
+        .limit(limit)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  private List<String> findIdsOfType(final String type) {
+    try {
+      List<GitContentManager.BooleanSearchClause> fieldsToMatch = List.of(new GitContentManager.BooleanSearchClause(
+          TYPE_FIELDNAME, BooleanOperator.AND, List.of(type)));
+      return contentManager.findByFieldNames(fieldsToMatch, 0, DEFAULT_MAX_WINDOW_SIZE).getResults().stream()
+          .map(ContentDTO::getId)
+          .toList();
+    } catch (ContentManagerException e) {
+      log.warn("Unable to find content of type {} to warm caches", type, e);
+      return List.of();
+    }
+  }
+
+  private static boolean preload(final PreloadAction action) {
+    try {
+      if (action.preload()) {
+        CONTENT_CACHE_WARM_UP_ITEMS.labels("loaded").inc();
+        return true;
+      }
+      CONTENT_CACHE_WARM_UP_ITEMS.labels("missing").inc();
+    } catch (ContentManagerException | RuntimeException e) {
+      CONTENT_CACHE_WARM_UP_ITEMS.labels("failed").inc();
+      log.debug("Unable to preload content", e);
+    }
+    return false;
+  }
+
+  @FunctionalInterface
+  private interface PreloadAction {
+    boolean preload() throws ContentManagerException;
+  }
+}
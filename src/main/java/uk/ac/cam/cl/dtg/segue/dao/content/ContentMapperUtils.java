@@ -19,6 +19,7 @@ package uk.ac.cam.cl.dtg.segue.dao.content;
 import static java.util.Objects.requireNonNull;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -312,6 +313,21 @@ public class ContentMapperUtils {
    * @return ObjectMapper that has been configured to handle the segue recursive object model.
    */
   public ObjectMapper generateNewPreconfiguredContentMapper() {
+    return configureContentMapper(new ObjectMapper());
+  }
+
+  /**
+   * Creates a brand new object mapper for a data format other than JSON, such as Smile.
+   * This should be used sparingly as it is resource intensive to maintain these things.
+   *
+   * @param dataFormat - the factory for parsers and generators of the data format.
+   * @return ObjectMapper that has been configured to handle the segue recursive object model.
+   */
+  public ObjectMapper generateNewPreconfiguredContentMapper(final JsonFactory dataFormat) {
+    return configureContentMapper(new ObjectMapper(dataFormat));
+  }
+
+  private ObjectMapper configureContentMapper(final ObjectMapper objectMapper) {
     ContentBaseDeserializer contentDeserializer = new ContentBaseDeserializer();
     contentDeserializer.registerTypeMap(jsonTypes);
 
@@ -331,7 +347,6 @@ public class ContentMapperUtils {
     contentDeserializerModule.addDeserializer(Item.class, itemDeserializer);
     contentDeserializerModule.addDeserializer(QuestionValidationResponse.class, validationResponseDeserializer);
 
-    ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new JavaTimeModule());
     objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
     objectMapper.registerModule(contentDeserializerModule);
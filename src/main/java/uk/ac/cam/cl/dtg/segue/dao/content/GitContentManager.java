@@ -23,6 +23,14 @@ import static uk.ac.cam.cl.dtg.isaac.api.Constants.SEARCHABLE_TAG;
 import static uk.ac.cam.cl.dtg.isaac.api.Constants.SITE_WIDE_SEARCH_VALID_DOC_TYPES;
 import static uk.ac.cam.cl.dtg.isaac.api.Constants.TOPIC_SUMMARY_PAGE_TYPE;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_EXPIRE_AFTER_ACCESS_DAYS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_MAX_MISSING_OBJECTS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_MAX_OBJECTS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_MAX_QUERIES;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_MISSING_EXPIRE_AFTER_WRITE_SECONDS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_WARM_UP_MAX_TRACKED_IDS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_WARM_UP_THREADS;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_WARM_UP_TOP_N;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_CACHE_WARM_UP_TOP_N_QUERIES;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_SHA_CACHE_EXPIRE_AFTER_ACCESS_SECONDS;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.ContentIndextype;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.IMPORTANT_DOCUMENT_TYPE_BOOST;
@@ -37,15 +45,18 @@ import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
 
 import com.google.api.client.util.Sets;
 import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import jakarta.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -58,8 +69,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.SearchHit;
@@ -104,8 +118,18 @@ public class GitContentManager {
   private final boolean allowOnlyPublishedContent;
   private final boolean hideRegressionTestContent;
 
-  private final Cache<Object, Object> cache;
+  // Content caches are keyed by content SHA, so are never stale; each kind of lookup is sized and measured separately.
+  // Concurrent misses for the same key wait for a single load rather than all querying the search provider.
+  private final LoadingCache<ContentKey, Optional<Content>> contentDOByIdCache;
+  private final LoadingCache<ContentKey, Optional<ContentDTO>> contentDTOByIdCache;
+  private final LoadingCache<ContentKey, Optional<QuestionPageStructure>> questionPageStructureCache;
+  private final LoadingCache<IdPrefixQuery, ResultsWrapper<ContentDTO>> idPrefixCache;
+  private final LoadingCache<MatchingIdsQuery, ResultsWrapper<ContentDTO>> matchingIdsCache;
+  // Ids may come from users, so ids which are not found are kept in a small short-lived cache of their own, rather than
+  // letting requests for made-up ids push real content out of the caches above:
+  private final Cache<ContentKey, Boolean> missingContentCache;
   private final Cache<String, GetResponse> contentShaCache;
+  private final ContentCacheWarmer contentCacheWarmer;
 
   private final String contentIndex;
 
@@ -140,9 +164,20 @@ public class GitContentManager {
       log.info("API Configured to hide content tagged with 'regression_test'.");
     }
 
-    this.cache = CacheBuilder.newBuilder().recordStats().softValues()
-        .expireAfterAccess(CONTENT_CACHE_EXPIRE_AFTER_ACCESS_DAYS, TimeUnit.DAYS).build();
-    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_cache", cache);
+    this.contentDOByIdCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadContentDOById);
+    this.contentDTOByIdCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadContentDTOById);
+    this.questionPageStructureCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadQuestionPageStructure);
+    this.idPrefixCache = buildContentCache(CONTENT_CACHE_MAX_QUERIES, this::loadByIdPrefix);
+    this.matchingIdsCache = buildContentCache(CONTENT_CACHE_MAX_QUERIES, this::loadContentMatchingIds);
+    this.missingContentCache = buildMissingContentCache();
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_content_do_by_id", contentDOByIdCache);
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_content_by_id", contentDTOByIdCache);
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_question_page_structure", questionPageStructureCache);
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_by_id_prefix", idPrefixCache);
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_matching_ids", matchingIdsCache);
+    CACHE_METRICS_COLLECTOR.addCache("git_content_manager_missing_content", missingContentCache);
+    this.contentCacheWarmer = new ContentCacheWarmer(this, CONTENT_CACHE_WARM_UP_TOP_N,
+        CONTENT_CACHE_WARM_UP_TOP_N_QUERIES, CONTENT_CACHE_WARM_UP_MAX_TRACKED_IDS, CONTENT_CACHE_WARM_UP_THREADS);
 
     this.contentShaCache = CacheBuilder.newBuilder().softValues()
         .expireAfterWrite(CONTENT_SHA_CACHE_EXPIRE_AFTER_ACCESS_SECONDS, TimeUnit.SECONDS).build();
@@ -166,8 +201,14 @@ public class GitContentManager {
     this.globalProperties = null;
     this.allowOnlyPublishedContent = false;
     this.hideRegressionTestContent = false;
-    this.cache = CacheBuilder.newBuilder().softValues().expireAfterAccess(1, TimeUnit.DAYS).build();
+    this.contentDOByIdCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadContentDOById);
+    this.contentDTOByIdCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadContentDTOById);
+    this.questionPageStructureCache = buildContentCache(CONTENT_CACHE_MAX_OBJECTS, this::loadQuestionPageStructure);
+    this.idPrefixCache = buildContentCache(CONTENT_CACHE_MAX_QUERIES, this::loadByIdPrefix);
+    this.matchingIdsCache = buildContentCache(CONTENT_CACHE_MAX_QUERIES, this::loadContentMatchingIds);
+    this.missingContentCache = buildMissingContentCache();
     this.contentShaCache = CacheBuilder.newBuilder().softValues().expireAfterWrite(1, TimeUnit.MINUTES).build();
+    this.contentCacheWarmer = null;
     this.contentIndex = null;
   }
 
@@ -201,15 +242,65 @@ public class GitContentManager {
    * @throws ContentManagerException on failure to return the object or null.
    */
   public ContentDTO getContentById(final String id, final boolean failQuietly) throws ContentManagerException {
-    String k = "getContentById~" + getCurrentContentSHA() + "~" + id;
-    if (!cache.asMap().containsKey(k)) {
-      ContentDTO c = this.mapperUtils.getDTOByDO(this.getContentDOById(id, failQuietly));
-      if (c != null) {
-        cache.put(k, c);
-      }
+    if (id == null || id.isEmpty()) {
+      return null;
+    }
+
+    recordContentRequest(id);
+    ContentKey key = new ContentKey(getCurrentContentSHA(), id);
+    Optional<ContentDTO> content = getContentFromCache(contentDTOByIdCache, key);
+    if (content.isEmpty()) {
+      logMissingContent(key, failQuietly);
+    }
+    return content.orElse(null);
+  }
+
+  /**
+   * Get the markable question parts of a question page by its ID or return null.
+   * <br>
+   * The structure is computed once per content SHA and cached along with the content itself.
+   *
+   * @param id the question page ID.
+   * @return the structure of the question page.
+   * @throws ContentManagerException on failure to return the object or null.
+   */
+  public QuestionPageStructure getQuestionPageStructure(final String id) throws ContentManagerException {
+    if (id == null || id.isEmpty()) {
+      return null;
     }
 
-    return (ContentDTO) cache.getIfPresent(k);
+    recordContentRequest(id);
+    ContentKey key = new ContentKey(getCurrentContentSHA(), id);
+    Optional<QuestionPageStructure> structure = getContentFromCache(questionPageStructureCache, key);
+    if (structure.isEmpty()) {
+      logMissingContent(key, false);
+    }
+    return structure.orElse(null);
+  }
+
+  /**
+   * Get the markable question parts of a question page which has already been retrieved.
+   * <br>
+   * The structure is cached against the content SHA the page was retrieved from, which may not be the current one.
+   *
+   * @param questionPage a question page.
+   * @param contentSHA   the content SHA the page was retrieved from, or null if it is not known, in which case the
+   *                     structure is computed but not cached.
+   * @return the structure of the question page.
+   */
+  public QuestionPageStructure getQuestionPageStructure(final ContentDTO questionPage,
+                                                        @Nullable final String contentSHA) {
+    if (null == contentSHA) {
+      return QuestionPageStructure.fromQuestionPage(questionPage);
+    }
+    ContentKey key = new ContentKey(contentSHA, questionPage.getId());
+    Optional<QuestionPageStructure> structure = questionPageStructureCache.getIfPresent(key);
+    if (null == structure || structure.isEmpty()) {
+      // We already have the page, so there is no need to load it again:
+      structure = Optional.of(QuestionPageStructure.fromQuestionPage(questionPage));
+      questionPageStructureCache.put(key, structure);
+    }
+    return structure.get();
   }
 
   /**
@@ -244,29 +335,13 @@ public class GitContentManager {
       return null;
     }
 
-    String k = "getContentDOById~" + getCurrentContentSHA() + "~" + id;
-    if (!cache.asMap().containsKey(k)) {
-
-      List<Content> searchResults = mapperUtils.mapFromStringListToContentList(this.searchProvider.termSearch(
-          new BasicSearchParameters(contentIndex, CONTENT_TYPE, 0, 1), id,
-          Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
-          this.getBaseFilters()).getResults()
-      );
-
-      if (null == searchResults || searchResults.isEmpty()) {
-        if (!failQuietly) {
-          log.error(String.format("Failed to locate content with ID '%s' in the cache for content SHA (%s)",
-                            sanitiseExternalLogValue(id),
-              getCurrentContentSHA()));
-        }
-        return null;
-      }
-
-      cache.put(k, searchResults.get(0));
+    recordContentRequest(id);
+    ContentKey key = new ContentKey(getCurrentContentSHA(), id);
+    Optional<Content> content = getContentFromCache(contentDOByIdCache, key);
+    if (content.isEmpty()) {
+      logMissingContent(key, failQuietly);
     }
-
-    return (Content) cache.getIfPresent(k);
-
+    return content.orElse(null);
   }
 
   /**
@@ -284,21 +359,10 @@ public class GitContentManager {
    */
   public ResultsWrapper<ContentDTO> getByIdPrefix(final String idPrefix, final int startIndex,
                                                   final int limit) throws ContentManagerException {
-
-    String k = "getByIdPrefix~" + getCurrentContentSHA() + "~" + idPrefix + "~" + startIndex + "~" + limit;
-    if (!cache.asMap().containsKey(k)) {
-
-      ResultsWrapper<String> searchHits = this.searchProvider.findByPrefix(
-          new BasicSearchParameters(contentIndex, CONTENT_TYPE, startIndex, limit),
-          Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
-          idPrefix, this.getBaseFilters());
-
-      List<Content> searchResults = mapperUtils.mapFromStringListToContentList(searchHits.getResults());
-
-      cache.put(k, new ResultsWrapper<>(mapperUtils.getDTOByDOList(searchResults), searchHits.getTotalResults()));
+    if (null != contentCacheWarmer) {
+      contentCacheWarmer.recordPrefixRequest(idPrefix, startIndex, limit);
     }
-
-    return (ResultsWrapper<ContentDTO>) cache.getIfPresent(k);
+    return getFromCache(idPrefixCache, new IdPrefixQuery(getCurrentContentSHA(), idPrefix, startIndex, limit));
   }
 
   /**
@@ -318,32 +382,168 @@ public class GitContentManager {
                                                           final int startIndex, final int limit)
       throws ContentManagerException {
 
-    String k =
-        "getContentMatchingIds~" + getCurrentContentSHA() + "~" + ids.toString() + "~" + startIndex + "~" + limit;
-    if (!cache.asMap().containsKey(k)) {
+    return getFromCache(matchingIdsCache, new MatchingIdsQuery(getCurrentContentSHA(),
+        Collections.unmodifiableList(new ArrayList<>(ids)), startIndex, limit));
+  }
 
-      Map<String, AbstractFilterInstruction> finalFilter = Maps.newHashMap();
-      finalFilter.putAll(new ImmutableMap.Builder<String, AbstractFilterInstruction>()
-          .put(Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
-              new TermsFilterInstruction(ids))
-          .build());
+  /**
+   * Load a content object into the caches for the current content SHA, without counting it as a request.
+   *
+   * @param id the content object ID.
+   * @return whether the content exists in the current content SHA.
+   * @throws ContentManagerException on failure to load the object.
+   */
+  boolean preloadContentById(final String id) throws ContentManagerException {
+    return getContentFromCache(contentDTOByIdCache, new ContentKey(getCurrentContentSHA(), id)).isPresent();
+  }
 
-      if (getBaseFilters() != null) {
-        finalFilter.putAll(getBaseFilters());
-      }
+  /**
+   * Load the results of an id prefix query into the cache for the current content SHA, without counting it as a
+   * request.
+   *
+   * @param idPrefix   the content object ID prefix.
+   * @param startIndex the integer start index for pagination.
+   * @param limit      the limit for pagination.
+   * @return whether the query matched any content in the current content SHA.
+   * @throws ContentManagerException on failure to load the results.
+   */
+  boolean preloadByIdPrefix(final String idPrefix, final int startIndex, final int limit)
+      throws ContentManagerException {
+    return !getFromCache(idPrefixCache, new IdPrefixQuery(getCurrentContentSHA(), idPrefix, startIndex, limit))
+        .getResults().isEmpty();
+  }
 
-      ResultsWrapper<String> searchHits = this.searchProvider.termSearch(
-          new BasicSearchParameters(contentIndex, CONTENT_TYPE, startIndex, limit),
-          null,
-          null,
-          finalFilter
-      );
+  /**
+   * Stop warming the content caches in the background.
+   */
+  public void close() {
+    if (null != contentCacheWarmer) {
+      contentCacheWarmer.close();
+    }
+  }
 
-      List<Content> searchResults = mapperUtils.mapFromStringListToContentList(searchHits.getResults());
-      cache.put(k, new ResultsWrapper<>(mapperUtils.getDTOByDOList(searchResults), searchHits.getTotalResults()));
+  private void recordContentRequest(final String id) {
+    if (null != contentCacheWarmer) {
+      contentCacheWarmer.recordRequest(id);
     }
+  }
+
+  private Optional<Content> loadContentDOById(final ContentKey key) throws ContentManagerException {
+    List<Content> searchResults = mapperUtils.mapFromStringListToContentList(this.searchProvider.termSearch(
+        new BasicSearchParameters(contentIndex, CONTENT_TYPE, 0, 1), key.id(),
+        Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
+        this.getBaseFilters()).getResults()
+    );
 
-    return (ResultsWrapper<ContentDTO>) cache.getIfPresent(k);
+    if (null == searchResults || searchResults.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(searchResults.get(0));
+  }
+
+  private Optional<ContentDTO> loadContentDTOById(final ContentKey key) throws ContentManagerException {
+    return getContentFromCache(contentDOByIdCache, key).map(mapperUtils::getDTOByDO);
+  }
+
+  private Optional<QuestionPageStructure> loadQuestionPageStructure(final ContentKey key)
+      throws ContentManagerException {
+    return getContentFromCache(contentDTOByIdCache, key).map(QuestionPageStructure::fromQuestionPage);
+  }
+
+  private ResultsWrapper<ContentDTO> loadByIdPrefix(final IdPrefixQuery query) throws ContentManagerException {
+    ResultsWrapper<String> searchHits = this.searchProvider.findByPrefix(
+        new BasicSearchParameters(contentIndex, CONTENT_TYPE, query.startIndex(), query.limit()),
+        Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
+        query.idPrefix(), this.getBaseFilters());
+
+    List<Content> searchResults = mapperUtils.mapFromStringListToContentList(searchHits.getResults());
+
+    return new ResultsWrapper<>(mapperUtils.getDTOByDOList(searchResults), searchHits.getTotalResults());
+  }
+
+  private ResultsWrapper<ContentDTO> loadContentMatchingIds(final MatchingIdsQuery query)
+      throws ContentManagerException {
+    Map<String, AbstractFilterInstruction> finalFilter = Maps.newHashMap();
+    finalFilter.putAll(new ImmutableMap.Builder<String, AbstractFilterInstruction>()
+        .put(Constants.ID_FIELDNAME + "." + Constants.UNPROCESSED_SEARCH_FIELD_SUFFIX,
+            new TermsFilterInstruction(query.ids()))
+        .build());
+
+    if (getBaseFilters() != null) {
+      finalFilter.putAll(getBaseFilters());
+    }
+
+    ResultsWrapper<String> searchHits = this.searchProvider.termSearch(
+        new BasicSearchParameters(contentIndex, CONTENT_TYPE, query.startIndex(), query.limit()),
+        null,
+        null,
+        finalFilter
+    );
+
+    List<Content> searchResults = mapperUtils.mapFromStringListToContentList(searchHits.getResults());
+    return new ResultsWrapper<>(mapperUtils.getDTOByDOList(searchResults), searchHits.getTotalResults());
+  }
+
+  private void logMissingContent(final ContentKey key, final boolean failQuietly) {
+    if (!failQuietly) {
+      log.error(String.format("Failed to locate content with ID '%s' in the cache for content SHA (%s)",
+          sanitiseExternalLogValue(key.id()), key.contentSha()));
+    }
+  }
+
+  /**
+   * Get a value from one of the content caches, loading it if necessary.
+   * <br>
+   * If another thread is already loading the same key, this waits for and returns its result.
+   */
+  private static <K, V> V getFromCache(final LoadingCache<K, V> cache, final K key) throws ContentManagerException {
+    try {
+      return cache.get(key);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ContentManagerException cause) {
+        throw cause;
+      }
+      throw new ContentManagerException("Unable to load content", e);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /**
+   * Get content by id from one of the content caches, loading it if necessary.
+   * <br>
+   * Content which is not found is not kept in the cache it was looked up in, but in the missing content cache.
+   */
+  private <V> Optional<V> getContentFromCache(final LoadingCache<ContentKey, Optional<V>> cache,
+                                              final ContentKey key) throws ContentManagerException {
+    if (null != missingContentCache.getIfPresent(key)) {
+      return Optional.empty();
+    }
+    Optional<V> content = getFromCache(cache, key);
+    if (content.isEmpty()) {
+      cache.invalidate(key);
+      missingContentCache.put(key, true);
+    }
+    return content;
+  }
+
+  private static Cache<ContentKey, Boolean> buildMissingContentCache() {
+    return CacheBuilder.newBuilder().recordStats().maximumSize(CONTENT_CACHE_MAX_MISSING_OBJECTS)
+        .expireAfterWrite(CONTENT_CACHE_MISSING_EXPIRE_AFTER_WRITE_SECONDS, TimeUnit.SECONDS)
+        .build();
+  }
+
+  private static <K, V> LoadingCache<K, V> buildContentCache(final long maximumSize,
+                                                            final ContentLoader<K, V> loader) {
+    return CacheBuilder.newBuilder().recordStats().maximumSize(maximumSize)
+        .expireAfterAccess(CONTENT_CACHE_EXPIRE_AFTER_ACCESS_DAYS, TimeUnit.DAYS)
+        .build(new CacheLoader<K, V>() {
+          @Override
+          public V load(final K key) throws ContentManagerException {
+            return loader.load(key);
+          }
+        });
   }
 
   public final ResultsWrapper<ContentDTO> searchForContent(
@@ -534,8 +734,31 @@ public class GitContentManager {
     return finalResults;
   }
 
-  public final ByteArrayOutputStream getFileBytes(final String filename) throws IOException {
-    return database.getFileByCommitSha(getCurrentContentSHA(), filename);
+  public final byte[] getFileBytes(final String filename) throws IOException {
+    return database.getFileBytesByCommitSha(getCurrentContentSHA(), filename);
+  }
+
+  /**
+   * Get the blob id of a file in the current content version, which changes whenever the file's contents change.
+   *
+   * @param filename the path of the file.
+   * @return the blob id, or null if there is no such file.
+   * @throws IOException if the content repository cannot be read.
+   */
+  @Nullable
+  public final ObjectId getFileId(final String filename) throws IOException {
+    return database.getFileIdByCommitSha(getCurrentContentSHA(), filename);
+  }
+
+  /**
+   * Open a file in the content repository by its blob id, to read its size and stream its contents.
+   *
+   * @param fileId the blob id of the file.
+   * @return a loader for the file.
+   * @throws IOException if the content repository cannot be read.
+   */
+  public final ObjectLoader openFile(final ObjectId fileId) throws IOException {
+    return database.openFile(fileId);
   }
 
   public final String getLatestContentSHA() {
@@ -682,6 +905,9 @@ public class GitContentManager {
                 "general"
             );
         contentShaCache.put(contentIndex, shaResponse);
+        if (null != contentCacheWarmer) {
+          contentCacheWarmer.onContentSHA((String) shaResponse.getSource().get("version"));
+        }
       }
       return (String) shaResponse.getSource().get("version");
     } catch (SegueSearchException e) {
@@ -771,4 +997,18 @@ public class GitContentManager {
       return this.values;
     }
   }
+
+  @FunctionalInterface
+  private interface ContentLoader<K, V> {
+    V load(K key) throws ContentManagerException;
+  }
+
+  private record ContentKey(String contentSha, String id) {
+  }
+
+  private record IdPrefixQuery(String contentSha, String idPrefix, int startIndex, int limit) {
+  }
+
+  private record MatchingIdsQuery(String contentSha, List<String> ids, int startIndex, int limit) {
+  }
 }
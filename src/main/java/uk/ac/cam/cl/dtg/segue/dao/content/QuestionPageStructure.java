@@ -0,0 +1,164 @@
+/**
+ * Copyright 2026 Raspberry Pi Foundation
+ * <br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * <br>
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.cam.cl.dtg.segue.dao.content;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuestionPageDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuickQuestionDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentBaseDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.QuestionDTO;
+
+/**
+ * Immutable summary of the markable question parts of a question page, for progress and statistics calculations.
+ * <br>
+ * Finding the markable parts of a page requires a depth first search of its content tree. The parts of a page only
+ * change when the content version does, so the result is computed once per content SHA and shared, rather than
+ * searching the page again for every user and every request.
+ */
+public final class QuestionPageStructure {
+  private final String questionPageId;
+  private final Float passMark;
+  private final String[] partIds;
+  private final String[] partTypes;
+  private final String[] partTitles;
+  private final List<String> partIdList;
+
+  private QuestionPageStructure(final String questionPageId, final Float passMark, final String[] partIds,
+                                final String[] partTypes, final String[] partTitles) {
+    this.questionPageId = questionPageId;
+    this.passMark = passMark;
+    this.partIds = partIds;
+    this.partTypes = partTypes;
+    this.partTitles = partTitles;
+    this.partIdList = Collections.unmodifiableList(Arrays.asList(partIds));
+  }
+
+  /**
+   * Summarise the markable question parts of a page.
+   *
+   * @param questionPage - the page to summarise.
+   * @return the structure of the page, with parts in depth first order.
+   */
+  public static QuestionPageStructure fromQuestionPage(final ContentDTO questionPage) {
+    requireNonNull(questionPage);
+    List<QuestionDTO> questionParts = getAllMarkableQuestionPartsDFSOrder(questionPage);
+
+    int partCount = questionParts.size();
+    String[] partIds = new String[partCount];
+    String[] partTypes = new String[partCount];
+    String[] partTitles = new String[partCount];
+    for (int i = 0; i < partCount; i++) {
+      QuestionDTO questionPart = questionParts.get(i);
+      partIds[i] = questionPart.getId();
+      partTypes[i] = questionPart.getType();
+      partTitles[i] = questionPart.getTitle();
+    }
+
+    Float passMark = questionPage instanceof IsaacQuestionPageDTO page ? page.getPassMark() : null;
+    return new QuestionPageStructure(questionPage.getId(), passMark, partIds, partTypes, partTitles);
+  }
+
+  /**
+   * Get all questions in a piece of content. This method will conduct a DFS traversal and
+   * ensure the collection is ordered as per the DFS. Quick questions will be filtered out.
+   *
+   * @param content results depend on each question having an id prefixed with the question page id.
+   * @return collection of markable question parts (questions).
+   */
+  public static List<QuestionDTO> getAllMarkableQuestionPartsDFSOrder(final ContentDTO content) {
+    List<QuestionDTO> results = new ArrayList<>();
+    depthFirstQuestionSearch(content, results);
+    return results;
+  }
+
+  /**
+   * We want to list the questions in the order they are seen.
+   *
+   * @param c      content to search
+   * @param result the list of questions, to which markable questions are added.
+   */
+  private static void depthFirstQuestionSearch(final ContentDTO c, final List<QuestionDTO> result) {
+    if (c == null || c.getChildren() == null || c.getChildren().isEmpty()) {
+      return;
+    }
+
+    for (ContentBaseDTO child : c.getChildren()) {
+      if (child instanceof QuestionDTO question) {
+        // we are not interested in quick questions, and assume that we can't have nested questions
+        if (!(question instanceof IsaacQuickQuestionDTO)) {
+          result.add(question);
+        }
+      } else {
+        depthFirstQuestionSearch((ContentDTO) child, result);
+      }
+    }
+  }
+
+  /**
+   * Create a structure with no markable question parts, for a question page which cannot be found.
+   *
+   * @param questionPageId - the id of the missing page.
+   * @return an empty structure.
+   */
+  public static QuestionPageStructure empty(final String questionPageId) {
+    return new QuestionPageStructure(questionPageId, null, new String[0], new String[0], new String[0]);
+  }
+
+  public String getQuestionPageId() {
+    return questionPageId;
+  }
+
+  /**
+   * Get the pass mark set on the page.
+   *
+   * @return the pass mark as a percentage, or null if the page does not set one.
+   */
+  public Float getPassMark() {
+    return passMark;
+  }
+
+  public int getPartCount() {
+    return partIds.length;
+  }
+
+  public String getPartId(final int index) {
+    return partIds[index];
+  }
+
+  public String getPartType(final int index) {
+    return partTypes[index];
+  }
+
+  public String getPartTitle(final int index) {
+    return partTitles[index];
+  }
+
+  /**
+   * Get the ids of the markable question parts.
+   *
+   * @return an unmodifiable list of part ids in depth first order.
+   */
+  public List<String> getPartIds() {
+    return partIdList;
+  }
+}
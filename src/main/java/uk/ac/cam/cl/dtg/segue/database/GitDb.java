@@ -20,9 +20,15 @@ import static java.util.Objects.requireNonNull;
 import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseExternalLogValue;
 import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
+import jakarta.annotation.Nullable;
 import jakarta.ws.rs.NotFoundException;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -30,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import org.apache.commons.lang3.Validate;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -45,6 +52,7 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.SshSessionFactory;
@@ -54,7 +62,6 @@ import org.eclipse.jgit.transport.sshd.SshdSessionFactory;
 import org.eclipse.jgit.transport.sshd.SshdSessionFactoryBuilder;
 import org.eclipse.jgit.transport.sshd.SshdSessionFactoryBuilder.ConfigStoreFactory;
 import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.treewalk.filter.PathFilter;
 import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
 import org.eclipse.jgit.util.FS;
 import org.slf4j.Logger;
@@ -72,11 +79,33 @@ import uk.ac.cam.cl.dtg.segue.etl.ETLInMemorySshConfigStore;
 public class GitDb {
   private static final Logger log = LoggerFactory.getLogger(GitDb.class);
 
+  private static final int MAX_INDEXED_COMMITS = 4;
+  private static final long BLOB_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+  private static final int BLOB_CACHE_MAX_BLOB_BYTES = 2 * 1024 * 1024;
+  private static final long PACKED_GIT_LIMIT_BYTES = 512L * 1024 * 1024;
+  private static final int PACKED_GIT_WINDOW_SIZE_BYTES = 1024 * 1024;
+  private static final int DELTA_BASE_CACHE_LIMIT_BYTES = 32 * 1024 * 1024;
+
+  private static boolean windowCacheConfigured = false;
+
   private final String privateKey;
   private final String sshFetchUrl;
 
   private final Git gitHandle;
 
+  private final LoadingCache<String, Map<String, ObjectId>> fileIdsByPathCache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_INDEXED_COMMITS)
+      .build(new CacheLoader<>() {
+        @Override
+        public Map<String, ObjectId> load(final String sha) throws IOException {
+          return indexFilesByPath(sha);
+        }
+      });
+  private final Cache<ObjectId, byte[]> blobCache = CacheBuilder.newBuilder()
+      .maximumWeight(BLOB_CACHE_MAX_BYTES)
+      .weigher((ObjectId fileId, byte[] fileBytes) -> fileBytes.length)
+      .build();
+
   /**
    * Create a new instance of a GitDb object
    * <br>
@@ -121,77 +150,122 @@ public class GitDb {
   }
 
   /**
-   * getFileByCommitSHA
+   * Get the contents of a file in a particular version.
    * <br>
-   * This method will access the git repository given a particular SHA and will attempt to locate a unique file and
-   * return a bytearrayoutputstream of the files contents.
+   * Files are found using an index of every file in the version, and small files are cached by blob id, so repeated
+   * requests for the same file do not need to walk the git tree or read it from the repository. The array returned may
+   * be shared with other callers and must not be modified.
    *
    * @param sha
    *            to search in.
    * @param fullFilePath
    *            file path to search for e.g. /src/filename.json
-   * @return the ByteArrayOutputStream - which you can extract the file contents via the toString method.
+   * @return the contents of the file, or null if there is no such file.
    * @throws IOException
    *             - if we cannot access the repo location.
-   * @throws UnsupportedOperationException
-   *             - This method is intended to only locate one file at a time. If your search matches multiple files
-   *             then this exception will be thrown.
    */
-  public ByteArrayOutputStream getFileByCommitSha(final String sha, final String fullFilePath) throws IOException,
-      UnsupportedOperationException {
-    if (null == sha || null == fullFilePath) {
+  @Nullable
+  public byte[] getFileBytesByCommitSha(final String sha, final String fullFilePath) throws IOException {
+    ObjectId fileId = getFileIdByCommitSha(sha, fullFilePath);
+    if (null == fileId) {
       return null;
     }
 
-    Repository repository = gitHandle.getRepository();
-    // This may or may not help with concurrent repo update issues:
-    repository.scanForRepoChanges();
+    // Files too large for the blob cache are streamed from the repository straight into an array of their own size:
+    return openFile(fileId).getCachedBytes(Integer.MAX_VALUE);
+  }
 
-    ObjectId commitId = repository.resolve(sha);
+  /**
+   * Open a file by its blob id, to read its size and contents.
+   * <br>
+   * Small files are read into the blob cache; larger files are left in the repository, so their contents can be
+   * streamed from {@link ObjectLoader#openStream()} without being held on the heap.
+   *
+   * @param fileId
+   *            the blob id of the file, e.g. from {@link #getFileIdByCommitSha(String, String)}.
+   * @return a loader for the file. The array returned by {@link ObjectLoader#getCachedBytes()} must not be modified.
+   * @throws IOException
+   *             - if we cannot access the repo location, or there is no such file.
+   */
+  public ObjectLoader openFile(final ObjectId fileId) throws IOException {
+    byte[] fileBytes = blobCache.getIfPresent(fileId);
+    if (null != fileBytes) {
+      return new ObjectLoader.SmallObject(Constants.OBJ_BLOB, fileBytes);
+    }
 
-    RevWalk revWalk = new RevWalk(repository);
-    RevCommit commit = revWalk.parseCommit(commitId);
-
-    RevTree tree = commit.getTree();
-
-    TreeWalk treeWalk = new TreeWalk(repository);
-    treeWalk.addTree(tree);
-    treeWalk.setRecursive(true);
-    treeWalk.setFilter(PathFilter.create(fullFilePath));
-
-    int count = 0;
-    ObjectId objectId = null;
-    String path = null;
-    while (treeWalk.next()) {
-      count++;
-      if (null == objectId) {
-        objectId = treeWalk.getObjectId(0);
-        path = treeWalk.getPathString();
-      } else if (count > 1) {
-        // throw exception if we find that there is more than one that matches the search.
-        StringBuilder sb = new StringBuilder();
-        sb.append("Multiple results have been found in the git repository for the following search: ");
-        sb.append(fullFilePath).append(".");
-        sb.append(" in ");
-        sb.append(sha);
-        sb.append(" Unable to decide which one to return.");
-        throw new UnsupportedOperationException(sb.toString());
-      }
+    ObjectLoader loader = gitHandle.getRepository().open(fileId, Constants.OBJ_BLOB);
+    if (loader.getSize() > BLOB_CACHE_MAX_BLOB_BYTES) {
+      return loader;
     }
+    fileBytes = loader.getBytes();
+    blobCache.put(fileId, fileBytes);
+    return new ObjectLoader.SmallObject(Constants.OBJ_BLOB, fileBytes);
+  }
 
-    if (null == objectId) {
+  /**
+   * Get the blob id of a file in a particular version.
+   *
+   * @param sha
+   *            to search in.
+   * @param fullFilePath
+   *            file path to search for e.g. /src/filename.json
+   * @return the blob id of the file, or null if there is no such file.
+   * @throws IOException
+   *             - if we cannot access the repo location, or the version does not exist.
+   */
+  @Nullable
+  public ObjectId getFileIdByCommitSha(final String sha, final String fullFilePath) throws IOException {
+    if (null == sha || null == fullFilePath) {
       return null;
     }
+    return getFileIdsByPath(sha).get(fullFilePath);
+  }
+
+  /**
+   * Get the blob id of every file in a particular version, by path.
+   * <br>
+   * The tree of each version is only walked once; the most recently used versions are kept.
+   *
+   * @param sha
+   *            the version to index.
+   * @return an unmodifiable map from the path of each file to its blob id.
+   * @throws IOException
+   *             - if we cannot access the repo location, or the version does not exist.
+   */
+  public Map<String, ObjectId> getFileIdsByPath(final String sha) throws IOException {
+    try {
+      return fileIdsByPathCache.get(sha);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw new IOException("Unable to index files for sha: " + sha, e.getCause());
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
 
-    revWalk.dispose();
-    log.debug("Retrieved Commit Id: " + commitId.getName() + " Searching for: " + sanitiseExternalLogValue(fullFilePath)
-        + " found: " + path);
-    ObjectLoader loader = repository.open(objectId);
+  private Map<String, ObjectId> indexFilesByPath(final String sha) throws IOException {
+    Repository repository = gitHandle.getRepository();
+    // This may or may not help with concurrent repo update issues:
+    repository.scanForRepoChanges();
 
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    loader.copyTo(out);
+    ObjectId commitId = repository.resolve(sha);
+    if (null == commitId) {
+      throw new IOException("Unable to locate commit with sha: " + sanitiseInternalLogValue(sha));
+    }
 
-    return out;
+    Map<String, ObjectId> fileIdsByPath = new HashMap<>();
+    try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+      treeWalk.addTree(revWalk.parseCommit(commitId).getTree());
+      treeWalk.setRecursive(true);
+      while (treeWalk.next()) {
+        fileIdsByPath.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+      }
+    }
+    log.debug("Indexed {} files for commit {}", fileIdsByPath.size(), commitId.getName());
+    return Collections.unmodifiableMap(fileIdsByPath);
   }
 
   /**
@@ -392,6 +466,26 @@ public class GitDb {
     return result;
   }
 
+  /**
+   * Configures how JGit reads pack files, which applies to every repository in the process opened afterwards.
+   * <br>
+   * Pack files are memory-mapped in large windows rather than copied onto the heap in small ones, so reading a blob
+   * from a pack is mostly a page cache hit. The configuration is global to JGit, so this should be called once at
+   * startup, before any repository is opened; later calls do nothing.
+   */
+  public static synchronized void configureWindowCache() {
+    if (windowCacheConfigured) {
+      return;
+    }
+    windowCacheConfigured = true;
+    WindowCacheConfig windowCacheConfig = new WindowCacheConfig();
+    windowCacheConfig.setPackedGitMMAP(true);
+    windowCacheConfig.setPackedGitLimit(PACKED_GIT_LIMIT_BYTES);
+    windowCacheConfig.setPackedGitWindowSize(PACKED_GIT_WINDOW_SIZE_BYTES);
+    windowCacheConfig.setDeltaBaseCacheLimit(DELTA_BASE_CACHE_LIMIT_BYTES);
+    windowCacheConfig.install();
+  }
+
   /**
    * Sets up the SSH session factory which JGit will use to create SSH sessions for transport.
    */
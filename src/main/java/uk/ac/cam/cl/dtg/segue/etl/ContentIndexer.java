@@ -1,8 +1,8 @@
 package uk.ac.cam.cl.dtg.segue.etl;
 
-import static com.google.common.collect.Maps.immutableEntry;
 import static java.util.Objects.requireNonNull;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.BYTES_IN_ONE_KILOBYTE;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.CONTENT_PARSE_CACHE_MAX_BYTES;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.ContentIndextype;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.MAXIMUM_CONTENT_ID_LENGTH;
 import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
@@ -10,12 +10,13 @@ import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
 import jakarta.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
@@ -30,6 +31,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.FilenameUtils;
@@ -77,12 +83,25 @@ public class ContentIndexer {
   private final ElasticSearchIndexer es;
   private final GitDb database;
   private final ContentMapperUtils mapperUtils;
+  @Nullable
+  private final ContentSnapshotStore snapshotStore;
+  private volatile IndexedVersion lastIndexedVersion;
+
+  private final ParsedContentCache parsedContentCache;
+  private final int parallelism;
 
   private static final int MEDIA_FILE_SIZE_LIMIT = 300 * 1024; // Bytes
   private static final int NANOSECONDS_IN_A_MILLISECOND = 1000000;
   private static final String ERROR_OCCURRED_SUFFIX = ". The following error occurred: ";
   private static final String CONTENT_LOG_PREFIX = "CONTENT - ";
 
+  static final String STAGE_FETCH = "fetch";
+  static final String STAGE_LOAD_SNAPSHOT = "loadSnapshot";
+  static final String STAGE_PARSE = "parse";
+  static final String STAGE_RECORD_ERRORS = "recordErrors";
+  static final String STAGE_SAVE_SNAPSHOT = "saveSnapshot";
+  static final String STAGE_SEARCH_INDEX = "searchIndex";
+
   private record IndexingContext(Map<String, Content> contentCache, Set<String> tagsList, Map<String, String> allUnits,
                                  Map<String, String> publishedUnits, Map<Content, List<String>> indexProblemCache,
                                  boolean includeUnpublished) {
@@ -95,15 +114,115 @@ public class ContentIndexer {
   private record ContentReferenceMap(Set<String> expectedIds, Map<String, Set<Content>> incomingReferences) {
   }
 
+  /**
+   * The blob id of every file in a version, so that the existence and size of referenced files can be checked without
+   * walking the git tree for each one.
+   */
+  private record GitFileIndex(Repository repository, Map<String, ObjectId> fileIdsByPath,
+                              Map<String, Long> fileSizesByPath) {
+
+    /**
+     * Get the size of a file in the version.
+     *
+     * @param path the path of the file.
+     * @return the size of the file in bytes, or null if there is no such file.
+     */
+    @Nullable
+    Long getFileSize(final String path) {
+      ObjectId fileId = fileIdsByPath.get(path);
+      if (null == fileId) {
+        return null;
+      }
+      return fileSizesByPath.computeIfAbsent(path, p -> {
+        try {
+          return repository.open(fileId).getSize();
+        } catch (IOException e) {
+          return null;
+        }
+      });
+    }
+  }
+
+  private record JsonFile(String path, ObjectId objectId) {
+  }
+
+  /**
+   * The result of parsing one json file: either its augmented content, or the problem that stopped it being parsed.
+   */
+  private record ParsedJsonFile(JsonFile file, @Nullable Content content, Set<Content> flattenedContent,
+                                @Nullable ParseProblem problem) {
+
+    static ParsedJsonFile parsed(final JsonFile file, final Content content, final Set<Content> flattenedContent) {
+      return new ParsedJsonFile(file, content, flattenedContent, null);
+    }
+
+    static ParsedJsonFile skipped(final JsonFile file) {
+      return new ParsedJsonFile(file, null, Set.of(), null);
+    }
+
+    static ParsedJsonFile failed(final JsonFile file, final String message) {
+      Content dummyContent = new Content();
+      dummyContent.setCanonicalSourceFile(file.path());
+      return new ParsedJsonFile(file, null, Set.of(), new ParseProblem(dummyContent, message));
+    }
+  }
+
+  private record ParseProblem(Content content, String message) {
+  }
+
+  /**
+   * A hash of the serialised content of the last version indexed, so that the next version only needs to send to the
+   * search provider what has changed.
+   */
+  record IndexedVersion(String sha, Map<String, HashCode> contentHashById) {
+  }
+
   @Inject
-  public ContentIndexer(final GitDb database, final ElasticSearchIndexer es, final ContentMapperUtils mapperUtils) {
+  public ContentIndexer(final GitDb database, final ElasticSearchIndexer es, final ContentMapperUtils mapperUtils,
+                        final ContentSnapshotStore snapshotStore) {
+    this(database, es, mapperUtils, snapshotStore, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create a content indexer which parses and validates content on a given number of threads.
+   *
+   * @param database      the git database to read content from.
+   * @param es            the search provider to index content in.
+   * @param mapperUtils   the content mapper utils used to parse and serialise content.
+   * @param snapshotStore the store of parsed content snapshots, or null to always read content from git.
+   * @param parallelism   the number of threads to parse and validate content on.
+   */
+  ContentIndexer(final GitDb database, final ElasticSearchIndexer es, final ContentMapperUtils mapperUtils,
+                 @Nullable final ContentSnapshotStore snapshotStore, final int parallelism) {
     this.database = database;
     this.es = es;
     this.mapperUtils = mapperUtils;
+    this.snapshotStore = snapshotStore;
+    this.parsedContentCache = new ParsedContentCache(mapperUtils, CONTENT_PARSE_CACHE_MAX_BYTES);
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Create a content indexer which always reads content from git.
+   *
+   * @param database    the git database to read content from.
+   * @param es          the search provider to index content in.
+   * @param mapperUtils the content mapper utils used to parse and serialise content.
+   */
+  public ContentIndexer(final GitDb database, final ElasticSearchIndexer es, final ContentMapperUtils mapperUtils) {
+    this(database, es, mapperUtils, null);
   }
 
 
-  void loadAndIndexContent(final String version) throws Exception {
+  /**
+   * Index the content of a version, unless it is already indexed.
+   *
+   * @param version       the version to index.
+   * @param stageListener notified with the name of each stage of indexing as it starts.
+   * @throws VersionLockedException if the version is already being indexed.
+   * @throws Exception              if the version could not be indexed.
+   */
+  void loadAndIndexContent(final String version, final Consumer<String> stageListener) throws Exception {
 
     // Take version lock or fail
     Boolean alreadyLocked = VERSION_LOCKS.putIfAbsent(version, true);
@@ -116,6 +235,7 @@ public class ContentIndexer {
         sanitiseInternalLogValue(version));
 
     try {
+      stageListener.accept(STAGE_FETCH);
       database.fetchLatestFromRemote();
 
       // Now we have acquired the lock check in case someone else has already indexed this version.
@@ -130,34 +250,68 @@ public class ContentIndexer {
           sanitiseInternalLogValue(version));
 
       Map<String, Content> contentCache = new HashMap<>();
-      Set<String> tagsList = new HashSet<>();
-      Map<String, String> allUnits = new HashMap<>();
-      Map<String, String> publishedUnits = new HashMap<>();
-      Map<Content, List<String>> indexProblemCache = new HashMap<>();
+      Set<String> tagsList = ConcurrentHashMap.newKeySet();
+      Map<String, String> allUnits = new ConcurrentHashMap<>();
+      Map<String, String> publishedUnits = new ConcurrentHashMap<>();
+      Map<Content, List<String>> indexProblemCache = new ConcurrentHashMap<>();
 
       long totalStartTime;
       long startTime;
       long endTime;
 
-      totalStartTime = System.nanoTime();
-      buildGitContentIndex(version, true, contentCache, tagsList, allUnits, publishedUnits,
-          indexProblemCache);
-      endTime = System.nanoTime();
-
-      log.info(CONTENT_LOG_PREFIX + "Finished populating Git content cache, took: {}ms",
-          (endTime - totalStartTime) / NANOSECONDS_IN_A_MILLISECOND);
-      log.info(CONTENT_LOG_PREFIX + "Beginning to record content errors");
-
-      startTime = System.nanoTime();
-      recordContentErrors(version, contentCache, indexProblemCache);
-      endTime = System.nanoTime();
+      // Content unchanged since the last version indexed does not need sending to the search provider
+      IndexedVersion previousVersion = lastIndexedVersion;
+      if (null != previousVersion) {
+        log.info(CONTENT_LOG_PREFIX + "Indexing incrementally from previously indexed sha: {}",
+            sanitiseInternalLogValue(previousVersion.sha()));
+      }
 
-      log.info(CONTENT_LOG_PREFIX + "Finished recording content errors, took: {}ms",
-          (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+      totalStartTime = System.nanoTime();
+      ContentSnapshotStore.ContentSnapshot snapshot = null == snapshotStore ? null : snapshotStore.load(version);
+      if (null != snapshot) {
+        stageListener.accept(STAGE_LOAD_SNAPSHOT);
+        contentCache.putAll(snapshot.contentCache());
+        tagsList.addAll(snapshot.tagsList());
+        allUnits.putAll(snapshot.allUnits());
+        publishedUnits.putAll(snapshot.publishedUnits());
+        indexProblemCache.putAll(snapshot.indexProblemCache());
+        endTime = System.nanoTime();
+
+        log.info(CONTENT_LOG_PREFIX + "Loaded content cache from snapshot, took: {}ms",
+            (endTime - totalStartTime) / NANOSECONDS_IN_A_MILLISECOND);
+      } else {
+        stageListener.accept(STAGE_PARSE);
+        buildGitContentIndex(version, true, contentCache, tagsList, allUnits, publishedUnits, indexProblemCache);
+        endTime = System.nanoTime();
+
+        log.info(CONTENT_LOG_PREFIX + "Finished populating Git content cache, took: {}ms",
+            (endTime - totalStartTime) / NANOSECONDS_IN_A_MILLISECOND);
+        log.info(CONTENT_LOG_PREFIX + "Beginning to record content errors");
+
+        stageListener.accept(STAGE_RECORD_ERRORS);
+        startTime = System.nanoTime();
+        recordContentErrors(version, contentCache, indexProblemCache);
+        endTime = System.nanoTime();
+
+        log.info(CONTENT_LOG_PREFIX + "Finished recording content errors, took: {}ms",
+            (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+
+        if (null != snapshotStore && snapshotStore.isEnabled()) {
+          stageListener.accept(STAGE_SAVE_SNAPSHOT);
+          startTime = System.nanoTime();
+          snapshotStore.save(version, new ContentSnapshotStore.ContentSnapshot(contentCache, tagsList, allUnits,
+              publishedUnits, indexProblemCache));
+          endTime = System.nanoTime();
+
+          log.info(CONTENT_LOG_PREFIX + "Finished writing content snapshot, took: {}ms",
+              (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+        }
+      }
 
+      stageListener.accept(STAGE_SEARCH_INDEX);
       startTime = System.nanoTime();
-      buildElasticSearchIndex(version, contentCache, tagsList, allUnits, publishedUnits,
-          indexProblemCache);
+      Map<String, HashCode> contentHashById = buildElasticSearchIndex(version, contentCache, tagsList, allUnits,
+          publishedUnits, indexProblemCache, previousVersion);
       endTime = System.nanoTime();
       long buildTime = (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND;
       log.info(CONTENT_LOG_PREFIX + "Finished building ElasticSearch index, took: {}ms", buildTime);
@@ -168,6 +322,15 @@ public class ContentIndexer {
         throw new Exception(String.format("Failed to index version %s. Don't know why.", version));
       }
 
+      if (null != contentHashById) {
+        lastIndexedVersion = new IndexedVersion(version, contentHashById);
+      } else {
+        // The content index may be missing documents, so must not be copied; index all content next time instead:
+        log.warn(CONTENT_LOG_PREFIX + "Content index of version {} was not fully built; the next version will be "
+            + "indexed in full.", sanitiseInternalLogValue(version));
+        lastIndexedVersion = null;
+      }
+
       long totalTime = (endTime - totalStartTime) / NANOSECONDS_IN_A_MILLISECOND;
       log.info(CONTENT_LOG_PREFIX + "Finished indexing version {}, total time: {}ms",
           sanitiseInternalLogValue(version), totalTime);
@@ -187,24 +350,26 @@ public class ContentIndexer {
   /**
    * This method will populate the internal gitCache based on the content object files found for a given SHA.
    * <br>
-   * Currently, it only looks for json files in the repository.
+   * Currently, it only looks for json files in the repository. The files are found by walking the git tree, then
+   * parsed and augmented in parallel, then merged into the cache in tree order so that the first of any duplicate ids
+   * is the one kept. Files already parsed for a recently indexed version are not parsed again.
    *
    * @param sha                the version to index.
    * @param includeUnpublished boolean controlling if unpublished content should be indexed
    * @param contentCache       a map of keys to content objects
-   * @param tagsList           a set of seen tags
-   * @param allUnits           a map of units used in numeric questions
-   * @param publishedUnits     a map of units used in published numeric questions
-   * @param indexProblemCache  a map of problems found in the indexed content
+   * @param tagsList           a concurrent set of seen tags
+   * @param allUnits           a concurrent map of units used in numeric questions
+   * @param publishedUnits     a concurrent map of units used in published numeric questions
+   * @param indexProblemCache  a concurrent map of problems found in the indexed content
    * @throws ContentManagerException if the SHA is null or the associated resource cannot be accessed
    */
-  private synchronized void buildGitContentIndex(final String sha,
-                                                 final boolean includeUnpublished,
-                                                 final Map<String, Content> contentCache,
-                                                 final Set<String> tagsList,
-                                                 final Map<String, String> allUnits,
-                                                 final Map<String, String> publishedUnits,
-                                                 final Map<Content, List<String>> indexProblemCache)
+  private void buildGitContentIndex(final String sha,
+                                    final boolean includeUnpublished,
+                                    final Map<String, Content> contentCache,
+                                    final Set<String> tagsList,
+                                    final Map<String, String> allUnits,
+                                    final Map<String, String> publishedUnits,
+                                    final Map<Content, List<String>> indexProblemCache)
       throws ContentManagerException {
 
     if (null == sha) {
@@ -230,11 +395,28 @@ public class ContentIndexer {
       log.info("Populating git content cache based on sha {} ...", sanitiseInternalLogValue(sha));
 
       // Traverse the git repository looking for the .json files
+      long startTime = System.nanoTime();
+      List<JsonFile> jsonFiles = new ArrayList<>();
+      while (treeWalk.next()) {
+        jsonFiles.add(new JsonFile(treeWalk.getPathString(), treeWalk.getObjectId(0)));
+      }
+      log.info(CONTENT_LOG_PREFIX + "Found {} json files, took: {}ms", jsonFiles.size(),
+          (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+
       IndexingContext context = new IndexingContext(contentCache, tagsList, allUnits, publishedUnits,
           indexProblemCache, includeUnpublished);
-      while (treeWalk.next()) {
-        processJsonFile(treeWalk, repository, context);
+
+      startTime = System.nanoTime();
+      List<ParsedJsonFile> parsedFiles = parseJsonFiles(jsonFiles, repository, context);
+      log.info(CONTENT_LOG_PREFIX + "Parsed {} json files, took: {}ms", parsedFiles.size(),
+          (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+
+      startTime = System.nanoTime();
+      for (ParsedJsonFile parsedFile : parsedFiles) {
+        indexContentObject(parsedFile, context);
       }
+      log.info(CONTENT_LOG_PREFIX + "Merged content from {} json files, took: {}ms", parsedFiles.size(),
+          (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
 
       repository.close();
       log.info("Tags available {}", tagsList);
@@ -246,72 +428,101 @@ public class ContentIndexer {
     }
   }
 
-  private void processJsonFile(final TreeWalk treeWalk, final Repository repository,
-                               final IndexingContext context) {
+  private List<ParsedJsonFile> parseJsonFiles(final List<JsonFile> jsonFiles, final Repository repository,
+                                              final IndexingContext context)
+      throws ContentManagerException {
+    AtomicInteger reusedFiles = new AtomicInteger();
+    ForkJoinPool parsePool = new ForkJoinPool(parallelism);
     try {
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
-      ObjectLoader loader = repository.open(treeWalk.getObjectId(0));
-      loader.copyTo(out);
+      // Parallel streams run in the pool of the task that starts them; the stream keeps the files in tree order.
+      List<ParsedJsonFile> parsedFiles = parsePool.submit(() -> jsonFiles.parallelStream()
+          .map(jsonFile -> {
+            // The cache returns a new copy of the content, which this version may change as it likes:
+            Content cachedContent = parsedContentCache.get(jsonFile.path(), jsonFile.objectId());
+            if (null != cachedContent) {
+              reusedFiles.incrementAndGet();
+              return context.shouldSkipUnpublished(cachedContent) ? ParsedJsonFile.skipped(jsonFile)
+                  : ParsedJsonFile.parsed(jsonFile, cachedContent, this.flattenContentObjects(cachedContent));
+            }
+            ParsedJsonFile parsedFile = processJsonFile(jsonFile, repository, context);
+            // Failures may be caused by reading the file rather than its content, so only parsed files are cached:
+            if (null != parsedFile.content()) {
+              parsedContentCache.put(jsonFile.path(), jsonFile.objectId(), parsedFile.content());
+            }
+            return parsedFile;
+          })
+          .toList()
+      ).get();
+      log.info(CONTENT_LOG_PREFIX + "Reused {} unchanged json files from recently indexed versions. "
+          + "Parse cache: {} files, {}", reusedFiles.get(), parsedContentCache.size(), parsedContentCache.stats());
+      return parsedFiles;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContentManagerException("Interrupted while parsing json files.");
+    } catch (ExecutionException e) {
+      log.error("Unexpected error while parsing json files.", e);
+      throw new ContentManagerException("Unable to index content, due to an error parsing json files.");
+    } finally {
+      parsePool.shutdown();
+    }
+  }
 
+  private ParsedJsonFile processJsonFile(final JsonFile jsonFile, final Repository repository,
+                                         final IndexingContext context) {
+    try {
+      ObjectLoader loader = repository.open(jsonFile.objectId());
       ObjectMapper objectMapper = mapperUtils.getSharedContentObjectMapper();
 
-      try {
-        Content content = (Content) objectMapper.readValue(out.toString(), ContentBase.class);
+      try (InputStream in = loader.openStream()) {
+        Content content = (Content) objectMapper.readValue(in, ContentBase.class);
 
         if (context.shouldSkipUnpublished(content)) {
           log.info("Skipping unpublished content: {}", content.getId());
-          return;
+          return ParsedJsonFile.skipped(jsonFile);
         }
 
-        content = this.augmentChildContent(content, treeWalk.getPathString(), null, content.getPublished());
+        content = this.augmentChildContent(content, jsonFile.path(), null, content.getPublished());
 
-        if (null != content) {
-          log.info(CONTENT_LOG_PREFIX + "Processing file: {} (type: {}, id: {})", treeWalk.getPathString(),
-              content.getType(), content.getId());
-          indexContentObject(context.contentCache, context.tagsList, context.allUnits, context.publishedUnits,
-              context.indexProblemCache, treeWalk.getPathString(), content);
+        if (null == content) {
+          return ParsedJsonFile.skipped(jsonFile);
         }
+        log.info(CONTENT_LOG_PREFIX + "Processing file: {} (type: {}, id: {})", jsonFile.path(),
+            content.getType(), content.getId());
+
+        // Walk the content for site-wide searchable fields
+        StringBuilder searchableContentBuilder = new StringBuilder();
+        this.collateSearchableContent(content, searchableContentBuilder);
+        content.setSearchableContent(searchableContentBuilder.toString());
+
+        return ParsedJsonFile.parsed(jsonFile, content, this.flattenContentObjects(content));
       } catch (JsonMappingException e) {
         log.warn(CONTENT_LOG_PREFIX + "Unable to parse the json file found {} as a content object. "
-            + "Skipping file due to error: \n {}", treeWalk.getPathString(), e.getMessage());
-        Content dummyContent = new Content();
-        dummyContent.setCanonicalSourceFile(treeWalk.getPathString());
-        this.registerContentProblem(dummyContent, "Index failure - Unable to parse json file found - "
-            + treeWalk.getPathString() + ERROR_OCCURRED_SUFFIX + e.getMessage(), context.indexProblemCache);
+            + "Skipping file due to error: \n {}", jsonFile.path(), e.getMessage());
+        return ParsedJsonFile.failed(jsonFile, "Index failure - Unable to parse json file found - "
+            + jsonFile.path() + ERROR_OCCURRED_SUFFIX + e.getMessage());
       } catch (IOException e) {
-        log.error("IOException while trying to parse {}", treeWalk.getPathString(), e);
-        Content dummyContent = new Content();
-        dummyContent.setCanonicalSourceFile(treeWalk.getPathString());
-        this.registerContentProblem(dummyContent,
-            "Index failure - Unable to read the json file found - " + treeWalk.getPathString()
-                + ERROR_OCCURRED_SUFFIX + e.getMessage(), context.indexProblemCache);
+        log.error("IOException while trying to parse {}", jsonFile.path(), e);
+        return ParsedJsonFile.failed(jsonFile, "Index failure - Unable to read the json file found - "
+            + jsonFile.path() + ERROR_OCCURRED_SUFFIX + e.getMessage());
       }
     } catch (Exception e) {
-      log.error(CONTENT_LOG_PREFIX + "Unexpected error while processing file {}: {}", treeWalk.getPathString(), e.getMessage(), e);
-      Content dummyContent = new Content();
-      dummyContent.setCanonicalSourceFile(treeWalk.getPathString());
-      this.registerContentProblem(dummyContent,
-          "Index failure - Unexpected error while processing file - " + treeWalk.getPathString()
-              + ERROR_OCCURRED_SUFFIX + e.getMessage(), context.indexProblemCache);
+      log.error(CONTENT_LOG_PREFIX + "Unexpected error while processing file {}: {}", jsonFile.path(),
+          e.getMessage(), e);
+      return ParsedJsonFile.failed(jsonFile, "Index failure - Unexpected error while processing file - "
+          + jsonFile.path() + ERROR_OCCURRED_SUFFIX + e.getMessage());
     }
   }
 
-  private void indexContentObject(
-      final Map<String, Content> contentCache, final Set<String> tagsList, final Map<String, String> allUnits,
-      final Map<String, String> publishedUnits, final Map<Content, List<String>> indexProblemCache,
-      final String treeWalkPath,
-      final Content content) {
-    // Walk the content for site-wide searchable fields
-    StringBuilder searchableContentBuilder = new StringBuilder();
-    this.collateSearchableContent(content, searchableContentBuilder);
-    content.setSearchableContent(searchableContentBuilder.toString());
+  private void indexContentObject(final ParsedJsonFile parsedFile, final IndexingContext context) {
+    if (null != parsedFile.problem()) {
+      this.registerContentProblem(parsedFile.problem().content(), parsedFile.problem().message(),
+          context.indexProblemCache);
+    }
 
     // add children (and parent) from flattened Set to
     // cache if they have ids
-    IndexingContext context = new IndexingContext(contentCache, tagsList, allUnits, publishedUnits,
-        indexProblemCache, true);
-    for (Content flattenedContent : this.flattenContentObjects(content)) {
-      validateAndCacheContent(flattenedContent, content, treeWalkPath, context);
+    for (Content flattenedContent : parsedFile.flattenedContent()) {
+      validateAndCacheContent(flattenedContent, parsedFile.content(), parsedFile.file().path(), context);
     }
   }
 
@@ -598,11 +809,11 @@ public class ContentIndexer {
    * @param message           error message describing the validation problem
    * @param indexProblemCache map accumulating problems indexed by content object
    */
-  private synchronized void registerContentProblem(final Content content, final String message,
-                                                   final Map<Content, List<String>> indexProblemCache) {
+  private void registerContentProblem(final Content content, final String message,
+                                      final Map<Content, List<String>> indexProblemCache) {
     requireNonNull(content, "content must not be null");
     ensureTitleExists(content);
-    indexProblemCache.computeIfAbsent(content, c -> new ArrayList<>()).add(message);
+    indexProblemCache.computeIfAbsent(content, c -> new CopyOnWriteArrayList<>()).add(message);
     log.warn(CONTENT_LOG_PREFIX + "{}", message);
   }
 
@@ -618,7 +829,7 @@ public class ContentIndexer {
    * @param tags     set of tags to register.
    * @param tagsList a set of seen tags
    */
-  private synchronized void registerTags(final Set<String> tags, final Set<String> tagsList) {
+  private void registerTags(final Set<String> tags, final Set<String> tagsList) {
 
     if (null == tags || tags.isEmpty()) {
       // don't do anything.
@@ -635,8 +846,8 @@ public class ContentIndexer {
    * @param allUnits       a map of units used in numeric questions
    * @param publishedUnits a map of units used in published numeric questions
    */
-  private synchronized void registerUnits(final IsaacNumericQuestion q, final Map<String, String> allUnits,
-                                          final Map<String, String> publishedUnits) {
+  private void registerUnits(final IsaacNumericQuestion q, final Map<String, String> allUnits,
+                             final Map<String, String> publishedUnits) {
 
     HashMap<String, String> newUnits = Maps.newHashMap();
 
@@ -672,12 +883,38 @@ public class ContentIndexer {
    * @param publishedUnits    a map of units used in published numeric questions
    * @param indexProblemCache a map of problems found in the indexed content
    */
-  public synchronized void buildElasticSearchIndex(final String sha,
-                                                   final Map<String, Content> gitCache,
-                                                   final Set<String> tagsList,
-                                                   final Map<String, String> allUnits,
-                                                   final Map<String, String> publishedUnits,
-                                                   final Map<Content, List<String>> indexProblemCache) {
+  public void buildElasticSearchIndex(final String sha,
+                                      final Map<String, Content> gitCache,
+                                      final Set<String> tagsList,
+                                      final Map<String, String> allUnits,
+                                      final Map<String, String> publishedUnits,
+                                      final Map<Content, List<String>> indexProblemCache) {
+    buildElasticSearchIndex(sha, gitCache, tagsList, allUnits, publishedUnits, indexProblemCache, null);
+  }
+
+  /**
+   * This method will send off the information in the git cache to the search provider for indexing.
+   * <br>
+   * Content is serialised as the search provider consumes it, so only the documents in flight are held in serialised
+   * form; a hash of each document is kept to detect changes in the next version. If the content index of a previous
+   * version still exists, it is copied to the new version within the search provider and only content that has been
+   * added, changed or removed is sent; otherwise all content is sent.
+   *
+   * @param sha               the version in the git cache to send to the search provider.
+   * @param gitCache          a map that represents indexed content for a given sha.
+   * @param tagsList          a set of seen tags
+   * @param allUnits          a map of units used in numeric questions
+   * @param publishedUnits    a map of units used in published numeric questions
+   * @param indexProblemCache a map of problems found in the indexed content
+   * @param previousVersion   the last version indexed, or null to send all content
+   * @return a hash of the serialised content indexed for each content id, leaving out any which ElasticSearch failed
+   *     to index; or null if the content index could not be built.
+   */
+  @Nullable
+  Map<String, HashCode> buildElasticSearchIndex(
+      final String sha, final Map<String, Content> gitCache, final Set<String> tagsList,
+      final Map<String, String> allUnits, final Map<String, String> publishedUnits,
+      final Map<Content, List<String>> indexProblemCache, @Nullable final IndexedVersion previousVersion) {
     if (anyContentTypesAreIndexedForVersion(sha)) {
       expungeAnyContentTypeIndicesRelatedToVersion(sha);
     }
@@ -688,22 +925,43 @@ public class ContentIndexer {
 
     // setup object mapper to use pre-configured deserializer module.
     // Required to deal with type polymorphism
-    List<Map.Entry<String, String>> contentToIndex = Lists.newArrayList();
     ObjectMapper objectMapper = mapperUtils.getSharedContentObjectMapper();
-    gitCache.values().forEach(content -> {
-      try {
-        contentToIndex.add(immutableEntry(content.getId(), objectMapper.writeValueAsString(content)));
-      } catch (JsonProcessingException e) {
-        log.error(CONTENT_LOG_PREFIX + "Unable to serialize content object: {} for indexing.",
-            content.getId(), e);
-        this.registerContentProblem(content, "Search Index Error: " + content.getId()
-            + content.getCanonicalSourceFile() + " Exception: " + e, indexProblemCache);
-      }
-    });
+    Map<String, HashCode> contentHashById = new HashMap<>();
+    boolean contentIndexed = true;
 
     long startTime;
     long endTime;
 
+    // Index content first, so that any content which cannot be serialised is included in the content errors.
+    // Refresh and replicas are off while the content index is built, and restored once it is done.
+    try (ElasticSearchIndexer.BulkLoad contentLoad = es.startBulkLoad(sha, ContentIndextype.CONTENT.toString())) {
+      if (null == previousVersion || !indexContentChangesFromVersion(sha, previousVersion, gitCache, objectMapper,
+          indexProblemCache, contentHashById)) {
+        contentHashById.clear();
+        try {
+          startTime = System.nanoTime();
+          Set<String> failedIds = es.streamIndexWithIds(sha, ContentIndextype.CONTENT.toString(), documents ->
+              gitCache.values().forEach(content -> {
+                byte[] serialisedContent = serialiseContent(content, objectMapper, indexProblemCache, contentHashById);
+                if (null != serialisedContent) {
+                  documents.accept(content.getId(), serialisedContent);
+                }
+              }));
+          forgetFailedContent(failedIds, contentHashById);
+          endTime = System.nanoTime();
+          log.info(CONTENT_LOG_PREFIX + "Bulk content indexing completed: {} items in {}ms",
+              contentHashById.size(),
+              (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+        } catch (SegueSearchException e) {
+          log.error(CONTENT_LOG_PREFIX + "Error during bulk index operation.", e);
+          contentIndexed = false;
+        } catch (ActionRequestValidationException e) {
+          log.error(CONTENT_LOG_PREFIX + "Error validating content during index", e);
+          contentIndexed = false;
+        }
+      }
+    }
+
     try {
       es.indexObject(sha, ContentIndextype.METADATA.toString(),
           objectMapper.writeValueAsString(Map.of("version", sha, "created", Instant.now().toString())), "general");
@@ -728,18 +986,113 @@ public class ContentIndexer {
       log.error(CONTENT_LOG_PREFIX + "Unable to index sha, tags, units or content errors.");
     }
 
+    return contentIndexed ? contentHashById : null;
+  }
+
+  /**
+   * Build the content index of a version by copying the content index of a previous version, then sending only the
+   * content which differs from it.
+   *
+   * @param sha               the version being indexed.
+   * @param previousVersion   the last version indexed.
+   * @param gitCache          a map that represents indexed content for a given sha.
+   * @param objectMapper      the mapper to serialise content with.
+   * @param indexProblemCache a map of problems found in the indexed content
+   * @param contentHashById   a map to add the hash of each serialised content object to.
+   * @return true if the content index was built, false if all content must be sent instead.
+   */
+  private boolean indexContentChangesFromVersion(final String sha, final IndexedVersion previousVersion,
+                                                 final Map<String, Content> gitCache, final ObjectMapper objectMapper,
+                                                 final Map<Content, List<String>> indexProblemCache,
+                                                 final Map<String, HashCode> contentHashById) {
+    String contentType = ContentIndextype.CONTENT.toString();
+    if (!es.hasIndex(previousVersion.sha(), contentType)) {
+      log.info(CONTENT_LOG_PREFIX + "Content index for previous version {} no longer exists; indexing all content.",
+          sanitiseInternalLogValue(previousVersion.sha()));
+      return false;
+    }
+
+    Map<String, HashCode> previousContentHashes = previousVersion.contentHashById();
+    AtomicInteger changedContent = new AtomicInteger();
 
     try {
+      long startTime = System.nanoTime();
+      es.copyIndex(previousVersion.sha(), sha, contentType);
+      log.info(CONTENT_LOG_PREFIX + "Copied content index from version {}, took: {}ms",
+          sanitiseInternalLogValue(previousVersion.sha()),
+          (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+
       startTime = System.nanoTime();
-      es.bulkIndexWithIds(sha, ContentIndextype.CONTENT.toString(), contentToIndex);
-      endTime = System.nanoTime();
-      log.info(CONTENT_LOG_PREFIX + "Bulk content indexing completed: {} items in {}ms",
-          contentToIndex.size(),
-          (endTime - startTime) / NANOSECONDS_IN_A_MILLISECOND);
-    } catch (SegueSearchException e) {
-      log.error(CONTENT_LOG_PREFIX + "Error during bulk index operation.", e);
-    } catch (ActionRequestValidationException e) {
-      log.error(CONTENT_LOG_PREFIX + "Error validating content during index", e);
+      Set<String> failedIds = es.streamIndexWithIds(sha, contentType, documents ->
+          gitCache.values().forEach(content -> {
+            byte[] serialisedContent = serialiseContent(content, objectMapper, indexProblemCache, contentHashById);
+            if (null != serialisedContent
+                && !contentHashById.get(content.getId()).equals(previousContentHashes.get(content.getId()))) {
+              changedContent.incrementAndGet();
+              documents.accept(content.getId(), serialisedContent);
+            }
+          }));
+
+      List<String> removedIds = previousContentHashes.keySet().stream()
+          .filter(id -> !contentHashById.containsKey(id))
+          .toList();
+      if (!removedIds.isEmpty()) {
+        es.bulkDelete(sha, contentType, removedIds);
+      }
+      // The copy still has the previous document for any which failed, so they must be sent again next time:
+      forgetFailedContent(failedIds, contentHashById);
+      log.info(CONTENT_LOG_PREFIX + "Incremental content indexing completed: {} changed and {} removed of {} items "
+          + "in {}ms", changedContent.get(), removedIds.size(), contentHashById.size(),
+          (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+      return true;
+    } catch (SegueSearchException | ActionRequestValidationException e) {
+      log.error(CONTENT_LOG_PREFIX + "Error during incremental index operation; indexing all content.", e);
+      es.expungeIndexFromSearchCache(sha, contentType);
+      return false;
+    }
+  }
+
+  /**
+   * Forget the hashes of content which ElasticSearch failed to index, so that it is sent again by the next
+   * incremental index rather than being taken to be unchanged.
+   *
+   * @param failedIds       the ids of the content which failed to index.
+   * @param contentHashById a map of the hash of each serialised content object to remove them from.
+   */
+  private void forgetFailedContent(final Set<String> failedIds, final Map<String, HashCode> contentHashById) {
+    if (!failedIds.isEmpty()) {
+      log.warn(CONTENT_LOG_PREFIX + "Failed to index {} content items; they will be sent again in the next version.",
+          failedIds.size());
+      contentHashById.keySet().removeAll(failedIds);
+    }
+  }
+
+  /**
+   * Serialise a content object for the search provider, recording a hash of the result.
+   *
+   * @param content           the content object to serialise.
+   * @param objectMapper      the mapper to serialise content with.
+   * @param indexProblemCache a map of problems found in the indexed content
+   * @param contentHashById   a map to add the hash of the serialised content to.
+   * @return the serialised content, or null if it could not be serialised.
+   */
+  @Nullable
+  private byte[] serialiseContent(final Content content, final ObjectMapper objectMapper,
+                                  final Map<Content, List<String>> indexProblemCache,
+                                  final Map<String, HashCode> contentHashById) {
+    try {
+      byte[] serialisedContent = objectMapper.writeValueAsBytes(content);
+      contentHashById.put(content.getId(), Hashing.murmur3_128().hashBytes(serialisedContent));
+      return serialisedContent;
+    } catch (JsonProcessingException e) {
+      log.error(CONTENT_LOG_PREFIX + "Unable to serialize content object: {} for indexing.",
+          content.getId(), e);
+      String message = "Search Index Error: " + content.getId() + content.getCanonicalSourceFile() + " Exception: " + e;
+      // Content is serialised a second time if an incremental index falls back to indexing all content:
+      if (!indexProblemCache.getOrDefault(content, List.of()).contains(message)) {
+        this.registerContentProblem(content, message, indexProblemCache);
+      }
+      return null;
     }
   }
 
@@ -753,15 +1106,24 @@ public class ContentIndexer {
    */
   @SuppressWarnings("checkstyle:OneStatementPerLine")
   private void recordContentErrors(final String sha, final Map<String, Content> gitCache,
-                                   final Map<Content, List<String>> indexProblemCache) {
+                                   final Map<Content, List<String>> indexProblemCache)
+      throws ContentManagerException {
 
     Set<Content> allObjectsSeen = new HashSet<>();
     for (Content c : gitCache.values()) {
       allObjectsSeen.addAll(this.flattenContentObjects(c));
     }
 
+    long startTime = System.nanoTime();
+    GitFileIndex fileIndex = buildGitFileIndex(sha);
+    log.info(CONTENT_LOG_PREFIX + "Indexed {} files for validation, took: {}ms", fileIndex.fileIdsByPath().size(),
+        (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
+
+    startTime = System.nanoTime();
     Map<String, Content> contentById = buildContentIndex(allObjectsSeen);
-    ContentReferenceMap refMap = buildReferenceMap(sha, allObjectsSeen, indexProblemCache);
+    ContentReferenceMap refMap = buildReferenceMap(fileIndex, allObjectsSeen, indexProblemCache);
+    log.info(CONTENT_LOG_PREFIX + "Validated {} content objects, took: {}ms", allObjectsSeen.size(),
+        (System.nanoTime() - startTime) / NANOSECONDS_IN_A_MILLISECOND);
 
     recordMissingContentProblems(refMap.expectedIds(), contentById, refMap.incomingReferences(), indexProblemCache);
     recordPublishedToUnpublishedReferenceProblems(refMap.incomingReferences(), contentById, indexProblemCache);
@@ -829,11 +1191,11 @@ public class ContentIndexer {
   /**
    * This method will record content type specific errors for a single item of content.
    *
-   * @param sha               version to validate integrity of.
+   * @param fileIndex         the files in the version to validate integrity of.
    * @param content           a single item of content
    * @param indexProblemCache a map of problems found in the indexed content
    */
-  private void recordContentTypeSpecificError(final String sha, final Content content,
+  private void recordContentTypeSpecificError(final GitFileIndex fileIndex, final Content content,
                                               final Map<Content, List<String>> indexProblemCache) {
     // ensure content does not have children and a value
     registerContentProblemValueWithChildren(content, indexProblemCache);
@@ -844,7 +1206,7 @@ public class ContentIndexer {
     // Ensure that the expandable content is only of a type that support expansion
     registerContentProblemUnsupportedTypeExpandable(content, indexProblemCache);
 
-    registerContentProblemsMediaInvalidProperties(sha, content, indexProblemCache);
+    registerContentProblemsMediaInvalidProperties(fileIndex, content, indexProblemCache);
 
     registerContentProblemQuestionMissingId(content, indexProblemCache);
 
@@ -1087,10 +1449,10 @@ public class ContentIndexer {
   }
 
   private void registerContentProblemsMediaInvalidProperties(
-      final String sha, final Content content, final Map<Content, List<String>> indexProblemCache) {
+      final GitFileIndex fileIndex, final Content content, final Map<Content, List<String>> indexProblemCache) {
     if (content instanceof Media media) {
 
-      registerContentProblemMediaNotFoundOrTooLarge(sha, content, indexProblemCache, media);
+      registerContentProblemMediaNotFoundOrTooLarge(fileIndex, content, indexProblemCache, media);
 
       // check that there is some alt text.
       registerContentProblemMediaMissingAltText(content, indexProblemCache, media);
@@ -1108,21 +1470,16 @@ public class ContentIndexer {
   }
 
   private void registerContentProblemMediaNotFoundOrTooLarge(
-      final String sha, final Content content, final Map<Content, List<String>> indexProblemCache, final Media media) {
+      final GitFileIndex fileIndex, final Content content, final Map<Content, List<String>> indexProblemCache,
+      final Media media) {
     if (media.getSrc() != null && !media.getSrc().startsWith("http")) {
-      ByteArrayOutputStream fileData;
-      try {
-        // This will return null if the file is not found:
-        fileData = database.getFileByCommitSha(sha, media.getSrc());
-      } catch (IOException | UnsupportedOperationException e) {
-        fileData = null;
-      }
-      if (null == fileData) {
+      Long fileSize = fileIndex.getFileSize(media.getSrc());
+      if (null == fileSize) {
         this.registerContentProblem(content, "Unable to find Image: " + media.getSrc()
                 + " in Git. Could the reference be incorrect? SourceFile is " + content.getCanonicalSourceFile(),
             indexProblemCache);
-      } else if (fileData.size() > MEDIA_FILE_SIZE_LIMIT) {
-        int sizeInKiloBytes = fileData.size() / BYTES_IN_ONE_KILOBYTE;
+      } else if (fileSize > MEDIA_FILE_SIZE_LIMIT) {
+        long sizeInKiloBytes = fileSize / BYTES_IN_ONE_KILOBYTE;
         this.registerContentProblem(content, String.format("Image (%s) is %s kB and exceeds file size warning limit!",
             media.getSrc(), sizeInKiloBytes), indexProblemCache);
       }
@@ -1187,32 +1544,50 @@ public class ContentIndexer {
     return contentById;
   }
 
-  private ContentReferenceMap buildReferenceMap(final String sha, final Set<Content> allObjectsSeen,
-                                                final Map<Content, List<String>> indexProblemCache) {
-    Set<String> expectedIds = new HashSet<>();
-    Map<String, Set<Content>> incomingReferences = new HashMap<>();
+  private ContentReferenceMap buildReferenceMap(final GitFileIndex fileIndex, final Set<Content> allObjectsSeen,
+                                                final Map<Content, List<String>> indexProblemCache)
+      throws ContentManagerException {
+    Set<String> expectedIds = ConcurrentHashMap.newKeySet();
+    Map<String, Set<Content>> incomingReferences = new ConcurrentHashMap<>();
 
-    for (Content c : allObjectsSeen) {
-      if (c.getRelatedContent() != null) {
-        expectedIds.addAll(c.getRelatedContent());
-        for (String id : c.getRelatedContent()) {
-          if (!incomingReferences.containsKey(id)) {
-            incomingReferences.put(id, new HashSet<>());
+    ForkJoinPool validationPool = new ForkJoinPool(parallelism);
+    try {
+      validationPool.submit(() -> allObjectsSeen.parallelStream().forEach(c -> {
+        if (c.getRelatedContent() != null) {
+          expectedIds.addAll(c.getRelatedContent());
+          for (String id : c.getRelatedContent()) {
+            incomingReferences.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(c);
           }
-          incomingReferences.get(id).add(c);
         }
-      }
 
-      try {
-        this.recordContentTypeSpecificError(sha, c, indexProblemCache);
-      } catch (NullPointerException e) {
-        log.warn("Failed processing content errors in file: {}", c.getCanonicalSourceFile());
-      }
+        try {
+          this.recordContentTypeSpecificError(fileIndex, c, indexProblemCache);
+        } catch (NullPointerException e) {
+          log.warn("Failed processing content errors in file: {}", c.getCanonicalSourceFile());
+        }
+      })).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContentManagerException("Interrupted while validating content.");
+    } catch (ExecutionException e) {
+      log.error("Unexpected error while validating content.", e);
+      throw new ContentManagerException("Unable to index content, due to an error validating content.");
+    } finally {
+      validationPool.shutdown();
     }
 
     return new ContentReferenceMap(expectedIds, incomingReferences);
   }
 
+  private GitFileIndex buildGitFileIndex(final String sha) throws ContentManagerException {
+    try {
+      return new GitFileIndex(database.getGitRepository(), database.getFileIdsByPath(sha), new ConcurrentHashMap<>());
+    } catch (IOException e) {
+      log.error("IOException while trying to access git repository. ", e);
+      throw new ContentManagerException("Unable to validate content, due to an IOException.");
+    }
+  }
+
   private void recordMissingContentProblems(final Set<String> expectedIds, final Map<String, Content> contentById,
                                             final Map<String, Set<Content>> incomingReferences,
                                             final Map<Content, List<String>> indexProblemCache) {
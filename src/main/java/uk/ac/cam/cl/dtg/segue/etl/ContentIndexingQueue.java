@@ -0,0 +1,298 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of content versions waiting to be indexed, which indexes several versions at once.
+ * <br>
+ * There is one job per version, which sets every alias requested for that version once it is indexed. Versions
+ * requested for the live alias are indexed before any others. When an alias is requested for a new version, any
+ * queued job which was only for that alias is cancelled, and a job in progress will no longer set that alias.
+ * <br>
+ * Versions are requested for every alias on each scheduled pass, so a request for the version an alias was last set
+ * to by this queue does not index it again; otherwise each pass would add a job per alias to the recently finished
+ * jobs. The alias is set again instead, which repairs it if it has been lost or moved since.
+ */
+class ContentIndexingQueue {
+  private static final Logger log = LoggerFactory.getLogger(ContentIndexingQueue.class);
+  private static final String CONTENT_LOG_PREFIX = "CONTENT - ";
+  private static final String LIVE_INDEX_ALIAS = "live";
+  private static final int COMPLETED_JOBS_TO_KEEP = 20;
+
+  enum JobState {
+    QUEUED, IN_PROGRESS, COMPLETE, FAILED, CANCELLED
+  }
+
+  /**
+   * The state of a job, as shown by the ETL status endpoint.
+   *
+   * @param version        the version being indexed.
+   * @param aliases        the aliases to set once the version is indexed.
+   * @param state          the state of the job.
+   * @param queued         when the job was queued.
+   * @param currentStage   the stage of indexing in progress, if any.
+   * @param stageTimingsMs how long each finished stage of indexing took, in milliseconds.
+   * @param error          why the job failed, if it did.
+   */
+  record JobStatus(String version, Set<String> aliases, JobState state, Date queued, String currentStage,
+                   Map<String, Long> stageTimingsMs, String error) {
+  }
+
+  private final ContentIndexer indexer;
+  private final ExecutorService executorService;
+  private final PriorityBlockingQueue<IndexingJob> jobQueue = new PriorityBlockingQueue<>();
+  private final AtomicLong jobSequence = new AtomicLong();
+
+  // All guarded by this:
+  private final Map<String, IndexingJob> activeJobsByVersion = new LinkedHashMap<>();
+  private final Map<String, IndexingJob> activeJobsByAlias = new HashMap<>();
+  private final Deque<IndexingJob> completedJobs = new ArrayDeque<>();
+  private final Map<String, String> indexedVersionsByAlias = new HashMap<>();
+
+  // Held while setting aliases, so that they are set in the order jobs claim them; never held with the lock above
+  // while waiting for Elasticsearch:
+  private final Object aliasLock = new Object();
+
+  /**
+   * Create a queue which indexes content.
+   *
+   * @param indexer     the indexer to index content with.
+   * @param parallelism the number of versions to index at once.
+   */
+  ContentIndexingQueue(final ContentIndexer indexer, final int parallelism) {
+    this.indexer = indexer;
+    this.executorService = Executors.newFixedThreadPool(parallelism,
+        new ThreadFactoryBuilder().setNameFormat("content-indexer-%d").build());
+  }
+
+  /**
+   * Queue a version to be indexed and given an alias, unless it is already queued or in progress. If the alias was
+   * already set to the version, it is only set again.
+   *
+   * @param alias   the alias to give the version.
+   * @param version the version to index.
+   */
+  void submit(final String alias, final String version) {
+    if (queue(alias, version)) {
+      return;
+    }
+    // Setting an alias which already points to the version does nothing, so this is cheap unless it needs repair:
+    synchronized (aliasLock) {
+      synchronized (this) {
+        if (null != activeJobsByAlias.get(alias) || !version.equals(indexedVersionsByAlias.get(alias))) {
+          return;
+        }
+      }
+      try {
+        indexer.setNamedVersion(alias, version);
+      } catch (RuntimeException e) {
+        log.error("Unable to set alias '{}' to version {} again.", sanitiseInternalLogValue(alias),
+            sanitiseInternalLogValue(version), e);
+      }
+    }
+  }
+
+  /**
+   * Queue a version to be indexed and given an alias, unless it is already queued or in progress.
+   *
+   * @param alias   the alias to give the version.
+   * @param version the version to index.
+   * @return false if nothing was queued because the alias was already set to the version, otherwise true.
+   */
+  private synchronized boolean queue(final String alias, final String version) {
+    IndexingJob aliasJob = activeJobsByAlias.get(alias);
+    if (null != aliasJob && !aliasJob.version.equals(version)) {
+      supersede(aliasJob, alias);
+    }
+    if (null == activeJobsByAlias.get(alias) && version.equals(indexedVersionsByAlias.get(alias))) {
+      return false;
+    }
+
+    IndexingJob job = activeJobsByVersion.get(version);
+    if (null == job) {
+      job = new IndexingJob(version, jobSequence.incrementAndGet());
+      job.aliases.add(alias);
+      activeJobsByVersion.put(version, job);
+      activeJobsByAlias.put(alias, job);
+      jobQueue.add(job);
+      executorService.submit(new IndexingJobRunnable());
+      log.info(CONTENT_LOG_PREFIX + "Queued version {} for alias '{}'. Queue size: {}",
+          sanitiseInternalLogValue(version), sanitiseInternalLogValue(alias), jobQueue.size());
+      return true;
+    }
+
+    if (!job.aliases.contains(alias)) {
+      activeJobsByAlias.put(alias, job);
+      boolean requeue = job.state == JobState.QUEUED && jobQueue.remove(job);
+      job.aliases.add(alias);
+      if (requeue) {
+        jobQueue.add(job);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the state of every queued and in-progress job, then of recently finished jobs.
+   *
+   * @return the job states.
+   */
+  synchronized List<JobStatus> getJobStatuses() {
+    List<JobStatus> statuses = new ArrayList<>();
+    activeJobsByVersion.values().stream()
+        .sorted()
+        .forEach(job -> statuses.add(job.getStatus()));
+    completedJobs.forEach(job -> statuses.add(job.getStatus()));
+    return statuses;
+  }
+
+  private void supersede(final IndexingJob job, final String alias) {
+    activeJobsByAlias.remove(alias);
+    if (job.state != JobState.QUEUED) {
+      job.aliases.remove(alias);
+      return;
+    }
+    // A queued job must be re-added for the priority queue to see that its priority may have changed:
+    jobQueue.remove(job);
+    job.aliases.remove(alias);
+    if (job.aliases.isEmpty()) {
+      log.info(CONTENT_LOG_PREFIX + "Cancelled indexing of version {}, superseded for alias '{}'.",
+          sanitiseInternalLogValue(job.version), sanitiseInternalLogValue(alias));
+      finish(job, JobState.CANCELLED, null);
+    } else {
+      jobQueue.add(job);
+    }
+  }
+
+  private synchronized void finish(final IndexingJob job, final JobState state, final String error) {
+    job.state = state;
+    job.error = error;
+    job.endStage();
+    activeJobsByVersion.remove(job.version, job);
+    activeJobsByAlias.values().removeIf(aliasJob -> aliasJob == job);
+    completedJobs.addFirst(job);
+    while (completedJobs.size() > COMPLETED_JOBS_TO_KEEP) {
+      completedJobs.removeLast();
+    }
+  }
+
+  private void setAliases(final IndexingJob job) {
+    // Aliases are only read once indexing is done, so any superseded while it was in progress are not set:
+    job.startStage("setAliases");
+    synchronized (aliasLock) {
+      List<String> aliases;
+      synchronized (this) {
+        aliases = new ArrayList<>(job.aliases);
+      }
+      for (String alias : aliases) {
+        synchronized (this) {
+          if (!job.aliases.contains(alias)) {
+            continue;
+          }
+        }
+        indexer.setNamedVersion(alias, job.version);
+        synchronized (this) {
+          indexedVersionsByAlias.put(alias, job.version);
+        }
+        log.info(CONTENT_LOG_PREFIX + "Version {} with alias '{}' is successfully indexed.",
+            sanitiseInternalLogValue(job.version), sanitiseInternalLogValue(alias));
+      }
+    }
+  }
+
+  /**
+   * A version to index, ordered so that live content comes first, then by when it was queued.
+   */
+  private static class IndexingJob implements Comparable<IndexingJob> {
+    private final String version;
+    private final long sequence;
+    private final Date queued = new Date();
+    private final Set<String> aliases = new LinkedHashSet<>();
+    private final Map<String, Long> stageTimingsMs = new LinkedHashMap<>();
+    private volatile JobState state = JobState.QUEUED;
+    private volatile String currentStage;
+    private volatile long currentStageStartTime;
+    private volatile String error;
+
+    IndexingJob(final String version, final long sequence) {
+      this.version = version;
+      this.sequence = sequence;
+    }
+
+    synchronized void startStage(final String stage) {
+      endStage();
+      currentStage = stage;
+      currentStageStartTime = System.nanoTime();
+    }
+
+    synchronized void endStage() {
+      if (null != currentStage) {
+        stageTimingsMs.put(currentStage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - currentStageStartTime));
+        currentStage = null;
+      }
+    }
+
+    synchronized JobStatus getStatus() {
+      return new JobStatus(version, Set.copyOf(aliases), state, queued, currentStage,
+          new LinkedHashMap<>(stageTimingsMs), error);
+    }
+
+    private int getPriority() {
+      return aliases.contains(LIVE_INDEX_ALIAS) ? 0 : 1;
+    }
+
+    @Override
+    public int compareTo(final IndexingJob other) {
+      int priorityComparison = Integer.compare(getPriority(), other.getPriority());
+      return priorityComparison != 0 ? priorityComparison : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * Runnable class that indexes the job at the front of the queue, if it has not been cancelled.
+   */
+  private class IndexingJobRunnable implements Runnable {
+    @Override
+    public void run() {
+      IndexingJob job;
+      synchronized (ContentIndexingQueue.this) {
+        job = jobQueue.poll();
+        if (null == job) {
+          return;
+        }
+        job.state = JobState.IN_PROGRESS;
+      }
+
+      try {
+        indexer.loadAndIndexContent(job.version, job::startStage);
+        setAliases(job);
+        finish(job, JobState.COMPLETE, null);
+      } catch (VersionLockedException e) {
+        log.warn("Could not index new version, lock is already held by another thread.");
+        finish(job, JobState.FAILED, e.getMessage());
+      } catch (Exception e) {
+        log.error("Indexing version {} failed.", sanitiseInternalLogValue(job.version), e);
+        finish(job, JobState.FAILED, e.getMessage());
+      }
+    }
+  }
+}
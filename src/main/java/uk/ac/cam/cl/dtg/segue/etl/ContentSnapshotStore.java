@@ -0,0 +1,336 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dos.content.ContentBase;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+
+/**
+ * Stores the parsed content of a version on disk, so that it can be indexed again without reading it from git.
+ * <br>
+ * A snapshot holds the augmented content cache, tags, units and content problems of one content SHA, encoded as Smile
+ * and read back through a memory-mapped file. The content model and its augmentation can change between releases, and
+ * between builds of the same development version, so a snapshot is only used by the build of segue that wrote it. Only
+ * the most recently written snapshots are kept.
+ */
+public class ContentSnapshotStore {
+  private static final Logger log = LoggerFactory.getLogger(ContentSnapshotStore.class);
+
+  private static final int SNAPSHOT_FORMAT_VERSION = 1;
+  private static final String SNAPSHOT_FILE_EXTENSION = ".smile";
+  private static final String CONTENT_LOG_PREFIX = "CONTENT - ";
+  // Snapshot file names are built from the SHA, so anything else must not be used as one:
+  private static final Pattern SHA_PATTERN = Pattern.compile("^[0-9a-f]{40}([0-9a-f]{24})?$");
+
+  @Nullable
+  private final Path snapshotDirectory;
+  private final int snapshotsToKeep;
+  private final String segueVersion;
+  private final ContentMapperUtils mapperUtils;
+  private ObjectMapper snapshotMapper;
+
+  /**
+   * The content of a version, as it is after being read from git and before being sent to the search provider.
+   */
+  record ContentSnapshot(Map<String, Content> contentCache, Set<String> tagsList, Map<String, String> allUnits,
+                         Map<String, String> publishedUnits, Map<Content, List<String>> indexProblemCache) {
+  }
+
+  /**
+   * A content problem, holding only the fields of the content that are sent to the search provider.
+   */
+  private record SnapshotProblem(String canonicalSourceFile, String id, String title, Boolean published,
+                                 List<String> errors) {
+  }
+
+  /**
+   * Create a snapshot store.
+   *
+   * @param snapshotLocation - the directory to store snapshots in, or null to disable snapshots.
+   * @param snapshotsToKeep  - the number of most recently written snapshots to keep.
+   * @param segueVersion     - the version and build of segue writing and reading snapshots; see
+   *                         {@link #getBuildFingerprint()}.
+   * @param mapperUtils      - the content mapper utils used to create the snapshot object mapper.
+   */
+  public ContentSnapshotStore(@Nullable final String snapshotLocation, final int snapshotsToKeep,
+                              final String segueVersion, final ContentMapperUtils mapperUtils) {
+    this.snapshotDirectory = null == snapshotLocation || snapshotLocation.isBlank()
+        ? null : Paths.get(snapshotLocation);
+    this.snapshotsToKeep = snapshotsToKeep;
+    this.segueVersion = segueVersion;
+    this.mapperUtils = mapperUtils;
+  }
+
+  /**
+   * Whether a snapshot directory has been configured.
+   *
+   * @return true if snapshots are read and written.
+   */
+  public boolean isEnabled() {
+    return null != snapshotDirectory;
+  }
+
+  /**
+   * Identify the build of segue that is running, so that a snapshot written by another build of the same version,
+   * such as a rebuilt development snapshot, is not used.
+   *
+   * @return a fingerprint of the classes segue was loaded from; if they cannot be read, a random fingerprint, so that
+   *     no snapshot is ever reused.
+   */
+  public static String getBuildFingerprint() {
+    try {
+      CodeSource codeSource = ContentSnapshotStore.class.getProtectionDomain().getCodeSource();
+      if (null != codeSource) {
+        Path location = Paths.get(codeSource.getLocation().toURI());
+        if (Files.isRegularFile(location)) {
+          return Files.size(location) + "-" + Files.getLastModifiedTime(location).toMillis();
+        }
+        // Rebuilding any class changes the number, total size or newest modification time of the class files:
+        try (Stream<Path> files = Files.walk(location)) {
+          List<Path> classFiles = files.filter(Files::isRegularFile).toList();
+          long totalSize = 0;
+          long lastModified = 0;
+          for (Path classFile : classFiles) {
+            totalSize += Files.size(classFile);
+            lastModified = Math.max(lastModified, Files.getLastModifiedTime(classFile).toMillis());
+          }
+          return classFiles.size() + "-" + totalSize + "-" + lastModified;
+        }
+      }
+    } catch (IOException | URISyntaxException | SecurityException | IllegalArgumentException e) {
+      log.warn(CONTENT_LOG_PREFIX + "Unable to fingerprint this build of segue; content snapshots will not be reused.",
+          e);
+    }
+    return UUID.randomUUID().toString();
+  }
+
+  /**
+   * Read the snapshot of a version, if one was written by this build of segue.
+   *
+   * @param sha - the version to read.
+   * @return the content of the version, or null if there is no usable snapshot.
+   */
+  @Nullable
+  ContentSnapshot load(final String sha) {
+    if (!isEnabled() || !isValidSha(sha)) {
+      return null;
+    }
+    Path snapshotFile = getSnapshotFile(sha);
+    if (!Files.isRegularFile(snapshotFile)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try (JsonParser parser = getSnapshotMapper().getFactory().createParser(new ByteBufferBackedInputStream(buffer))) {
+        return readSnapshot(sha, parser);
+      }
+    } catch (IOException | IllegalArgumentException | ClassCastException e) {
+      log.error(CONTENT_LOG_PREFIX + "Unable to read content snapshot for version {}; deleting it.",
+          sanitiseInternalLogValue(sha), e);
+      deleteSnapshot(snapshotFile);
+      return null;
+    }
+  }
+
+  /**
+   * Write the snapshot of a version, replacing any existing snapshot of it, then delete the oldest snapshots.
+   * <br>
+   * Failing to write a snapshot is logged rather than thrown, as the version can still be read from git next time.
+   *
+   * @param sha      - the version to write.
+   * @param snapshot - the content of the version.
+   */
+  void save(final String sha, final ContentSnapshot snapshot) {
+    if (!isEnabled() || !isValidSha(sha)) {
+      return;
+    }
+
+    Path tempFile = null;
+    try {
+      Files.createDirectories(snapshotDirectory);
+      tempFile = Files.createTempFile(snapshotDirectory, sha, ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile));
+           JsonGenerator generator = getSnapshotMapper().getFactory().createGenerator(out)) {
+        writeSnapshot(sha, snapshot, generator);
+      }
+      Files.move(tempFile, getSnapshotFile(sha), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      deleteOldSnapshots();
+    } catch (IOException e) {
+      log.error(CONTENT_LOG_PREFIX + "Unable to write content snapshot for version {}.",
+          sanitiseInternalLogValue(sha), e);
+      if (null != tempFile) {
+        deleteSnapshot(tempFile);
+      }
+    }
+  }
+
+  private void writeSnapshot(final String sha, final ContentSnapshot snapshot, final JsonGenerator generator)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("formatVersion", SNAPSHOT_FORMAT_VERSION);
+    generator.writeStringField("segueVersion", segueVersion);
+    generator.writeStringField("sha", sha);
+    generator.writeObjectField("tagsList", snapshot.tagsList());
+    generator.writeObjectField("allUnits", snapshot.allUnits());
+    generator.writeObjectField("publishedUnits", snapshot.publishedUnits());
+
+    generator.writeArrayFieldStart("indexProblemCache");
+    for (Map.Entry<Content, List<String>> problem : snapshot.indexProblemCache().entrySet()) {
+      Content content = problem.getKey();
+      generator.writeObject(new SnapshotProblem(content.getCanonicalSourceFile(), content.getId(), content.getTitle(),
+          content.getPublished(), problem.getValue()));
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("contentCache");
+    for (Content content : snapshot.contentCache().values()) {
+      generator.writeObject(content);
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  @Nullable
+  private ContentSnapshot readSnapshot(final String sha, final JsonParser parser) throws IOException {
+    Map<String, Content> contentCache = new HashMap<>();
+    Set<String> tagsList = new HashSet<>();
+    Map<String, String> allUnits = new HashMap<>();
+    Map<String, String> publishedUnits = new HashMap<>();
+    Map<Content, List<String>> indexProblemCache = new HashMap<>();
+    ObjectMapper mapper = getSnapshotMapper();
+    MapType unitsType = mapper.getTypeFactory().constructMapType(HashMap.class, String.class, String.class);
+
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Content snapshot does not start with an object.");
+    }
+    // The header fields are written first, so a snapshot from another version is rejected before reading any content:
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.currentName();
+      parser.nextToken();
+      switch (fieldName) {
+        case "formatVersion" -> {
+          if (parser.getIntValue() != SNAPSHOT_FORMAT_VERSION) {
+            log.info(CONTENT_LOG_PREFIX + "Ignoring content snapshot with format version {}.", parser.getIntValue());
+            return null;
+          }
+        }
+        case "segueVersion" -> {
+          if (!segueVersion.equals(parser.getText())) {
+            log.info(CONTENT_LOG_PREFIX + "Ignoring content snapshot written by segue build {}.",
+                sanitiseInternalLogValue(parser.getText()));
+            return null;
+          }
+        }
+        case "sha" -> {
+          if (!sha.equals(parser.getText())) {
+            throw new IOException("Content snapshot is of a different version: " + parser.getText());
+          }
+        }
+        case "tagsList" -> tagsList.addAll(Arrays.asList(mapper.readValue(parser, String[].class)));
+        case "allUnits" -> allUnits.putAll(mapper.readValue(parser, unitsType));
+        case "publishedUnits" -> publishedUnits.putAll(mapper.readValue(parser, unitsType));
+        case "indexProblemCache" -> {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            SnapshotProblem problem = mapper.readValue(parser, SnapshotProblem.class);
+            Content content = new Content();
+            content.setCanonicalSourceFile(problem.canonicalSourceFile());
+            content.setId(problem.id());
+            content.setTitle(problem.title());
+            content.setPublished(problem.published());
+            indexProblemCache.put(content, problem.errors());
+          }
+        }
+        case "contentCache" -> {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Content content = (Content) mapper.readValue(parser, ContentBase.class);
+            contentCache.put(content.getId(), content);
+          }
+        }
+        default -> parser.skipChildren();
+      }
+    }
+
+    return new ContentSnapshot(contentCache, tagsList, allUnits, publishedUnits, indexProblemCache);
+  }
+
+  private void deleteOldSnapshots() throws IOException {
+    List<Path> snapshots;
+    try (Stream<Path> files = Files.list(snapshotDirectory)) {
+      snapshots = files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_FILE_EXTENSION))
+          .sorted(Comparator.comparing(ContentSnapshotStore::getLastModifiedTime).reversed())
+          .toList();
+    }
+    snapshots.stream().skip(snapshotsToKeep).forEach(ContentSnapshotStore::deleteSnapshot);
+  }
+
+  private static boolean isValidSha(final String sha) {
+    if (null == sha || !SHA_PATTERN.matcher(sha).matches()) {
+      log.warn(CONTENT_LOG_PREFIX + "Not using a content snapshot for invalid version {}.",
+          sanitiseInternalLogValue(String.valueOf(sha)));
+      return false;
+    }
+    return true;
+  }
+
+  private Path getSnapshotFile(final String sha) {
+    return snapshotDirectory.resolve(sha + SNAPSHOT_FILE_EXTENSION);
+  }
+
+  private synchronized ObjectMapper getSnapshotMapper() {
+    if (null == snapshotMapper) {
+      snapshotMapper = mapperUtils.generateNewPreconfiguredContentMapper(new SmileFactory());
+    }
+    return snapshotMapper;
+  }
+
+  private static long getLastModifiedTime(final Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  private static void deleteSnapshot(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn(CONTENT_LOG_PREFIX + "Unable to delete content snapshot file {}.", file, e);
+    }
+  }
+}
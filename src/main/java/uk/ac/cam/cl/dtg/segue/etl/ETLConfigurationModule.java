@@ -23,6 +23,7 @@ import org.elasticsearch.client.RestHighLevelClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
+import uk.ac.cam.cl.dtg.segue.configuration.SegueGuiceConfigurationModule;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
 import uk.ac.cam.cl.dtg.segue.database.GitDb;
 import uk.ac.cam.cl.dtg.util.PropertiesLoader;
@@ -93,6 +94,7 @@ class ETLConfigurationModule extends AbstractModule {
       this.bindConstantToProperty(Constants.SCHOOL_CSV_LIST_PATH, globalProperties);
 
       // GitDb
+      GitDb.configureWindowCache();
       bind(GitDb.class).toInstance(
           new GitDb(globalProperties.getProperty(Constants.LOCAL_GIT_DB), globalProperties
               .getProperty(Constants.REMOTE_GIT_SSH_URL), globalProperties
@@ -126,6 +128,22 @@ class ETLConfigurationModule extends AbstractModule {
     return new PropertiesManager(globalProperties.getProperty(Constants.CONTENT_INDICES_LOCATION));
   }
 
+  /**
+   * This provides a singleton of the content snapshot store, which is disabled if no snapshot location is configured.
+   *
+   * @param mapperUtils - the content mapper utils used to read and write snapshots.
+   * @return Content snapshot store for the content indexer.
+   */
+  @Inject
+  @Provides
+  @Singleton
+  private static ContentSnapshotStore getContentSnapshotStore(final ContentMapperUtils mapperUtils) {
+    return new ContentSnapshotStore(globalProperties.getProperty(Constants.CONTENT_SNAPSHOT_LOCATION),
+        Constants.CONTENT_SNAPSHOTS_TO_KEEP,
+        SegueGuiceConfigurationModule.getSegueVersion() + "+" + ContentSnapshotStore.getBuildFingerprint(),
+        mapperUtils);
+  }
+
   @Inject
   @Provides
   @Singleton
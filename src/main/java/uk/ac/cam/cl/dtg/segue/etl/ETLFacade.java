@@ -17,15 +17,18 @@ import uk.ac.cam.cl.dtg.util.PropertiesLoader;
 @Path("/etl")
 @Tag(name = "/etl")
 public class ETLFacade extends AbstractSegueFacade {
+  private final ETLManager etlManager;
 
   /**
    * Constructor that provides a properties loader.
    *
    * @param properties the propertiesLoader.
+   * @param etlManager the ETL manager, to report the state of content indexing.
    */
   @Inject
-  public ETLFacade(final PropertiesLoader properties) {
+  public ETLFacade(final PropertiesLoader properties, final ETLManager etlManager) {
     super(properties, null);
+    this.etlManager = etlManager;
   }
 
   @GET
@@ -36,4 +39,13 @@ public class ETLFacade extends AbstractSegueFacade {
     return Response.ok().entity("{\"code\" : 200}").build();
   }
 
+  @GET
+  @Path("/status")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Operation(summary = "List queued, in-progress and recently finished content indexing jobs.",
+      description = "Each job shows the aliases it will set, and how long each stage of indexing has taken.")
+  public Response getIndexingStatus() {
+    return Response.ok(etlManager.getIndexingJobStatuses()).build();
+  }
+
 }
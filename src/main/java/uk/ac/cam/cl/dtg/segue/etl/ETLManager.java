@@ -2,6 +2,7 @@ package uk.ac.cam.cl.dtg.segue.etl;
 
 import com.google.inject.Inject;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -20,6 +21,8 @@ class ETLManager {
   private static final String LATEST_INDEX_ALIAS = "latest";
   private static final String TASK_PERIOD_SECONDS = "TASK_PERIOD_SECONDS";
   private static final long TASK_PERIOD_SECONDS_FALLBACK = 300;
+  private static final String INDEXING_PARALLELISM = "INDEXING_PARALLELISM";
+  private static final int INDEXING_PARALLELISM_FALLBACK = 2;
   private static final String CONTENT_LOG_PREFIX = "CONTENT - ";
 
   private final ContentIndexer indexer;
@@ -27,6 +30,7 @@ class ETLManager {
   private final GitDb database;
   private final PropertiesManager contentIndicesStore;
   private final ScheduledExecutorService scheduler;
+  private final ContentIndexingQueue indexingQueue;
 
 
   @Inject
@@ -38,6 +42,17 @@ class ETLManager {
     this.contentIndicesStore = contentIndicesStore;
     this.scheduler = Executors.newScheduledThreadPool(1);
 
+    int indexingParallelism = INDEXING_PARALLELISM_FALLBACK;
+    String configuredParallelism = contentIndicesStore.getProperty(INDEXING_PARALLELISM);
+    if (configuredParallelism != null) {
+      try {
+        indexingParallelism = Integer.parseInt(configuredParallelism);
+      } catch (NumberFormatException e) {
+        log.warn("Failed to parse ETL indexing parallelism. Using default value.");
+      }
+    }
+    this.indexingQueue = new ContentIndexingQueue(indexer, indexingParallelism);
+
     long taskPeriodSeconds = TASK_PERIOD_SECONDS_FALLBACK;
     String configuredPeriod = contentIndicesStore.getProperty(TASK_PERIOD_SECONDS);
     if (configuredPeriod != null) {
@@ -55,33 +70,29 @@ class ETLManager {
     log.info("ETL startup complete.");
   }
 
-  void setNamedVersion(final String alias, final String version) throws Exception {
+  void setNamedVersion(final String alias, final String version) {
     log.info(CONTENT_LOG_PREFIX + "Requested aliased version: {} - {}", alias, version);
-    indexer.loadAndIndexContent(version);
-    indexer.setNamedVersion(alias, version);
-    log.info(CONTENT_LOG_PREFIX + "Version {} with alias '{}' is successfully indexed.", version, alias);
+    indexingQueue.submit(alias, version);
   }
 
-  // Indexes all content in idempotent fashion. If the content is already indexed no action is taken.
+  List<ContentIndexingQueue.JobStatus> getIndexingJobStatuses() {
+    return indexingQueue.getJobStatuses();
+  }
+
+  // Queues all content for indexing in idempotent fashion. If the content is already indexed no action is taken.
   void indexContent() {
     // Load the current version aliases from config file, as well as latest, and set them.
     Map<String, String> aliasVersions = new HashMap<>();
     String latestSha = database.fetchLatestFromRemote();
     aliasVersions.put(LATEST_INDEX_ALIAS, latestSha);
     for (String configKey : contentIndicesStore.stringPropertyNames()) {
-      if (!configKey.equals(TASK_PERIOD_SECONDS)) {
+      if (!configKey.equals(TASK_PERIOD_SECONDS) && !configKey.equals(INDEXING_PARALLELISM)) {
         aliasVersions.put(configKey, contentIndicesStore.getProperty(configKey));
       }
     }
 
     for (var entry : aliasVersions.entrySet()) {
-      try {
-        this.setNamedVersion(entry.getKey(), entry.getValue());
-      } catch (VersionLockedException e) {
-        log.warn("Could not index new version, lock is already held by another thread.");
-      } catch (Exception e) {
-        log.error("Indexing version {} failed.", entry.getKey(), e);
-      }
+      this.setNamedVersion(entry.getKey(), entry.getValue());
     }
 
     // Load the school list.
@@ -6,6 +6,7 @@ import static uk.ac.cam.cl.dtg.util.LogUtils.sanitiseInternalLogValue;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import jakarta.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,25 +14,44 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.apache.commons.lang3.Validate;
 import org.apache.http.client.config.RequestConfig;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
 import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
-import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.GetIndexResponse;
 import org.elasticsearch.cluster.metadata.AliasMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.ReindexRequest;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentFactory;
 import org.elasticsearch.xcontent.XContentType;
@@ -46,6 +66,13 @@ import uk.ac.cam.cl.dtg.segue.search.SegueSearchException;
  */
 class ElasticSearchIndexer extends ElasticSearchProvider {
   private static final Logger log = LoggerFactory.getLogger(ElasticSearchIndexer.class);
+  private static final String INDEX_REFRESH_INTERVAL_SETTING = "index.refresh_interval";
+  private static final String INDEX_NUMBER_OF_REPLICAS_SETTING = "index.number_of_replicas";
+  private static final int BULK_CHUNK_MAX_ACTIONS = 1000;
+  private static final long BULK_CHUNK_MAX_MEGABYTES = 5;
+  private static final int BULK_MAX_CONCURRENT_REQUESTS = 4;
+  private static final long BULK_RETRY_INITIAL_DELAY_MILLIS = 100;
+  private static final int BULK_MAX_RETRIES = 5;
   private final Map<String, List<String>> rawFieldsListByType = new HashMap<>();
   private final Map<String, List<String>> nestedFieldsByType = new HashMap<>();
 
@@ -90,15 +117,21 @@ class ElasticSearchIndexer extends ElasticSearchProvider {
 
   /**
    * Perform a bulk elasticsearch for a specified index.
+   * <br>
+   * Requests are sent in chunks bounded by count and size, with a bounded number of chunks in flight at once, so the
+   * whole index is never held in a single request. Items rejected because ElasticSearch is busy are retried with
+   * exponential backoff. Documents are made searchable with one refresh once every chunk has been sent; to turn off
+   * refresh and replicas while a whole index is built, see {@link #startBulkLoad(String, String)}.
    *
-   * @param indexBase        the index name
-   * @param indexType        type of index as registered with search provider
-   * @param buildBulkRequest a function that takes an elasticsearch typed index name, and produces a (populated)
-   *                             BulkRequestBuilder
+   * @param indexBase     the index name
+   * @param indexType     type of index as registered with search provider
+   * @param buildRequests a function that takes an elasticsearch typed index name and a consumer, and passes each
+   *                          request to index to the consumer
+   * @return the ids of any items ElasticSearch failed to index or delete; every other item succeeded.
    * @throws SegueSearchException if an error occurs during the index operation
    */
-  private void executeBulkIndexRequest(final String indexBase, final String indexType,
-                                       final Function<String, BulkRequest> buildBulkRequest)
+  private Set<String> executeBulkIndexRequest(final String indexBase, final String indexType,
+                                       final BiConsumer<String, Consumer<DocWriteRequest<?>>> buildRequests)
       throws SegueSearchException {
     String typedIndex = ElasticSearchProvider.produceTypedIndexName(indexBase, indexType);
 
@@ -109,58 +142,272 @@ class ElasticSearchIndexer extends ElasticSearchProvider {
       }
     }
 
-    // execute bulk request builder function
-    BulkRequest bulkRequest = buildBulkRequest.apply(typedIndex);
+    // increase default timeouts
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
+        .setSocketTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
+        .build();
+    RequestOptions options = RequestOptions.DEFAULT.toBuilder()
+        .setRequestConfig(requestConfig)
+        .build();
+
+    AtomicReference<Throwable> bulkFailure = new AtomicReference<>();
+    Set<String> failedIds = ConcurrentHashMap.newKeySet();
+    BulkProcessor.Listener listener = new BulkProcessor.Listener() {
+      @Override
+      public void beforeBulk(final long executionId, final BulkRequest request) {
+        log.debug("Sending bulk request {} of {} items to {}", executionId, request.numberOfActions(), typedIndex);
+      }
+
+      @Override
+      public void afterBulk(final long executionId, final BulkRequest request, final BulkResponse response) {
+        if (response.hasFailures()) {
+          // process failures by iterating through each bulk response item
+          for (BulkItemResponse itemResponse : response.getItems()) {
+            if (itemResponse.isFailed()) {
+              log.error("Unable to index the following item: {}", itemResponse.getFailureMessage());
+              failedIds.add(itemResponse.getId());
+            }
+          }
+        }
+      }
+
+      @Override
+      public void afterBulk(final long executionId, final BulkRequest request, final Throwable failure) {
+        log.error("Bulk request {} of {} items to {} failed", executionId, request.numberOfActions(), typedIndex,
+            failure);
+        bulkFailure.compareAndSet(null, failure);
+      }
+    };
 
     try {
-      // increase default timeouts
-      RequestConfig requestConfig = RequestConfig.custom()
-          .setConnectTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
-          .setSocketTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
-          .build();
-      RequestOptions options = RequestOptions.DEFAULT.toBuilder()
-          .setRequestConfig(requestConfig)
+      BulkProcessor bulkProcessor = BulkProcessor.builder(
+              (request, bulkListener) -> getClient().bulkAsync(request, options, bulkListener), listener,
+              "bulk-index-" + typedIndex)
+          .setBulkActions(BULK_CHUNK_MAX_ACTIONS)
+          .setBulkSize(new ByteSizeValue(BULK_CHUNK_MAX_MEGABYTES, ByteSizeUnit.MB))
+          .setConcurrentRequests(BULK_MAX_CONCURRENT_REQUESTS)
+          .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+              TimeValue.timeValueMillis(BULK_RETRY_INITIAL_DELAY_MILLIS), BULK_MAX_RETRIES))
           .build();
 
-      // execute bulk request
-      BulkResponse bulkResponse =
-          getClient().bulk(bulkRequest.timeout("180s").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE), options);
-      if (bulkResponse.hasFailures()) {
-        // process failures by iterating through each bulk response item
-        for (BulkItemResponse itemResponse : bulkResponse.getItems()) {
-          if (itemResponse.isFailed()) {
-            log.error("Unable to index the following item: {}", itemResponse.getFailureMessage());
-          }
+      try {
+        buildRequests.accept(typedIndex, bulkProcessor::add);
+      } finally {
+        if (!bulkProcessor.awaitClose(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)) {
+          bulkFailure.compareAndSet(null, new TimeoutException("Timed out waiting for bulk requests to complete"));
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      bulkFailure.compareAndSet(null, e);
+    }
+
+    try {
+      // Make the documents searchable now, as the requests themselves no longer wait for a refresh.
+      getClient().indices().refresh(new RefreshRequest(typedIndex), options);
     } catch (ElasticsearchException | IOException e) {
-      throw new SegueSearchException("Error during bulk index operation.", e);
+      bulkFailure.compareAndSet(null, e);
     }
+
+    Throwable failure = bulkFailure.get();
+    if (null != failure) {
+      throw new SegueSearchException("Error during bulk index operation.",
+          failure instanceof Exception exception ? exception : new ExecutionException(failure));
+    }
+    return failedIds;
   }
 
   void bulkIndex(final String indexBase, final String indexType, final List<String> dataToIndex)
       throws SegueSearchException {
-    executeBulkIndexRequest(indexBase, indexType, typedIndex -> {
-      // build bulk request, items don't have ids
-      BulkRequest request = new BulkRequest();
-      dataToIndex.forEach(itemToIndex -> request.add(
-          new IndexRequest(typedIndex).source(itemToIndex, XContentType.JSON)
-      ));
-      return request;
-    });
+    // items don't have ids
+    executeBulkIndexRequest(indexBase, indexType, (typedIndex, requests) -> dataToIndex.forEach(itemToIndex ->
+        requests.accept(new IndexRequest(typedIndex).source(itemToIndex, XContentType.JSON))
+    ));
   }
 
   void bulkIndexWithIds(final String indexBase, final String indexType,
                         final List<Map.Entry<String, String>> dataToIndex)
       throws SegueSearchException {
-    executeBulkIndexRequest(indexBase, indexType, typedIndex -> {
-      // build bulk request, ids of data items are specified by their keys
-      BulkRequest bulkRequest = new BulkRequest();
-      dataToIndex.forEach(itemToIndex -> bulkRequest.add(
-          new IndexRequest(typedIndex).id(itemToIndex.getKey()).source(itemToIndex.getValue(), XContentType.JSON)
-      ));
-      return bulkRequest;
-    });
+    // ids of data items are specified by their keys
+    executeBulkIndexRequest(indexBase, indexType, (typedIndex, requests) -> dataToIndex.forEach(itemToIndex ->
+        requests.accept(new IndexRequest(typedIndex).id(itemToIndex.getKey())
+            .source(itemToIndex.getValue(), XContentType.JSON))
+    ));
+  }
+
+  /**
+   * Index documents as they are produced, rather than from a list of every document.
+   * <br>
+   * Each document is added to a chunk as soon as it is passed to the consumer, and is released once its chunk has
+   * been sent, so only the chunks in flight are held in memory.
+   *
+   * @param indexBase the index name
+   * @param indexType type of index as registered with search provider
+   * @param producer  passes the id and serialised JSON of each document to index to a consumer
+   * @return the ids of any documents ElasticSearch failed to index; every other document was indexed.
+   * @throws SegueSearchException if an error occurs during the index operation
+   */
+  Set<String> streamIndexWithIds(final String indexBase, final String indexType, final DocumentProducer producer)
+      throws SegueSearchException {
+    return executeBulkIndexRequest(indexBase, indexType, (typedIndex, requests) ->
+        producer.produceDocuments((id, source) ->
+            requests.accept(new IndexRequest(typedIndex).id(id).source(source, XContentType.JSON))
+        ));
+  }
+
+  void bulkDelete(final String indexBase, final String indexType, final List<String> idsToDelete)
+      throws SegueSearchException {
+    Set<String> failedIds = executeBulkIndexRequest(indexBase, indexType, (typedIndex, requests) ->
+        idsToDelete.forEach(id -> requests.accept(new DeleteRequest(typedIndex).id(id))));
+    if (!failedIds.isEmpty()) {
+      throw new SegueSearchException(String.format("Unable to delete %d items from %s.", failedIds.size(),
+          ElasticSearchProvider.produceTypedIndexName(indexBase, indexType)));
+    }
+  }
+
+  /**
+   * Produces documents to index, passing the id and serialised JSON of each one to a consumer.
+   */
+  @FunctionalInterface
+  interface DocumentProducer {
+    void produceDocuments(BiConsumer<String, byte[]> documents);
+  }
+
+  /**
+   * Turn off refresh and replicas of an index while it is built, until the returned load is closed.
+   * <br>
+   * Changing settings takes round trips to ElasticSearch, so this is done once around building a whole index rather
+   * than for every bulk request. The original settings are read once here and put back once when the load is closed;
+   * a setting the index did not set itself goes back to the cluster default. If the original settings cannot be
+   * read, the settings are left alone.
+   *
+   * @param indexBase the index name
+   * @param indexType type of index as registered with search provider
+   * @return the load, which must be closed once the index is built.
+   */
+  BulkLoad startBulkLoad(final String indexBase, final String indexType) {
+    String typedIndex = ElasticSearchProvider.produceTypedIndexName(indexBase, indexType);
+
+    // The index must exist for its settings to be read and changed.
+    if (!this.hasIndex(indexBase, indexType)) {
+      if (this.rawFieldsListByType.containsKey(indexType) || this.nestedFieldsByType.containsKey(indexType)) {
+        this.sendMappingCorrections(typedIndex, indexType);
+      }
+    }
+
+    Map<String, String> originalSettings = this.getIndexSettings(typedIndex,
+        List.of(INDEX_REFRESH_INTERVAL_SETTING, INDEX_NUMBER_OF_REPLICAS_SETTING));
+    if (null != originalSettings) {
+      this.updateIndexSettings(typedIndex, Settings.builder()
+          .put(INDEX_REFRESH_INTERVAL_SETTING, "-1")
+          .put(INDEX_NUMBER_OF_REPLICAS_SETTING, 0)
+          .build());
+    }
+    return new BulkLoad(typedIndex, originalSettings);
+  }
+
+  /**
+   * An index being built with refresh and replicas turned off; closing it restores the original settings.
+   */
+  class BulkLoad implements AutoCloseable {
+    private final String typedIndex;
+    private final Map<String, String> originalSettings;
+
+    private BulkLoad(final String typedIndex, @Nullable final Map<String, String> originalSettings) {
+      this.typedIndex = typedIndex;
+      this.originalSettings = originalSettings;
+    }
+
+    @Override
+    public void close() {
+      if (null == originalSettings) {
+        return;
+      }
+      Settings.Builder restoredSettings = Settings.builder();
+      originalSettings.forEach((setting, value) -> {
+        if (null != value) {
+          restoredSettings.put(setting, value);
+        } else {
+          restoredSettings.putNull(setting);
+        }
+      });
+      updateIndexSettings(typedIndex, restoredSettings.build());
+    }
+  }
+
+  /**
+   * Read settings of an index in a single request.
+   *
+   * @param typedIndex the index
+   * @param settings   the names of the settings to read
+   * @return the value of each setting, or null for one the index does not set itself; or null if they can't be read.
+   */
+  @Nullable
+  Map<String, String> getIndexSettings(final String typedIndex, final List<String> settings) {
+    try {
+      GetSettingsResponse response = getClient().indices().getSettings(
+          new GetSettingsRequest().indices(typedIndex).names(settings.toArray(new String[0])), RequestOptions.DEFAULT);
+      Map<String, String> values = new HashMap<>();
+      for (String setting : settings) {
+        values.put(setting, response.getSetting(typedIndex, setting));
+      }
+      return values;
+    } catch (ElasticsearchException | IOException e) {
+      log.warn("Unable to read settings {} of index {}", settings, typedIndex, e);
+      return null;
+    }
+  }
+
+  void updateIndexSettings(final String typedIndex, final Settings settings) {
+    try {
+      getClient().indices().putSettings(new UpdateSettingsRequest(typedIndex).settings(settings),
+          RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException e) {
+      log.warn("Unable to update settings of index {}", typedIndex, e);
+    }
+  }
+
+  /**
+   * Copy every document of an index into the same type of index for another version, within ElasticSearch.
+   *
+   * @param sourceIndexBase the version to copy from
+   * @param targetIndexBase the version to copy to
+   * @param indexType       type of index as registered with search provider
+   * @throws SegueSearchException if an error occurs during the copy
+   */
+  void copyIndex(final String sourceIndexBase, final String targetIndexBase, final String indexType)
+      throws SegueSearchException {
+    String sourceIndex = ElasticSearchProvider.produceTypedIndexName(sourceIndexBase, indexType);
+    String targetIndex = ElasticSearchProvider.produceTypedIndexName(targetIndexBase, indexType);
+
+    // check index already exists if not execute any initialisation steps.
+    if (!this.hasIndex(targetIndexBase, indexType)) {
+      if (this.rawFieldsListByType.containsKey(indexType) || this.nestedFieldsByType.containsKey(indexType)) {
+        this.sendMappingCorrections(targetIndex, indexType);
+      }
+    }
+
+    try {
+      RequestConfig requestConfig = RequestConfig.custom()
+          .setConnectTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
+          .setSocketTimeout(ELASTICSEARCH_INDEXER_REQUEST_TIMEOUT)
+          .build();
+      RequestOptions options = RequestOptions.DEFAULT.toBuilder()
+          .setRequestConfig(requestConfig)
+          .build();
+
+      ReindexRequest reindexRequest = new ReindexRequest().setSourceIndices(sourceIndex).setDestIndex(targetIndex)
+          .setRefresh(true);
+      BulkByScrollResponse response = getClient().reindex(reindexRequest, options);
+      if (!response.getBulkFailures().isEmpty() || !response.getSearchFailures().isEmpty()) {
+        throw new SegueSearchException(String.format("Failed to copy %d documents from %s to %s",
+            response.getBulkFailures().size() + response.getSearchFailures().size(), sourceIndex, targetIndex));
+      }
+      log.info("Copied {} documents from {} to {}", response.getCreated(), sourceIndex, targetIndex);
+    } catch (ElasticsearchException | IOException e) {
+      throw new SegueSearchException("Error during index copy operation.", e);
+    }
   }
 
   public boolean expungeEntireSearchCache() {
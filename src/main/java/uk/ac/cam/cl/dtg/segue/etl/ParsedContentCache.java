@@ -0,0 +1,107 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dos.content.ContentBase;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+
+/**
+ * The parsed and augmented content of json files in recently indexed versions. A file at the same path with the same
+ * blob id has exactly the same content, so it need only be parsed and augmented once for all the versions it is in.
+ * <br>
+ * Content is kept encoded as Smile rather than as the parsed objects, and every read decodes a new copy. Indexing
+ * changes the content objects it is given (for example, giving content with problems a title), so no two versions may
+ * share them; the encoded form is also several times smaller than the objects it decodes to.
+ */
+class ParsedContentCache {
+  private static final Logger log = LoggerFactory.getLogger(ParsedContentCache.class);
+
+  private final ContentMapperUtils mapperUtils;
+  private final Cache<Key, byte[]> encodedContentByFile;
+  private volatile ObjectMapper smileMapper;
+
+  private record Key(String path, ObjectId objectId) {
+  }
+
+  /**
+   * Create a cache of parsed content.
+   *
+   * @param mapperUtils - the content mapper utils used to create the object mapper which encodes content.
+   * @param maxBytes    - the total size of encoded content to keep.
+   */
+  ParsedContentCache(final ContentMapperUtils mapperUtils, final long maxBytes) {
+    this.mapperUtils = mapperUtils;
+    this.encodedContentByFile = CacheBuilder.newBuilder()
+        .maximumWeight(maxBytes)
+        .<Key, byte[]>weigher((key, encodedContent) -> encodedContent.length)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Get a new copy of the parsed content of a file.
+   *
+   * @param path     - the path of the file.
+   * @param objectId - the blob id of the file.
+   * @return a copy of the content which shares no objects with any other, or null if the file is not in the cache.
+   */
+  @Nullable
+  Content get(final String path, final ObjectId objectId) {
+    byte[] encodedContent = encodedContentByFile.getIfPresent(new Key(path, objectId));
+    if (null == encodedContent) {
+      return null;
+    }
+    try {
+      return (Content) getSmileMapper().readValue(encodedContent, ContentBase.class);
+    } catch (IOException | ClassCastException e) {
+      log.warn("Unable to decode cached content of {}; parsing it again.", path, e);
+      encodedContentByFile.invalidate(new Key(path, objectId));
+      return null;
+    }
+  }
+
+  /**
+   * Keep the parsed content of a file. The content is encoded before this returns, so later changes to it are not
+   * kept.
+   *
+   * @param path     - the path of the file.
+   * @param objectId - the blob id of the file.
+   * @param content  - the parsed and augmented content of the file.
+   */
+  void put(final String path, final ObjectId objectId, final Content content) {
+    try {
+      encodedContentByFile.put(new Key(path, objectId), getSmileMapper().writeValueAsBytes(content));
+    } catch (IOException e) {
+      log.warn("Unable to encode content of {}; it will be parsed again for each version.", path, e);
+    }
+  }
+
+  long size() {
+    return encodedContentByFile.size();
+  }
+
+  CacheStats stats() {
+    return encodedContentByFile.stats();
+  }
+
+  private ObjectMapper getSmileMapper() {
+    // Files are read and written from many parsing threads at once, so only creating the mapper is synchronised:
+    if (null == smileMapper) {
+      synchronized (this) {
+        if (null == smileMapper) {
+          smileMapper = mapperUtils.generateNewPreconfiguredContentMapper(new SmileFactory());
+        }
+      }
+    }
+    return smileMapper;
+  }
+}
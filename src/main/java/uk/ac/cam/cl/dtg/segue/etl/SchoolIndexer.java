@@ -98,7 +98,8 @@ class SchoolIndexer {
       log.error("Unable to serialise school list last modified date to JSON.", e);
     }
 
-    try {
+    try (ElasticSearchIndexer.BulkLoad schoolsLoad = es.startBulkLoad(SCHOOLS_INDEX_BASE,
+        SchoolsIndexType.SCHOOL_SEARCH.toString())) {
       es.bulkIndexWithIds(SCHOOLS_INDEX_BASE, SchoolsIndexType.SCHOOL_SEARCH.toString(), indexList);
       log.info("School list index request complete.");
     } catch (SegueSearchException e) {
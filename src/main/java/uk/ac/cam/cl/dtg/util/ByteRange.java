@@ -0,0 +1,80 @@
+package uk.ac.cam.cl.dtg.util;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * A single range of bytes requested with an HTTP Range header.
+ *
+ * @param start the index of the first byte in the range.
+ * @param end   the index of the last byte in the range, inclusive.
+ */
+public record ByteRange(long start, long end) {
+  private static final String BYTES_UNIT_PREFIX = "bytes=";
+
+  /**
+   * Parse the Range header of a request for a file.
+   * <br>
+   * Only a single range in bytes is supported; any other header is ignored, as the HTTP spec allows, so the whole file
+   * should be sent instead.
+   *
+   * @param rangeHeader the value of the Range header, if any.
+   * @param size        the size of the file in bytes.
+   * @return the range requested, or null if the whole file should be sent.
+   * @throws IllegalArgumentException if the range requested lies entirely outside the file.
+   */
+  @Nullable
+  public static ByteRange fromRangeHeader(@Nullable final String rangeHeader, final long size) {
+    if (null == rangeHeader || !rangeHeader.startsWith(BYTES_UNIT_PREFIX) || rangeHeader.contains(",")) {
+      return null;
+    }
+    String range = rangeHeader.substring(BYTES_UNIT_PREFIX.length()).trim();
+    int separatorIndex = range.indexOf('-');
+    if (separatorIndex < 0) {
+      return null;
+    }
+
+    try {
+      String firstByte = range.substring(0, separatorIndex).trim();
+      String lastByte = range.substring(separatorIndex + 1).trim();
+      if (firstByte.isEmpty()) {
+        // A suffix range, of the last so many bytes of the file:
+        long suffixLength = Long.parseLong(lastByte);
+        if (suffixLength <= 0 || size == 0) {
+          throw new IllegalArgumentException("Unsatisfiable range: " + rangeHeader);
+        }
+        return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+      }
+
+      long start = Long.parseLong(firstByte);
+      Long end = lastByte.isEmpty() ? null : Long.parseLong(lastByte);
+      if (start < 0 || (null != end && end < start)) {
+        return null;
+      }
+      if (start >= size) {
+        throw new IllegalArgumentException("Unsatisfiable range: " + rangeHeader);
+      }
+      return new ByteRange(start, null == end ? size - 1 : Math.min(end, size - 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The number of bytes in the range.
+   *
+   * @return the length of the range.
+   */
+  public long length() {
+    return end - start + 1;
+  }
+
+  /**
+   * The value of the Content-Range header for a response containing this range.
+   *
+   * @param size the size of the whole file in bytes.
+   * @return the Content-Range header value.
+   */
+  public String toContentRange(final long size) {
+    return String.format("bytes %d-%d/%d", start, end, size);
+  }
+}
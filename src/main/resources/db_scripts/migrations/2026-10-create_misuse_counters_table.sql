@@ -0,0 +1,10 @@
+CREATE TABLE misuse_counters (
+    agent_identifier TEXT NOT NULL,
+    event_label TEXT NOT NULL,
+    bucket BIGINT NOT NULL,
+    count INTEGER NOT NULL,
+    last_updated TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
+    CONSTRAINT misuse_counters_pk PRIMARY KEY (agent_identifier, event_label, bucket)
+);
+
+CREATE INDEX misuse_counters_last_updated ON misuse_counters USING btree (last_updated);
@@ -0,0 +1,8 @@
+CREATE TABLE misuse_threshold_actions (
+    agent_identifier TEXT NOT NULL,
+    event_label TEXT NOT NULL,
+    threshold TEXT NOT NULL,
+    bucket BIGINT NOT NULL,
+    last_updated TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
+    CONSTRAINT misuse_threshold_actions_pk PRIMARY KEY (agent_identifier, event_label, threshold)
+);
@@ -319,6 +319,36 @@ ALTER TABLE public.logged_events_id_seq OWNER TO rutherford;
 ALTER SEQUENCE public.logged_events_id_seq OWNED BY public.logged_events.id;
 
 
+--
+-- Name: misuse_counters; Type: TABLE; Schema: public; Owner: rutherford
+--
+
+CREATE TABLE public.misuse_counters (
+    agent_identifier text NOT NULL,
+    event_label text NOT NULL,
+    bucket bigint NOT NULL,
+    count integer NOT NULL,
+    last_updated timestamp with time zone DEFAULT now() NOT NULL
+);
+
+
+ALTER TABLE public.misuse_counters OWNER TO rutherford;
+
+--
+-- Name: misuse_threshold_actions; Type: TABLE; Schema: public; Owner: rutherford
+--
+
+CREATE TABLE public.misuse_threshold_actions (
+    agent_identifier text NOT NULL,
+    event_label text NOT NULL,
+    threshold text NOT NULL,
+    bucket bigint NOT NULL,
+    last_updated timestamp with time zone DEFAULT now() NOT NULL
+);
+
+
+ALTER TABLE public.misuse_threshold_actions OWNER TO rutherford;
+
 --
 -- Name: question_attempts; Type: TABLE; Schema: public; Owner: rutherford
 --
@@ -911,6 +941,22 @@ ALTER TABLE ONLY public.logged_events
     ADD CONSTRAINT "id pkey" PRIMARY KEY (id);
 
 
+--
+-- Name: misuse_counters misuse_counters_pk; Type: CONSTRAINT; Schema: public; Owner: rutherford
+--
+
+ALTER TABLE ONLY public.misuse_counters
+    ADD CONSTRAINT misuse_counters_pk PRIMARY KEY (agent_identifier, event_label, bucket);
+
+
+--
+-- Name: misuse_threshold_actions misuse_threshold_actions_pk; Type: CONSTRAINT; Schema: public; Owner: rutherford
+--
+
+ALTER TABLE ONLY public.misuse_threshold_actions
+    ADD CONSTRAINT misuse_threshold_actions_pk PRIMARY KEY (agent_identifier, event_label, threshold);
+
+
 --
 -- Name: ip_location_history id pky; Type: CONSTRAINT; Schema: public; Owner: rutherford
 --
@@ -1186,6 +1232,13 @@ CREATE INDEX log_events_user_id ON public.logged_events USING btree (user_id);
 CREATE INDEX logged_events_type_timestamp ON public.logged_events USING btree (event_type, "timestamp");
 
 
+--
+-- Name: misuse_counters_last_updated; Type: INDEX; Schema: public; Owner: rutherford
+--
+
+CREATE INDEX misuse_counters_last_updated ON public.misuse_counters USING btree (last_updated);
+
+
 --
 -- Name: only_one_attempt_per_assignment_per_user; Type: INDEX; Schema: public; Owner: rutherford
 --
@@ -25,6 +25,8 @@ import static uk.ac.cam.cl.dtg.isaac.api.ITConstants.ASSIGNMENT_FACADE_TEST_GROU
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
@@ -420,14 +422,15 @@ public class AssignmentFacadeIT extends IsaacIntegrationTest {
 
     Response downloadAssignmentResponse =
         assignmentFacade.getAssignmentProgressDownloadCSV(downloadAssignmentRequest, 4L, "excel");
-    String downloadAssignmentContents = downloadAssignmentResponse.getEntity().toString();
+    ByteArrayOutputStream downloadAssignmentContents = new ByteArrayOutputStream();
+    ((StreamingOutput) downloadAssignmentResponse.getEntity()).write(downloadAssignmentContents);
 
     String expectedContents;
     try (FileInputStream expectedFile = new FileInputStream(
         "src/test/resources/expected_assignment_progress_export.csv")) {
       expectedContents = IOUtils.toString(expectedFile, StandardCharsets.UTF_8);
     }
-    assertEquals(expectedContents, downloadAssignmentContents);
+    assertEquals(expectedContents, downloadAssignmentContents.toString(StandardCharsets.UTF_8));
   }
 
   @Test
@@ -455,13 +458,14 @@ public class AssignmentFacadeIT extends IsaacIntegrationTest {
     Response downloadAssignmentResponse =
         assignmentFacade.getGroupAssignmentsProgressDownloadCSV(downloadAssignmentRequest,
             ASSIGNMENT_FACADE_TEST_GROUP_ID, "excel");
-    String downloadAssignmentContents = downloadAssignmentResponse.getEntity().toString();
+    ByteArrayOutputStream downloadAssignmentContents = new ByteArrayOutputStream();
+    ((StreamingOutput) downloadAssignmentResponse.getEntity()).write(downloadAssignmentContents);
 
     String expectedContents;
     try (FileInputStream expectedFile = new FileInputStream("src/test/resources/expected_group_progress_export.csv")) {
       expectedContents = IOUtils.toString(expectedFile, StandardCharsets.UTF_8);
     }
-    assertEquals(expectedContents, downloadAssignmentContents);
+    assertEquals(expectedContents, downloadAssignmentContents.toString(StandardCharsets.UTF_8));
   }
 
   @Test
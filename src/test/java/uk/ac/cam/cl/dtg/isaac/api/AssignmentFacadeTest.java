@@ -0,0 +1,255 @@
+package uk.ac.cam.cl.dtg.isaac.api;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArgument;
+import static org.easymock.EasyMock.replay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.opencsv.CSVReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.api.managers.AssignmentManager;
+import uk.ac.cam.cl.dtg.isaac.api.managers.GameManager;
+import uk.ac.cam.cl.dtg.isaac.api.services.AssignmentService;
+import uk.ac.cam.cl.dtg.isaac.dao.GameboardPersistenceManager;
+import uk.ac.cam.cl.dtg.isaac.dos.users.Role;
+import uk.ac.cam.cl.dtg.isaac.dto.AssignmentDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.GameboardDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.GameboardItem;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuestionPageDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacStringMatchQuestionDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.UserGroupDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentBaseDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.users.UserSummaryDTO;
+import uk.ac.cam.cl.dtg.isaac.quiz.PgQuestionAttempts;
+import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistry;
+import uk.ac.cam.cl.dtg.segue.api.managers.GroupManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.QuestionManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserAccountManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserAssociationManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserBadgeManager;
+import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
+import uk.ac.cam.cl.dtg.segue.dao.content.QuestionPageStructure;
+import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
+import uk.ac.cam.cl.dtg.util.PropertiesLoader;
+
+class AssignmentFacadeTest {
+  private static final Long ASSIGNMENT_ID = 7L;
+  private static final Long GROUP_ID = 8L;
+  private static final String GAMEBOARD_ID = "test_board";
+  private static final String QUESTION_PAGE_ID = "test_page";
+  private static final List<String> QUESTION_PART_IDS =
+      List.of(QUESTION_PAGE_ID + "|first", QUESTION_PAGE_ID + "|second");
+  // Enough members that their attempts are read in more than one batch of users:
+  private static final int MEMBER_COUNT = 150;
+
+  private AssignmentManager assignmentManager;
+  private UserAccountManager userManager;
+  private GroupManager groupManager;
+  private GameboardPersistenceManager gameboardPersistenceManager;
+  private GitContentManager contentManager;
+  private ILogManager logManager;
+  private UserAssociationManager associationManager;
+  private PostgresSqlDb database;
+  private AssignmentFacade assignmentFacade;
+  private HttpServletRequest request;
+  private RegisteredUserDTO teacher;
+  private List<List<Long>> queriedUserIdBatches;
+
+  @BeforeEach
+  void beforeEach() {
+    assignmentManager = createMock(AssignmentManager.class);
+    userManager = createMock(UserAccountManager.class);
+    groupManager = createMock(GroupManager.class);
+    gameboardPersistenceManager = createMock(GameboardPersistenceManager.class);
+    contentManager = createMock(GitContentManager.class);
+    logManager = createNiceMock(ILogManager.class);
+    associationManager = createMock(UserAssociationManager.class);
+    database = createMock(PostgresSqlDb.class);
+    request = createMock(HttpServletRequest.class);
+
+    // Members' attempts are read through the real question manager and attempt persistence, over a mock database:
+    QuestionManager questionManager = new QuestionManager(null, null,
+        new PgQuestionAttempts(database, createNiceMock(ContentMapperUtils.class)), null,
+        new ValidatorRegistry(Set.of(), type -> null));
+
+    GameManager gameManager = new GameManager(contentManager, gameboardPersistenceManager, null, questionManager);
+
+    assignmentFacade = new AssignmentFacade(assignmentManager, questionManager, userManager, groupManager,
+        createMock(PropertiesLoader.class), gameManager, logManager, associationManager,
+        createMock(UserBadgeManager.class), createMock(AssignmentService.class),
+        Clock.fixed(Instant.parse("2026-01-01T09:00:00Z"), ZoneId.of("UTC")));
+
+    teacher = new RegisteredUserDTO();
+    teacher.setId(1L);
+    teacher.setRole(Role.TEACHER);
+    teacher.setGivenName("Teacher");
+    teacher.setFamilyName("Test");
+    queriedUserIdBatches = new ArrayList<>();
+  }
+
+  @Test
+  void getAssignmentProgressDownloadCSV_membersReadInSeveralBatches_writesEveryRowInGroupOrder() throws Exception {
+    // Member ids descend, so that the rows must follow the group's order rather than the ids':
+    List<RegisteredUserDTO> groupMembers = new ArrayList<>();
+    for (int i = 0; i < MEMBER_COUNT; i++) {
+      RegisteredUserDTO member = new RegisteredUserDTO();
+      member.setId(10_000L - i);
+      member.setRole(Role.STUDENT);
+      member.setGivenName("Given" + i);
+      member.setFamilyName("Family" + i);
+      groupMembers.add(member);
+    }
+    expectAssignmentProgressRequest(groupMembers);
+    expectQuestionAttemptsDatabase();
+    replay(assignmentManager, userManager, groupManager, gameboardPersistenceManager, contentManager, logManager,
+        associationManager, database, request);
+
+    // Act
+    Response response = assignmentFacade.getAssignmentProgressDownloadCSV(request, ASSIGNMENT_ID, null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    List<Long> queriedUserIds = queriedUserIdBatches.stream().flatMap(List::stream).toList();
+    assertTrue(queriedUserIdBatches.size() > 1, "Members should be read in more than one batch");
+    assertEquals(groupMembers.stream().map(RegisteredUserDTO::getId).toList(), queriedUserIds);
+
+    String csv = output.toString(StandardCharsets.UTF_8);
+    List<String[]> rows;
+    try (CSVReader csvReader = new CSVReader(new StringReader(csv.substring(csv.indexOf("\n\n") + 2)))) {
+      rows = csvReader.readAll();
+    }
+    assertEquals(3 + MEMBER_COUNT, rows.size());
+    assertArrayEquals(new String[] {"", "", "Q1 - Test Page", "Q2 - Test Page", "% Correct"}, rows.get(0));
+    // Two thirds of members answer the first part correctly, and one third the second:
+    assertArrayEquals(new String[] {"", "Correct %", "67", "33"}, rows.get(1));
+    assertArrayEquals(new String[] {"Last Name", "First Name"}, rows.get(2));
+    for (int i = 0; i < MEMBER_COUNT; i++) {
+      String[] expectedRow = switch (i % 3) {
+        case 0 -> new String[] {"Family" + i, "Given" + i, "", "", "0"};
+        case 1 -> new String[] {"Family" + i, "Given" + i, "1", "0", "50"};
+        default -> new String[] {"Family" + i, "Given" + i, "1", "1", "100"};
+      };
+      assertArrayEquals(expectedRow, rows.get(3 + i), "Unexpected row for member " + i);
+    }
+  }
+
+  private void expectAssignmentProgressRequest(final List<RegisteredUserDTO> groupMembers) throws Exception {
+    expect(userManager.getCurrentRegisteredUser(request)).andReturn(teacher);
+    expect(userManager.checkUserRole(eq(teacher), anyObject())).andReturn(false).anyTimes();
+
+    AssignmentDTO assignment = new AssignmentDTO();
+    assignment.setId(ASSIGNMENT_ID);
+    assignment.setGroupId(GROUP_ID);
+    assignment.setGameboardId(GAMEBOARD_ID);
+    expect(assignmentManager.getAssignmentById(ASSIGNMENT_ID)).andReturn(assignment);
+
+    UserGroupDTO group = new UserGroupDTO();
+    group.setId(GROUP_ID);
+    group.setOwnerId(teacher.getId());
+    expect(groupManager.getGroupById(GROUP_ID)).andReturn(group);
+    expect(groupManager.getUsersInGroup(group)).andReturn(groupMembers);
+
+    GameboardItem questionPageItem = new GameboardItem();
+    questionPageItem.setId(QUESTION_PAGE_ID);
+    questionPageItem.setTitle("Test Page");
+    GameboardDTO gameboard = new GameboardDTO();
+    gameboard.setId(GAMEBOARD_ID);
+    gameboard.setContents(List.of(questionPageItem));
+    expect(gameboardPersistenceManager.getGameboardById(GAMEBOARD_ID)).andReturn(gameboard);
+
+    IsaacQuestionPageDTO questionPage = new IsaacQuestionPageDTO();
+    questionPage.setId(QUESTION_PAGE_ID);
+    List<ContentBaseDTO> questionParts = new ArrayList<>();
+    for (String questionPartId : QUESTION_PART_IDS) {
+      IsaacStringMatchQuestionDTO questionPart = new IsaacStringMatchQuestionDTO();
+      questionPart.setId(questionPartId);
+      questionParts.add(questionPart);
+    }
+    questionPage.setChildren(questionParts);
+    expect(contentManager.getQuestionPageStructure(QUESTION_PAGE_ID))
+        .andReturn(QuestionPageStructure.fromQuestionPage(questionPage)).anyTimes();
+
+    for (RegisteredUserDTO member : groupMembers) {
+      UserSummaryDTO memberSummary = new UserSummaryDTO();
+      memberSummary.setId(member.getId());
+      memberSummary.setGivenName(member.getGivenName());
+      memberSummary.setFamilyName(member.getFamilyName());
+      memberSummary.setAuthorisedFullAccess(true);
+      expect(userManager.convertToUserSummaryObject(member)).andReturn(memberSummary);
+      expect(associationManager.enforceAuthorisationPrivacy(teacher, memberSummary)).andReturn(memberSummary);
+    }
+    logManager.logEvent(eq(teacher), eq(request), anyObject(), anyObject());
+    expectLastCall();
+  }
+
+  /**
+   * Each query for a batch of members returns their attempt summaries in reverse order, with none for every third
+   * member (by position in the group), the first part correct for the next and both parts correct for the last.
+   */
+  private void expectQuestionAttemptsDatabase() throws Exception {
+    Connection connection = createNiceMock(Connection.class);
+    PreparedStatement statement = createNiceMock(PreparedStatement.class);
+    expect(database.getDatabaseConnection()).andReturn(connection);
+    expect(connection.prepareStatement(anyString())).andReturn(statement);
+    expect(connection.createArrayOf(eq("bigint"), anyObject())).andAnswer(() -> {
+      Object[] userIds = getCurrentArgument(1);
+      queriedUserIdBatches.add(Arrays.stream(userIds).map(Long.class::cast).toList());
+      return null;
+    }).anyTimes();
+    expect(statement.executeQuery()).andAnswer(() -> {
+      List<Long> batchUserIds = queriedUserIdBatches.get(queriedUserIdBatches.size() - 1);
+      ResultSet results = createNiceMock(ResultSet.class);
+      for (int i = batchUserIds.size() - 1; i >= 0; i--) {
+        long userId = batchUserIds.get(i);
+        int memberIndex = (int) (10_000L - userId);
+        if (memberIndex % 3 == 0) {
+          continue;
+        }
+        for (String questionPartId : QUESTION_PART_IDS) {
+          boolean correct = questionPartId.equals(QUESTION_PART_IDS.get(0)) || memberIndex % 3 == 2;
+          expect(results.next()).andReturn(true);
+          expect(results.getLong("user_id")).andReturn(userId);
+          expect(results.getString("question_id")).andReturn(questionPartId);
+          expect(results.getBoolean("any_correct")).andReturn(correct);
+          expect(results.getBoolean("first_correct")).andReturn(correct);
+          expect(results.getTimestamp("latest_attempt")).andReturn(new Timestamp(0L));
+        }
+      }
+      expect(results.next()).andReturn(false);
+      replay(results);
+      return results;
+    }).anyTimes();
+    replay(connection, statement);
+  }
+}
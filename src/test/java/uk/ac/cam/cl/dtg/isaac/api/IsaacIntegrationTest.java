@@ -38,6 +38,7 @@ import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang3.SystemUtils;
 import org.easymock.Capture;
 import org.eclipse.jgit.api.Git;
@@ -74,6 +75,7 @@ import uk.ac.cam.cl.dtg.isaac.dos.PgUserPreferenceManager;
 import uk.ac.cam.cl.dtg.isaac.dto.users.RegisteredUserDTO;
 import uk.ac.cam.cl.dtg.isaac.mappers.MainObjectMapper;
 import uk.ac.cam.cl.dtg.isaac.quiz.PgQuestionAttempts;
+import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistry;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
 import uk.ac.cam.cl.dtg.segue.api.managers.GroupManager;
 import uk.ac.cam.cl.dtg.segue.api.managers.PgTransactionManager;
@@ -274,7 +276,9 @@ public abstract class IsaacIntegrationTest {
 
     mainObjectMapper = MainObjectMapper.INSTANCE;
 
-    questionManager = new QuestionManager(contentMapperUtils, mainObjectMapper, pgQuestionAttempts, userPreferenceManager);
+    // No answers are marked by these tests, so no validators are created:
+    questionManager = new QuestionManager(contentMapperUtils, mainObjectMapper, pgQuestionAttempts,
+        userPreferenceManager, new ValidatorRegistry(Set.of(), type -> null));
 
     // The following may need some actual authentication providers...
     providersToRegister = new HashMap<>();
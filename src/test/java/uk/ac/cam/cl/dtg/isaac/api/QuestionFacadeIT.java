@@ -1,16 +1,23 @@
 package uk.ac.cam.cl.dtg.isaac.api;
 
+import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static uk.ac.cam.cl.dtg.isaac.api.ITConstants.QUIZ_TEST_FIRST_QUESTION_ANSWER;
 import static uk.ac.cam.cl.dtg.isaac.api.ITConstants.QUIZ_TEST_HIDDEN_FROM_TUTORS_QUESTION_FIRST_ID;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.core.Response;
+import org.easymock.Capture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import uk.ac.cam.cl.dtg.isaac.dos.IUserStreaksManager;
 import uk.ac.cam.cl.dtg.isaac.dos.PgUserStreakManager;
+import uk.ac.cam.cl.dtg.isaac.quiz.SlowValidatorExecutor;
 import uk.ac.cam.cl.dtg.segue.api.QuestionFacade;
 
 class QuestionFacadeIT extends IsaacIntegrationTest {
@@ -23,15 +30,22 @@ class QuestionFacadeIT extends IsaacIntegrationTest {
     IUserStreaksManager userStreaksManager = createMock(PgUserStreakManager.class);
     questionFacade =
         new QuestionFacade(properties, contentMapperUtils, contentManager, gameManager, contentIndex, userAccountManager, questionManager,
-            logManager, misuseMonitor, userBadgeManager, userStreaksManager, userAssociationManager);
+            logManager, misuseMonitor, userBadgeManager, userStreaksManager, userAssociationManager,
+            new SlowValidatorExecutor(0, 0));
   }
 
   @Test
   void answerQuestionNotAvailableForQuizQuestions() {
     HttpServletRequest mockRequest = createMock(HttpServletRequest.class);
+    AsyncResponse mockAsyncResponse = createMock(AsyncResponse.class);
+    Capture<Response> capturedResponse = newCapture();
+    expect(mockAsyncResponse.resume(capture(capturedResponse))).andReturn(true);
+    replay(mockAsyncResponse);
 
-    try (Response response = questionFacade.answerQuestion(mockRequest, QUIZ_TEST_HIDDEN_FROM_TUTORS_QUESTION_FIRST_ID,
-        QUIZ_TEST_FIRST_QUESTION_ANSWER)) {
+    questionFacade.answerQuestion(mockRequest, QUIZ_TEST_HIDDEN_FROM_TUTORS_QUESTION_FIRST_ID,
+        QUIZ_TEST_FIRST_QUESTION_ANSWER, mockAsyncResponse);
+
+    try (Response response = capturedResponse.getValue()) {
 
       assertEquals(Response.Status.FORBIDDEN.getStatusCode(), response.getStatus());
     }
@@ -0,0 +1,79 @@
+package uk.ac.cam.cl.dtg.isaac.dos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class QuestionAttemptIndexTest {
+
+  @Test
+  void recordAttemptSummary_tracksAttemptedCorrectAndFirstAttemptState() {
+    QuestionAttemptIndex index = new QuestionAttemptIndex();
+
+    index.recordAttemptSummary("page_a|part_1", true, false, 2000L);
+    index.recordAttemptSummary("page_a|part_2", true, true, 1500L);
+    index.recordAttemptSummary("page_b|part_1", false, false, 500L);
+
+    assertEquals(3, index.size());
+
+    assertTrue(index.isAttempted("page_a|part_1"));
+    assertTrue(index.isCorrect("page_a|part_1"));
+    assertFalse(index.isFirstAttemptCorrect("page_a|part_1"));
+    assertEquals(2000L, index.getLatestAttemptEpochMillis("page_a|part_1"));
+
+    assertTrue(index.isCorrect("page_a|part_2"));
+    assertTrue(index.isFirstAttemptCorrect("page_a|part_2"));
+
+    assertTrue(index.isAttempted("page_b|part_1"));
+    assertFalse(index.isCorrect("page_b|part_1"));
+  }
+
+  @Test
+  void lookups_forUnattemptedParts_returnNotAttempted() {
+    QuestionAttemptIndex index = new QuestionAttemptIndex();
+    index.recordAttemptSummary("page_c|part_1", true, true, 1000L);
+
+    assertFalse(index.isAttempted("page_c|part_2"));
+    assertFalse(index.isCorrect("page_c|part_2"));
+    assertNull(index.getLatestAttemptEpochMillis("page_c|part_2"));
+    assertFalse(index.isAttempted("never_seen_anywhere"));
+  }
+
+  @Test
+  void recordAttemptSummary_growsBeyondInitialCapacity() {
+    QuestionAttemptIndex index = new QuestionAttemptIndex(1);
+    int parts = 200;
+    for (int i = parts - 1; i >= 0; i--) {
+      index.recordAttemptSummary("page_d|part_" + i, i % 2 == 0, i % 3 == 0, i);
+    }
+
+    assertEquals(parts, index.size());
+    for (int i = 0; i < parts; i++) {
+      String partId = "page_d|part_" + i;
+      assertTrue(index.isAttempted(partId));
+      assertEquals(i % 2 == 0, index.isCorrect(partId));
+      assertEquals(i % 3 == 0, index.isFirstAttemptCorrect(partId));
+      assertEquals((long) i, index.getLatestAttemptEpochMillis(partId));
+    }
+  }
+
+  @Test
+  void indexesSharingPartIds_keepTheirOwnAttempts() {
+    QuestionAttemptIndex.PartIdTable partIds = new QuestionAttemptIndex.PartIdTable();
+    QuestionAttemptIndex firstIndex = new QuestionAttemptIndex(partIds);
+    QuestionAttemptIndex secondIndex = new QuestionAttemptIndex(partIds);
+
+    firstIndex.recordAttemptSummary("page_e|part_1", true, true, 1000L);
+    secondIndex.recordAttemptSummary("page_e|part_2", false, false, 2000L);
+    secondIndex.recordAttemptSummary("page_e|part_1", false, false, 3000L);
+
+    assertTrue(firstIndex.isCorrect("page_e|part_1"));
+    assertFalse(firstIndex.isAttempted("page_e|part_2"));
+    assertFalse(secondIndex.isCorrect("page_e|part_1"));
+    assertEquals(3000L, secondIndex.getLatestAttemptEpochMillis("page_e|part_1"));
+    assertFalse(new QuestionAttemptIndex().isAttempted("page_e|part_1"));
+  }
+}
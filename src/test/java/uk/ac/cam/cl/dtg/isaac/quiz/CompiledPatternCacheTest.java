@@ -0,0 +1,35 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.Test;
+
+class CompiledPatternCacheTest {
+
+  @Test
+  void getPattern_samePatternAndFlags_returnsSameCompiledPattern() {
+    Pattern pattern = CompiledPatternCache.getPattern("a+b", Pattern.CASE_INSENSITIVE);
+
+    assertSame(pattern, CompiledPatternCache.getPattern("a+b", Pattern.CASE_INSENSITIVE));
+    assertNotSame(pattern, CompiledPatternCache.getPattern("a+b", 0));
+  }
+
+  @Test
+  void getLiteralPattern_patternWithMetacharacters_matchesLiterally() {
+    Pattern pattern = CompiledPatternCache.getLiteralPattern("a+b", 0);
+
+    assertTrue(pattern.matcher("a+b").matches());
+    assertFalse(pattern.matcher("aab").matches());
+  }
+
+  @Test
+  void getPattern_invalidPattern_throwsPatternSyntaxException() {
+    assertThrows(PatternSyntaxException.class, () -> CompiledPatternCache.getPattern("(unclosed", 0));
+  }
+}
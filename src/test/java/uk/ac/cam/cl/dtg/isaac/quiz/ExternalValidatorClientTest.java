@@ -0,0 +1,171 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExternalValidatorClientTest {
+  private HttpServer server;
+  private String baseUrl;
+  private final AtomicInteger requestCount = new AtomicInteger();
+  private final CountDownLatch slowRequestReceived = new CountDownLatch(1);
+  private final CountDownLatch releaseSlowRequests = new CountDownLatch(1);
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/check", exchange -> {
+      requestCount.incrementAndGet();
+      String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+      String responseBody = exchange.getRequestURI().getPath().endsWith("/batch")
+          ? "[{\"equal\": \"true\"}, {\"equal\": \"false\"}]"
+          : "{\"equal\": \"true\", \"request\": " + requestBody + "}";
+      byte[] response = responseBody.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.createContext("/error", exchange -> {
+      requestCount.incrementAndGet();
+      int status = exchange.getRequestURI().getPath().endsWith("/client") ? 400 : 500;
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    server.createContext("/slow", exchange -> {
+      slowRequestReceived.countDown();
+      try {
+        releaseSlowRequests.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    releaseSlowRequests.countDown();
+    server.stop(0);
+  }
+
+  @Test
+  void post_validatorRunning_returnsResponse() throws IOException {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 3, 60000)) {
+      Map<String, Object> response = client.post(baseUrl + "/check", Map.of("test", "x"));
+
+      assertEquals("true", response.get("equal"));
+      assertEquals(Map.of("test", "x"), response.get("request"));
+    }
+  }
+
+  @Test
+  void postBatch_validatorRunning_returnsResponsePerCheckFromOneRequest() throws IOException {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 3, 60000)) {
+      List<? extends Map<String, Object>> responses = client.postBatch(baseUrl + "/check/batch",
+          List.of(Map.of("target", "x"), Map.of("target", "y")));
+
+      assertEquals(List.of("true", "false"), responses.stream().map(response -> response.get("equal")).toList());
+      assertEquals(1, requestCount.get());
+    }
+  }
+
+  @Test
+  void postBatch_wrongNumberOfResponses_throwsException() throws IOException {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 3, 60000)) {
+      assertThrows(IOException.class, () -> client.postBatch(baseUrl + "/check/batch", List.of(Map.of("target", "x"))));
+    }
+  }
+
+  @Test
+  void post_validatorRepeatedlyUnavailable_opensCircuitAndFailsFast() throws IOException {
+    String unavailableUrl;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      unavailableUrl = "http://localhost:" + socket.getLocalPort() + "/check";
+    }
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 2, 60000)) {
+      assertThrows(IOException.class, () -> client.post(unavailableUrl, Map.of("test", "x")));
+      assertFalse(client.isCircuitOpen());
+      assertThrows(IOException.class, () -> client.post(unavailableUrl, Map.of("test", "x")));
+
+      // Act & Assert
+      assertTrue(client.isCircuitOpen());
+      IOException e = assertThrows(IOException.class, () -> client.post(baseUrl + "/check", Map.of("test", "x")));
+      assertTrue(e.getMessage().contains("circuit breaker is open"));
+      assertEquals(0, requestCount.get());
+    }
+  }
+
+  @Test
+  void post_serverErrors_opensCircuit() throws IOException {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 2, 60000)) {
+      assertThrows(IOException.class, () -> client.post(baseUrl + "/error/server", Map.of("test", "x")));
+      assertThrows(IOException.class, () -> client.post(baseUrl + "/error/server", Map.of("test", "x")));
+
+      // Assert
+      assertTrue(client.isCircuitOpen());
+      assertEquals(2, requestCount.get());
+    }
+  }
+
+  @Test
+  void post_clientErrors_throwsExceptionWithoutOpeningCircuit() throws IOException {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(1000, 1000, 2, 2, 60000)) {
+      assertThrows(IOException.class, () -> client.post(baseUrl + "/error/client", Map.of("test", "x")));
+      assertThrows(IOException.class, () -> client.post(baseUrl + "/error/client", Map.of("test", "x")));
+
+      // Assert
+      assertFalse(client.isCircuitOpen());
+      assertEquals(Map.of("equal", "true", "request", Map.of("test", "x")),
+          client.post(baseUrl + "/check", Map.of("test", "x")));
+    }
+  }
+
+  @Test
+  void post_connectionPoolExhausted_throwsExceptionWithoutOpeningCircuit() throws Exception {
+    try (ExternalValidatorClient client = new ExternalValidatorClient(200, 5000, 1, 1, 60000)) {
+      CompletableFuture<Map<String, Object>> slowRequest = CompletableFuture.supplyAsync(() -> {
+        try {
+          return client.post(baseUrl + "/slow", Map.of("test", "x"));
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
+      // Wait for the slow request to take the only connection:
+      assertTrue(slowRequestReceived.await(5, TimeUnit.SECONDS));
+
+      // Act & Assert
+      assertThrows(ConnectionPoolTimeoutException.class, () -> client.post(baseUrl + "/check", Map.of("test", "x")));
+      assertFalse(client.isCircuitOpen());
+      releaseSlowRequests.countDown();
+      assertEquals(Map.of(), slowRequest.get(5, TimeUnit.SECONDS));
+    }
+  }
+}
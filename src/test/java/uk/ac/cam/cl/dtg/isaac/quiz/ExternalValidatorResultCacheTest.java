@@ -0,0 +1,96 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExternalValidatorResultCacheTest {
+  private static final String CHECK_URL = "http://localhost:5000/check";
+  private static final String BATCH_URL = "http://localhost:5000/check/batch";
+
+  private ExternalValidatorClient validatorClient;
+  private final AtomicReference<String> contentSha = new AtomicReference<>("sha1");
+  private ExternalValidatorResultCache resultCache;
+
+  @BeforeEach
+  public void setUp() {
+    validatorClient = createMock(ExternalValidatorClient.class);
+    resultCache = new ExternalValidatorResultCache(validatorClient, contentSha::get, 100, 60);
+  }
+
+  @Test
+  void post_sameCheckFromAnotherQuestion_isOnlySentOnce() throws IOException {
+    expect(validatorClient.post(eq(CHECK_URL), eq(check("x", "q1")))).andReturn(response("true")).once();
+    replay(validatorClient);
+
+    resultCache.post(CHECK_URL, check("x", "q1"));
+    HashMap<String, Object> response = resultCache.post(CHECK_URL, check("x", "q2"));
+
+    assertEquals("true", response.get("equal"));
+    verify(validatorClient);
+  }
+
+  @Test
+  void post_contentVersionChanged_isSentAgain() throws IOException {
+    expect(validatorClient.post(eq(CHECK_URL), eq(check("x", "q1")))).andReturn(response("true")).times(2);
+    replay(validatorClient);
+
+    resultCache.post(CHECK_URL, check("x", "q1"));
+    contentSha.set("sha2");
+    resultCache.post(CHECK_URL, check("x", "q1"));
+
+    verify(validatorClient);
+  }
+
+  @Test
+  void post_errorResponse_isNotCached() throws IOException {
+    HashMap<String, Object> errorResponse = new HashMap<>(Map.of("error", "Timeout"));
+    expect(validatorClient.post(eq(CHECK_URL), eq(check("x", "q1")))).andReturn(errorResponse).times(2);
+    replay(validatorClient);
+
+    resultCache.post(CHECK_URL, check("x", "q1"));
+    resultCache.post(CHECK_URL, check("x", "q1"));
+
+    verify(validatorClient);
+  }
+
+  @Test
+  void postBatch_someChecksCached_sendsOnlyUncachedChecks() throws IOException {
+    expect(validatorClient.post(eq(CHECK_URL), eq(check("x", "q1")))).andReturn(response("true"));
+    expect(validatorClient.postBatch(eq(BATCH_URL), eq(List.of(check("y", "q1")))))
+        .andReturn(List.of(response("false")));
+    expect(validatorClient.postBatch(eq(BATCH_URL), eq(List.of(check("z", "q1")))))
+        .andReturn(List.of(response("false")));
+    replay(validatorClient);
+
+    resultCache.post(CHECK_URL, check("x", "q1"));
+    resultCache.postBatch(CHECK_URL, BATCH_URL, List.of(check("x", "q1"), check("y", "q1")));
+
+    // Act
+    List<HashMap<String, Object>> responses = resultCache.postBatch(CHECK_URL, BATCH_URL,
+        List.of(check("x", "q1"), check("z", "q1"), check("y", "q1")));
+
+    // Assert
+    assertEquals(List.of("true", "false", "false"), responses.stream().map(response -> response.get("equal")).toList());
+    verify(validatorClient);
+  }
+
+  private static Map<String, String> check(final String target, final String questionId) {
+    return Map.of("target", target, "test", "x", "description", questionId);
+  }
+
+  private static HashMap<String, Object> response(final String equal) {
+    return new HashMap<>(Map.of("equal", equal));
+  }
+}
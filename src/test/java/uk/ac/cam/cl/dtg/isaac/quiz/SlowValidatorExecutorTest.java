@@ -0,0 +1,79 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SlowValidatorExecutorTest {
+
+  @Test
+  void submit_threadAvailable_marksOffCallingThread() throws Exception {
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    Thread callingThread = Thread.currentThread();
+
+    CompletableFuture<Thread> markingThread = executor.submit("TestValidator", Thread::currentThread);
+
+    assertTrue(executor.isEnabled());
+    assertNotEquals(callingThread, markingThread.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void submit_threadsAndQueueFull_rejectsImmediately() throws Exception {
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<String> running = executor.submit("TestValidator", () -> {
+      started.countDown();
+      awaitQuietly(release);
+      return "running";
+    });
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<String> queued = executor.submit("TestValidator", () -> "queued");
+
+    // Act & Assert
+    assertThrows(RejectedExecutionException.class, () -> executor.submit("TestValidator", () -> "rejected"));
+
+    release.countDown();
+    assertEquals("running", running.get(5, TimeUnit.SECONDS));
+    assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void close_answerBeingMarked_finishesItAndRefusesMore() throws Exception {
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<String> running = executor.submit("TestValidator", () -> {
+      started.countDown();
+      return "running";
+    });
+    started.await(5, TimeUnit.SECONDS);
+
+    // Act
+    executor.close();
+
+    // Assert
+    assertEquals("running", running.get(5, TimeUnit.SECONDS));
+    assertThrows(RejectedExecutionException.class, () -> executor.submit("TestValidator", () -> "refused"));
+  }
+
+  @Test
+  void isEnabled_noThreads_returnsFalse() {
+    assertFalse(new SlowValidatorExecutor(0, 10).isEnabled());
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
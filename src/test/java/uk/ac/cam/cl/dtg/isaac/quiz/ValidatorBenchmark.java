@@ -0,0 +1,128 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacFreeTextQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacRegexMatchQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacStringMatchQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Choice;
+import uk.ac.cam.cl.dtg.isaac.dos.content.FreeTextRule;
+import uk.ac.cam.cl.dtg.isaac.dos.content.RegexPattern;
+import uk.ac.cam.cl.dtg.isaac.dos.content.StringChoice;
+
+/**
+ * Throughput of marking an answer to each type of text question, when the answer matches none of the choices and so is
+ * compared with every one of them.
+ * <br>
+ * The {@code regexMatchCompilingPerAnswer} benchmark marks a regex question the way it was done before patterns were
+ * cached, compiling each choice's pattern for every answer, as a baseline for {@code regexMatch}.
+ * <br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.ac.cam.cl.dtg.isaac.quiz.ValidatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ValidatorBenchmark {
+  private static final String ANSWER = "The quick brown fox jumps over the lazy dog, again and again.";
+
+  @Param({"5", "20"})
+  private int choices;
+
+  private final IsaacRegexMatchValidator regexMatchValidator = new IsaacRegexMatchValidator();
+  private final IsaacStringMatchValidator stringMatchValidator = new IsaacStringMatchValidator();
+  private final IsaacFreeTextValidator freeTextValidator = new IsaacFreeTextValidator();
+
+  private IsaacRegexMatchQuestion regexMatchQuestion;
+  private IsaacStringMatchQuestion stringMatchQuestion;
+  private IsaacFreeTextQuestion freeTextQuestion;
+  private StringChoice answer;
+
+  @Setup
+  public void setUp() {
+    List<Choice> regexPatterns = new ArrayList<>();
+    List<Choice> stringChoices = new ArrayList<>();
+    List<Choice> freeTextRules = new ArrayList<>();
+    for (int i = 0; i < choices; i++) {
+      RegexPattern regexPattern = new RegexPattern();
+      regexPattern.setValue("pattern number " + i);
+      regexPattern.setCaseInsensitive(true);
+      regexPattern.setCorrect(i == 0);
+      regexPatterns.add(regexPattern);
+
+      StringChoice stringChoice = new StringChoice();
+      stringChoice.setValue("string number " + i);
+      stringChoice.setCorrect(i == 0);
+      stringChoices.add(stringChoice);
+
+      FreeTextRule freeTextRule = new FreeTextRule();
+      freeTextRule.setValue("rule number " + i);
+      freeTextRule.setCaseInsensitive(true);
+      freeTextRule.setCorrect(i == 0);
+      freeTextRules.add(freeTextRule);
+    }
+
+    regexMatchQuestion = new IsaacRegexMatchQuestion();
+    regexMatchQuestion.setChoices(regexPatterns);
+    stringMatchQuestion = new IsaacStringMatchQuestion();
+    stringMatchQuestion.setChoices(stringChoices);
+    freeTextQuestion = new IsaacFreeTextQuestion();
+    freeTextQuestion.setChoices(freeTextRules);
+
+    answer = new StringChoice();
+    answer.setValue(ANSWER);
+  }
+
+  @Benchmark
+  public QuestionValidationResponse regexMatch() {
+    return regexMatchValidator.validateQuestionResponse(regexMatchQuestion, answer);
+  }
+
+  @Benchmark
+  public boolean regexMatchCompilingPerAnswer() {
+    boolean matched = false;
+    for (Choice choice : regexMatchQuestion.getChoices()) {
+      RegexPattern regexPattern = (RegexPattern) choice;
+      Pattern answerPattern = Pattern.compile(Pattern.quote(regexPattern.getValue()),
+          regexPattern.isCaseInsensitive() ? Pattern.CASE_INSENSITIVE : 0);
+      matched |= answerPattern.matcher(answer.getValue()).find();
+    }
+    return matched;
+  }
+
+  @Benchmark
+  public QuestionValidationResponse stringMatch() {
+    return stringMatchValidator.validateQuestionResponse(stringMatchQuestion, answer);
+  }
+
+  @Benchmark
+  public QuestionValidationResponse freeText() {
+    return freeTextValidator.validateQuestionResponse(freeTextQuestion, answer);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ValidatorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,101 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacQuickQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacStringMatchQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.QuestionValidationResponse;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Question;
+import uk.ac.cam.cl.dtg.isaac.dos.content.StringChoice;
+
+/**
+ * Throughput of the answer path up to and including marking: finding the validator for a question and validating an
+ * answer with it.
+ * <br>
+ * The {@code reflective} benchmarks find the validator as was done before the registry, by searching the question's
+ * superclasses for its annotation and asking the injector for a new validator on every answer.
+ * <br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ValidatorRegistryBenchmark {
+  private Injector injector;
+  private ValidatorRegistry validatorRegistry;
+  private IsaacStringMatchQuestion stringMatchQuestion;
+  private StringChoice answer;
+
+  @Setup
+  public void setUp() {
+    injector = Guice.createInjector();
+    validatorRegistry = new ValidatorRegistry(List.of(IsaacQuickQuestion.class, IsaacStringMatchQuestion.class),
+        injector::getInstance);
+
+    StringChoice choice = new StringChoice();
+    choice.setValue("answer");
+    choice.setCorrect(true);
+    stringMatchQuestion = new IsaacStringMatchQuestion();
+    stringMatchQuestion.setChoices(List.of(choice));
+
+    answer = new StringChoice();
+    answer.setValue("answer");
+  }
+
+  @Benchmark
+  public IValidator locateValidatorRegistry() {
+    return validatorRegistry.getValidator(IsaacQuickQuestion.class);
+  }
+
+  @Benchmark
+  public IValidator locateValidatorReflective() {
+    return locateValidatorReflectively(IsaacQuickQuestion.class);
+  }
+
+  @Benchmark
+  public QuestionValidationResponse validateAnswerRegistry() throws ValidatorUnavailableException {
+    return validatorRegistry.getValidator(stringMatchQuestion.getClass())
+        .validateQuestionResponse(stringMatchQuestion, answer);
+  }
+
+  @Benchmark
+  public QuestionValidationResponse validateAnswerReflective() throws ValidatorUnavailableException {
+    return locateValidatorReflectively(stringMatchQuestion.getClass())
+        .validateQuestionResponse(stringMatchQuestion, answer);
+  }
+
+  private IValidator locateValidatorReflectively(final Class<?> questionType) {
+    if (!Question.class.isAssignableFrom(questionType)) {
+      return null;
+    }
+    if (questionType.isAnnotationPresent(ValidatesWith.class)) {
+      return injector.getInstance(questionType.getAnnotation(ValidatesWith.class).value());
+    }
+    return locateValidatorReflectively(questionType.getSuperclass());
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ValidatorRegistryBenchmark.class.getSimpleName()).build()).run();
+  }
+}
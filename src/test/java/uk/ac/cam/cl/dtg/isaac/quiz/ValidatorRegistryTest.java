@@ -0,0 +1,73 @@
+package uk.ac.cam.cl.dtg.isaac.quiz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacNumericQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacQuickQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacStringMatchQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.content.ChoiceQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Question;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ChoiceDTO;
+
+class ValidatorRegistryTest {
+  private final AtomicInteger instancesCreated = new AtomicInteger();
+  private ValidatorRegistry validatorRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    validatorRegistry = new ValidatorRegistry(List.of(IsaacStringMatchQuestion.class, IsaacQuickQuestion.class,
+        ChoiceQuestion.class, Question.class, ChoiceDTO.class), type -> {
+      instancesCreated.incrementAndGet();
+      try {
+        return type.getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  @Test
+  void constructor_annotatedClasses_createsEachValidatorOnce() {
+    // Assert
+    assertEquals(2, instancesCreated.get());
+  }
+
+  @Test
+  void getValidator_annotatedQuestion_returnsSameValidatorEachTime() {
+    // Act
+    IValidator validator = validatorRegistry.getValidator(IsaacStringMatchQuestion.class);
+
+    // Assert
+    assertInstanceOf(IsaacStringMatchValidator.class, validator);
+    assertSame(validator, validatorRegistry.getValidator(IsaacStringMatchQuestion.class));
+    assertEquals(2, instancesCreated.get());
+  }
+
+  @Test
+  void getValidator_questionInheritingAnnotation_sharesSuperclassValidator() {
+    // Act
+    IValidator validator = validatorRegistry.getValidator(IsaacQuickQuestion.class);
+
+    // Assert
+    assertInstanceOf(ChoiceQuestionValidator.class, validator);
+    assertSame(validator, validatorRegistry.getValidator(ChoiceQuestion.class));
+  }
+
+  @Test
+  void getValidatorAndSpecifier_noAnnotation_returnsNull() {
+    assertNull(validatorRegistry.getValidator(Question.class));
+    assertNull(validatorRegistry.getSpecifier(ChoiceDTO.class));
+  }
+
+  @Test
+  void getValidator_unregisteredQuestion_returnsNull() {
+    assertNull(validatorRegistry.getValidator(IsaacNumericQuestion.class));
+  }
+}
@@ -0,0 +1,273 @@
+package uk.ac.cam.cl.dtg.segue.api;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.isNull;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.partialMockBuilder;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.resetToDefault;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.ac.cam.cl.dtg.util.ServletTestUtils.replayMockServletRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.easymock.Capture;
+import org.elasticsearch.action.get.GetResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.api.managers.GameManager;
+import uk.ac.cam.cl.dtg.isaac.dos.AbstractUserPreferenceManager;
+import uk.ac.cam.cl.dtg.isaac.dos.IUserStreaksManager;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacStringMatchQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dos.content.StringChoice;
+import uk.ac.cam.cl.dtg.isaac.dto.ResultsWrapper;
+import uk.ac.cam.cl.dtg.isaac.dto.content.StringChoiceDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.users.AnonymousUserDTO;
+import uk.ac.cam.cl.dtg.isaac.mappers.ContentMapper;
+import uk.ac.cam.cl.dtg.isaac.mappers.MainObjectMapper;
+import uk.ac.cam.cl.dtg.isaac.quiz.IQuestionAttemptManager;
+import uk.ac.cam.cl.dtg.isaac.quiz.IValidator;
+import uk.ac.cam.cl.dtg.isaac.quiz.IsaacStringMatchValidator;
+import uk.ac.cam.cl.dtg.isaac.quiz.SlowValidatorExecutor;
+import uk.ac.cam.cl.dtg.isaac.quiz.ValidatorRegistry;
+import uk.ac.cam.cl.dtg.segue.api.managers.QuestionManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserAccountManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserAssociationManager;
+import uk.ac.cam.cl.dtg.segue.api.managers.UserBadgeManager;
+import uk.ac.cam.cl.dtg.segue.api.monitors.AnonQuestionAttemptMisuseHandler;
+import uk.ac.cam.cl.dtg.segue.api.monitors.IMisuseMonitor;
+import uk.ac.cam.cl.dtg.segue.dao.ILogManager;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
+import uk.ac.cam.cl.dtg.segue.database.GitDb;
+import uk.ac.cam.cl.dtg.segue.search.ISearchProvider;
+import uk.ac.cam.cl.dtg.util.PropertiesLoader;
+
+class QuestionFacadeTest {
+  private static final String QUESTION_ID = "page|question";
+  private static final String ANSWER = "{\"type\": \"choice\", \"value\": \"answer\"}";
+  private static final String SESSION_ID = "sessionId";
+
+  private GitContentManager contentManager;
+  private UserAccountManager userManager;
+  private QuestionManager questionManager;
+  private ILogManager logManager;
+  private IMisuseMonitor misuseMonitor;
+  private HttpServletRequest mockRequest;
+  private IsaacStringMatchQuestion question;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    userManager = createMock(UserAccountManager.class);
+    // Answers are marked by the real manager, which cannot be mocked, with a validator from the registry:
+    questionManager = partialMockBuilder(QuestionManager.class)
+        .withConstructor(ContentMapperUtils.class, MainObjectMapper.class, IQuestionAttemptManager.class,
+            AbstractUserPreferenceManager.class, ValidatorRegistry.class)
+        .withArgs(createMock(ContentMapperUtils.class), MainObjectMapper.INSTANCE,
+            createMock(IQuestionAttemptManager.class), createMock(AbstractUserPreferenceManager.class),
+            new ValidatorRegistry(List.of(IsaacStringMatchQuestion.class), type -> new IsaacStringMatchValidator()))
+        .addMockedMethods("getSlowValidator", "convertJsonAnswerToChoice")
+        .createMock();
+    logManager = createNiceMock(ILogManager.class);
+    misuseMonitor = createMock(IMisuseMonitor.class);
+    mockRequest = replayMockServletRequest();
+
+    StringChoice correctChoice = new StringChoice();
+    correctChoice.setValue("answer");
+    correctChoice.setCorrect(true);
+    question = new IsaacStringMatchQuestion();
+    question.setChoices(List.of(correctChoice));
+    question.setId(QUESTION_ID);
+    contentManager = createContentManager(Map.of(QUESTION_ID, question, "page", new Content()));
+    expect(userManager.getCurrentUser(mockRequest)).andReturn(new AnonymousUserDTO(SESSION_ID)).once();
+    StringChoiceDTO answer = new StringChoiceDTO();
+    answer.setValue("answer");
+    expect(questionManager.convertJsonAnswerToChoice(ANSWER)).andReturn(answer).anyTimes();
+    replay(userManager, logManager);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    contentManager.close();
+  }
+
+  @Test
+  void answerQuestion_slowValidator_marksWithoutUsingRequestOffRequestThread() throws Exception {
+    expect(questionManager.getSlowValidator(question)).andReturn(createMock(IValidator.class));
+    misuseMonitor.notifyEvent(anyString(), anyString());
+    expectLastCall().anyTimes();
+    expect(misuseMonitor.hasMisused(anyString(), anyString())).andReturn(false).anyTimes();
+    replay(questionManager, misuseMonitor);
+
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit("TestValidator", () -> awaitQuietly(release));
+    CompletableFuture<Object> resumedWith = new CompletableFuture<>();
+    CompletableFuture<String> resumedOnThread = new CompletableFuture<>();
+
+    // Act
+    createQuestionFacade(executor).answerQuestion(mockRequest, QUESTION_ID, ANSWER,
+        createAsyncResponse(resumedWith, resumedOnThread));
+    // The servlet request may be recycled once the request thread is released, so must not be used again:
+    resetToDefault(mockRequest);
+    replay(mockRequest);
+    release.countDown();
+
+    // Assert
+    Response response = assertInstanceOf(Response.class, resumedWith.get(5, TimeUnit.SECONDS));
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    assertTrue(resumedOnThread.get().startsWith("slow-validator-"));
+    verify(userManager, mockRequest);
+  }
+
+  @Test
+  void answerQuestion_slowValidatorQueueFull_returnsServiceUnavailable() throws Exception {
+    expect(questionManager.getSlowValidator(question)).andReturn(createMock(IValidator.class));
+    expect(misuseMonitor.hasMisused(anyString(), anyString())).andReturn(false).anyTimes();
+    replay(questionManager, misuseMonitor);
+
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit("TestValidator", () -> awaitQuietly(release));
+    executor.submit("TestValidator", () -> awaitQuietly(release));
+    CompletableFuture<Object> resumedWith = new CompletableFuture<>();
+
+    // Act
+    createQuestionFacade(executor).answerQuestion(mockRequest, QUESTION_ID, ANSWER,
+        createAsyncResponse(resumedWith, new CompletableFuture<>()));
+    release.countDown();
+
+    // Assert
+    Response response = assertInstanceOf(Response.class, resumedWith.getNow(null));
+    assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+    verify(misuseMonitor);
+  }
+
+  @Test
+  void answerQuestion_slowValidatorTimesOut_returnsServiceUnavailable() throws Exception {
+    expect(questionManager.getSlowValidator(question)).andReturn(createMock(IValidator.class));
+    expect(misuseMonitor.hasMisused(anyString(), anyString())).andReturn(false).anyTimes();
+    replay(questionManager, misuseMonitor);
+
+    SlowValidatorExecutor executor = new SlowValidatorExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit("TestValidator", () -> awaitQuietly(release));
+    CompletableFuture<Object> resumedWith = new CompletableFuture<>();
+    AsyncResponse asyncResponse = createMock(AsyncResponse.class);
+    Capture<TimeoutHandler> timeoutHandler = newCapture();
+    asyncResponse.setTimeoutHandler(capture(timeoutHandler));
+    expect(asyncResponse.setTimeout(Constants.SLOW_VALIDATOR_ANSWER_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        .andReturn(true);
+    expect(asyncResponse.resume((Object) anyObject())).andAnswer(() -> resumedWith.complete(getCurrentArguments()[0]))
+        .anyTimes();
+    replay(asyncResponse);
+
+    // Act
+    createQuestionFacade(executor).answerQuestion(mockRequest, QUESTION_ID, ANSWER, asyncResponse);
+    timeoutHandler.getValue().handleTimeout(asyncResponse);
+    release.countDown();
+
+    // Assert
+    Response response = assertInstanceOf(Response.class, resumedWith.getNow(null));
+    assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+    verify(asyncResponse);
+    executor.close();
+  }
+
+  @Test
+  void answerQuestion_alreadyMisused_returnsTooManyRequestsWithoutMarking() throws Exception {
+    expect(misuseMonitor.hasMisused(eq(SESSION_ID + "|" + QUESTION_ID),
+        eq(AnonQuestionAttemptMisuseHandler.class.getSimpleName()))).andReturn(true);
+    replay(questionManager, misuseMonitor);
+    CompletableFuture<Object> resumedWith = new CompletableFuture<>();
+
+    // Act
+    createQuestionFacade(new SlowValidatorExecutor(1, 1)).answerQuestion(mockRequest, QUESTION_ID, ANSWER,
+        createAsyncResponse(resumedWith, new CompletableFuture<>()));
+
+    // Assert
+    Response response = assertInstanceOf(Response.class, resumedWith.getNow(null));
+    assertEquals(429, response.getStatus());
+    verify(questionManager, misuseMonitor);
+  }
+
+  private QuestionFacade createQuestionFacade(final SlowValidatorExecutor executor) {
+    return new QuestionFacade(createMock(PropertiesLoader.class), createMock(ContentMapperUtils.class),
+        contentManager, createMock(GameManager.class), "", userManager, questionManager, logManager, misuseMonitor,
+        createMock(UserBadgeManager.class), createMock(IUserStreaksManager.class),
+        createMock(UserAssociationManager.class), executor);
+  }
+
+  /**
+   * Create a content manager which finds the given content by id. Content lookups by id cannot be mocked directly, so
+   * the search provider behind them is mocked instead.
+   */
+  private static GitContentManager createContentManager(final Map<String, Content> contentById) throws Exception {
+    PropertiesLoader properties = createNiceMock(PropertiesLoader.class);
+    expect(properties.getProperty(Constants.CONTENT_INDEX)).andReturn("content").anyTimes();
+    GetResponse shaResponse = createNiceMock(GetResponse.class);
+    expect(shaResponse.getSource()).andReturn(Map.of("version", "abc123")).anyTimes();
+    ISearchProvider searchProvider = createNiceMock(ISearchProvider.class);
+    expect(searchProvider.getById(eq("content"), anyString(), eq("general"))).andReturn(shaResponse).anyTimes();
+    expect(searchProvider.termSearch(anyObject(), anyString(), anyString(), isNull())).andAnswer(() -> {
+      String id = (String) getCurrentArguments()[1];
+      return contentById.containsKey(id) ? new ResultsWrapper<>(List.of(id), 1L) : new ResultsWrapper<>();
+    }).anyTimes();
+    ContentMapperUtils contentMapperUtils = createNiceMock(ContentMapperUtils.class);
+    expect(contentMapperUtils.mapFromStringListToContentList(anyObject())).andAnswer(() -> {
+      @SuppressWarnings("unchecked")
+      List<String> ids = (List<String>) getCurrentArguments()[0];
+      return ids.stream().map(contentById::get).toList();
+    }).anyTimes();
+    replay(properties, shaResponse, searchProvider, contentMapperUtils);
+    return new GitContentManager(createMock(GitDb.class), searchProvider, contentMapperUtils,
+        createMock(ContentMapper.class), properties);
+  }
+
+  /**
+   * Create an async response which completes futures with what it is resumed with and the thread it is resumed on.
+   */
+  private static AsyncResponse createAsyncResponse(final CompletableFuture<Object> resumedWith,
+                                                   final CompletableFuture<String> resumedOnThread) {
+    AsyncResponse asyncResponse = createNiceMock(AsyncResponse.class);
+    expect(asyncResponse.resume((Object) anyObject())).andAnswer(() -> {
+      resumedOnThread.complete(Thread.currentThread().getName());
+      return resumedWith.complete(getCurrentArguments()[0]);
+    }).anyTimes();
+    expect(asyncResponse.resume(anyObject(Throwable.class))).andAnswer(() -> {
+      resumedOnThread.complete(Thread.currentThread().getName());
+      return resumedWith.complete(getCurrentArguments()[0]);
+    }).anyTimes();
+    replay(asyncResponse);
+    return asyncResponse;
+  }
+
+  private static Object awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+}
@@ -12,6 +12,8 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.DATE_EXPIRES;
 import static uk.ac.cam.cl.dtg.segue.api.Constants.DEFAULT_DATE_FORMAT;
@@ -188,4 +190,68 @@ class UserAuthenticationManagerTest {
     assertEquals("", logoutResponseCookie.getValue().getValue());
     verify(dummyDatabase);
   }
+
+  @Test
+  void getUserFromSession_repeatedRequests_readsUserFromDatabaseOnce()
+      throws JsonProcessingException, SegueDatabaseException {
+    RegisteredUser user = new RegisteredUser();
+    user.setId(1L);
+    expect(dummyDatabase.getSessionToken(1L)).andReturn(1).once();
+    expect(dummyDatabase.getById(1L)).andReturn(user).once();
+    replay(dummyDatabase);
+
+    HttpServletRequest request = createRequestWithSession(1L, 1);
+    assertNotNull(userAuthenticationManager.getUserFromSession(request, false));
+    RegisteredUser cachedUser = userAuthenticationManager.getUserFromSession(request, false);
+
+    assertNotNull(cachedUser);
+    assertEquals(1L, cachedUser.getId());
+    verify(dummyDatabase);
+  }
+
+  @Test
+  void getUserFromSession_cachedUserWithDifferentSessionToken_returnsNull()
+      throws JsonProcessingException, SegueDatabaseException {
+    RegisteredUser user = new RegisteredUser();
+    user.setId(1L);
+    expect(dummyDatabase.getSessionToken(1L)).andReturn(2).once();
+    expect(dummyDatabase.getById(1L)).andReturn(user).once();
+    replay(dummyDatabase);
+
+    assertNotNull(userAuthenticationManager.getUserFromSession(createRequestWithSession(1L, 2), false));
+    assertNull(userAuthenticationManager.getUserFromSession(createRequestWithSession(1L, 1), false));
+    verify(dummyDatabase);
+  }
+
+  @Test
+  void getUserFromSession_afterInvalidateCachedUser_readsUserFromDatabaseAgain()
+      throws JsonProcessingException, SegueDatabaseException {
+    RegisteredUser user = new RegisteredUser();
+    user.setId(1L);
+    expect(dummyDatabase.getSessionToken(1L)).andReturn(1).times(2);
+    expect(dummyDatabase.getById(1L)).andReturn(user).times(2);
+    replay(dummyDatabase);
+
+    HttpServletRequest request = createRequestWithSession(1L, 1);
+    assertNotNull(userAuthenticationManager.getUserFromSession(request, false));
+    userAuthenticationManager.invalidateCachedUser(1L);
+    assertNotNull(userAuthenticationManager.getUserFromSession(request, false));
+    verify(dummyDatabase);
+  }
+
+  private HttpServletRequest createRequestWithSession(final Long userId, final Integer sessionToken)
+      throws JsonProcessingException {
+    Map<String, String> sessionInformation = new HashMap<>(Map.of(
+        SESSION_USER_ID, userId.toString(),
+        SESSION_TOKEN, sessionToken.toString(),
+        DATE_EXPIRES, DEFAULT_DATE_FORMATTER.format(Instant.now().plus(3600, SECONDS))
+    ));
+    sessionInformation.put(HMAC, userAuthenticationManager.calculateUpdatedHMAC(sessionInformation));
+    Cookie authCookie = userAuthenticationManager.createAuthCookie(sessionInformation, 3600);
+
+    HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+    expect(request.getCookies()).andReturn(new Cookie[] {authCookie}).anyTimes();
+    replay(request);
+    return request;
+  }
 }
@@ -0,0 +1,117 @@
+package uk.ac.cam.cl.dtg.segue.api.monitors;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
+
+class LockFreeMisuseMonitorTest {
+  private static final String AGENT = "1234";
+  private static final String EVENT = UserSearchMisuseHandler.class.getSimpleName();
+
+  @Test
+  void notifyEvent_thresholdsReached_actionsExecutedOnceAndExceptionThrown() {
+    IMisuseMonitor misuseMonitor = new LockFreeMisuseMonitor();
+    UserSearchMisuseHandler mockHandler = createMock(UserSearchMisuseHandler.class);
+    expect(mockHandler.getAccountingIntervalInSeconds()).andReturn(UserSearchMisuseHandler.ACCOUNTING_INTERVAL)
+        .anyTimes();
+    expect(mockHandler.getSoftThreshold()).andReturn(UserSearchMisuseHandler.SOFT_THRESHOLD).anyTimes();
+    expect(mockHandler.getHardThreshold()).andReturn(UserSearchMisuseHandler.HARD_THRESHOLD).anyTimes();
+    mockHandler.executeSoftThresholdAction(String.format("(%s) has exceeded the soft limit!", AGENT));
+    expectLastCall().once();
+    mockHandler.executeHardThresholdAction(String.format("(%s) has exceeded the hard limit!", AGENT));
+    expectLastCall().once();
+    replay(mockHandler);
+
+    misuseMonitor.registerHandler(EVENT, mockHandler);
+
+    for (int i = 0; i < UserSearchMisuseHandler.HARD_THRESHOLD; i++) {
+      assertDoesNotThrow(() -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    }
+    assertThrows(SegueResourceMisuseException.class, () -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    assertThrows(SegueResourceMisuseException.class, () -> misuseMonitor.notifyEvent(AGENT, EVENT));
+
+    verify(mockHandler);
+  }
+
+  @Test
+  void willHaveMisused_matchesHardThreshold() throws SegueResourceMisuseException {
+    IMisuseMonitor misuseMonitor = new LockFreeMisuseMonitor();
+    misuseMonitor.registerHandler(EVENT, new UserSearchMisuseHandler());
+
+    for (int i = 0; i < UserSearchMisuseHandler.SOFT_THRESHOLD; i++) {
+      misuseMonitor.notifyEvent(AGENT, EVENT);
+    }
+    int remaining = UserSearchMisuseHandler.HARD_THRESHOLD - UserSearchMisuseHandler.SOFT_THRESHOLD;
+    assertFalse(misuseMonitor.willHaveMisused(AGENT, EVENT, remaining - 1));
+    assertTrue(misuseMonitor.willHaveMisused(AGENT, EVENT, remaining));
+    assertFalse(misuseMonitor.hasMisused(AGENT, EVENT));
+
+    misuseMonitor.resetMisuseCount(AGENT, EVENT);
+    assertFalse(misuseMonitor.willHaveMisused(AGENT, EVENT, remaining));
+  }
+
+  @Test
+  void notifyEvent_oldBucketsLeaveSlidingWindow() throws SegueResourceMisuseException {
+    AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+    LockFreeMisuseMonitor misuseMonitor = new LockFreeMisuseMonitor(clock::get);
+    misuseMonitor.registerHandler(EVENT, new UserSearchMisuseHandler());
+    long intervalMillis = TimeUnit.SECONDS.toMillis(UserSearchMisuseHandler.ACCOUNTING_INTERVAL);
+
+    misuseMonitor.notifyEvent(AGENT, EVENT, UserSearchMisuseHandler.HARD_THRESHOLD - 1);
+    clock.addAndGet(intervalMillis / 2);
+    misuseMonitor.notifyEvent(AGENT, EVENT);
+    assertTrue(misuseMonitor.hasMisused(AGENT, EVENT));
+
+    // Only the first batch of events has left the window:
+    clock.addAndGet(intervalMillis / 2 + 1);
+    assertFalse(misuseMonitor.hasMisused(AGENT, EVENT));
+    assertEquals(1, misuseMonitor.getMisuseStatistics(1).get(EVENT).get(0).getCurrentCounter());
+  }
+
+  @Test
+  void notifyEvent_concurrentEvents_noneLost() throws Exception {
+    LockFreeMisuseMonitor misuseMonitor = new LockFreeMisuseMonitor();
+    misuseMonitor.registerHandler(EVENT, new UserSearchMisuseHandler());
+    int threads = 8;
+    int eventsPerThread = UserSearchMisuseHandler.HARD_THRESHOLD / threads;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        tasks.add(() -> {
+          for (int i = 0; i < eventsPerThread; i++) {
+            misuseMonitor.notifyEvent(AGENT, EVENT);
+          }
+          return null;
+        });
+      }
+      for (Future<Void> result : executor.invokeAll(tasks)) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(threads * eventsPerThread,
+        misuseMonitor.getMisuseStatistics(1).get(EVENT).get(0).getCurrentCounter());
+  }
+}
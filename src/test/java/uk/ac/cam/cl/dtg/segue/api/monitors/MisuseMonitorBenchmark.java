@@ -0,0 +1,91 @@
+package uk.ac.cam.cl.dtg.segue.api.monitors;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
+
+/**
+ * Contended throughput of the misuse monitors, as seen when many request threads record question attempts at once.
+ * <br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.ac.cam.cl.dtg.segue.api.monitors.MisuseMonitorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class MisuseMonitorBenchmark {
+  private static final String EVENT = "BenchmarkMisuseHandler";
+
+  @Param({"InMemoryMisuseMonitor", "LockFreeMisuseMonitor"})
+  private String implementation;
+
+  // Number of distinct agents; a small number means threads contend on the same counters.
+  @Param({"1", "1000"})
+  private int agents;
+
+  private IMisuseMonitor misuseMonitor;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    misuseMonitor = "LockFreeMisuseMonitor".equals(implementation)
+        ? new LockFreeMisuseMonitor() : new InMemoryMisuseMonitor();
+    misuseMonitor.registerHandler(EVENT, new IMisuseHandler() {
+      @Override
+      public Integer getSoftThreshold() {
+        return Integer.MAX_VALUE - 1;
+      }
+
+      @Override
+      public Integer getHardThreshold() {
+        return Integer.MAX_VALUE;
+      }
+
+      @Override
+      public Integer getAccountingIntervalInSeconds() {
+        return 3600;
+      }
+
+      @Override
+      public void executeSoftThresholdAction(final String message) {
+      }
+
+      @Override
+      public void executeHardThresholdAction(final String message) {
+      }
+    });
+  }
+
+  @Benchmark
+  public void notifyEvent() throws SegueResourceMisuseException {
+    misuseMonitor.notifyEvent(String.valueOf(ThreadLocalRandom.current().nextInt(agents)), EVENT);
+  }
+
+  @Benchmark
+  public boolean hasMisused() {
+    return misuseMonitor.hasMisused(String.valueOf(ThreadLocalRandom.current().nextInt(agents)), EVENT);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MisuseMonitorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,219 @@
+package uk.ac.cam.cl.dtg.segue.api.monitors;
+
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.contains;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.resetToDefault;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.segue.api.managers.SegueResourceMisuseException;
+import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
+
+class PgMisuseMonitorTest {
+  private static final String AGENT = "127.0.0.1";
+  private static final String EVENT = "TestMisuseHandler";
+  private static final int SOFT_THRESHOLD = 5;
+  private static final int HARD_THRESHOLD = 10;
+
+  private PostgresSqlDb mockDatabase;
+  private PgMisuseMonitor misuseMonitor;
+  private int hardThresholdActions;
+
+  @BeforeEach
+  void setUp() {
+    mockDatabase = createMock(PostgresSqlDb.class);
+    misuseMonitor = new PgMisuseMonitor(mockDatabase, () -> TimeUnit.DAYS.toMillis(1));
+    misuseMonitor.registerHandler(EVENT, new IMisuseHandler() {
+      @Override
+      public Integer getSoftThreshold() {
+        return SOFT_THRESHOLD;
+      }
+
+      @Override
+      public Integer getHardThreshold() {
+        return HARD_THRESHOLD;
+      }
+
+      @Override
+      public Integer getAccountingIntervalInSeconds() {
+        return 3600;
+      }
+
+      @Override
+      public void executeSoftThresholdAction(final String message) {
+      }
+
+      @Override
+      public void executeHardThresholdAction(final String message) {
+        hardThresholdActions++;
+      }
+    });
+  }
+
+  @Test
+  void notifyEvent_farFromHardThreshold_doesNotUseDatabase() {
+    replay(mockDatabase);
+
+    // Reaching the soft threshold claims its action in the database, so stay below that too:
+    int eventsBeforeSync = Math.min(SOFT_THRESHOLD,
+        (int) Math.ceil(HARD_THRESHOLD * PgMisuseMonitor.SYNC_THRESHOLD_FRACTION)) - 1;
+    for (int i = 0; i < eventsBeforeSync; i++) {
+      assertDoesNotThrow(() -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    }
+    assertFalse(misuseMonitor.hasMisused(AGENT, EVENT));
+
+    verify(mockDatabase);
+  }
+
+  @Test
+  void notifyEvent_nearHardThreshold_usesSharedTotalFromOtherNodes() throws SQLException {
+    int eventsBeforeSync = (int) Math.ceil(HARD_THRESHOLD * PgMisuseMonitor.SYNC_THRESHOLD_FRACTION) - 1;
+    int eventsOnOtherNodes = HARD_THRESHOLD - eventsBeforeSync;
+
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    ResultSet mockResultSet = createNiceMock(ResultSet.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).anyTimes();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).anyTimes();
+    expect(mockPreparedStatement.executeQuery()).andReturn(mockResultSet).anyTimes();
+    expect(mockResultSet.next()).andReturn(true).anyTimes();
+    // The shared total includes this node's flushed events as well as those from other nodes:
+    expect(mockResultSet.getInt("total")).andReturn(eventsBeforeSync + 1 + eventsOnOtherNodes).anyTimes();
+    replay(mockDatabase, mockConnection, mockPreparedStatement, mockResultSet);
+
+    for (int i = 0; i < eventsBeforeSync; i++) {
+      assertDoesNotThrow(() -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    }
+    assertThrows(SegueResourceMisuseException.class, () -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    assertTrue(misuseMonitor.hasMisused(AGENT, EVENT));
+
+    verify(mockDatabase);
+  }
+
+  @Test
+  void notifyEvent_databaseUnavailable_fallsBackToLocalCount() throws SQLException {
+    expect(mockDatabase.getDatabaseConnection()).andThrow(new SQLException("Connection failed")).anyTimes();
+    replay(mockDatabase);
+
+    for (int i = 0; i < HARD_THRESHOLD; i++) {
+      assertDoesNotThrow(() -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    }
+    assertThrows(SegueResourceMisuseException.class, () -> misuseMonitor.notifyEvent(AGENT, EVENT));
+  }
+
+  @Test
+  void notifyEvent_pastHardThreshold_doesNotUseDatabase() throws SQLException {
+    expect(mockDatabase.getDatabaseConnection()).andThrow(new SQLException("Connection failed")).anyTimes();
+    replay(mockDatabase);
+    for (int i = 0; i < HARD_THRESHOLD; i++) {
+      assertDoesNotThrow(() -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    }
+    resetToDefault(mockDatabase);
+    replay(mockDatabase);
+
+    // Act & Assert
+    assertThrows(SegueResourceMisuseException.class, () -> misuseMonitor.notifyEvent(AGENT, EVENT));
+    assertTrue(misuseMonitor.willHaveMisused(AGENT, EVENT, 1));
+
+    verify(mockDatabase);
+  }
+
+  @Test
+  void notifyEvent_databaseUnavailable_executesThresholdActionOnce() throws SQLException {
+    expect(mockDatabase.getDatabaseConnection()).andThrow(new SQLException("Connection failed")).anyTimes();
+    replay(mockDatabase);
+
+    for (int i = 0; i < HARD_THRESHOLD + 2; i++) {
+      try {
+        misuseMonitor.notifyEvent(AGENT, EVENT);
+      } catch (SegueResourceMisuseException e) {
+        // Expected once the hard threshold is reached.
+      }
+    }
+
+    assertEquals(1, hardThresholdActions);
+  }
+
+  @Test
+  void notifyEvent_thresholdActionClaimedByOtherNode_doesNotExecuteAction() throws SQLException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    ResultSet mockResultSet = createNiceMock(ResultSet.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).anyTimes();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).anyTimes();
+    expect(mockPreparedStatement.executeQuery()).andReturn(mockResultSet).anyTimes();
+    // Another node has already claimed the action for this window:
+    expect(mockPreparedStatement.executeUpdate()).andReturn(0).anyTimes();
+    expect(mockResultSet.next()).andReturn(true).anyTimes();
+    expect(mockResultSet.getInt("total")).andReturn(HARD_THRESHOLD).anyTimes();
+    replay(mockDatabase, mockConnection, mockPreparedStatement, mockResultSet);
+
+    for (int i = 0; i < HARD_THRESHOLD; i++) {
+      try {
+        misuseMonitor.notifyEvent(AGENT, EVENT);
+      } catch (SegueResourceMisuseException e) {
+        // Expected once the shared total reaches the hard threshold.
+      }
+    }
+
+    assertTrue(misuseMonitor.hasMisused(AGENT, EVENT));
+    assertEquals(0, hardThresholdActions);
+  }
+
+  @Test
+  void close_unflushedEvents_writesThemToDatabase() throws SQLException, SegueResourceMisuseException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    ResultSet mockResultSet = createNiceMock(ResultSet.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(contains("INSERT INTO misuse_counters")))
+        .andReturn(mockPreparedStatement).once();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).anyTimes();
+    expect(mockPreparedStatement.executeQuery()).andReturn(mockResultSet).anyTimes();
+    expect(mockPreparedStatement.executeBatch()).andReturn(new int[] {1}).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement, mockResultSet);
+    misuseMonitor.notifyEvent(AGENT, EVENT);
+
+    // Act
+    misuseMonitor.close();
+
+    // Assert
+    verify(mockDatabase, mockConnection, mockPreparedStatement);
+  }
+
+  @Test
+  void resetMisuseCount_sharedCount_deletesCountAndClaimedActionsFromDatabase()
+      throws SQLException, SegueResourceMisuseException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(contains("DELETE FROM misuse_counters")))
+        .andReturn(mockPreparedStatement).once();
+    expect(mockConnection.prepareStatement(contains("DELETE FROM misuse_threshold_actions")))
+        .andReturn(mockPreparedStatement).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement);
+    misuseMonitor.notifyEvent(AGENT, EVENT);
+
+    // Act
+    misuseMonitor.resetMisuseCount(AGENT, EVENT);
+
+    // Assert
+    assertFalse(misuseMonitor.hasMisused(AGENT, EVENT));
+    verify(mockDatabase, mockConnection);
+  }
+}
@@ -0,0 +1,152 @@
+package uk.ac.cam.cl.dtg.segue.dao;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.segue.database.PostgresSqlDb;
+
+class AsyncLogEventWriterTest {
+  // Long enough that the background flush never runs during a test:
+  private static final long FLUSH_INTERVAL_MILLIS = 600000;
+
+  private PostgresSqlDb mockDatabase;
+  private AsyncLogEventWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    mockDatabase = createMock(PostgresSqlDb.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  @Test
+  void flush_writesQueuedEventsInOneMultiRowInsert() throws SQLException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    Capture<String> query = EasyMock.newCapture();
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(capture(query))).andReturn(mockPreparedStatement).once();
+    mockPreparedStatement.setString(anyInt(), anyString());
+    expectLastCall().anyTimes();
+    mockPreparedStatement.setTimestamp(anyInt(), anyObject());
+    expectLastCall().times(3);
+    expect(mockPreparedStatement.executeUpdate()).andReturn(3).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement);
+
+    writer = new AsyncLogEventWriter(mockDatabase, 10, 10, FLUSH_INTERVAL_MILLIS);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(writer.submit(event(i)));
+    }
+    writer.flush();
+
+    verify(mockDatabase, mockPreparedStatement);
+    assertEquals(3, query.getValue().split("\\?::inet").length - 1);
+  }
+
+  @Test
+  void submit_whenQueueIsFull_dropsEvent() throws SQLException {
+    expect(mockDatabase.getDatabaseConnection()).andThrow(new SQLException("Connection failed")).anyTimes();
+    replay(mockDatabase);
+
+    writer = new AsyncLogEventWriter(mockDatabase, 2, 10, FLUSH_INTERVAL_MILLIS);
+    assertTrue(writer.submit(event(1)));
+    assertTrue(writer.submit(event(2)));
+    assertFalse(writer.submit(event(3)));
+  }
+
+  @Test
+  void flush_batchInsertFails_savesEventsOneAtATime() throws SQLException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).times(4);
+    // The batch fails because of the second event, which then fails on its own:
+    expect(mockPreparedStatement.executeUpdate()).andThrow(new SQLException("Invalid input", "22P02")).once();
+    expect(mockPreparedStatement.executeUpdate()).andReturn(1).once();
+    expect(mockPreparedStatement.executeUpdate()).andThrow(new SQLException("Invalid input", "22P02")).once();
+    expect(mockPreparedStatement.executeUpdate()).andReturn(1).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement);
+
+    writer = new AsyncLogEventWriter(mockDatabase, 10, 10, FLUSH_INTERVAL_MILLIS);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(writer.submit(event(i)));
+    }
+    writer.flush();
+
+    verify(mockDatabase, mockConnection, mockPreparedStatement);
+  }
+
+  @Test
+  void flush_connectionFails_doesNotRetryEventsOneAtATime() throws SQLException {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).once();
+    expect(mockPreparedStatement.executeUpdate()).andThrow(new SQLException("Connection lost", "08006")).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement);
+
+    writer = new AsyncLogEventWriter(mockDatabase, 10, 10, FLUSH_INTERVAL_MILLIS);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(writer.submit(event(i)));
+    }
+    writer.flush();
+
+    verify(mockDatabase, mockConnection, mockPreparedStatement);
+  }
+
+  @Test
+  void runAfterQueuedEvents_eventsQueued_runsTaskAfterWritingThem() throws Exception {
+    Connection mockConnection = createNiceMock(Connection.class);
+    PreparedStatement mockPreparedStatement = createNiceMock(PreparedStatement.class);
+    AtomicInteger eventsWritten = new AtomicInteger();
+    expect(mockDatabase.getDatabaseConnection()).andReturn(mockConnection).once();
+    expect(mockConnection.prepareStatement(anyString())).andReturn(mockPreparedStatement).once();
+    expect(mockPreparedStatement.executeUpdate()).andAnswer(() -> eventsWritten.addAndGet(2)).once();
+    replay(mockDatabase, mockConnection, mockPreparedStatement);
+
+    writer = new AsyncLogEventWriter(mockDatabase, 10, 10, FLUSH_INTERVAL_MILLIS);
+    assertTrue(writer.submit(event(1)));
+    assertTrue(writer.submit(event(2)));
+    CompletableFuture<Integer> eventsWrittenBeforeTask = new CompletableFuture<>();
+
+    // Act
+    writer.runAfterQueuedEvents(() -> eventsWrittenBeforeTask.complete(eventsWritten.get()));
+
+    // Assert
+    assertEquals(2, eventsWrittenBeforeTask.get(5, TimeUnit.SECONDS));
+    verify(mockDatabase);
+  }
+
+  private static AsyncLogEventWriter.PendingLogEvent event(final int id) {
+    return new AsyncLogEventWriter.PendingLogEvent(String.valueOf(id), false, "TEST_EVENT",
+        String.class.getCanonicalName(), "\"details\"", "127.0.0.1", Instant.now());
+  }
+}
@@ -16,30 +16,48 @@
 
 package uk.ac.cam.cl.dtg.segue.dao;
 
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isNull;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.List;
+import java.util.Map;
+import org.elasticsearch.action.get.GetResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dto.ResultsWrapper;
 import uk.ac.cam.cl.dtg.isaac.mappers.ContentMapper;
+import uk.ac.cam.cl.dtg.segue.api.Constants;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentManagerException;
 import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
 import uk.ac.cam.cl.dtg.segue.dao.content.GitContentManager;
 import uk.ac.cam.cl.dtg.segue.database.GitDb;
 import uk.ac.cam.cl.dtg.segue.search.ISearchProvider;
+import uk.ac.cam.cl.dtg.util.PropertiesLoader;
 
 /**
  * Test class for the GitContentManager class.
  */
 class GitContentManagerTest {
   private GitContentManager defaultGCM;
+  private ISearchProvider searchProvider;
+  private ContentMapperUtils contentMapperUtils;
 
   @BeforeEach
   public final void setUp() {
     GitDb database = createMock(GitDb.class);
-    ISearchProvider searchProvider = createMock(ISearchProvider.class);
-    ContentMapperUtils contentMapperUtils = createMock(ContentMapperUtils.class);
+    searchProvider = createMock(ISearchProvider.class);
+    contentMapperUtils = createMock(ContentMapperUtils.class);
     ContentMapper contentMapper = createMock(ContentMapper.class);
 
     this.defaultGCM = new GitContentManager(database, searchProvider, contentMapperUtils, contentMapper);
@@ -57,4 +75,33 @@ class GitContentManagerTest {
       fail("Null should be returned");
     }
   }
+
+  @Test
+  void getContentDOById_repeatedRequests_searchesOnce() throws ContentManagerException {
+    PropertiesLoader properties = createNiceMock(PropertiesLoader.class);
+    expect(properties.getProperty(Constants.CONTENT_INDEX)).andReturn("content").anyTimes();
+    replay(properties);
+    GitContentManager contentManager = new GitContentManager(createMock(GitDb.class), searchProvider,
+        contentMapperUtils, createMock(ContentMapper.class), properties);
+
+    GetResponse shaResponse = createMock(GetResponse.class);
+    expect(shaResponse.getSource()).andReturn(Map.of("version", "abc123")).anyTimes();
+    expect(searchProvider.getById(eq("content"), anyString(), eq("general"))).andReturn(shaResponse).anyTimes();
+    Content content = new Content();
+    expect(searchProvider.termSearch(anyObject(), eq("found"), anyString(), isNull()))
+        .andReturn(new ResultsWrapper<>(List.of("{}"), 1L)).once();
+    expect(searchProvider.termSearch(anyObject(), eq("missing"), anyString(), isNull()))
+        .andReturn(new ResultsWrapper<>(List.of(), 0L)).once();
+    expect(contentMapperUtils.mapFromStringListToContentList(List.of("{}"))).andReturn(List.of(content)).once();
+    expect(contentMapperUtils.mapFromStringListToContentList(List.of())).andReturn(List.of()).once();
+    replay(shaResponse, searchProvider, contentMapperUtils);
+
+    assertSame(content, contentManager.getContentDOById("found"));
+    assertSame(content, contentManager.getContentDOById("found"));
+    // Content cannot appear within an unchanged content SHA, so missing content is not searched for again either:
+    assertNull(contentManager.getContentDOById("missing", true));
+    assertNull(contentManager.getContentDOById("missing", true));
+
+    verify(searchProvider, contentMapperUtils);
+  }
 }
@@ -0,0 +1,104 @@
+package uk.ac.cam.cl.dtg.segue.dao.content;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isNull;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static uk.ac.cam.cl.dtg.segue.api.Constants.DEFAULT_MAX_WINDOW_SIZE;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.dto.ResultsWrapper;
+
+class ContentCacheWarmerTest {
+  private GitContentManager contentManager;
+
+  @BeforeEach
+  public void setUp() {
+    contentManager = createMock(GitContentManager.class);
+  }
+
+  @Test
+  void onContentSHA_newSHA_preloadsOnlyMostRequestedWithinBudget() throws Exception {
+    // Only the top two ids and the top query fit the budget, so no other content is looked up:
+    expect(contentManager.preloadContentById("a")).andReturn(true);
+    expect(contentManager.preloadContentById("b")).andReturn(true);
+    expect(contentManager.preloadByIdPrefix("glossary", 0, 10)).andReturn(true);
+    replay(contentManager);
+    ContentCacheWarmer warmer = new ContentCacheWarmer(contentManager, 2, 1, 100, 2);
+    recordRequests(warmer, "a", 3);
+    recordRequests(warmer, "b", 2);
+    recordRequests(warmer, "c", 1);
+    warmer.recordPrefixRequest("glossary", 0, 10);
+    warmer.recordPrefixRequest("glossary", 0, 10);
+    warmer.recordPrefixRequest("other", 0, 10);
+
+    // Act
+    warmer.onContentSHA("sha1");
+    warmer.onContentSHA("sha2");
+    awaitWarmUp(warmer);
+
+    // Assert
+    verify(contentManager);
+  }
+
+  @Test
+  void onContentSHA_changedDuringWarmUp_warmsNewestSHA() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    expect(contentManager.findByFieldNames(anyObject(), eq(0), eq(DEFAULT_MAX_WINDOW_SIZE), isNull()))
+        .andAnswer(() -> {
+          release.await(5, TimeUnit.SECONDS);
+          return new ResultsWrapper<>();
+        }).anyTimes();
+    expect(contentManager.preloadContentById("a")).andReturn(true).times(2);
+    replay(contentManager);
+    ContentCacheWarmer warmer = new ContentCacheWarmer(contentManager, 2, 1, 100, 2);
+    recordRequests(warmer, "a", 1);
+
+    // Act
+    warmer.onContentSHA("sha1");
+    warmer.onContentSHA("sha2");
+    warmer.onContentSHA("sha3");
+    release.countDown();
+    awaitWarmUp(warmer);
+
+    // Assert
+    verify(contentManager);
+  }
+
+  @Test
+  void onContentSHA_closed_loadsNothing() {
+    replay(contentManager);
+    ContentCacheWarmer warmer = new ContentCacheWarmer(contentManager, 2, 1, 100, 2);
+    recordRequests(warmer, "a", 1);
+
+    // Act
+    warmer.close();
+    warmer.onContentSHA("sha1");
+    warmer.onContentSHA("sha2");
+
+    // Assert
+    assertFalse(warmer.isWarmingUp());
+    verify(contentManager);
+  }
+
+  private static void recordRequests(final ContentCacheWarmer warmer, final String id, final int times) {
+    for (int i = 0; i < times; i++) {
+      warmer.recordRequest(id);
+    }
+  }
+
+  private static void awaitWarmUp(final ContentCacheWarmer warmer) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (warmer.isWarmingUp() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertFalse(warmer.isWarmingUp());
+  }
+}
@@ -0,0 +1,58 @@
+package uk.ac.cam.cl.dtg.segue.dao.content;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuestionPageDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.IsaacQuickQuestionDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentBaseDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.ContentDTO;
+import uk.ac.cam.cl.dtg.isaac.dto.content.QuestionDTO;
+
+class QuestionPageStructureTest {
+
+  @Test
+  void fromQuestionPage_nestedQuestions_listsMarkablePartsInDepthFirstOrder() {
+    ContentDTO section = new ContentDTO();
+    section.setChildren(List.of(question("page|b", "isaacNumericQuestion", null), quickQuestion("page|quick")));
+
+    IsaacQuestionPageDTO page = new IsaacQuestionPageDTO();
+    page.setId("page");
+    page.setPassMark(50f);
+    page.setChildren(List.of(question("page|a", "isaacMultiChoiceQuestion", "First"), section,
+        question("page|c", "isaacSymbolicQuestion", null)));
+
+    QuestionPageStructure structure = QuestionPageStructure.fromQuestionPage(page);
+
+    assertEquals("page", structure.getQuestionPageId());
+    assertEquals(50f, structure.getPassMark());
+    assertEquals(List.of("page|a", "page|b", "page|c"), structure.getPartIds());
+    assertEquals("isaacNumericQuestion", structure.getPartType(1));
+    assertEquals("First", structure.getPartTitle(0));
+    assertNull(structure.getPartTitle(2));
+  }
+
+  @Test
+  void empty_hasNoParts() {
+    QuestionPageStructure structure = QuestionPageStructure.empty("missing");
+
+    assertEquals(0, structure.getPartCount());
+    assertNull(structure.getPassMark());
+  }
+
+  private static ContentBaseDTO question(final String id, final String type, final String title) {
+    QuestionDTO question = new QuestionDTO();
+    question.setId(id);
+    question.setType(type);
+    question.setTitle(title);
+    return question;
+  }
+
+  private static ContentBaseDTO quickQuestion(final String id) {
+    IsaacQuickQuestionDTO question = new IsaacQuickQuestionDTO();
+    question.setId(id);
+    return question;
+  }
+}
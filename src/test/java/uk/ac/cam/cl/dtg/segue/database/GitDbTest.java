@@ -19,16 +19,30 @@ package uk.ac.cam.cl.dtg.segue.database;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Repository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class GitDbTest {
 
+  @TempDir
+  Path repoDirectory;
+
   @Test
   void gitDbOtherConstructor_checkForBadParameters_exceptionsShouldBeThrown() {
     assertThrows(IllegalArgumentException.class, () -> new GitDb("", null, null));
@@ -59,4 +73,48 @@ class GitDbTest {
         "When passing an invalid sha and a blank path, null should be returned as blank path is explicitly allowed."
     );
   }
+
+  @Test
+  void getFileBytesByCommitSha_committedFiles_returnsContentsByPath() throws IOException, GitAPIException {
+    Files.createDirectories(repoDirectory.resolve("content"));
+    Files.writeString(repoDirectory.resolve("content/page.json"), "{\"id\": \"page\"}");
+    Files.writeString(repoDirectory.resolve("README.md"), "Content");
+
+    try (Git git = Git.init().setDirectory(repoDirectory.toFile()).call()) {
+      git.add().addFilepattern(".").call();
+      String sha = git.commit().setMessage("Add content").setSign(false).call().getName();
+      GitDb db = new GitDb(git);
+
+      // Act
+      byte[] pageBytes = db.getFileBytesByCommitSha(sha, "content/page.json");
+
+      // Assert
+      assertEquals(Set.of("content/page.json", "README.md"), db.getFileIdsByPath(sha).keySet());
+      assertArrayEquals("{\"id\": \"page\"}".getBytes(StandardCharsets.UTF_8), pageBytes);
+      assertSame(pageBytes, db.getFileBytesByCommitSha(sha, "content/page.json"));
+      assertNull(db.getFileBytesByCommitSha(sha, "content/missing.json"));
+      assertEquals(pageBytes.length, db.openFile(db.getFileIdByCommitSha(sha, "content/page.json")).getSize());
+      assertThrows(IOException.class, () -> db.getFileIdsByPath("0000000000000000000000000000000000000000"));
+    }
+  }
+
+  @Test
+  void getFileBytesByCommitSha_largeFile_returnsContentsWithoutCaching() throws IOException, GitAPIException {
+    byte[] largeFile = new byte[3 * 1024 * 1024];
+    new Random(42).nextBytes(largeFile);
+    Files.write(repoDirectory.resolve("large.png"), largeFile);
+
+    try (Git git = Git.init().setDirectory(repoDirectory.toFile()).call()) {
+      git.add().addFilepattern(".").call();
+      String sha = git.commit().setMessage("Add large file").setSign(false).call().getName();
+      GitDb db = new GitDb(git);
+
+      // Act
+      byte[] fileBytes = db.getFileBytesByCommitSha(sha, "large.png");
+
+      // Assert
+      assertArrayEquals(largeFile, fileBytes);
+      assertNotSame(fileBytes, db.getFileBytesByCommitSha(sha, "large.png"));
+    }
+  }
 }
@@ -17,19 +17,32 @@
 package uk.ac.cam.cl.dtg.segue.etl;
 
 import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.partialMockBuilder;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.ac.cam.cl.dtg.util.ReflectionUtils.getClasses;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -38,8 +51,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
 import uk.ac.cam.cl.dtg.isaac.dos.content.ContentBase;
 import uk.ac.cam.cl.dtg.segue.api.Constants;
@@ -51,6 +67,9 @@ import uk.ac.cam.cl.dtg.segue.search.SegueSearchException;
  * Test class for the GitContentManager class.
  */
 class ContentIndexerTest {
+  @TempDir
+  Path repoDirectory;
+
   private GitDb database;
   private ElasticSearchIndexer searchProvider;
   private ContentMapperUtils contentMapperUtils;
@@ -58,6 +77,11 @@ class ContentIndexerTest {
   private ContentIndexer defaultContentIndexer;
 
   private static final String INITIAL_VERSION = "0b72984c5eff4f53604fe9f1c724d3f387799db9";
+  private static final String NEXT_VERSION = "9f1c724d3f387799db90b72984c5eff4f53604fe";
+  private static final String CONTENT_TYPE = Constants.ContentIndextype.CONTENT.toString();
+  private static final List<String> PARSED_CONTENT_TYPES = List.of(CONTENT_TYPE,
+      Constants.ContentIndextype.UNIT.toString(), Constants.ContentIndextype.PUBLISHED_UNIT.toString(),
+      Constants.ContentIndextype.CONTENT_ERROR.toString());
 
   /**
    * Initial configuration of tests.
@@ -116,8 +140,8 @@ class ContentIndexerTest {
     ObjectMapper objectMapper = createMock(ObjectMapper.class);
     expect(contentMapperUtils.getSharedContentObjectMapper()).andReturn(objectMapper)
         .once();
-    expect(objectMapper.writeValueAsString(content)).andReturn(
-        uniqueObjectHash).once();
+    expect(objectMapper.writeValueAsBytes(content)).andReturn(
+        uniqueObjectHash.getBytes()).once();
     expect(objectMapper.writeValueAsString(
         anyObject())).andReturn(versionMeta.toString()).once(); // expects versionMeta - possibly differing date
     expect(objectMapper.writeValueAsString(
@@ -154,12 +178,23 @@ class ContentIndexerTest {
     searchProvider.bulkIndex(eq(INITIAL_VERSION), eq(Constants.ContentIndextype.CONTENT_ERROR.toString()), anyObject());
     expectLastCall().once();
 
-    // Ensure at least one bulk index for general content is requested
-    searchProvider.bulkIndexWithIds(eq(INITIAL_VERSION), eq(Constants.ContentIndextype.CONTENT.toString()),
-        anyObject());
+    // Ensure the content index is built with refresh and replicas off, and its settings restored once afterwards
+    ElasticSearchIndexer.BulkLoad contentLoad = createMock(ElasticSearchIndexer.BulkLoad.class);
+    expect(searchProvider.startBulkLoad(INITIAL_VERSION, CONTENT_TYPE)).andReturn(contentLoad).once();
+    contentLoad.close();
     expectLastCall().once();
 
-    replay(searchProvider, contentMapperUtils, objectMapper);
+    // Ensure at least one bulk index for general content is requested, and that it is sent the content
+    List<String> indexedIds = new ArrayList<>();
+    expect(searchProvider.streamIndexWithIds(eq(INITIAL_VERSION), eq(Constants.ContentIndextype.CONTENT.toString()),
+        anyObject())).andAnswer(() -> {
+          ElasticSearchIndexer.DocumentProducer producer =
+              (ElasticSearchIndexer.DocumentProducer) getCurrentArguments()[2];
+          producer.produceDocuments((id, source) -> indexedIds.add(id));
+          return Set.of();
+        }).once();
+
+    replay(searchProvider, contentLoad, contentMapperUtils, objectMapper);
 
     ContentIndexer contentIndexer = new ContentIndexer(database,
         searchProvider, contentMapperUtils);
@@ -168,7 +203,186 @@ class ContentIndexerTest {
     contentIndexer.buildElasticSearchIndex(INITIAL_VERSION, contents, someTagsList, someUnitsMap, publishedUnitsMap,
         someContentProblemsMap);
 
-    verify(searchProvider, contentMapperUtils, objectMapper);
+    verify(searchProvider, contentLoad, contentMapperUtils, objectMapper);
+    assertEquals(List.of(uniqueObjectId), indexedIds);
+  }
+
+  @Test
+  void buildSearchIndexes_fromPreviousVersion_matchesFullIndex() throws Exception {
+    ContentMapperUtils realMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+
+    Map<String, Map<String, String>> incrementalIndices = new HashMap<>();
+    ContentIndexer incrementalIndexer = new ContentIndexer(database,
+        createInMemorySearchProvider(incrementalIndices, new ArrayList<>(), new ArrayList<>()), realMapperUtils);
+    Map<String, HashCode> initialHashes = buildContentIndex(incrementalIndexer, INITIAL_VERSION,
+        createInitialContent(), null);
+    buildContentIndex(incrementalIndexer, NEXT_VERSION, createNextContent(),
+        new ContentIndexer.IndexedVersion(INITIAL_VERSION, initialHashes));
+
+    Map<String, Map<String, String>> fullIndices = new HashMap<>();
+    ContentIndexer fullIndexer = new ContentIndexer(database,
+        createInMemorySearchProvider(fullIndices, new ArrayList<>(), new ArrayList<>()), realMapperUtils);
+    buildContentIndex(fullIndexer, NEXT_VERSION, createNextContent(), null);
+
+    // Assert
+    assertEquals(Set.of("unchanged", "changed", "renamed", "added"),
+        fullIndices.get(NEXT_VERSION + "/" + CONTENT_TYPE).keySet());
+    assertEquals(fullIndices.get(NEXT_VERSION + "/" + CONTENT_TYPE),
+        incrementalIndices.get(NEXT_VERSION + "/" + CONTENT_TYPE));
+  }
+
+  @Test
+  void buildSearchIndexes_fromPreviousVersion_sendsOnlyChangedAndDeletesRemovedContent() throws Exception {
+    ContentMapperUtils realMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+    List<String> sentIds = new ArrayList<>();
+    List<String> deletedIds = new ArrayList<>();
+    ContentIndexer contentIndexer = new ContentIndexer(database,
+        createInMemorySearchProvider(new HashMap<>(), sentIds, deletedIds), realMapperUtils);
+    Map<String, HashCode> initialHashes = buildContentIndex(contentIndexer, INITIAL_VERSION,
+        createInitialContent(), null);
+    sentIds.clear();
+
+    // Act
+    buildContentIndex(contentIndexer, NEXT_VERSION, createNextContent(),
+        new ContentIndexer.IndexedVersion(INITIAL_VERSION, initialHashes));
+
+    // Assert
+    assertEquals(Set.of("changed", "renamed", "added"), Set.copyOf(sentIds));
+    assertEquals(List.of("deleted"), deletedIds);
+  }
+
+  @Test
+  void buildSearchIndexes_contentFailedToIndex_sendsItAgainFromNextVersion() throws Exception {
+    ContentMapperUtils realMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+    List<String> sentIds = new ArrayList<>();
+    Set<String> failingIds = new HashSet<>(Set.of("unchanged"));
+    ContentIndexer contentIndexer = new ContentIndexer(database,
+        createInMemorySearchProvider(new HashMap<>(), sentIds, new ArrayList<>(), failingIds), realMapperUtils);
+    Map<String, HashCode> initialHashes = buildContentIndex(contentIndexer, INITIAL_VERSION,
+        createInitialContent(), null);
+    failingIds.clear();
+    sentIds.clear();
+
+    // Act
+    buildContentIndex(contentIndexer, NEXT_VERSION, createNextContent(),
+        new ContentIndexer.IndexedVersion(INITIAL_VERSION, initialHashes));
+
+    // Assert
+    assertEquals(Set.of("changed", "renamed", "deleted"), initialHashes.keySet());
+    assertEquals(Set.of("unchanged", "changed", "renamed", "added"), Set.copyOf(sentIds));
+  }
+
+  @Test
+  void buildSearchIndexes_contentIndexFails_returnsNoHashes() throws Exception {
+    ElasticSearchIndexer searchProvider = createNiceMock(ElasticSearchIndexer.class);
+    expect(searchProvider.streamIndexWithIds(anyString(), anyString(), anyObject()))
+        .andThrow(new SegueSearchException("Bulk request failed")).anyTimes();
+    replay(searchProvider);
+    ContentIndexer contentIndexer = new ContentIndexer(database, searchProvider,
+        new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac")));
+
+    // Act
+    Map<String, HashCode> hashes = buildContentIndex(contentIndexer, INITIAL_VERSION, createInitialContent(), null);
+
+    // Assert
+    assertNull(hashes);
+  }
+
+  @Test
+  void loadAndIndexContent_parsedInParallel_keepsFirstDuplicateInTreeOrder() throws Exception {
+    for (int i = 0; i < 40; i++) {
+      // Each pair of files shares its ids, so only the first of each pair in tree order should be kept:
+      writeContentFile(String.format("content/page_%02d.json", i), createQuestionPageJson("page_" + i / 2,
+          "Page " + i, true, List.of("tag_" + i), List.of(createNumericQuestionJson("unit_" + i)), List.of()));
+    }
+    writeContentFile("content/page_zz.json", "{\"type\": \"isaacQuestionPage\", \"id\": ".getBytes());
+
+    try (Git git = commitContent()) {
+      String sha = git.getRepository().resolve("HEAD").getName();
+      ContentMapperUtils realMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+
+      // Act
+      Map<String, Map<String, String>> parallelIndices = indexGitContent(createGitDb(git, sha), realMapperUtils, sha,
+          4);
+      Map<String, Map<String, String>> sequentialIndices = indexGitContent(createGitDb(git, sha), realMapperUtils,
+          sha, 1);
+
+      // Assert
+      Set<String> expectedTags = new HashSet<>();
+      Set<String> expectedUnits = new HashSet<>();
+      Set<String> expectedDuplicateFiles = new HashSet<>();
+      for (int i = 0; i < 20; i++) {
+        JsonNode page = parseJson(parallelIndices.get(sha + "/" + CONTENT_TYPE).get("page_" + i));
+        assertEquals("Page " + 2 * i, page.get("title").asText());
+        expectedTags.add("tag_" + 2 * i);
+        expectedUnits.add("unit_" + 2 * i);
+        expectedDuplicateFiles.add(String.format("content/page_%02d.json", 2 * i + 1));
+      }
+      JsonNode tags = parseJson(parallelIndices.get(sha + "/" + Constants.ContentIndextype.METADATA).get("tags"));
+      assertEquals(expectedTags, toStrings(tags.get("tags")));
+      assertEquals(expectedUnits, getFieldValues(parallelIndices, sha, Constants.ContentIndextype.UNIT, "unit"));
+      assertEquals(expectedUnits,
+          getFieldValues(parallelIndices, sha, Constants.ContentIndextype.PUBLISHED_UNIT, "unit"));
+
+      Set<String> duplicateFiles = new HashSet<>();
+      Set<String> failedFiles = new HashSet<>();
+      for (String contentError : parallelIndices.get(sha + "/" + Constants.ContentIndextype.CONTENT_ERROR).values()) {
+        JsonNode error = parseJson(contentError);
+        String errors = error.get("errors").toString();
+        if (errors.contains("Duplicate ID")) {
+          duplicateFiles.add(error.get("canonicalSourceFile").asText());
+        } else if (errors.contains("Index failure - Unable to")) {
+          failedFiles.add(error.get("canonicalSourceFile").asText());
+        }
+      }
+      assertEquals(expectedDuplicateFiles, duplicateFiles);
+      assertEquals(Set.of("content/page_zz.json"), failedFiles);
+
+      for (String contentType : PARSED_CONTENT_TYPES) {
+        assertEquals(sequentialIndices.get(sha + "/" + contentType), parallelIndices.get(sha + "/" + contentType));
+      }
+    }
+  }
+
+  @Test
+  void loadAndIndexContent_validatedInParallel_recordsSameProblemsAsSequentialValidation() throws Exception {
+    writeContentFile("content/figures/present.png", new byte[10]);
+    writeContentFile("content/figures/large.png", new byte[400 * 1024]);
+    for (int i = 0; i < 20; i++) {
+      List<Object> figures = List.of(createFigureJson("present", "figures/present.png"),
+          createFigureJson("large", "figures/large.png"), createFigureJson("missing", "figures/missing_" + i + ".png"));
+      // Published pages reference the unpublished page after them, and every page references missing content:
+      writeContentFile(String.format("content/page_%02d.json", i), createQuestionPageJson("page_" + i, "Page " + i,
+          i % 2 == 0, List.of(), figures, List.of("page_" + (i + 1) % 20, "missing_" + i)));
+    }
+
+    try (Git git = commitContent()) {
+      String sha = git.getRepository().resolve("HEAD").getName();
+      ContentMapperUtils realMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+      GitDb gitDb = createGitDb(git, sha);
+
+      // Act
+      Map<String, Map<String, String>> parallelIndices = indexGitContent(gitDb, realMapperUtils, sha, 4);
+      Map<String, Map<String, String>> sequentialIndices = indexGitContent(gitDb, realMapperUtils, sha, 1);
+
+      // Assert
+      Map<String, String> contentErrorIndex = parallelIndices.get(sha + "/" + Constants.ContentIndextype.CONTENT_ERROR);
+      assertEquals(sequentialIndices.get(sha + "/" + Constants.ContentIndextype.CONTENT_ERROR), contentErrorIndex);
+
+      Set<String> errors = new HashSet<>();
+      for (String contentError : contentErrorIndex.values()) {
+        errors.addAll(toStrings(parseJson(contentError).get("errors")));
+      }
+      // The checks against the index of files should agree with reading each file in full, as they used to:
+      assertNull(gitDb.getFileBytesByCommitSha(sha, "content/figures/missing_0.png"));
+      assertTrue(errors.stream().anyMatch(e -> e.startsWith("Unable to find Image: content/figures/missing_0.png ")));
+      assertEquals(400, gitDb.getFileBytesByCommitSha(sha, "content/figures/large.png").length / 1024);
+      assertTrue(errors.contains("Image (content/figures/large.png) is 400 kB and exceeds file size warning limit!"));
+      assertTrue(errors.stream().noneMatch(e -> e.contains("present.png")));
+      assertTrue(errors.contains("The id 'missing_0' was referenced by content/page_00.json but the content with "
+          + "that ID cannot be found."));
+      assertTrue(errors.contains("Content is published, but references unpublished content 'page_1'."));
+    }
   }
 
   /**
@@ -213,6 +427,196 @@ class ContentIndexerTest {
     return content;
   }
 
+  private static Map<String, HashCode> buildContentIndex(final ContentIndexer contentIndexer, final String sha,
+                                                        final Map<String, Content> contents,
+                                                        final ContentIndexer.IndexedVersion previousVersion) {
+    return contentIndexer.buildElasticSearchIndex(sha, contents, new HashSet<>(), new HashMap<>(), new HashMap<>(),
+        new HashMap<>(), previousVersion);
+  }
+
+  private static Map<String, Map<String, String>> indexGitContent(final GitDb gitDb,
+                                                                  final ContentMapperUtils mapperUtils,
+                                                                  final String sha, final int parallelism)
+      throws Exception {
+    Map<String, Map<String, String>> indices = new HashMap<>();
+    ContentIndexer contentIndexer = new ContentIndexer(gitDb,
+        createInMemorySearchProvider(indices, new ArrayList<>(), new ArrayList<>()), mapperUtils, null, parallelism);
+    contentIndexer.loadAndIndexContent(sha, stage -> {
+    });
+    return indices;
+  }
+
+  /**
+   * Create a git database for a repository which has no remote to fetch from.
+   */
+  private static GitDb createGitDb(final Git git, final String sha) {
+    GitDb gitDb = partialMockBuilder(GitDb.class)
+        .withConstructor(Git.class)
+        .withArgs(git)
+        .addMockedMethod("fetchLatestFromRemote")
+        .createMock();
+    expect(gitDb.fetchLatestFromRemote()).andReturn(sha).anyTimes();
+    replay(gitDb);
+    return gitDb;
+  }
+
+  private Git commitContent() throws GitAPIException {
+    Git git = Git.init().setDirectory(repoDirectory.toFile()).call();
+    git.add().addFilepattern(".").call();
+    git.commit().setMessage("Add content").setSign(false).call();
+    return git;
+  }
+
+  private void writeContentFile(final String path, final byte[] contents) throws IOException {
+    Path file = repoDirectory.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, contents);
+  }
+
+  private static byte[] createQuestionPageJson(final String id, final String title, final boolean published,
+                                               final List<String> tags, final List<Object> children,
+                                               final List<String> relatedContent)
+      throws JsonProcessingException {
+    return new ObjectMapper().writeValueAsBytes(Map.of("type", "isaacQuestionPage", "id", id, "title", title,
+        "published", published, "tags", tags, "children", children, "relatedContent", relatedContent));
+  }
+
+  private static Map<String, Object> createNumericQuestionJson(final String units) {
+    return Map.of("type", "isaacNumericQuestion", "id", "question",
+        "choices", List.of(Map.of("type", "quantity", "value", "1", "units", units, "correct", true)));
+  }
+
+  private static Map<String, Object> createFigureJson(final String id, final String src) {
+    // Child content without an id would be given the id of its page:
+    return Map.of("type", "figure", "id", id, "src", src, "altText", "A figure");
+  }
+
+  private static JsonNode parseJson(final String json) throws JsonProcessingException {
+    return new ObjectMapper().readTree(json);
+  }
+
+  private static Set<String> toStrings(final JsonNode array) {
+    Set<String> strings = new HashSet<>();
+    array.forEach(element -> strings.add(element.asText()));
+    return strings;
+  }
+
+  private static Set<String> getFieldValues(final Map<String, Map<String, String>> indices, final String sha,
+                                            final Constants.ContentIndextype contentType, final String field)
+      throws JsonProcessingException {
+    Set<String> values = new HashSet<>();
+    for (String document : indices.get(sha + "/" + contentType).values()) {
+      values.add(parseJson(document).get(field).asText());
+    }
+    return values;
+  }
+
+  private static Map<String, Content> createInitialContent() {
+    return createContents(createContent("unchanged", "Unchanged", "content/unchanged.json"),
+        createContent("changed", "Before", "content/changed.json"),
+        createContent("renamed", "Renamed", "content/old_name.json"),
+        createContent("deleted", "Deleted", "content/deleted.json"));
+  }
+
+  private static Map<String, Content> createNextContent() {
+    return createContents(createContent("unchanged", "Unchanged", "content/unchanged.json"),
+        createContent("changed", "After", "content/changed.json"),
+        createContent("renamed", "Renamed", "content/new_name.json"),
+        createContent("added", "Added", "content/added.json"));
+  }
+
+  private static Map<String, Content> createContents(final Content... contents) {
+    Map<String, Content> contentsById = new TreeMap<>();
+    for (Content content : contents) {
+      contentsById.put(content.getId(), content);
+    }
+    return contentsById;
+  }
+
+  private static Content createContent(final String id, final String title, final String canonicalSourceFile) {
+    Content content = new Content();
+    content.setId(id);
+    content.setType("content");
+    content.setTitle(title);
+    content.setCanonicalSourceFile(canonicalSourceFile);
+    content.setPublished(true);
+    return content;
+  }
+
+  /**
+   * Create a search provider which keeps its indices in a map, by version and type, of the JSON of each document by
+   * id.
+   */
+  private static ElasticSearchIndexer createInMemorySearchProvider(final Map<String, Map<String, String>> indices,
+                                                                   final List<String> sentIds,
+                                                                   final List<String> deletedIds)
+      throws SegueSearchException {
+    return createInMemorySearchProvider(indices, sentIds, deletedIds, Set.of());
+  }
+
+  /**
+   * Create a search provider which keeps its indices in a map, and which fails to index the documents with some ids.
+   */
+  private static ElasticSearchIndexer createInMemorySearchProvider(final Map<String, Map<String, String>> indices,
+                                                                   final List<String> sentIds,
+                                                                   final List<String> deletedIds,
+                                                                   final Set<String> failingIds)
+      throws SegueSearchException {
+    ElasticSearchIndexer searchProvider = createNiceMock(ElasticSearchIndexer.class);
+    expect(searchProvider.hasIndex(anyString(), anyString())).andAnswer(() ->
+        indices.containsKey(getCurrentArguments()[0] + "/" + getCurrentArguments()[1])).anyTimes();
+    expect(searchProvider.expungeIndexFromSearchCache(anyString(), anyString())).andAnswer(() ->
+        null != indices.remove(getCurrentArguments()[0] + "/" + getCurrentArguments()[1])).anyTimes();
+    searchProvider.copyIndex(anyString(), anyString(), anyString());
+    expectLastCall().andAnswer(() -> {
+      Object[] arguments = getCurrentArguments();
+      indices.put(arguments[1] + "/" + arguments[2], new HashMap<>(indices.get(arguments[0] + "/" + arguments[2])));
+      return null;
+    }).anyTimes();
+    expect(searchProvider.streamIndexWithIds(anyString(), anyString(), anyObject())).andAnswer(() -> {
+      Object[] arguments = getCurrentArguments();
+      Map<String, String> index = indices.computeIfAbsent(arguments[0] + "/" + arguments[1], k -> new HashMap<>());
+      Set<String> failedIds = new HashSet<>();
+      ((ElasticSearchIndexer.DocumentProducer) arguments[2]).produceDocuments((id, source) -> {
+        sentIds.add(id);
+        if (failingIds.contains(id)) {
+          failedIds.add(id);
+        } else {
+          index.put(id, new String(source, StandardCharsets.UTF_8));
+        }
+      });
+      return failedIds;
+    }).anyTimes();
+    searchProvider.bulkIndex(anyString(), anyString(), anyObject());
+    expectLastCall().andAnswer(() -> {
+      Object[] arguments = getCurrentArguments();
+      Map<String, String> index = indices.computeIfAbsent(arguments[0] + "/" + arguments[1], k -> new HashMap<>());
+      // Documents without ids are kept by their JSON, so that indices can be compared regardless of order:
+      @SuppressWarnings("unchecked")
+      List<String> documents = (List<String>) arguments[2];
+      documents.forEach(document -> index.put(document, document));
+      return null;
+    }).anyTimes();
+    searchProvider.indexObject(anyString(), anyString(), anyString(), anyString());
+    expectLastCall().andAnswer(() -> {
+      Object[] arguments = getCurrentArguments();
+      indices.computeIfAbsent(arguments[0] + "/" + arguments[1], k -> new HashMap<>())
+          .put((String) arguments[3], (String) arguments[2]);
+      return null;
+    }).anyTimes();
+    searchProvider.bulkDelete(anyString(), anyString(), anyObject());
+    expectLastCall().andAnswer(() -> {
+      Object[] arguments = getCurrentArguments();
+      @SuppressWarnings("unchecked")
+      List<String> ids = (List<String>) arguments[2];
+      deletedIds.addAll(ids);
+      ids.forEach(indices.get(arguments[0] + "/" + arguments[1])::remove);
+      return null;
+    }).anyTimes();
+    replay(searchProvider);
+    return searchProvider;
+  }
+
   /**
    * Helper method for the
    * flattenContentObjects_flattenMultiTierObject_checkCorrectObjectReturned
@@ -0,0 +1,106 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ContentIndexingQueueTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void submit_whileIndexing_indexesLiveFirstAndCancelsSupersededVersions() throws Exception {
+    CountDownLatch firstJobStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstJob = new CountDownLatch(1);
+    CountDownLatch allJobsDone = new CountDownLatch(3);
+    List<String> indexedVersions = new CopyOnWriteArrayList<>();
+
+    ContentIndexer indexer = createNiceMock(ContentIndexer.class);
+    indexer.loadAndIndexContent(anyString(), anyObject());
+    expectLastCall().andAnswer(() -> {
+      String version = (String) getCurrentArguments()[0];
+      ((Consumer<String>) getCurrentArguments()[1]).accept(ContentIndexer.STAGE_PARSE);
+      indexedVersions.add(version);
+      if (version.equals("initial")) {
+        firstJobStarted.countDown();
+        releaseFirstJob.await(10, TimeUnit.SECONDS);
+      }
+      return null;
+    }).anyTimes();
+    indexer.setNamedVersion(anyString(), anyString());
+    expectLastCall().andAnswer(() -> {
+      allJobsDone.countDown();
+      return null;
+    }).anyTimes();
+    replay(indexer);
+
+    ContentIndexingQueue queue = new ContentIndexingQueue(indexer, 1);
+    queue.submit("latest", "initial");
+    assertTrue(firstJobStarted.await(10, TimeUnit.SECONDS));
+
+    // Act
+    queue.submit("staging", "superseded");
+    queue.submit("live", "live-version");
+    queue.submit("staging", "staging-version");
+    releaseFirstJob.countDown();
+
+    // Assert
+    assertTrue(allJobsDone.await(10, TimeUnit.SECONDS));
+    assertEquals(List.of("initial", "live-version", "staging-version"), indexedVersions);
+    Map<String, ContentIndexingQueue.JobState> statesByVersion = queue.getJobStatuses().stream()
+        .collect(Collectors.toMap(ContentIndexingQueue.JobStatus::version, ContentIndexingQueue.JobStatus::state));
+    assertEquals(ContentIndexingQueue.JobState.CANCELLED, statesByVersion.get("superseded"));
+  }
+
+  @Test
+  void submit_aliasAlreadySetToVersion_setsAliasAgainWithoutQueueingAnotherJob() throws Exception {
+    CountDownLatch aliasSet = new CountDownLatch(1);
+    ContentIndexer indexer = createNiceMock(ContentIndexer.class);
+    indexer.loadAndIndexContent(eq("version"), anyObject());
+    expectLastCall().once();
+    indexer.setNamedVersion("live", "version");
+    expectLastCall().andAnswer(() -> {
+      aliasSet.countDown();
+      return null;
+    }).times(2);
+    replay(indexer);
+
+    ContentIndexingQueue queue = new ContentIndexingQueue(indexer, 1);
+    queue.submit("live", "version");
+    assertTrue(aliasSet.await(10, TimeUnit.SECONDS));
+    awaitNoActiveJobs(queue);
+
+    // Act
+    queue.submit("live", "version");
+
+    // Assert
+    List<ContentIndexingQueue.JobStatus> statuses = queue.getJobStatuses();
+    assertEquals(1, statuses.size());
+    assertEquals(ContentIndexingQueue.JobState.COMPLETE, statuses.get(0).state());
+    verify(indexer);
+  }
+
+  private static void awaitNoActiveJobs(final ContentIndexingQueue queue) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline && queue.getJobStatuses().stream()
+        .anyMatch(status -> status.state() == ContentIndexingQueue.JobState.QUEUED
+            || status.state() == ContentIndexingQueue.JobState.IN_PROGRESS)) {
+      Thread.sleep(10);
+    }
+  }
+}
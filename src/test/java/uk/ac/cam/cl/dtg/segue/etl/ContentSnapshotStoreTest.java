@@ -0,0 +1,111 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.ac.cam.cl.dtg.util.ReflectionUtils.getClasses;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacNumericQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacQuestionPage;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dos.content.ContentBase;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+
+class ContentSnapshotStoreTest {
+  private static final String SHA = "0b72984c5eff4f53604fe9f1c724d3f387799db9";
+
+  @TempDir
+  Path snapshotDirectory;
+
+  private ContentMapperUtils contentMapperUtils;
+
+  @BeforeEach
+  public void setUp() {
+    this.contentMapperUtils = new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac"));
+  }
+
+  @Test
+  void load_savedSnapshot_returnsSameContent() {
+    IsaacNumericQuestion question = new IsaacNumericQuestion();
+    question.setId("page|question");
+    question.setType("isaacNumericQuestion");
+    question.setRequireUnits(true);
+    IsaacQuestionPage page = new IsaacQuestionPage();
+    page.setId("page");
+    page.setType("isaacQuestionPage");
+    page.setTitle("A question page");
+    page.setChildren(List.<ContentBase>of(question));
+    Map<String, Content> contentCache = new HashMap<>(Map.of(page.getId(), page, question.getId(), question));
+
+    Content problemContent = new Content();
+    problemContent.setCanonicalSourceFile("content/page.json");
+    problemContent.setId("page");
+
+    ContentSnapshotStore store = new ContentSnapshotStore(snapshotDirectory.toString(), 3, "1.0.0", contentMapperUtils);
+    store.save(SHA, new ContentSnapshotStore.ContentSnapshot(contentCache, Set.of("physics"), Map.of("m", "m"),
+        Map.of(), Map.of(problemContent, List.of("A problem"))));
+
+    // Act
+    ContentSnapshotStore.ContentSnapshot snapshot = store.load(SHA);
+
+    // Assert
+    assertNotNull(snapshot);
+    assertEquals(contentCache.keySet(), snapshot.contentCache().keySet());
+    IsaacQuestionPage loadedPage = assertInstanceOf(IsaacQuestionPage.class, snapshot.contentCache().get("page"));
+    assertEquals("A question page", loadedPage.getTitle());
+    assertInstanceOf(IsaacNumericQuestion.class, loadedPage.getChildren().get(0));
+    assertInstanceOf(IsaacNumericQuestion.class, snapshot.contentCache().get("page|question"));
+    assertEquals(Set.of("physics"), snapshot.tagsList());
+    assertEquals(Map.of("m", "m"), snapshot.allUnits());
+    assertEquals(Map.of(), snapshot.publishedUnits());
+    assertEquals(List.of(List.of("A problem")), List.copyOf(snapshot.indexProblemCache().values()));
+    assertEquals("content/page.json", snapshot.indexProblemCache().keySet().iterator().next().getCanonicalSourceFile());
+  }
+
+  @Test
+  void load_snapshotFromOtherSegueVersion_returnsNull() {
+    ContentSnapshotStore.ContentSnapshot snapshot = new ContentSnapshotStore.ContentSnapshot(Map.of(), Set.of(),
+        Map.of(), Map.of(), Map.of());
+    new ContentSnapshotStore(snapshotDirectory.toString(), 3, "1.0.0", contentMapperUtils).save(SHA, snapshot);
+
+    // Act & Assert
+    assertNull(new ContentSnapshotStore(snapshotDirectory.toString(), 3, "1.0.1", contentMapperUtils).load(SHA));
+  }
+
+  @Test
+  void load_noSnapshotLocation_returnsNull() {
+    ContentSnapshotStore store = new ContentSnapshotStore(null, 3, "1.0.0", contentMapperUtils);
+    store.save(SHA, new ContentSnapshotStore.ContentSnapshot(Map.of(), Set.of(), Map.of(), Map.of(), Map.of()));
+
+    // Act & Assert
+    assertNull(store.load(SHA));
+  }
+
+  @Test
+  void load_shaNotHex_doesNotReadOrDeleteFilesOutsideStore() throws IOException {
+    Path escapedFile = Files.write(snapshotDirectory.resolve("escaped.smile"), new byte[] {1, 2, 3});
+    ContentSnapshotStore store = new ContentSnapshotStore(snapshotDirectory.resolve("store").toString(), 3, "1.0.0",
+        contentMapperUtils);
+
+    // Act & Assert
+    assertNull(store.load("../escaped"));
+    assertTrue(Files.exists(escapedFile));
+  }
+
+  @Test
+  void getBuildFingerprint_sameBuild_returnsSameFingerprint() {
+    assertEquals(ContentSnapshotStore.getBuildFingerprint(), ContentSnapshotStore.getBuildFingerprint());
+  }
+}
@@ -0,0 +1,85 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.partialMockBuilder;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ElasticSearchIndexerTest {
+  private static final String INDEX_BASE = "abc123";
+  private static final String INDEX_TYPE = "content";
+  private static final String TYPED_INDEX = "abc123_content";
+  private static final String REFRESH_INTERVAL = "index.refresh_interval";
+  private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+  private ElasticSearchIndexer indexer;
+
+  @BeforeEach
+  public void setUp() {
+    RestHighLevelClient client = createMock(RestHighLevelClient.class);
+    indexer = partialMockBuilder(ElasticSearchIndexer.class)
+        .withConstructor(RestHighLevelClient.class)
+        .withArgs(client)
+        .addMockedMethods("hasIndex", "getIndexSettings", "updateIndexSettings")
+        .createMock();
+  }
+
+  @Test
+  void startBulkLoad_closed_restoresOriginalSettingsOnce() {
+    Map<String, String> originalSettings = new HashMap<>();
+    originalSettings.put(REFRESH_INTERVAL, "30s");
+    originalSettings.put(NUMBER_OF_REPLICAS, null);
+    expect(indexer.hasIndex(INDEX_BASE, INDEX_TYPE)).andReturn(true).once();
+    expect(indexer.getIndexSettings(TYPED_INDEX, List.of(REFRESH_INTERVAL, NUMBER_OF_REPLICAS)))
+        .andReturn(originalSettings).once();
+    Capture<Settings> updatedSettings = Capture.newInstance(CaptureType.ALL);
+    indexer.updateIndexSettings(eq(TYPED_INDEX), capture(updatedSettings));
+    expectLastCall().times(2);
+    replay(indexer);
+
+    // Act
+    indexer.startBulkLoad(INDEX_BASE, INDEX_TYPE).close();
+
+    // Assert
+    verify(indexer);
+    Settings loadingSettings = updatedSettings.getValues().get(0);
+    assertEquals("-1", loadingSettings.get(REFRESH_INTERVAL));
+    assertEquals("0", loadingSettings.get(NUMBER_OF_REPLICAS));
+    Settings restoredSettings = updatedSettings.getValues().get(1);
+    assertEquals("30s", restoredSettings.get(REFRESH_INTERVAL));
+    // The index did not set its replicas itself, so they go back to the cluster default:
+    assertTrue(restoredSettings.keySet().contains(NUMBER_OF_REPLICAS));
+    assertNull(restoredSettings.get(NUMBER_OF_REPLICAS));
+  }
+
+  @Test
+  void startBulkLoad_settingsUnreadable_leavesSettingsAlone() {
+    expect(indexer.hasIndex(INDEX_BASE, INDEX_TYPE)).andReturn(true).once();
+    expect(indexer.getIndexSettings(eq(TYPED_INDEX), anyObject())).andReturn(null).once();
+    replay(indexer);
+
+    // Act
+    indexer.startBulkLoad(INDEX_BASE, INDEX_TYPE).close();
+
+    // Assert
+    verify(indexer);
+  }
+}
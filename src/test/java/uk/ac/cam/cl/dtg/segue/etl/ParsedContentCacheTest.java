@@ -0,0 +1,87 @@
+package uk.ac.cam.cl.dtg.segue.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static uk.ac.cam.cl.dtg.util.ReflectionUtils.getClasses;
+
+import java.util.List;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacNumericQuestion;
+import uk.ac.cam.cl.dtg.isaac.dos.IsaacQuestionPage;
+import uk.ac.cam.cl.dtg.isaac.dos.content.Content;
+import uk.ac.cam.cl.dtg.isaac.dos.content.ContentBase;
+import uk.ac.cam.cl.dtg.segue.dao.content.ContentMapperUtils;
+
+class ParsedContentCacheTest {
+  private static final String PATH = "content/questions/page.json";
+  private static final ObjectId BLOB_ID = ObjectId.fromString("0b72984c5eff4f53604fe9f1c724d3f387799db9");
+
+  private ParsedContentCache parsedContentCache;
+
+  @BeforeEach
+  public void setUp() {
+    parsedContentCache = new ParsedContentCache(new ContentMapperUtils(getClasses("uk.ac.cam.cl.dtg.isaac")),
+        1024 * 1024);
+  }
+
+  @Test
+  void get_sameFileInTwoVersions_sharesNoObjects() {
+    parsedContentCache.put(PATH, BLOB_ID, createQuestionPage());
+
+    // Act
+    Content firstVersion = parsedContentCache.get(PATH, BLOB_ID);
+    Content secondVersion = parsedContentCache.get(PATH, BLOB_ID);
+
+    // Assert
+    assertInstanceOf(IsaacQuestionPage.class, firstVersion);
+    assertInstanceOf(IsaacQuestionPage.class, secondVersion);
+    assertNotSame(firstVersion, secondVersion);
+    assertNotSame(firstVersion.getChildren().get(0), secondVersion.getChildren().get(0));
+    assertEquals("page|question", secondVersion.getChildren().get(0).getId());
+  }
+
+  @Test
+  void get_contentChangedByEarlierVersion_returnsContentAsCached() {
+    Content parsedContent = createQuestionPage();
+    parsedContentCache.put(PATH, BLOB_ID, parsedContent);
+
+    // Indexing gives content with problems a title; neither the original nor a copy may change the cache:
+    parsedContent.setTitle("page.json");
+    Content firstVersion = parsedContentCache.get(PATH, BLOB_ID);
+    firstVersion.setTitle("page.json");
+    ((Content) firstVersion.getChildren().get(0)).setTitle("page.json");
+
+    // Act
+    Content secondVersion = parsedContentCache.get(PATH, BLOB_ID);
+
+    // Assert
+    assertNull(secondVersion.getTitle());
+    assertNull(((Content) secondVersion.getChildren().get(0)).getTitle());
+  }
+
+  @Test
+  void get_fileWithOtherBlobId_returnsNull() {
+    parsedContentCache.put(PATH, BLOB_ID, createQuestionPage());
+
+    assertNull(parsedContentCache.get(PATH, ObjectId.zeroId()));
+    assertNull(parsedContentCache.get("content/questions/other.json", BLOB_ID));
+  }
+
+  private static Content createQuestionPage() {
+    IsaacNumericQuestion question = new IsaacNumericQuestion();
+    question.setId("page|question");
+    question.setType("isaacNumericQuestion");
+    question.setCanonicalSourceFile(PATH);
+    IsaacQuestionPage page = new IsaacQuestionPage();
+    page.setId("page");
+    page.setType("isaacQuestionPage");
+    page.setCanonicalSourceFile(PATH);
+    page.setPublished(true);
+    page.setChildren(List.<ContentBase>of(question));
+    return page;
+  }
+}
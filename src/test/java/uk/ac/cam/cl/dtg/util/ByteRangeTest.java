@@ -0,0 +1,49 @@
+package uk.ac.cam.cl.dtg.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ByteRangeTest {
+
+  @ParameterizedTest
+  @MethodSource("rangeHeadersToTest")
+  void fromRangeHeader_fileOfOneThousandBytes(String rangeHeader, ByteRange expectedRange) {
+    assertEquals(expectedRange, ByteRange.fromRangeHeader(rangeHeader, 1000));
+  }
+
+  @Test
+  void fromRangeHeader_rangeOutsideFile_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> ByteRange.fromRangeHeader("bytes=1000-", 1000));
+    assertThrows(IllegalArgumentException.class, () -> ByteRange.fromRangeHeader("bytes=-0", 1000));
+    assertThrows(IllegalArgumentException.class, () -> ByteRange.fromRangeHeader("bytes=-10", 0));
+  }
+
+  @Test
+  void toContentRange_range_returnsHeaderValue() {
+    ByteRange range = new ByteRange(100, 199);
+
+    assertEquals(100, range.length());
+    assertEquals("bytes 100-199/1000", range.toContentRange(1000));
+  }
+
+  private static Stream<Arguments> rangeHeadersToTest() {
+    return Stream.of(
+        Arguments.of(null, null),
+        Arguments.of("bytes=0-499", new ByteRange(0, 499)),
+        Arguments.of("bytes=500-", new ByteRange(500, 999)),
+        Arguments.of("bytes=900-5000", new ByteRange(900, 999)),
+        Arguments.of("bytes=-100", new ByteRange(900, 999)),
+        Arguments.of("bytes=-5000", new ByteRange(0, 999)),
+        Arguments.of("bytes=0-1,5-6", null),
+        Arguments.of("bytes=10-5", null),
+        Arguments.of("bytes=a-b", null),
+        Arguments.of("items=0-10", null)
+    );
+  }
+}